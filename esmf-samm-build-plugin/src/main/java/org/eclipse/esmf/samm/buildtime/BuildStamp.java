@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Fingerprint of the inputs and outputs of a build step, stored in a stamp file: Each input (a parameter, a file, a
+ * directory or downloaded content) is recorded with the SHA-256 hash of its value or content, and each output with the
+ * hash of the content that the build step wrote. A build step is up to date if all its outputs exist and the stamp file
+ * contains exactly the current inputs and outputs, so that an output that was changed after it was generated is not
+ * taken as up to date. The stamp file lists one input or output per line, sorted by name, so that it is stable and a
+ * diff shows what changed.
+ */
+public class BuildStamp {
+   private final Path stampFile;
+   private final Map<String, String> inputs = new TreeMap<>();
+
+   public BuildStamp( final Path stampFile ) {
+      this.stampFile = stampFile;
+   }
+
+   /**
+    * Adds a parameter value
+    *
+    * @param name the parameter name
+    * @param value the value, may be null
+    * @return this stamp
+    */
+   public BuildStamp parameter( final String name, final String value ) {
+      inputs.put( "parameter:" + name, value == null ? "null" : DigestUtils.sha256Hex( value ) );
+      return this;
+   }
+
+   /**
+    * Adds the content of a file
+    *
+    * @param name the name of the input
+    * @param file the file; a missing file is recorded as missing
+    * @return this stamp
+    * @throws IOException if the file can not be read
+    */
+   public BuildStamp file( final String name, final Path file ) throws IOException {
+      inputs.put( "file:" + name, hash( file, false ) );
+      return this;
+   }
+
+   /**
+    * Adds the content of a text file, with line endings normalized to LF, so that the stamp does not depend on the
+    * line endings of the checkout
+    *
+    * @param name the name of the input
+    * @param file the file; a missing file is recorded as missing
+    * @return this stamp
+    * @throws IOException if the file can not be read
+    */
+   public BuildStamp textFile( final String name, final Path file ) throws IOException {
+      inputs.put( "file:" + name, hash( file, true ) );
+      return this;
+   }
+
+   /**
+    * Adds the contents of all files in a directory and its subdirectories, by relative path
+    *
+    * @param name the name of the input
+    * @param directory the directory; a missing directory is recorded as missing
+    * @return this stamp
+    * @throws IOException if the directory can not be read
+    */
+   public BuildStamp directory( final String name, final Path directory ) throws IOException {
+      if ( !Files.isDirectory( directory ) ) {
+         inputs.put( "directory:" + name, "missing" );
+         return this;
+      }
+      final List<Path> files;
+      try ( final Stream<Path> paths = Files.walk( directory ) ) {
+         files = paths.filter( Files::isRegularFile ).sorted().collect( Collectors.toList() );
+      }
+      for ( final Path file : files ) {
+         file( name + "/" + directory.relativize( file ).toString().replace( '\\', '/' ), file );
+      }
+      return this;
+   }
+
+   /**
+    * Adds content that is not read from a file, e.g. a download
+    *
+    * @param name the name of the input
+    * @param content the content
+    * @return this stamp
+    */
+   public BuildStamp content( final String name, final byte[] content ) {
+      inputs.put( "content:" + name, DigestUtils.sha256Hex( content ) );
+      return this;
+   }
+
+   /**
+    * Checks whether a stamp file has been written, i.e. whether the outputs are known to be generated by the build step
+    *
+    * @return true if the stamp file exists
+    */
+   public boolean isRecorded() {
+      return Files.exists( stampFile );
+   }
+
+   /**
+    * Checks whether the outputs are up to date with regard to the inputs
+    *
+    * @param outputs the outputs of the build step
+    * @return true if all outputs exist and the stamp file matches the current inputs and the current content of the
+    *       outputs
+    * @throws IOException if an output can not be read
+    */
+   public boolean isUpToDate( final Path... outputs ) throws IOException {
+      return Stream.of( outputs ).allMatch( Files::exists ) && Objects.equals( read(), serialize( outputs ) );
+   }
+
+   /**
+    * Returns the names of the inputs and outputs that differ from the ones recorded in the stamp file
+    *
+    * @param outputs the outputs of the build step
+    * @return the names of changed, added or removed inputs and outputs
+    * @throws IOException if an output can not be read
+    */
+   public List<String> getChanges( final Path... outputs ) throws IOException {
+      final Map<String, String> recorded = new TreeMap<>();
+      final String content = read();
+      if ( content != null ) {
+         content.lines().map( line -> line.split( "=", 2 ) ).filter( parts -> parts.length == 2 )
+               .forEach( parts -> recorded.put( parts[0], parts[1] ) );
+      }
+      final Map<String, String> current = entries( outputs );
+      return Stream.concat( recorded.keySet().stream(), current.keySet().stream() ).distinct().sorted()
+            .filter( name -> !Objects.equals( recorded.get( name ), current.get( name ) ) )
+            .collect( Collectors.toList() );
+   }
+
+   /**
+    * Writes the stamp file. This must be done after all outputs have been written successfully.
+    *
+    * @param outputs the outputs of the build step
+    * @throws IOException if an output can not be read or the file can not be written
+    */
+   public void write( final Path... outputs ) throws IOException {
+      Files.createDirectories( stampFile.toAbsolutePath().getParent() );
+      final Path temporaryFile = Files.createTempFile( stampFile.toAbsolutePath().getParent(), stampFile.getFileName().toString(), ".tmp" );
+      Files.write( temporaryFile, serialize( outputs ).getBytes( StandardCharsets.UTF_8 ) );
+      Files.move( temporaryFile, stampFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+   }
+
+   private String read() {
+      try {
+         // Line endings could have been converted by a version control system
+         return Files.exists( stampFile ) ? Files.readString( stampFile, StandardCharsets.UTF_8 ).replace( "\r\n", "\n" ) : null;
+      } catch ( final IOException exception ) {
+         return null;
+      }
+   }
+
+   /**
+    * @return the inputs and the outputs; the line endings of outputs are normalized, since they could be converted in
+    *       a checkout of committed outputs
+    */
+   private Map<String, String> entries( final Path... outputs ) throws IOException {
+      final Map<String, String> entries = new TreeMap<>( inputs );
+      for ( final Path output : outputs ) {
+         entries.put( "output:" + output.getFileName(), hash( output, true ) );
+      }
+      return entries;
+   }
+
+   private String serialize( final Path... outputs ) throws IOException {
+      return entries( outputs ).entrySet().stream().map( entry -> entry.getKey() + "=" + entry.getValue() + "\n" )
+            .collect( Collectors.joining() );
+   }
+
+   private static String hash( final Path file, final boolean normalizeLineEndings ) throws IOException {
+      if ( !Files.isRegularFile( file ) ) {
+         return "missing";
+      }
+      final byte[] content = Files.readAllBytes( file );
+      if ( !normalizeLineEndings ) {
+         return DigestUtils.sha256Hex( content );
+      }
+      // Drops the CR of each CRLF, which works on the bytes of UTF-8 text as well as of binary files
+      final ByteArrayOutputStream normalized = new ByteArrayOutputStream( content.length );
+      for ( int i = 0; i < content.length; i++ ) {
+         if ( content[i] != '\r' || i + 1 == content.length || content[i + 1] != '\n' ) {
+            normalized.write( content[i] );
+         }
+      }
+      return DigestUtils.sha256Hex( normalized.toByteArray() );
+   }
+}
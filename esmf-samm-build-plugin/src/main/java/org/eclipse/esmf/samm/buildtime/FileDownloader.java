@@ -13,42 +13,215 @@
 
 package org.eclipse.esmf.samm.buildtime;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.SocketAddress;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads files, optionally through a local content-addressed cache: Downloaded files are stored by their SHA-256
+ * hash in the content directory of the cache, the index directory maps each URL to the hash of its content and the
+ * ETag and Last-Modified headers of the response. Cached files are revalidated with a conditional request
+ * (If-None-Match/If-Modified-Since) and are verified against their hash when they are read. If the server can not be
+ * reached, or in offline mode, the cached file is used.
+ */
 public class FileDownloader {
-   public static InputStream download( final String urlString ) throws IOException {
-      final URL url = URI.create( urlString ).toURL();
+   private static final Logger LOG = LoggerFactory.getLogger( FileDownloader.class );
+   private static final Pattern PROXY_PATTERN = Pattern.compile( "^http://([^:]*):(\\d*)" );
+
+   private final Path cacheDirectory;
+   private final boolean offline;
+
+   /**
+    * Creates a downloader that uses a cache
+    *
+    * @param cacheDirectory the cache directory, created if it does not exist
+    * @param offline if true, no network access is attempted and files must be present in the cache
+    */
+   public FileDownloader( final Path cacheDirectory, final boolean offline ) {
+      this.cacheDirectory = cacheDirectory;
+      this.offline = offline;
+   }
+
+   /**
+    * Downloads a file through the cache. Downloaded files are only added to the cache once they have the expected hash.
+    *
+    * @param urlString the URL
+    * @param expectedSha256 the expected hex encoded SHA-256 hash of the file, or null if it should not be verified
+    * @return the content of the file
+    * @throws IOException if the file can not be downloaded and is not cached, or if it does not have the expected hash
+    */
+   public byte[] fetch( final String urlString, final String expectedSha256 ) throws IOException {
+      final Optional<CacheEntry> cacheEntry = readCacheEntry( urlString );
+      if ( offline ) {
+         final byte[] content = cacheEntry.map( CacheEntry::getContent )
+               .orElseThrow( () -> new IOException( "Offline mode, but " + urlString + " is not in the download cache " + cacheDirectory ) );
+         LOG.info( "Offline mode, using cached {}", urlString );
+         verify( urlString, content, expectedSha256 );
+         return content;
+      }
+
+      final CacheEntry download;
+      try {
+         download = fetchFromNetwork( urlString, cacheEntry.orElse( null ) );
+      } catch ( final IOException exception ) {
+         if ( cacheEntry.isEmpty() ) {
+            throw exception;
+         }
+         LOG.warn( "Could not download {}, using cached version: {}", urlString, exception.getMessage() );
+         verify( urlString, cacheEntry.get().getContent(), expectedSha256 );
+         return cacheEntry.get().getContent();
+      }
+      verify( urlString, download.getContent(), expectedSha256 );
+      if ( download != cacheEntry.orElse( null ) ) {
+         writeCacheEntry( urlString, download );
+      }
+      return download.getContent();
+   }
+
+   private static void verify( final String urlString, final byte[] content, final String expectedSha256 ) throws IOException {
+      if ( expectedSha256 != null && !expectedSha256.equalsIgnoreCase( DigestUtils.sha256Hex( content ) ) ) {
+         throw new IOException( "Checksum mismatch for " + urlString + ": expected SHA-256 " + expectedSha256 + ", got "
+               + DigestUtils.sha256Hex( content ) );
+      }
+   }
+
+   /**
+    * @return the given cache entry if the file is not modified, otherwise a new entry with the downloaded file
+    */
+   private CacheEntry fetchFromNetwork( final String urlString, final CacheEntry cacheEntry ) throws IOException {
+      final URLConnection connection = openConnection( URI.create( urlString ).toURL() );
+      if ( cacheEntry != null && connection instanceof HttpURLConnection ) {
+         if ( cacheEntry.eTag != null ) {
+            connection.setRequestProperty( "If-None-Match", cacheEntry.eTag );
+         }
+         if ( cacheEntry.lastModified != null ) {
+            connection.setRequestProperty( "If-Modified-Since", cacheEntry.lastModified );
+         }
+      }
+      if ( cacheEntry != null && connection instanceof HttpURLConnection
+            && ((HttpURLConnection) connection).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED ) {
+         LOG.info( "{} is not modified, using cached version", urlString );
+         return cacheEntry;
+      }
+
+      try ( final InputStream input = connection.getInputStream() ) {
+         return new CacheEntry( input.readAllBytes(), connection.getHeaderField( "ETag" ), connection.getHeaderField( "Last-Modified" ) );
+      }
+   }
+
+   private static URLConnection openConnection( final URL url ) throws IOException {
       String proxySetting = System.getenv( "http_proxy" );
       if ( proxySetting == null ) {
          proxySetting = System.getenv( "HTTP_PROXY" );
       }
-      final URLConnection urlConnection;
-      if ( proxySetting != null ) {
-         final Pattern proxyPattern = Pattern.compile( "^http://([^:]*):(\\d*)" );
-         final Matcher matcher = proxyPattern.matcher( proxySetting );
-         if ( !matcher.find() ) {
-            System.err.println( "Could not parse proxy configuration " + proxySetting );
-            urlConnection = url.openConnection();
-         } else {
-            final String proxyHost = matcher.group( 1 );
-            final int proxyPort = Integer.parseInt( matcher.group( 2 ) );
-            final SocketAddress address = new InetSocketAddress( proxyHost, proxyPort );
-            final Proxy proxy = new Proxy( Proxy.Type.HTTP, address );
-            urlConnection = url.openConnection( proxy );
+      if ( proxySetting == null ) {
+         return url.openConnection();
+      }
+      final Matcher matcher = PROXY_PATTERN.matcher( proxySetting );
+      if ( !matcher.find() ) {
+         System.err.println( "Could not parse proxy configuration " + proxySetting );
+         return url.openConnection();
+      }
+      final String proxyHost = matcher.group( 1 );
+      final int proxyPort = Integer.parseInt( matcher.group( 2 ) );
+      final SocketAddress address = new InetSocketAddress( proxyHost, proxyPort );
+      final Proxy proxy = new Proxy( Proxy.Type.HTTP, address );
+      return url.openConnection( proxy );
+   }
+
+   private Path indexFile( final String urlString ) {
+      return cacheDirectory.resolve( "index" ).resolve( DigestUtils.sha256Hex( urlString ) + ".properties" );
+   }
+
+   private Path contentFile( final String sha256 ) {
+      return cacheDirectory.resolve( "content" ).resolve( sha256 );
+   }
+
+   private Optional<CacheEntry> readCacheEntry( final String urlString ) {
+      final Path indexFile = indexFile( urlString );
+      if ( !Files.exists( indexFile ) ) {
+         return Optional.empty();
+      }
+      final Properties properties = new Properties();
+      try ( final InputStream input = Files.newInputStream( indexFile ) ) {
+         properties.load( input );
+         final String sha256 = properties.getProperty( "sha256" );
+         final byte[] content = Files.readAllBytes( contentFile( sha256 ) );
+         if ( !sha256.equals( DigestUtils.sha256Hex( content ) ) ) {
+            LOG.warn( "Cached content of {} is corrupt, ignoring it", urlString );
+            return Optional.empty();
          }
-      } else {
-         urlConnection = url.openConnection();
+         return Optional.of( new CacheEntry( content, properties.getProperty( "etag" ), properties.getProperty( "lastModified" ) ) );
+      } catch ( final IOException | RuntimeException exception ) {
+         LOG.warn( "Could not read cache entry of {}, ignoring it", urlString );
+         return Optional.empty();
       }
+   }
 
-      return  urlConnection.getInputStream();
+   private void writeCacheEntry( final String urlString, final CacheEntry entry ) throws IOException {
+      final String sha256 = DigestUtils.sha256Hex( entry.content );
+      final Path contentFile = contentFile( sha256 );
+      if ( !Files.exists( contentFile ) ) {
+         writeAtomically( contentFile, entry.content );
+      }
+      final Properties properties = new Properties();
+      properties.setProperty( "url", urlString );
+      properties.setProperty( "sha256", sha256 );
+      if ( entry.eTag != null ) {
+         properties.setProperty( "etag", entry.eTag );
+      }
+      if ( entry.lastModified != null ) {
+         properties.setProperty( "lastModified", entry.lastModified );
+      }
+      final ByteArrayOutputStream index = new ByteArrayOutputStream();
+      properties.store( index, null );
+      writeAtomically( indexFile( urlString ), index.toByteArray() );
+   }
+
+   /**
+    * Writes a file via a temporary file and a move, so that concurrent builds never see partially written files
+    */
+   private static void writeAtomically( final Path file, final byte[] content ) throws IOException {
+      Files.createDirectories( file.getParent() );
+      final Path temporaryFile = Files.createTempFile( file.getParent(), file.getFileName().toString(), ".tmp" );
+      try ( final OutputStream output = Files.newOutputStream( temporaryFile ) ) {
+         output.write( content );
+      }
+      Files.move( temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+   }
+
+   private static class CacheEntry {
+      private final byte[] content;
+      private final String eTag;
+      private final String lastModified;
+
+      private CacheEntry( final byte[] content, final String eTag, final String lastModified ) {
+         this.content = content;
+         this.eTag = eTag;
+         this.lastModified = lastModified;
+      }
+
+      private byte[] getContent() {
+         return content;
+      }
    }
 }
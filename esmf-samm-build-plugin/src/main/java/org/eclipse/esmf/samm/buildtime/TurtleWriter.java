@@ -0,0 +1,537 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * Deterministic Turtle writer: Unlike Jena's pretty printer, the output only depends on the set of statements in the
+ * model, not on their order or on blank node labels, so that writing the same model twice always yields the same
+ * bytes. This makes it easy to track and understand incremental changes of generated or formatted files.
+ * <ul>
+ *    <li>Prefixes are sorted by name</li>
+ *    <li>Subjects are grouped by the configured sections (types), then sorted by their serialized form</li>
+ *    <li>Predicates are sorted by rdf:type, then the configured priority predicates, then local name</li>
+ *    <li>Objects of the same predicate are sorted by their serialized form</li>
+ *    <li>Blank nodes that are referenced exactly once are written inline, well-formed RDF lists as ( ... )</li>
+ *    <li>Other blank nodes are labeled in the order they are written, including blank nodes in cycles, whose sort key
+ *    encodes the cycle instead of cutting it off</li>
+ *    <li>Multi-line strings are written as long strings in triple quotes</li>
+ * </ul>
+ * The model is indexed in a single pass and every node's sort key is computed only once, then the resources are
+ * streamed to a buffered UTF-8 writer one by one.
+ */
+public class TurtleWriter {
+   private static final String INDENT = "   ";
+   private static final Pattern LOCAL_NAME = Pattern.compile( "([\\p{L}\\p{N}_]([\\p{L}\\p{N}_.\\-]*[\\p{L}\\p{N}_\\-])?)?" );
+
+   private final Model model;
+   private final List<String> headerLines = new ArrayList<>();
+   private final Map<Resource, String> sections = new LinkedHashMap<>();
+   private final List<Property> priorityPredicates = new ArrayList<>();
+   private int predicateColumnWidth;
+
+   private final Map<String, String> prefixByNamespace = new HashMap<>();
+   private final Map<RDFNode, String> keys = new HashMap<>();
+   private final Map<Resource, List<Statement>> statementsBySubject = new HashMap<>();
+   private final Map<Resource, Integer> blankNodeReferences = new HashMap<>();
+   private final Map<Resource, List<RDFNode>> lists = new HashMap<>();
+   private final Map<Resource, List<Resource>> listCells = new HashMap<>();
+   private final Map<Resource, String> blankNodeLabels = new HashMap<>();
+   private final Set<Resource> inProgress = new HashSet<>();
+   private final Map<Resource, String> cyclicKeys = new HashMap<>();
+   private final List<Resource> keyPath = new ArrayList<>();
+   private boolean inCycle;
+   private final Set<Resource> written = new HashSet<>();
+   private Writer writer;
+
+   public TurtleWriter( final Model model ) {
+      this.model = model;
+   }
+
+   /**
+    * Sets the lines of the comment at the beginning of the file
+    *
+    * @param lines the lines, without leading #
+    * @return this writer
+    */
+   public TurtleWriter header( final List<String> lines ) {
+      headerLines.clear();
+      headerLines.addAll( lines );
+      return this;
+   }
+
+   /**
+    * Adds a section: All subjects of the given type are written together, after a comment with the given title.
+    * Sections are written in the order they are added, subjects that belong to no section are written last.
+    *
+    * @param title the section title
+    * @param type the type of the subjects in this section
+    * @return this writer
+    */
+   public TurtleWriter section( final String title, final Resource type ) {
+      sections.put( type, title );
+      return this;
+   }
+
+   /**
+    * Sets predicates that are written right after rdf:type, in the given order
+    *
+    * @param predicates the predicates
+    * @return this writer
+    */
+   public TurtleWriter priorityPredicates( final Property... predicates ) {
+      priorityPredicates.clear();
+      priorityPredicates.addAll( Arrays.asList( predicates ) );
+      return this;
+   }
+
+   /**
+    * Sets the minimum width of the predicate column, i.e. shorter predicates are padded so that objects are aligned
+    *
+    * @param width the width
+    * @return this writer
+    */
+   public TurtleWriter predicateColumnWidth( final int width ) {
+      predicateColumnWidth = width;
+      return this;
+   }
+
+   /**
+    * Writes the model. The output stream is flushed, but not closed.
+    *
+    * @param outputStream the output stream
+    * @throws IOException if the output can not be written
+    */
+   public void write( final OutputStream outputStream ) throws IOException {
+      index();
+      writer = new BufferedWriter( new OutputStreamWriter( outputStream, StandardCharsets.UTF_8 ) );
+      writeHeader();
+      writePrefixes();
+
+      final Map<Integer, List<Resource>> subjectsBySection = new TreeMap<>();
+      final List<Resource> sectionTypes = new ArrayList<>( sections.keySet() );
+      for ( final Resource subject : statementsBySubject.keySet() ) {
+         if ( subject.isAnon() ) {
+            continue;
+         }
+         final int section = sectionTypes.stream()
+               .filter( type -> subject.hasProperty( RDF.type, type ) )
+               .findFirst()
+               .map( sectionTypes::indexOf )
+               .orElse( sectionTypes.size() );
+         subjectsBySection.computeIfAbsent( section, key -> new ArrayList<>() ).add( subject );
+      }
+
+      boolean firstSection = true;
+      for ( final Map.Entry<Integer, List<Resource>> section : subjectsBySection.entrySet() ) {
+         if ( !firstSection ) {
+            writer.write( "\n" );
+         }
+         firstSection = false;
+         if ( section.getKey() < sectionTypes.size() ) {
+            writer.write( "# " + sections.get( sectionTypes.get( section.getKey() ) ) + "\n\n" );
+         }
+         final List<Resource> subjects = section.getValue();
+         subjects.sort( Comparator.comparing( this::key ) );
+         for ( final Resource subject : subjects ) {
+            writeSubject( subject );
+         }
+      }
+
+      // Blank nodes that are not referenced exactly once, i.e. that can not be written inline
+      final List<Resource> blankSubjects = statementsBySubject.keySet().stream()
+            .filter( RDFNode::isAnon )
+            .filter( subject -> blankNodeReferences.getOrDefault( subject, 0 ) != 1 )
+            .sorted( Comparator.comparing( this::key ) )
+            .collect( Collectors.toList() );
+      for ( final Resource subject : blankSubjects ) {
+         writeSubject( subject );
+      }
+      // Blank nodes that are only referenced from within a cycle of blank nodes
+      final List<Resource> remaining = statementsBySubject.keySet().stream()
+            .filter( RDFNode::isAnon )
+            .filter( subject -> !written.contains( subject ) )
+            .sorted( Comparator.comparing( this::key ) )
+            .collect( Collectors.toList() );
+      for ( final Resource subject : remaining ) {
+         if ( !written.contains( subject ) ) {
+            label( subject );
+            writeSubject( subject );
+         }
+      }
+      writer.flush();
+   }
+
+   private void index() {
+      model.getNsPrefixMap().forEach( ( prefix, namespace ) ->
+            prefixByNamespace.merge( namespace, prefix, ( prefix1, prefix2 ) -> prefix1.compareTo( prefix2 ) <= 0 ? prefix1 : prefix2 ) );
+      model.listStatements().forEachRemaining( statement -> {
+         statementsBySubject.computeIfAbsent( statement.getSubject(), subject -> new ArrayList<>() ).add( statement );
+         if ( statement.getObject().isAnon() ) {
+            blankNodeReferences.merge( statement.getObject().asResource(), 1, Integer::sum );
+         }
+      } );
+      for ( final Resource subject : statementsBySubject.keySet() ) {
+         if ( subject.isAnon() && blankNodeReferences.getOrDefault( subject, 0 ) == 1 ) {
+            indexList( subject );
+         }
+      }
+   }
+
+   /**
+    * Registers the blank node as list if it is the head of a well-formed RDF list, i.e. a chain of blank nodes that
+    * have only rdf:first and rdf:rest, are referenced only once and end with rdf:nil
+    */
+   private void indexList( final Resource head ) {
+      final List<RDFNode> elements = new ArrayList<>();
+      final Set<Resource> cells = new LinkedHashSet<>();
+      Resource cell = head;
+      while ( !cell.equals( RDF.nil ) ) {
+         if ( !cell.isAnon() || !cells.add( cell ) || blankNodeReferences.getOrDefault( cell, 0 ) != 1 ) {
+            return;
+         }
+         final List<Statement> statements = statementsBySubject.get( cell );
+         if ( statements == null || statements.size() != 2 ) {
+            return;
+         }
+         RDFNode first = null;
+         RDFNode rest = null;
+         for ( final Statement statement : statements ) {
+            if ( statement.getPredicate().equals( RDF.first ) ) {
+               first = statement.getObject();
+            } else if ( statement.getPredicate().equals( RDF.rest ) ) {
+               rest = statement.getObject();
+            }
+         }
+         if ( first == null || rest == null || !rest.isResource() ) {
+            return;
+         }
+         elements.add( first );
+         cell = rest.asResource();
+      }
+      lists.put( head, elements );
+      listCells.put( head, new ArrayList<>( cells ) );
+   }
+
+   private void writeHeader() throws IOException {
+      if ( headerLines.isEmpty() ) {
+         return;
+      }
+      for ( final String line : headerLines ) {
+         writer.write( line.isEmpty() ? "#\n" : "# " + line + "\n" );
+      }
+      writer.write( "\n" );
+   }
+
+   private void writePrefixes() throws IOException {
+      final Map<String, String> prefixes = new TreeMap<>( model.getNsPrefixMap() );
+      if ( prefixes.isEmpty() ) {
+         return;
+      }
+      final int width = prefixes.keySet().stream().mapToInt( String::length ).max().orElse( 0 ) + 1;
+      for ( final Map.Entry<String, String> entry : prefixes.entrySet() ) {
+         writer.write( "@prefix " + pad( entry.getKey() + ":", width ) + " <" + entry.getValue() + "> .\n" );
+      }
+      writer.write( "\n" );
+   }
+
+   private void writeSubject( final Resource subject ) throws IOException {
+      final Map<Property, List<RDFNode>> predicates = groupByPredicate( subject );
+      inProgress.add( subject );
+      written.add( subject );
+      if ( subject.isAnon() && !blankNodeReferences.containsKey( subject ) && !blankNodeLabels.containsKey( subject ) ) {
+         writer.write( "[\n" );
+         writePredicates( predicates, 1 );
+         writer.write( "\n] .\n\n" );
+      } else {
+         final List<RDFNode> types = predicates.remove( RDF.type );
+         writer.write( subject.isAnon() ? label( subject ) : key( subject ) );
+         if ( types != null ) {
+            writer.write( " a " );
+            writeObjects( types, 0 );
+         }
+         if ( !predicates.isEmpty() ) {
+            writer.write( types != null ? " ;\n" : "\n" );
+            writePredicates( predicates, 1 );
+         }
+         writer.write( " .\n\n" );
+      }
+      inProgress.remove( subject );
+   }
+
+   private void writePredicates( final Map<Property, List<RDFNode>> predicates, final int depth ) throws IOException {
+      boolean first = true;
+      for ( final Map.Entry<Property, List<RDFNode>> entry : predicates.entrySet() ) {
+         if ( !first ) {
+            writer.write( " ;\n" );
+         }
+         first = false;
+         writer.write( INDENT.repeat( depth ) );
+         writer.write( pad( entry.getKey().equals( RDF.type ) ? "a" : key( entry.getKey() ), predicateColumnWidth ) );
+         writer.write( " " );
+         writeObjects( entry.getValue(), depth );
+      }
+   }
+
+   private void writeObjects( final List<RDFNode> objects, final int depth ) throws IOException {
+      boolean first = true;
+      for ( final RDFNode object : objects ) {
+         if ( !first ) {
+            writer.write( ", " );
+         }
+         first = false;
+         writeObject( object, depth );
+      }
+   }
+
+   private void writeObject( final RDFNode object, final int depth ) throws IOException {
+      if ( !object.isAnon() ) {
+         writer.write( key( object ) );
+         return;
+      }
+      final Resource blankNode = object.asResource();
+      if ( !statementsBySubject.containsKey( blankNode ) && blankNodeReferences.get( blankNode ) == 1 ) {
+         writer.write( "[]" );
+         return;
+      }
+      if ( !isInlined( blankNode ) ) {
+         writer.write( label( blankNode ) );
+         return;
+      }
+      inProgress.add( blankNode );
+      written.add( blankNode );
+      final List<RDFNode> elements = lists.get( blankNode );
+      if ( elements != null ) {
+         written.addAll( listCells.get( blankNode ) );
+         writer.write( "(" );
+         for ( final RDFNode element : elements ) {
+            writer.write( " " );
+            writeObject( element, depth );
+         }
+         writer.write( " )" );
+      } else {
+         writer.write( "[\n" );
+         writePredicates( groupByPredicate( blankNode ), depth + 1 );
+         writer.write( "\n" + INDENT.repeat( depth ) + "]" );
+      }
+      inProgress.remove( blankNode );
+   }
+
+   private boolean isInlined( final Resource blankNode ) {
+      return blankNodeReferences.getOrDefault( blankNode, 0 ) == 1 && !blankNodeLabels.containsKey( blankNode )
+            && !inProgress.contains( blankNode );
+   }
+
+   private String label( final Resource blankNode ) {
+      return blankNodeLabels.computeIfAbsent( blankNode, node -> "_:b" + blankNodeLabels.size() );
+   }
+
+   /**
+    * Returns the statements of a subject, grouped by predicate. Both predicates and objects are sorted.
+    */
+   private Map<Property, List<RDFNode>> groupByPredicate( final Resource subject ) {
+      final Map<Property, List<RDFNode>> result = new TreeMap<>( predicateOrder() );
+      for ( final Statement statement : statementsBySubject.getOrDefault( subject, List.of() ) ) {
+         result.computeIfAbsent( statement.getPredicate(), predicate -> new ArrayList<>() ).add( statement.getObject() );
+      }
+      result.values().forEach( objects -> objects.sort( Comparator.comparing( this::key ) ) );
+      return result;
+   }
+
+   private Comparator<Property> predicateOrder() {
+      return Comparator.<Property> comparingInt( this::predicateRank )
+            .thenComparing( Property::getLocalName )
+            .thenComparing( Property::getURI );
+   }
+
+   private int predicateRank( final Property predicate ) {
+      if ( predicate.equals( RDF.type ) ) {
+         return -1;
+      }
+      final int index = priorityPredicates.indexOf( predicate );
+      return index == -1 ? priorityPredicates.size() : index;
+   }
+
+   /**
+    * Returns the sort key of a node, which is its serialized form for URIs and literals and a serialization of its
+    * content for blank nodes. Within the content, a blank node that is already being serialized, i.e. a cycle, is
+    * written as ^n, where n is the number of levels up to that node. So the key of every blank node is a function of
+    * the statements reachable from it, and blank nodes with the same key are written the same way. Keys are computed
+    * only once per node; keys of blank nodes in cycles depend on where the cycle is entered, so only the key of the
+    * node the computation starts with is stored.
+    */
+   private String key( final RDFNode node ) {
+      final String key = keys.get( node );
+      if ( key != null ) {
+         return key;
+      }
+      if ( node.isLiteral() ) {
+         final String result = serialize( node.asLiteral() );
+         keys.put( node, result );
+         return result;
+      }
+      if ( node.isURIResource() ) {
+         final String result = node.equals( RDF.nil ) ? "()" : serialize( node.asResource().getURI() );
+         keys.put( node, result );
+         return result;
+      }
+      final Resource blankNode = node.asResource();
+      if ( keyPath.isEmpty() && cyclicKeys.containsKey( blankNode ) ) {
+         return cyclicKeys.get( blankNode );
+      }
+      final int pathIndex = keyPath.indexOf( blankNode );
+      if ( pathIndex >= 0 ) {
+         inCycle = true;
+         return "^" + (keyPath.size() - pathIndex);
+      }
+      final boolean outerInCycle = inCycle;
+      inCycle = false;
+      keyPath.add( blankNode );
+      final List<RDFNode> elements = lists.get( blankNode );
+      final String result;
+      if ( elements != null ) {
+         result = elements.stream().map( this::key ).collect( Collectors.joining( " ", "( ", " )" ) );
+      } else {
+         final Map<Property, List<String>> objectKeys = new TreeMap<>( predicateOrder() );
+         for ( final Statement statement : statementsBySubject.getOrDefault( blankNode, List.of() ) ) {
+            objectKeys.computeIfAbsent( statement.getPredicate(), predicate -> new ArrayList<>() ).add( key( statement.getObject() ) );
+         }
+         result = objectKeys.entrySet().stream()
+               .map( entry -> key( entry.getKey() ) + " " + entry.getValue().stream().sorted().collect( Collectors.joining( ", " ) ) )
+               .collect( Collectors.joining( " ; ", "[ ", " ]" ) );
+      }
+      keyPath.remove( keyPath.size() - 1 );
+      if ( !inCycle ) {
+         keys.put( blankNode, result );
+      } else if ( keyPath.isEmpty() ) {
+         cyclicKeys.put( blankNode, result );
+      }
+      inCycle |= outerInCycle;
+      return result;
+   }
+
+   private String serialize( final String uri ) {
+      final int separator = Math.max( uri.lastIndexOf( '#' ), uri.lastIndexOf( '/' ) ) + 1;
+      final String prefix = prefixByNamespace.get( uri.substring( 0, separator ) );
+      final String localName = uri.substring( separator );
+      if ( prefix != null && LOCAL_NAME.matcher( localName ).matches() ) {
+         return prefix + ":" + localName;
+      }
+      return "<" + uri.replace( "\\", "\\u005C" ).replace( ">", "\\u003E" ) + ">";
+   }
+
+   private String serialize( final Literal literal ) {
+      final String value = quote( literal.getLexicalForm() );
+      final String datatypeUri = literal.getDatatypeURI();
+      if ( datatypeUri == null || datatypeUri.equals( XSDDatatype.XSDstring.getURI() ) ) {
+         return value;
+      }
+      if ( datatypeUri.equals( RDF.langString.getURI() ) ) {
+         return value + "@" + literal.getLanguage();
+      }
+      return value + "^^" + serialize( datatypeUri );
+   }
+
+   private static String quote( final String value ) {
+      if ( value.indexOf( '\n' ) >= 0 ) {
+         return longQuote( value );
+      }
+      if ( value.indexOf( '"' ) >= 0 && value.indexOf( '\'' ) < 0 && value.indexOf( '\\' ) < 0 && value.indexOf( '\n' ) < 0
+            && value.indexOf( '\r' ) < 0 ) {
+         return "'" + value + "'";
+      }
+      final StringBuilder builder = new StringBuilder( value.length() + 2 );
+      builder.append( '"' );
+      for ( int i = 0; i < value.length(); i++ ) {
+         final char character = value.charAt( i );
+         switch ( character ) {
+            case '"':
+               builder.append( "\\\"" );
+               break;
+            case '\\':
+               builder.append( "\\\\" );
+               break;
+            case '\n':
+               builder.append( "\\n" );
+               break;
+            case '\r':
+               builder.append( "\\r" );
+               break;
+            case '\t':
+               builder.append( "\\t" );
+               break;
+            default:
+               builder.append( character );
+         }
+      }
+      return builder.append( '"' ).toString();
+   }
+
+   /**
+    * Quotes multi-line values, e.g. SPARQL queries, as long strings, so that they remain readable
+    */
+   private static String longQuote( final String value ) {
+      final StringBuilder builder = new StringBuilder( value.length() + 6 );
+      builder.append( "\"\"\"" );
+      for ( int i = 0; i < value.length(); i++ ) {
+         final char character = value.charAt( i );
+         switch ( character ) {
+            case '"':
+               builder.append( "\\\"" );
+               break;
+            case '\\':
+               builder.append( "\\\\" );
+               break;
+            case '\r':
+               builder.append( "\\r" );
+               break;
+            default:
+               builder.append( character );
+         }
+      }
+      return builder.append( "\"\"\"" ).toString();
+   }
+
+   private static String pad( final String value, final int width ) {
+      return value.length() >= width ? value : value + " ".repeat( width - value.length() );
+   }
+}
@@ -14,16 +14,20 @@
 package org.eclipse.esmf.samm.buildtime.aspectmetamodel;
 
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Stream;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -35,15 +39,22 @@ import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.eclipse.esmf.samm.buildtime.BuildStamp;
 import org.eclipse.esmf.samm.buildtime.FileDownloader;
 
 /**
  * Downloads the BCP 47 Language Tag Registry as defined by IANA, see
  * <a href="https://www.iana.org/assignments/language-subtag-registry/language-subtag-registry">https://www.iana.org/assignments/language-subtag-registry/language-subtag-registry</a>,
  * in JSON format. The types which are required for the validation of the Locale Constraint, are extracted and written to a
- * JavaScript file.
+ * JavaScript file, which defines the object languageRegistry with one sorted array of subtags per type, so that the
+ * validation can use binary search without any parsing at runtime.
+ * <p>
+ * Optionally, the same lookup tables are written to a compact binary file for the Java validators (see
+ * org.eclipse.esmf.samm.language.LanguageSubtagRegistry). It contains, for each type: the length of the type name (1 byte),
+ * the type name (ASCII), the width of an entry (1 byte), the number of entries (4 bytes, big endian) and the sorted entries
+ * (ASCII, each padded with zero bytes to the entry width). Ranges such as qaa..qtz are expanded to the subtags they denote.
  */
-@Mojo( name = "downloadBcp47LanguageSubtagRegistry", defaultPhase = LifecyclePhase.GENERATE_RESOURCES )
+@Mojo( name = "downloadBcp47LanguageSubtagRegistry", defaultPhase = LifecyclePhase.GENERATE_RESOURCES, threadSafe = true )
 public class DownloadBcp47LanguageSubtagRegistryMojo extends AbstractMojo {
    private final Logger LOG = LoggerFactory.getLogger( DownloadBcp47LanguageSubtagRegistryMojo.class );
 
@@ -53,49 +64,134 @@ public class DownloadBcp47LanguageSubtagRegistryMojo extends AbstractMojo {
    @Parameter( required = true )
    private String output;
 
+   @Parameter
+   private String lookupOutput;
+
+   /**
+    * The expected SHA-256 hash of the registry; if set, the download is verified against it
+    */
+   @Parameter
+   private String inputSha256;
+
+   @Parameter( property = "samm.downloadCacheDirectory", defaultValue = "${settings.localRepository}/.cache/esmf-samm-build-plugin" )
+   private File downloadCacheDirectory;
+
+   @Parameter( property = "samm.offline", defaultValue = "${settings.offline}" )
+   private boolean offline;
+
+   /**
+    * The file that records the fingerprint of the inputs and the outputs of the last generation. Committing it together
+    * with the outputs makes sure that the outputs are only regenerated when one of the inputs or outputs changes.
+    * Outputs that exist without a stamp file were not generated by this goal (or the stamp was not committed) and are
+    * kept as they are; they are generated again when one of them is deleted.
+    */
+   @Parameter( defaultValue = "${project.build.directory}/samm-build-stamps/${mojoExecution.executionId}.stamp" )
+   private File stampFile;
+
+   /**
+    * If true, the registry is revalidated (via the download cache) on every build and changes of its content cause a
+    * regeneration; otherwise only the URL and the expected hash are part of the fingerprint
+    */
+   @Parameter( property = "samm.checkUpstream", defaultValue = "false" )
+   private boolean checkUpstream;
+
    @Override
    @SuppressWarnings( "unchecked" )
    public void execute() throws MojoExecutionException {
       final File outputFile = Path.of( output ).toFile();
-      if ( outputFile.exists() ) {
-         LOG.info( "{}: Language subtag registry script file {} already exists. Skipping writing.",
-               DownloadBcp47LanguageSubtagRegistryMojo.class.getSimpleName(), output );
-         return;
-      }
-
-      final File targetDirectory = outputFile.getParentFile();
-      if ( !targetDirectory.exists() && !targetDirectory.mkdirs() ) {
-         throw new MojoExecutionException( "Could not create directory: " + outputFile.getParent() );
-      }
-
-      try ( final ByteArrayOutputStream out = new ByteArrayOutputStream();
-            final InputStream input = FileDownloader.download( inputUrl )
-      ) {
-         final String content = new String( input.readAllBytes(), StandardCharsets.UTF_8 );
+      final File lookupOutputFile = lookupOutput == null ? null : Path.of( lookupOutput ).toFile();
+      try {
+         final FileDownloader downloader = new FileDownloader( downloadCacheDirectory.toPath(), offline );
+         final BuildStamp stamp = new BuildStamp( stampFile.toPath() )
+               .parameter( "inputUrl", inputUrl )
+               .parameter( "inputSha256", inputSha256 )
+               .parameter( "lookupOutput", lookupOutput == null ? null : "enabled" );
+         final Path[] outputs = lookupOutputFile == null
+               ? new Path[] { outputFile.toPath() }
+               : new Path[] { outputFile.toPath(), lookupOutputFile.toPath() };
+         if ( !stamp.isRecorded() && Stream.of( outputs ).allMatch( Files::exists ) ) {
+            LOG.info( "{}: Language subtag registry script file {} has no build stamp and is kept as it is. Delete it to generate "
+                  + "it again.", DownloadBcp47LanguageSubtagRegistryMojo.class.getSimpleName(), output );
+            return;
+         }
+         byte[] input = null;
+         if ( checkUpstream ) {
+            input = downloader.fetch( inputUrl, inputSha256 );
+            stamp.content( "registry", input );
+         }
+         if ( stamp.isUpToDate( outputs ) ) {
+            LOG.info( "{}: Language subtag registry script file {} is up to date. Skipping writing.",
+                  DownloadBcp47LanguageSubtagRegistryMojo.class.getSimpleName(), output );
+            return;
+         }
 
+         LOG.info( "Generating {}, changed inputs and outputs: {}", output, stamp.getChanges( outputs ) );
+         createParentDirectory( outputFile );
+         if ( lookupOutputFile != null ) {
+            createParentDirectory( lookupOutputFile );
+         }
+         if ( input == null ) {
+            input = downloader.fetch( inputUrl, inputSha256 );
+         }
          final ObjectMapper objectMapper = new ObjectMapper();
-         final List<Map<String, String>> languageTagRegistry = objectMapper.readValue( content.getBytes(), List.class );
-         final Map<String, ArrayList<String>> cleanedLanguageTagRegistry = buildCleanedLanguageTagRegistry( languageTagRegistry );
-         out.write( "var languageRegistryAsJson = '".getBytes() );
-         objectMapper.writeValue( out, cleanedLanguageTagRegistry );
-         out.write( "'".getBytes() );
+         final List<Map<String, String>> languageTagRegistry = objectMapper.readValue( input, List.class );
+         final Map<String, List<String>> cleanedLanguageTagRegistry = buildCleanedLanguageTagRegistry( languageTagRegistry );
          try ( final FileOutputStream file = new FileOutputStream( outputFile ) ) {
-            file.write( out.toByteArray() );
+            writeJavaScript( cleanedLanguageTagRegistry, file );
+         }
+         if ( lookupOutputFile != null ) {
+            try ( final FileOutputStream file = new FileOutputStream( lookupOutputFile ) ) {
+               writeLookupTables( cleanedLanguageTagRegistry, file );
+            }
          }
+         stamp.write( outputs );
       } catch ( final IOException exception ) {
          throw new MojoExecutionException( "Could not write file", exception );
       }
+   }
 
+   private static void createParentDirectory( final File file ) throws MojoExecutionException {
+      final File targetDirectory = file.getParentFile();
+      if ( !targetDirectory.exists() && !targetDirectory.mkdirs() ) {
+         throw new MojoExecutionException( "Could not create directory: " + file.getParent() );
+      }
    }
 
-   private static Map<String, ArrayList<String>> buildCleanedLanguageTagRegistry( final List<Map<String, String>> languageTagRegistry ) {
-      final Map<String, ArrayList<String>> cleanedLanguageTagRegistry = new HashMap<>();
-      final ArrayList<String> grandfathered = new ArrayList<>();
-      final ArrayList<String> languages = new ArrayList<>();
-      final ArrayList<String> extlangs = new ArrayList<>();
-      final ArrayList<String> scripts = new ArrayList<>();
-      final ArrayList<String> regions = new ArrayList<>();
-      final ArrayList<String> variants = new ArrayList<>();
+   static void writeJavaScript( final Map<String, List<String>> registry, final OutputStream outputStream ) throws IOException {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      out.write( "var languageRegistry = ".getBytes( StandardCharsets.UTF_8 ) );
+      new ObjectMapper().writeValue( out, registry );
+      out.write( ";\n".getBytes( StandardCharsets.UTF_8 ) );
+      outputStream.write( out.toByteArray() );
+   }
+
+   static void writeLookupTables( final Map<String, List<String>> registry, final OutputStream outputStream ) throws IOException {
+      final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      final DataOutputStream data = new DataOutputStream( buffer );
+      for ( final Map.Entry<String, List<String>> entry : registry.entrySet() ) {
+         final List<String> subtags = entry.getValue();
+         final int width = subtags.stream().mapToInt( String::length ).max().orElse( 0 );
+         data.writeByte( entry.getKey().length() );
+         data.write( entry.getKey().getBytes( StandardCharsets.US_ASCII ) );
+         data.writeByte( width );
+         data.writeInt( subtags.size() );
+         for ( final String subtag : subtags ) {
+            final byte[] bytes = subtag.getBytes( StandardCharsets.US_ASCII );
+            data.write( bytes );
+            data.write( new byte[width - bytes.length] );
+         }
+      }
+      data.flush();
+      outputStream.write( buffer.toByteArray() );
+   }
+
+   static Map<String, List<String>> buildCleanedLanguageTagRegistry( final List<Map<String, String>> languageTagRegistry ) {
+      final TreeSet<String> grandfathered = new TreeSet<>();
+      final TreeSet<String> languages = new TreeSet<>();
+      final TreeSet<String> extlangs = new TreeSet<>();
+      final TreeSet<String> scripts = new TreeSet<>();
+      final TreeSet<String> regions = new TreeSet<>();
+      final TreeSet<String> variants = new TreeSet<>();
       languageTagRegistry.forEach( languageTagRegistryEntry -> {
          final String type = languageTagRegistryEntry.get( "Type" );
          if ( type.equals( "grandfathered" ) ) {
@@ -105,35 +201,72 @@ public class DownloadBcp47LanguageSubtagRegistryMojo extends AbstractMojo {
          }
          if ( type.equals( "language" ) ) {
             final String tag = languageTagRegistryEntry.get( "Subtag" );
-            languages.add( tag );
+            languages.addAll( expandRange( tag ) );
             return;
          }
          if ( type.equals( "extlang" ) ) {
             final String tag = languageTagRegistryEntry.get( "Subtag" );
-            extlangs.add( tag );
+            extlangs.addAll( expandRange( tag ) );
             return;
          }
          if ( type.equals( "script" ) ) {
             final String tag = languageTagRegistryEntry.get( "Subtag" );
-            scripts.add( tag );
+            scripts.addAll( expandRange( tag ) );
             return;
          }
          if ( type.equals( "region" ) ) {
             final String tag = languageTagRegistryEntry.get( "Subtag" );
-            regions.add( tag );
+            regions.addAll( expandRange( tag ) );
             return;
          }
          if ( type.equals( "variant" ) ) {
             final String tag = languageTagRegistryEntry.get( "Subtag" );
-            variants.add( tag );
+            variants.addAll( expandRange( tag ) );
          }
       } );
-      cleanedLanguageTagRegistry.put( "grandfathered", grandfathered );
-      cleanedLanguageTagRegistry.put( "languages", languages );
-      cleanedLanguageTagRegistry.put( "extlangs", extlangs );
-      cleanedLanguageTagRegistry.put( "scripts", scripts );
-      cleanedLanguageTagRegistry.put( "regions", regions );
-      cleanedLanguageTagRegistry.put( "variants", variants );
+      final Map<String, List<String>> cleanedLanguageTagRegistry = new LinkedHashMap<>();
+      cleanedLanguageTagRegistry.put( "extlangs", new ArrayList<>( extlangs ) );
+      cleanedLanguageTagRegistry.put( "grandfathered", new ArrayList<>( grandfathered ) );
+      cleanedLanguageTagRegistry.put( "languages", new ArrayList<>( languages ) );
+      cleanedLanguageTagRegistry.put( "regions", new ArrayList<>( regions ) );
+      cleanedLanguageTagRegistry.put( "scripts", new ArrayList<>( scripts ) );
+      cleanedLanguageTagRegistry.put( "variants", new ArrayList<>( variants ) );
       return cleanedLanguageTagRegistry;
    }
+
+   /**
+    * Expands a range of subtags as used in the registry for private use subtags, e.g. qaa..qtz, to all subtags in the
+    * range. Subtags that are not ranges are returned as they are.
+    *
+    * @param subtag the subtag or range
+    * @return the subtags
+    */
+   static List<String> expandRange( final String subtag ) {
+      final int separator = subtag.indexOf( ".." );
+      if ( separator < 0 ) {
+         return List.of( subtag );
+      }
+      final String first = subtag.substring( 0, separator );
+      final String last = subtag.substring( separator + 2 );
+      final List<String> result = new ArrayList<>();
+      final char[] current = first.toCharArray();
+      while ( true ) {
+         final String value = new String( current );
+         result.add( value );
+         if ( value.length() != last.length() || value.compareTo( last ) >= 0 ) {
+            return result;
+         }
+         // Increment like a number, where each position counts within its own alphabet (a-z, A-Z or 0-9)
+         for ( int i = current.length - 1; i >= 0; i-- ) {
+            final char character = current[i];
+            final char max = Character.isDigit( character ) ? '9' : Character.isUpperCase( character ) ? 'Z' : 'z';
+            final char min = Character.isDigit( character ) ? '0' : Character.isUpperCase( character ) ? 'A' : 'a';
+            if ( character < max ) {
+               current[i]++;
+               break;
+            }
+            current[i] = min;
+         }
+      }
+   }
 }
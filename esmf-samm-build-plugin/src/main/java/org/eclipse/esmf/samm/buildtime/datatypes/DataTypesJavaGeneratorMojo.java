@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.datatypes;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.eclipse.esmf.samm.buildtime.BuildStamp;
+import org.eclipse.esmf.samm.buildtime.unitsgenerator.StaticRdfProvider;
+
+/**
+ * Reads a type-conversions.ttl file and writes the data type lattice it describes as Java source, so that type
+ * conversions can be checked at runtime without parsing RDF or evaluating samm:canBeCastTo*. The generated source
+ * directory is added to the project's compile source roots. The generated class is named
+ * {@code <packageName>.samm_<version>.DataTypes}, e.g. org.eclipse.esmf.samm.datatypes.samm_2_0_0.DataTypes.
+ */
+@Mojo( name = "generateDataTypesJava", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true )
+public class DataTypesJavaGeneratorMojo extends AbstractMojo {
+   private final Logger LOG = LoggerFactory.getLogger( DataTypesJavaGeneratorMojo.class );
+
+   @Parameter( defaultValue = "${project}", readonly = true, required = true )
+   MavenProject project;
+
+   @Parameter( required = true )
+   String metaModelVersion;
+
+   @Parameter( required = true )
+   String typeConversionsPath;
+
+   @Parameter( defaultValue = "${project.build.directory}/generated-sources/datatypes" )
+   String outputDirectory;
+
+   @Parameter( defaultValue = "org.eclipse.esmf.samm.datatypes" )
+   String packageName;
+
+   /**
+    * The file that records the fingerprint of the inputs the output was generated from
+    */
+   @Parameter( defaultValue = "${project.build.directory}/samm-build-stamps/${mojoExecution.executionId}.stamp" )
+   File stampFile;
+
+   @Parameter( defaultValue = "${plugin.version}", readonly = true )
+   String pluginVersion;
+
+   @Override
+   public void execute() throws MojoExecutionException {
+      project.addCompileSourceRoot( outputDirectory );
+
+      final String versionPackageName = packageName + ".samm_" + metaModelVersion.replace( '.', '_' );
+      final File packageDirectory = new File( outputDirectory, versionPackageName.replace( '.', File.separatorChar ) );
+      final File outputFile = new File( packageDirectory, "DataTypes.java" );
+      final File typeConversionsFile = new File( typeConversionsPath );
+      final BuildStamp stamp;
+      try {
+         stamp = new BuildStamp( stampFile.toPath() )
+               .parameter( "metaModelVersion", metaModelVersion )
+               .parameter( "packageName", packageName )
+               .parameter( "pluginVersion", pluginVersion )
+               .parameter( "generatorRevision", String.valueOf( DataTypesJavaWriter.REVISION ) )
+               .file( "type-conversions.ttl", typeConversionsFile.toPath() );
+      } catch ( final IOException exception ) {
+         throw new MojoExecutionException( "Could not read " + typeConversionsFile, exception );
+      }
+      final List<String> changes;
+      try {
+         if ( stamp.isUpToDate( outputFile.toPath() ) ) {
+            LOG.info( "{}: Data type lattice {} is up to date. Skipping writing.", DataTypesJavaGeneratorMojo.class.getSimpleName(),
+                  outputFile );
+            return;
+         }
+         changes = stamp.getChanges( outputFile.toPath() );
+      } catch ( final IOException exception ) {
+         throw new MojoExecutionException( "Could not read " + outputFile, exception );
+      }
+
+      if ( !packageDirectory.exists() && !packageDirectory.mkdirs() ) {
+         throw new MojoExecutionException( "Could not create directory: " + packageDirectory );
+      }
+
+      LOG.info( "Generating {}, changed inputs and outputs: {}", outputFile, changes );
+      try ( final OutputStream outputStream = new FileOutputStream( outputFile ) ) {
+         final Model model = ModelFactory.createDefaultModel();
+         new StaticRdfProvider( typeConversionsFile ).get().forEach( model::add );
+         new DataTypesJavaWriter( model, outputStream, versionPackageName, "DataTypes", metaModelVersion ).write();
+      } catch ( final Exception exception ) {
+         // Do not leave a partially written file behind
+         outputFile.delete();
+         throw new MojoExecutionException( "Could not write file", exception );
+      }
+      try {
+         stamp.write( outputFile.toPath() );
+      } catch ( final IOException exception ) {
+         throw new MojoExecutionException( "Could not write " + stampFile, exception );
+      }
+   }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.datatypes;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Statement;
+
+/**
+ * Writes the data type lattice as Java source: A subclass of org.eclipse.esmf.samm.datatypes.DataTypeLattice that
+ * registers all samm:canBeCastTo statements and all data types with samm:hasCharacterValueSpace true in its
+ * constructor. The output is sorted, so it only changes when type-conversions.ttl changes.
+ */
+public class DataTypesJavaWriter {
+   /**
+    * The revision of the generated code, which is part of the build stamp; it must be incremented whenever the output
+    * for the same input changes
+    */
+   public static final int REVISION = 1;
+   private static final String INDENT = "   ";
+   private final Model model;
+   private final PrintWriter writer;
+   private final String packageName;
+   private final String className;
+   private final String metaModelVersion;
+   private final Property canBeCastTo;
+   private final Property hasCharacterValueSpace;
+
+   public DataTypesJavaWriter( final Model model, final OutputStream outputStream, final String packageName, final String className,
+         final String metaModelVersion ) {
+      this.model = model;
+      this.packageName = packageName;
+      this.className = className;
+      this.metaModelVersion = metaModelVersion;
+      final String namespace = String.format( "urn:samm:org.eclipse.esmf.samm:meta-model:%s#", metaModelVersion );
+      canBeCastTo = model.createProperty( namespace + "canBeCastTo" );
+      hasCharacterValueSpace = model.createProperty( namespace + "hasCharacterValueSpace" );
+      writer = new PrintWriter( new OutputStreamWriter( outputStream, StandardCharsets.UTF_8 ) );
+   }
+
+   public void write() {
+      final List<Statement> casts = model.listStatements( null, canBeCastTo, (RDFNode) null ).toList().stream()
+            .filter( statement -> statement.getSubject().isURIResource() && statement.getObject().isURIResource() )
+            .sorted( Comparator.comparing( ( final Statement statement ) -> statement.getSubject().getURI() )
+                  .thenComparing( statement -> statement.getResource().getURI() ) )
+            .collect( Collectors.toList() );
+      final List<String> characterValueSpaces = model.listStatements( null, hasCharacterValueSpace, (RDFNode) null ).toList().stream()
+            .filter( statement -> statement.getSubject().isURIResource() && statement.getObject().isLiteral()
+                  && statement.getBoolean() )
+            .map( statement -> statement.getSubject().getURI() )
+            .sorted()
+            .collect( Collectors.toList() );
+
+      writeCopyrightHeader();
+      writer.format( "package %s;%n%n", packageName );
+      writer.format( "import org.eclipse.esmf.samm.KnownVersion;%n" );
+      writer.format( "import org.eclipse.esmf.samm.datatypes.DataTypeLattice;%n%n" );
+      writer.format( "/**%n * The data type lattice of SAMM %s, generated from type-conversions.ttl%n */%n", metaModelVersion );
+      writer.format( "public final class %s extends DataTypeLattice {%n", className );
+      writer.format( "%spublic static final %s INSTANCE = new %s();%n%n", INDENT, className, className );
+      writer.format( "%sprivate %s() {%n", INDENT, className );
+      writer.format( "%s%ssuper( KnownVersion.SAMM_%s );%n", INDENT, INDENT, metaModelVersion.replace( '.', '_' ) );
+      for ( final Statement cast : casts ) {
+         writer.format( "%s%scanBeCastTo( %s, %s );%n", INDENT, INDENT, javaString( cast.getSubject().getURI() ),
+               javaString( cast.getResource().getURI() ) );
+      }
+      for ( final String dataType : characterValueSpaces ) {
+         writer.format( "%s%scharacterValueSpace( %s );%n", INDENT, INDENT, javaString( dataType ) );
+      }
+      writer.format( "%s%scomputeClosure();%n", INDENT, INDENT );
+      writer.format( "%s}%n", INDENT );
+      writer.format( "}%n" );
+      writer.flush();
+      writer.close();
+   }
+
+   private void writeCopyrightHeader() {
+      // The header does not contain the current year, so that the output only depends on the input
+      writer.format( "/*%n"
+            + " * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH%n"
+            + " *%n"
+            + " * See the AUTHORS file(s) distributed with this work for additional%n"
+            + " * information regarding authorship.%n"
+            + " *%n"
+            + " * This Source Code Form is subject to the terms of the Mozilla Public%n"
+            + " * License, v. 2.0. If a copy of the MPL was not distributed with this%n"
+            + " * file, You can obtain one at https://mozilla.org/MPL/2.0/.%n"
+            + " *%n"
+            + " * SPDX-License-Identifier: MPL-2.0%n"
+            + " *%n"
+            + " * This file was generated automatically, do not modify.%n"
+            + " */%n%n" );
+   }
+
+   private String javaString( final String value ) {
+      return "\"" + StringEscapeUtils.escapeJava( value ) + "\"";
+   }
+}
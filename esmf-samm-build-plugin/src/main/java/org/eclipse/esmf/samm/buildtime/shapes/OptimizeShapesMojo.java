@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.shapes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Calendar;
+import java.util.List;
+
+import org.apache.jena.query.QueryParseException;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.maven.model.Resource;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.esmf.samm.buildtime.TurtleWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes optimized copies of shapes files, in which the SPARQL-based constraints are rewritten into equivalent, cheaper
+ * queries (see {@link ShapeOptimizer}). For each shapes file {@code <name>.ttl} in the resources directory, the file
+ * {@code <name>-optimized.ttl} is written to the same relative path in the output directory, which is added to the
+ * project's resources, so the optimized shapes are shipped alongside the source shapes.
+ */
+@Mojo( name = "optimizeShapes", defaultPhase = LifecyclePhase.GENERATE_RESOURCES, threadSafe = true )
+public class OptimizeShapesMojo extends AbstractMojo {
+   private final Logger LOG = LoggerFactory.getLogger( OptimizeShapesMojo.class );
+
+   @Parameter( defaultValue = "${project}", readonly = true, required = true )
+   MavenProject project;
+
+   @Parameter( defaultValue = "${project.basedir}/src/main/resources" )
+   File resourcesDirectory;
+
+   /**
+    * The path of the file that contains the prefix declarations referenced by the shapes, relative to the resources
+    * directory
+    */
+   @Parameter( required = true )
+   String prefixDeclarations;
+
+   /**
+    * The paths of the shapes files to optimize, relative to the resources directory
+    */
+   @Parameter( required = true )
+   List<String> shapes;
+
+   @Parameter( defaultValue = "${project.build.directory}/generated-resources/optimized-shapes" )
+   File outputDirectory;
+
+   @Override
+   public void execute() throws MojoExecutionException {
+      final Resource resource = new Resource();
+      resource.setDirectory( outputDirectory.getPath() );
+      project.addResource( resource );
+
+      try {
+         final ShapeOptimizer optimizer = new ShapeOptimizer( readModel( prefixDeclarations ) );
+         for ( final String shapesFile : shapes ) {
+            final String optimizedShapesFile = shapesFile.replaceFirst( "\\.ttl$", "-optimized.ttl" );
+            final File outputFile = new File( outputDirectory, optimizedShapesFile );
+            LOG.info( "Generating {}", outputFile );
+            final Model optimizedShapes = optimizer.optimize( readModel( shapesFile ) );
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            new TurtleWriter( optimizedShapes ).header( header( new File( shapesFile ).getName() ) ).write( buffer );
+            Files.createDirectories( outputFile.getParentFile().toPath() );
+            Files.write( outputFile.toPath(), buffer.toByteArray() );
+         }
+         LOG.info( "Rewrote {} SPARQL constraints, hoisted {} repeated patterns", optimizer.getRewrittenQueries(),
+               optimizer.getHoistedPatterns() );
+      } catch ( final QueryParseException exception ) {
+         throw new MojoExecutionException( "Could not parse SPARQL constraint", exception );
+      } catch ( final IOException exception ) {
+         throw new MojoExecutionException( "Could not write file", exception );
+      }
+   }
+
+   private Model readModel( final String path ) throws IOException {
+      final Model model = ModelFactory.createDefaultModel();
+      try ( final InputStream input = Files.newInputStream( new File( resourcesDirectory, path ).toPath() ) ) {
+         model.read( input, "", RDFLanguages.TURTLE.getName() );
+      }
+      return model;
+   }
+
+   private static List<String> header( final String sourceFileName ) {
+      final int currentYear = Calendar.getInstance().get( Calendar.YEAR );
+      return List.of(
+            "Copyright (c) " + currentYear + " Robert Bosch Manufacturing Solutions GmbH",
+            "",
+            "See the AUTHORS file(s) distributed with this work for additional",
+            "information regarding authorship.",
+            "",
+            "This Source Code Form is subject to the terms of the Mozilla Public",
+            "License, v. 2.0. If a copy of the MPL was not distributed with this",
+            "file, You can obtain one at https://mozilla.org/MPL/2.0/.",
+            "",
+            "SPDX-License-Identifier: MPL-2.0",
+            "",
+            "This file was generated automatically from " + sourceFileName + ", do not modify." );
+   }
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.shapes;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.expr.E_Exists;
+import org.apache.jena.sparql.expr.E_LogicalNot;
+import org.apache.jena.sparql.expr.E_NotExists;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprFunction1;
+import org.apache.jena.sparql.expr.ExprFunction2;
+import org.apache.jena.sparql.expr.ExprFunction3;
+import org.apache.jena.sparql.expr.ExprFunctionN;
+import org.apache.jena.sparql.expr.ExprFunctionOp;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.expr.ExprVar;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.ElementBind;
+import org.apache.jena.sparql.syntax.ElementFilter;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.sparql.syntax.ElementMinus;
+import org.apache.jena.sparql.syntax.ElementNamedGraph;
+import org.apache.jena.sparql.syntax.ElementOptional;
+import org.apache.jena.sparql.syntax.ElementUnion;
+
+/**
+ * Rewrites the SPARQL-based constraints (sh:select and sh:ask) of a shapes graph into equivalent queries that are
+ * cheaper to evaluate:
+ * <ul>
+ *    <li>Prefixes are expanded, so the queries no longer need sh:prefixes and the SHACL engine does not have to
+ *    prepend and parse the prefix declarations for every query</li>
+ *    <li>EXISTS/NOT EXISTS patterns that occur several times in the filters of the same group (e.g. the check whether
+ *    a list element is a Property, which is repeated in every filter of the samm:Aspect properties constraint) are
+ *    evaluated only once per solution: The pattern is bound to a variable at the end of the group, and the filters
+ *    use the variable. Since filters apply to the whole group, a BIND after all other elements of the group sees the
+ *    same solution as the filters. The BIND evaluates the pattern for every solution, so this is only done if the
+ *    original filters evaluate it for every solution as well, i.e. if every filter of the group contains the pattern
+ *    at a position that is always evaluated: the filter expression itself, the operand of ! or the first argument of
+ *    a function. Other arguments may be skipped, e.g. the right operand of || and &amp;&amp; by short-circuiting or any
+ *    argument after one that is an error.</li>
+ * </ul>
+ * Queries are parsed and serialized with Jena ARQ, so they keep their syntactic structure; variables that are written
+ * with $ in the original query (such as $this and $PATH, which the SHACL engine substitutes) keep their $.
+ */
+public class ShapeOptimizer {
+   private static final String SH = "http://www.w3.org/ns/shacl#";
+   private static final Property SELECT = ResourceFactory.createProperty( SH, "select" );
+   private static final Property ASK = ResourceFactory.createProperty( SH, "ask" );
+   private static final Property PREFIXES = ResourceFactory.createProperty( SH, "prefixes" );
+   private static final Property DECLARE = ResourceFactory.createProperty( SH, "declare" );
+   private static final Property PREFIX = ResourceFactory.createProperty( SH, "prefix" );
+   private static final Property NAMESPACE = ResourceFactory.createProperty( SH, "namespace" );
+   private static final Pattern IRI_REFERENCE = Pattern.compile( "<[^<>\"{}|^`\\\\\\x00-\\x20]*>" );
+   private static final String HOISTED_VARIABLE_PREFIX = "_exists";
+
+   private final Model prefixDeclarations;
+   private int rewrittenQueries;
+   private int hoistedPatterns;
+
+   /**
+    * @param prefixDeclarations the model that contains the sh:declare statements that are referenced via sh:prefixes
+    */
+   public ShapeOptimizer( final Model prefixDeclarations ) {
+      this.prefixDeclarations = prefixDeclarations;
+   }
+
+   /**
+    * Creates the optimized copy of a shapes graph
+    *
+    * @param shapes the shapes graph
+    * @return the optimized shapes graph
+    */
+   public Model optimize( final Model shapes ) {
+      final Model result = ModelFactory.createDefaultModel();
+      result.setNsPrefixes( shapes.getNsPrefixMap() );
+      result.add( shapes );
+      final Model context = ModelFactory.createUnion( shapes, prefixDeclarations );
+      for ( final Property queryProperty : List.of( SELECT, ASK ) ) {
+         for ( final Statement statement : shapes.listStatements( null, queryProperty, (RDFNode) null ).toList() ) {
+            final Resource constraint = statement.getSubject();
+            final String optimizedQuery = optimizeQuery( statement.getString(), prefixes( context, constraint ) );
+            result.remove( statement );
+            result.add( constraint, queryProperty, optimizedQuery );
+            result.removeAll( constraint, PREFIXES, null );
+            rewrittenQueries++;
+         }
+      }
+      return result;
+   }
+
+   public int getRewrittenQueries() {
+      return rewrittenQueries;
+   }
+
+   public int getHoistedPatterns() {
+      return hoistedPatterns;
+   }
+
+   private Map<String, String> prefixes( final Model context, final Resource constraint ) {
+      final Map<String, String> prefixes = new LinkedHashMap<>();
+      for ( final RDFNode declarations : context.listObjectsOfProperty( constraint, PREFIXES ).toList() ) {
+         for ( final RDFNode declaration : context.listObjectsOfProperty( declarations.asResource(), DECLARE ).toList() ) {
+            final Resource declarationResource = declaration.asResource();
+            prefixes.put( declarationResource.getProperty( PREFIX ).getString(), declarationResource.getProperty( NAMESPACE ).getString() );
+         }
+      }
+      return prefixes;
+   }
+
+   String optimizeQuery( final String queryString, final Map<String, String> prefixes ) {
+      final StringBuilder prefixedQuery = new StringBuilder();
+      prefixes.forEach( ( prefix, namespace ) -> prefixedQuery.append( "PREFIX " ).append( prefix ).append( ": <" ).append( namespace )
+            .append( ">\n" ) );
+      prefixedQuery.append( queryString );
+      final Query query = QueryFactory.create( prefixedQuery.toString() );
+
+      if ( !query.isQueryResultStar() && query.getQueryPattern() instanceof ElementGroup ) {
+         final Counter counter = new Counter( queryString );
+         hoistRepeatedExists( (ElementGroup) query.getQueryPattern(), counter );
+      }
+
+      query.getPrefixMapping().clearNsPrefixMap();
+      final String result = query.serialize();
+      final Set<String> dollarVariables = new HashSet<>();
+      for ( final int[] variable : variables( queryString ) ) {
+         if ( queryString.charAt( variable[0] ) == '$' ) {
+            dollarVariables.add( queryString.substring( variable[0] + 1, variable[1] ) );
+         }
+      }
+      // ARQ writes all variables with ?, so the ones that were written with $ are changed back
+      final StringBuilder builder = new StringBuilder( result );
+      for ( final int[] variable : variables( result ) ) {
+         if ( dollarVariables.contains( result.substring( variable[0] + 1, variable[1] ) ) ) {
+            builder.setCharAt( variable[0], '$' );
+         }
+      }
+      return builder.toString();
+   }
+
+   /**
+    * Finds the variable tokens of a query, i.e. ?name or $name outside of IRIs, string literals and comments
+    *
+    * @param query the query
+    * @return the start (the index of ? or $) and end index of each variable
+    */
+   static List<int[]> variables( final String query ) {
+      final List<int[]> variables = new ArrayList<>();
+      final Matcher iriReference = IRI_REFERENCE.matcher( query );
+      int index = 0;
+      while ( index < query.length() ) {
+         final char character = query.charAt( index );
+         if ( character == '"' || character == '\'' ) {
+            index = skipString( query, index );
+         } else if ( character == '<' && iriReference.region( index, query.length() ).lookingAt() ) {
+            index = iriReference.end();
+         } else if ( character == '#' ) {
+            final int lineEnd = query.indexOf( '\n', index );
+            index = lineEnd < 0 ? query.length() : lineEnd;
+         } else if ( (character == '?' || character == '$') && index + 1 < query.length()
+               && isVariableNameStart( query.charAt( index + 1 ) ) ) {
+            // A ? that is directly followed by a name is always a variable, the path modifier ? is followed by / | ) or space
+            int end = index + 1;
+            while ( end < query.length() && isVariableNameCharacter( query.charAt( end ) ) ) {
+               end++;
+            }
+            variables.add( new int[] { index, end } );
+            index = end;
+         } else {
+            index++;
+         }
+      }
+      return variables;
+   }
+
+   /**
+    * @return the index after the string literal that starts at the given index
+    */
+   private static int skipString( final String query, final int start ) {
+      final char quote = query.charAt( start );
+      final boolean longString = query.startsWith( String.valueOf( quote ).repeat( 3 ), start );
+      int index = start + (longString ? 3 : 1);
+      while ( index < query.length() ) {
+         final char character = query.charAt( index );
+         if ( character == '\\' ) {
+            index += 2;
+         } else if ( character == quote && (!longString || query.startsWith( String.valueOf( quote ).repeat( 3 ), index )) ) {
+            return index + (longString ? 3 : 1);
+         } else {
+            index++;
+         }
+      }
+      return index;
+   }
+
+   private static boolean isVariableNameStart( final char character ) {
+      return Character.isLetterOrDigit( character ) || character == '_';
+   }
+
+   private static boolean isVariableNameCharacter( final char character ) {
+      return isVariableNameStart( character ) || character == '\u00B7' || (character >= '\u0300' && character <= '\u036F')
+            || character == '\u203F' || character == '\u2040';
+   }
+
+   private void hoistRepeatedExists( final ElementGroup group, final Counter counter ) {
+      for ( final Element element : group.getElements() ) {
+         if ( element instanceof ElementGroup ) {
+            hoistRepeatedExists( (ElementGroup) element, counter );
+         } else if ( element instanceof ElementOptional ) {
+            hoistIn( ((ElementOptional) element).getOptionalElement(), counter );
+         } else if ( element instanceof ElementMinus ) {
+            hoistIn( ((ElementMinus) element).getMinusElement(), counter );
+         } else if ( element instanceof ElementNamedGraph ) {
+            hoistIn( ((ElementNamedGraph) element).getElement(), counter );
+         } else if ( element instanceof ElementUnion ) {
+            ((ElementUnion) element).getElements().forEach( alternative -> hoistIn( alternative, counter ) );
+         }
+      }
+
+      // Count the EXISTS patterns in the filters of this group and find the ones that every filter always evaluates
+      final Map<String, Integer> occurrences = new LinkedHashMap<>();
+      final Map<String, Element> patterns = new LinkedHashMap<>();
+      final List<ElementFilter> filters = new ArrayList<>();
+      Set<String> alwaysEvaluated = null;
+      for ( final Element element : group.getElements() ) {
+         if ( element instanceof ElementFilter ) {
+            filters.add( (ElementFilter) element );
+            final Set<String> evaluated = new HashSet<>();
+            collectExists( ((ElementFilter) element).getExpr(), true, occurrences, patterns, evaluated );
+            if ( alwaysEvaluated == null ) {
+               alwaysEvaluated = evaluated;
+            } else {
+               alwaysEvaluated.retainAll( evaluated );
+            }
+         }
+      }
+      final Map<String, Var> hoisted = new LinkedHashMap<>();
+      for ( final Map.Entry<String, Integer> occurrence : occurrences.entrySet() ) {
+         if ( occurrence.getValue() > 1 && alwaysEvaluated.contains( occurrence.getKey() ) ) {
+            hoisted.put( occurrence.getKey(), counter.next() );
+         }
+      }
+      if ( hoisted.isEmpty() ) {
+         return;
+      }
+
+      final List<Element> elements = group.getElements();
+      // The filters are moved behind the BINDs; their position does not matter, since they apply to the whole group
+      elements.removeAll( filters );
+      hoisted.forEach( ( key, variable ) -> elements.add( new ElementBind( variable, new E_Exists( patterns.get( key ) ) ) ) );
+      for ( final ElementFilter filter : filters ) {
+         elements.add( new ElementFilter( replaceExists( filter.getExpr(), hoisted ) ) );
+      }
+      hoistedPatterns += hoisted.size();
+   }
+
+   private void hoistIn( final Element element, final Counter counter ) {
+      if ( element instanceof ElementGroup ) {
+         hoistRepeatedExists( (ElementGroup) element, counter );
+      }
+   }
+
+   /**
+    * Collects the EXISTS/NOT EXISTS patterns of a filter expression
+    *
+    * @param expr the expression
+    * @param alwaysEvaluated whether the expression is evaluated whenever the filter is evaluated
+    * @param occurrences the number of occurrences by pattern
+    * @param patterns the patterns by key
+    * @param evaluated the keys of the patterns that are evaluated whenever the filter is evaluated
+    */
+   private static void collectExists( final Expr expr, final boolean alwaysEvaluated, final Map<String, Integer> occurrences,
+         final Map<String, Element> patterns, final Set<String> evaluated ) {
+      if ( expr instanceof E_Exists || expr instanceof E_NotExists ) {
+         final Element pattern = ((ExprFunctionOp) expr).getElement();
+         final String key = pattern.toString();
+         occurrences.merge( key, 1, Integer::sum );
+         patterns.putIfAbsent( key, pattern );
+         if ( alwaysEvaluated ) {
+            evaluated.add( key );
+         }
+      } else if ( expr.isFunction() ) {
+         // Functions evaluate their arguments from left to right, so only the first argument is never skipped
+         final List<Expr> arguments = expr.getFunction().getArgs();
+         for ( int i = 0; i < arguments.size(); i++ ) {
+            collectExists( arguments.get( i ), alwaysEvaluated && i == 0, occurrences, patterns, evaluated );
+         }
+      }
+   }
+
+   private static Expr replaceExists( final Expr expr, final Map<String, Var> hoisted ) {
+      if ( expr instanceof E_Exists || expr instanceof E_NotExists ) {
+         final Var variable = hoisted.get( ((ExprFunctionOp) expr).getElement().toString() );
+         if ( variable == null ) {
+            return expr;
+         }
+         return expr instanceof E_Exists ? new ExprVar( variable ) : new E_LogicalNot( new ExprVar( variable ) );
+      }
+      if ( expr instanceof ExprFunction1 ) {
+         final ExprFunction1 function = (ExprFunction1) expr;
+         return function.copy( replaceExists( function.getArg(), hoisted ) );
+      }
+      if ( expr instanceof ExprFunction2 ) {
+         final ExprFunction2 function = (ExprFunction2) expr;
+         return function.copy( replaceExists( function.getArg1(), hoisted ), replaceExists( function.getArg2(), hoisted ) );
+      }
+      if ( expr instanceof ExprFunction3 ) {
+         final ExprFunction3 function = (ExprFunction3) expr;
+         return function.copy( replaceExists( function.getArg1(), hoisted ), replaceExists( function.getArg2(), hoisted ),
+               replaceExists( function.getArg3(), hoisted ) );
+      }
+      if ( expr instanceof ExprFunctionN ) {
+         final ExprFunctionN function = (ExprFunctionN) expr;
+         final ExprList arguments = new ExprList();
+         function.getArgs().forEach( argument -> arguments.add( replaceExists( argument, hoisted ) ) );
+         return function.copy( arguments );
+      }
+      return expr;
+   }
+
+   /**
+    * Creates the names of the variables for hoisted patterns, which must not be used in the query yet
+    */
+   private static class Counter {
+      private final String queryString;
+      private int next;
+
+      private Counter( final String queryString ) {
+         this.queryString = queryString;
+      }
+
+      private Var next() {
+         String name;
+         do {
+            name = HOISTED_VARIABLE_PREFIX + next++;
+         } while ( queryString.contains( name ) );
+         return Var.alloc( name );
+      }
+   }
+}
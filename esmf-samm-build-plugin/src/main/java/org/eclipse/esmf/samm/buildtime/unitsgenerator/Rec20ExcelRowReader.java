@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.unitsgenerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulRKRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.RKRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+
+/**
+ * Reads the rows of an .xls workbook using POI's event API, i.e. record by record without building the workbook
+ * object model. Only one row is held in memory at a time. For each row of the requested worksheets, except for the
+ * first (header) row, the handler is called with the worksheet index and the textual cell values of the row. Missing
+ * cells are represented by empty strings, numeric cells by {@link String#valueOf(double)} of their value (which is
+ * what POI's Cell.toString() returns for them).
+ */
+class Rec20ExcelRowReader implements HSSFListener {
+   private final int numberOfColumns;
+   private final boolean[] worksheets;
+   private final BiConsumer<Integer, String[]> rowHandler;
+
+   private SSTRecord sharedStrings;
+   private int worksheetIndex = -1;
+   private boolean inWorksheet;
+   private int headerRow = -1;
+   private int currentRow = -1;
+   private String[] currentCells;
+   private int pendingFormulaColumn = -1;
+
+   /**
+    * @param worksheetIndices the 0-based indices of the worksheets to read
+    * @param numberOfColumns the number of columns to read per row
+    * @param rowHandler the handler that is called with worksheet index and cell values for each row
+    */
+   Rec20ExcelRowReader( final int[] worksheetIndices, final int numberOfColumns, final BiConsumer<Integer, String[]> rowHandler ) {
+      this.numberOfColumns = numberOfColumns;
+      this.rowHandler = rowHandler;
+      worksheets = new boolean[Arrays.stream( worksheetIndices ).max().orElse( -1 ) + 1];
+      Arrays.stream( worksheetIndices ).forEach( index -> worksheets[index] = true );
+   }
+
+   void read( final byte[] excel ) throws IOException {
+      try ( final POIFSFileSystem fileSystem = new POIFSFileSystem( new ByteArrayInputStream( excel ) ) ) {
+         final HSSFRequest request = new HSSFRequest();
+         request.addListenerForAllRecords( this );
+         new HSSFEventFactory().processWorkbookEvents( request, fileSystem );
+      }
+   }
+
+   @Override
+   public void processRecord( final Record excelRecord ) {
+      switch ( excelRecord.getSid() ) {
+         case BOFRecord.sid:
+            if ( ((BOFRecord) excelRecord).getType() == BOFRecord.TYPE_WORKSHEET ) {
+               worksheetIndex++;
+               inWorksheet = worksheetIndex < worksheets.length && worksheets[worksheetIndex];
+               headerRow = -1;
+               currentRow = -1;
+            }
+            break;
+         case EOFRecord.sid:
+            if ( inWorksheet ) {
+               flushRow();
+               inWorksheet = false;
+            }
+            break;
+         case SSTRecord.sid:
+            sharedStrings = (SSTRecord) excelRecord;
+            break;
+         case RowRecord.sid:
+            if ( inWorksheet && headerRow == -1 ) {
+               headerRow = ((RowRecord) excelRecord).getRowNumber();
+            }
+            break;
+         case LabelSSTRecord.sid:
+            final LabelSSTRecord labelSst = (LabelSSTRecord) excelRecord;
+            cell( labelSst, sharedStrings.getString( labelSst.getSSTIndex() ).getString() );
+            break;
+         case LabelRecord.sid:
+            final LabelRecord label = (LabelRecord) excelRecord;
+            cell( label, label.getValue() );
+            break;
+         case NumberRecord.sid:
+            final NumberRecord number = (NumberRecord) excelRecord;
+            cell( number, String.valueOf( number.getValue() ) );
+            break;
+         case RKRecord.sid:
+            final RKRecord rk = (RKRecord) excelRecord;
+            cell( rk, String.valueOf( rk.getRKNumber() ) );
+            break;
+         case MulRKRecord.sid:
+            final MulRKRecord mulRk = (MulRKRecord) excelRecord;
+            for ( int i = 0; i < mulRk.getNumColumns(); i++ ) {
+               cell( mulRk.getRow(), mulRk.getFirstColumn() + i, String.valueOf( mulRk.getRKNumberAt( i ) ) );
+            }
+            break;
+         case BoolErrRecord.sid:
+            final BoolErrRecord boolErr = (BoolErrRecord) excelRecord;
+            if ( boolErr.isBoolean() ) {
+               cell( boolErr, boolErr.getBooleanValue() ? "TRUE" : "FALSE" );
+            }
+            break;
+         case FormulaRecord.sid:
+            // Use the cached result of formulas; string results follow in a separate StringRecord
+            final FormulaRecord formula = (FormulaRecord) excelRecord;
+            if ( formula.hasCachedResultString() ) {
+               pendingFormulaColumn = formula.getColumn();
+               cell( formula, "" );
+            } else {
+               cell( formula, String.valueOf( formula.getValue() ) );
+            }
+            break;
+         case StringRecord.sid:
+            if ( pendingFormulaColumn >= 0 ) {
+               cell( currentRow, pendingFormulaColumn, ((StringRecord) excelRecord).getString() );
+               pendingFormulaColumn = -1;
+            }
+            break;
+         default:
+            break;
+      }
+   }
+
+   private void cell( final CellValueRecordInterface cellRecord, final String value ) {
+      cell( cellRecord.getRow(), cellRecord.getColumn(), value );
+   }
+
+   private void cell( final int row, final int column, final String value ) {
+      if ( !inWorksheet ) {
+         return;
+      }
+      if ( headerRow == -1 ) {
+         headerRow = row;
+      }
+      if ( row != currentRow ) {
+         flushRow();
+         currentRow = row;
+         currentCells = new String[numberOfColumns];
+         Arrays.fill( currentCells, "" );
+      }
+      if ( column < numberOfColumns ) {
+         currentCells[column] = value;
+      }
+   }
+
+   private void flushRow() {
+      if ( currentRow != -1 && currentRow != headerRow ) {
+         rowHandler.accept( worksheetIndex, currentCells );
+      }
+      currentRow = -1;
+      currentCells = null;
+   }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.unitsgenerator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * Resolves the conversion of every unit in a units model to its base unit: The reference units are followed
+ * transitively until a unit without reference unit is reached, and the numeric conversion factors along the way are
+ * multiplied. Each unit is resolved only once, so the whole graph is resolved in time linear to the number of units.
+ * Units whose chain of reference units is incomplete (i.e. a unit with reference unit but without numeric conversion
+ * factor) or cyclic can not be resolved.
+ */
+public class UnitConversionGraph {
+   private final UnitsResources unitsResources;
+   private final Map<Resource, Resource> baseUnits = new HashMap<>();
+   private final Map<Resource, Double> factorsToBaseUnit = new HashMap<>();
+   private final Set<Resource> unresolvable = new HashSet<>();
+
+   public UnitConversionGraph( final Model model, final UnitsResources unitsResources ) {
+      this.unitsResources = unitsResources;
+      model.listSubjectsWithProperty( RDF.type, unitsResources.getUnitClass() ).forEachRemaining( this::resolve );
+   }
+
+   private void resolve( final Resource unit ) {
+      // Walk up the chain of reference units until a unit is reached whose conversion is known or which is a base unit
+      final List<Resource> chain = new ArrayList<>();
+      final Set<Resource> visited = new HashSet<>();
+      Resource current = unit;
+      Resource baseUnit = null;
+      double factor = 1.0;
+      while ( true ) {
+         if ( unresolvable.contains( current ) || !visited.add( current ) ) {
+            break;
+         }
+         if ( baseUnits.containsKey( current ) ) {
+            baseUnit = baseUnits.get( current );
+            factor = factorsToBaseUnit.get( current );
+            break;
+         }
+         final Resource referenceUnit = current.getPropertyResourceValue( unitsResources.getReferenceUnitProperty() );
+         if ( referenceUnit == null ) {
+            baseUnit = current;
+            baseUnits.put( current, current );
+            factorsToBaseUnit.put( current, 1.0 );
+            break;
+         }
+         chain.add( current );
+         current = referenceUnit;
+      }
+
+      // Then assign base unit and accumulated factor to all units on the chain, starting with the one closest to the base
+      for ( int i = chain.size() - 1; i >= 0; i-- ) {
+         final Resource chainUnit = chain.get( i );
+         final OptionalDouble numericConversionFactor = getNumericConversionFactor( chainUnit );
+         if ( baseUnit == null || numericConversionFactor.isEmpty() ) {
+            baseUnit = null;
+            unresolvable.add( chainUnit );
+            continue;
+         }
+         factor = factor * numericConversionFactor.getAsDouble();
+         baseUnits.put( chainUnit, baseUnit );
+         factorsToBaseUnit.put( chainUnit, factor );
+      }
+   }
+
+   private OptionalDouble getNumericConversionFactor( final Resource unit ) {
+      return Optional.ofNullable( unit.getProperty( unitsResources.getNumericConversionFactorProperty() ) )
+            .map( Statement::getObject )
+            .filter( RDFNode::isLiteral )
+            .map( node -> OptionalDouble.of( node.asLiteral().getDouble() ) )
+            .orElse( OptionalDouble.empty() );
+   }
+
+   /**
+    * Returns the base unit of a unit, i.e. the unit reached by following its reference units transitively.
+    * A unit without reference unit is its own base unit.
+    *
+    * @param unit the unit
+    * @return the base unit, if the unit's conversion can be resolved
+    */
+   public Optional<Resource> getBaseUnit( final Resource unit ) {
+      return Optional.ofNullable( baseUnits.get( unit ) );
+   }
+
+   /**
+    * Returns the factor to convert a value in a unit to its {@link #getBaseUnit(Resource) base unit}
+    *
+    * @param unit the unit
+    * @return the conversion factor, if the unit's conversion can be resolved
+    */
+   public OptionalDouble getFactorToBaseUnit( final Resource unit ) {
+      final Double factor = factorsToBaseUnit.get( unit );
+      return factor == null ? OptionalDouble.empty() : OptionalDouble.of( factor );
+   }
+}
@@ -14,6 +14,7 @@
 package org.eclipse.esmf.samm.buildtime.unitsgenerator;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -49,12 +50,12 @@ public class Units {
       return model;
    }
 
-   private Model addRec20( final Model model ) {
-      new UnitsFromRec20ExcelSupplier( unitsResources, rec20Excel ).get().forEach( model::add );
+   private Model addRec20( final Model model ) throws IOException {
+      new UnitsFromRec20ExcelSupplier( unitsResources, rec20Excel ).forEachStatement( model::add );
       return new UnitsReferencesAdder( unitsResources ).apply( model );
    }
 
-   public Model createModel() {
+   public Model createModel() throws IOException {
       final Model model = addRec20( create() );
 
       Stream.of(
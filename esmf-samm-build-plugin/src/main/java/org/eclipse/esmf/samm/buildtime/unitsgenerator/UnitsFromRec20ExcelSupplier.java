@@ -18,31 +18,26 @@ import static org.apache.jena.rdf.model.ResourceFactory.createPlainLiteral;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
 import static org.apache.jena.rdf.model.ResourceFactory.createStatement;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 import org.apache.commons.text.CaseUtils;
 import org.apache.jena.rdf.model.Literal;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.vocabulary.RDF;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Creates model elements from the source Excel file
  */
 public class UnitsFromRec20ExcelSupplier implements Supplier<Stream<Statement>> {
-   private static final Logger LOG = LoggerFactory.getLogger( UnitsFromRec20ExcelSupplier.class );
    private final UnitsResources unitsResource;
    private final byte[] rec20Excel;
 
@@ -71,6 +66,11 @@ public class UnitsFromRec20ExcelSupplier implements Supplier<Stream<Statement>>
          this.columnConversionFactor = columnConversionFactor;
          this.columnSymbol = columnSymbol;
       }
+
+      int getMaxColumn() {
+         return IntStream.of( columnQuantity, columnStatus, columnCommonCode, columnName, columnConversionFactor, columnSymbol )
+               .max().orElse( 0 );
+      }
    }
 
    private final WorksheetConfiguration annex1 = new WorksheetConfiguration( 1, 3, 5, 6, 7, 8, 9 );
@@ -205,32 +205,43 @@ public class UnitsFromRec20ExcelSupplier implements Supplier<Stream<Statement>>
             .orElse( Stream.empty() );
    }
 
-   private Stream<TableEntry> getExcelTableEntriesForAnnex( final Workbook wb, final WorksheetConfiguration configuration ) {
-      final Sheet sheet = wb.getSheetAt( configuration.worksheetNumber );
-
-      return StreamSupport.stream( sheet.spliterator(), false ).skip( 1 ).map( row -> {
-         final String quantity = configuration.columnQuantity > 0 ? row.getCell( configuration.columnQuantity ).toString() : "";
-         final String commonCode = row.getCell( configuration.columnCommonCode ).toString();
-         final String name = row.getCell( configuration.columnName ).toString();
-         final String conversionFactor = row.getCell( configuration.columnConversionFactor ).toString();
-         final String symbol = row.getCell( configuration.columnSymbol ).toString();
-         final String status = row.getCell( configuration.columnStatus ).toString();
-         return new TableEntry( quantity, commonCode, name, conversionFactor, symbol,
-               TableEntry.Status.fromStatusSymbol( status ).orElse( TableEntry.Status.EMPTY ) );
-      } );
+   private TableEntry getTableEntry( final WorksheetConfiguration configuration, final String[] cells ) {
+      final String quantity = configuration.columnQuantity > 0 ? cells[configuration.columnQuantity] : "";
+      final String commonCode = cells[configuration.columnCommonCode];
+      final String name = cells[configuration.columnName];
+      final String conversionFactor = cells[configuration.columnConversionFactor];
+      final String symbol = cells[configuration.columnSymbol];
+      final String status = cells[configuration.columnStatus];
+      return new TableEntry( quantity, commonCode, name, conversionFactor, symbol,
+            TableEntry.Status.fromStatusSymbol( status ).orElse( TableEntry.Status.EMPTY ) );
+   }
+
+   /**
+    * Reads the annex worksheets of the Excel file in a single pass and passes the statements for each table entry to
+    * the consumer as soon as its row has been read. The workbook is processed as a stream of records, so apart from
+    * the Excel file itself, only the current row is held in memory.
+    *
+    * @param consumer the consumer of the created statements
+    * @throws IOException if the Excel file can not be read
+    */
+   public void forEachStatement( final Consumer<Statement> consumer ) throws IOException {
+      final int numberOfColumns = Stream.of( annex1, annex2 ).mapToInt( WorksheetConfiguration::getMaxColumn ).max().orElse( 0 ) + 1;
+      final Rec20ExcelRowReader reader = new Rec20ExcelRowReader( new int[] { annex1.worksheetNumber, annex2.worksheetNumber },
+            numberOfColumns, ( worksheetNumber, cells ) -> {
+               final WorksheetConfiguration configuration = worksheetNumber == annex1.worksheetNumber ? annex1 : annex2;
+               convertTableEntryToRdf( getTableEntry( configuration, cells ) ).forEach( consumer );
+            } );
+      reader.read( rec20Excel );
    }
 
    @Override
    public Stream<Statement> get() {
-      try ( final InputStream inputStream = new ByteArrayInputStream( rec20Excel );
-            final BufferedInputStream bis = new BufferedInputStream( inputStream );
-            final Workbook workbook = WorkbookFactory.create( bis ) ) {
-         return Stream.concat(
-               getExcelTableEntriesForAnnex( workbook, annex1 ),
-               getExcelTableEntriesForAnnex( workbook, annex2 ) ).flatMap( this::convertTableEntryToRdf );
-      } catch ( final IOException e ) {
-         LOG.error( e.getMessage() );
-         return Stream.empty();
+      final List<Statement> statements = new ArrayList<>();
+      try {
+         forEachStatement( statements::add );
+      } catch ( final IOException exception ) {
+         throw new UncheckedIOException( exception );
       }
+      return statements.stream();
    }
 }
@@ -13,12 +13,13 @@
 
 package org.eclipse.esmf.samm.buildtime.unitsgenerator;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -27,6 +28,7 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.eclipse.esmf.samm.buildtime.BuildStamp;
 import org.eclipse.esmf.samm.buildtime.FileDownloader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,8 +37,15 @@ import org.slf4j.LoggerFactory;
  * Downloads the Recommendation 20 zip file, extracts the Excel from it, transforms the Excel to RDF/TTL and writes the
  * corresponding units.ttl file
  */
-@Mojo( name = "generateUnits", defaultPhase = LifecyclePhase.GENERATE_RESOURCES )
+@Mojo( name = "generateUnits", defaultPhase = LifecyclePhase.GENERATE_RESOURCES, threadSafe = true )
 public class UnitsGeneratorMojo extends AbstractMojo {
+   /**
+    * The revision of the units.ttl generation, which is part of the build stamp; it must be incremented whenever the
+    * output for the same inputs changes. The plugin version is not part of the stamp, since the committed units.ttl
+    * would otherwise be downloaded and generated again with every release.
+    */
+   static final int GENERATOR_REVISION = 1;
+
    private final Logger LOG = LoggerFactory.getLogger( UnitsGeneratorMojo.class );
 
    @Parameter( required = true )
@@ -51,35 +60,92 @@ public class UnitsGeneratorMojo extends AbstractMojo {
    @Parameter( required = true )
    String outputPath;
 
+   /**
+    * The expected SHA-256 hash of the Rec20 zip file; if set, the download is verified against it
+    */
+   @Parameter
+   String rec20Sha256;
+
+   @Parameter( property = "samm.downloadCacheDirectory", defaultValue = "${settings.localRepository}/.cache/esmf-samm-build-plugin" )
+   File downloadCacheDirectory;
+
+   @Parameter( property = "samm.offline", defaultValue = "${settings.offline}" )
+   boolean offline;
+
+   /**
+    * The file that records the fingerprint of the inputs and the output of the last generation. Committing it together
+    * with the output makes sure that the output is only regenerated when one of the inputs or the output itself
+    * changes. An output that exists without a stamp file was not generated by this goal (or its stamp was not
+    * committed) and is kept as it is; it is generated again when it is deleted.
+    */
+   @Parameter( defaultValue = "${project.build.directory}/samm-build-stamps/${mojoExecution.executionId}.stamp" )
+   File stampFile;
+
+   /**
+    * If true, the Rec20 zip file is revalidated (via the download cache) on every build and changes of its content
+    * cause a regeneration; otherwise only the URL and the expected hash are part of the fingerprint
+    */
+   @Parameter( property = "samm.checkUpstream", defaultValue = "false" )
+   boolean checkUpstream;
+
    @Override
    public void execute() throws MojoExecutionException {
       final File outputFile = new File( outputPath );
-      if ( outputFile.exists() ) {
-         LOG.info( "{}: Units file {} already exists. Skipping writing.", UnitsGeneratorMojo.class.getSimpleName(), outputPath );
-         return;
-      }
+      try {
+         final FileDownloader downloader = new FileDownloader( downloadCacheDirectory.toPath(), offline );
+         final BuildStamp stamp = createStamp();
+         if ( !stamp.isRecorded() && outputFile.exists() ) {
+            LOG.info( "{}: Units file {} has no build stamp and is kept as it is. Delete it to generate it again.",
+                  UnitsGeneratorMojo.class.getSimpleName(), outputPath );
+            return;
+         }
+         byte[] rec20Zip = null;
+         if ( checkUpstream ) {
+            rec20Zip = downloader.fetch( rec20Url, rec20Sha256 );
+            stamp.content( "rec20", rec20Zip );
+         }
+         if ( stamp.isUpToDate( outputFile.toPath() ) ) {
+            LOG.info( "{}: Units file {} is up to date. Skipping writing.", UnitsGeneratorMojo.class.getSimpleName(), outputPath );
+            return;
+         }
 
-      LOG.info( "Generating {}", outputPath );
-      try ( final OutputStream outputStream = new FileOutputStream( outputPath ) ) {
-         final byte[] rec20Excel = getRec20Excel( rec20Url );
+         LOG.info( "Generating {}, changed inputs and outputs: {}", outputPath, stamp.getChanges( outputFile.toPath() ) );
+         if ( rec20Zip == null ) {
+            rec20Zip = downloader.fetch( rec20Url, rec20Sha256 );
+         }
+         final byte[] rec20Excel = getRec20Excel( rec20Zip );
          final UnitsResources unitsResources = new UnitsResources( metaModelVersion );
-         new ModelSerializer( new Units( unitsResources, customRDFInputDirectory, rec20Excel ).createModel(), outputStream, unitsResources ).write();
-         outputStream.flush();
+         // Serialize to memory first, so that a failure never leaves a partially written file behind
+         final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+         new ModelSerializer( new Units( unitsResources, customRDFInputDirectory, rec20Excel ).createModel(), buffer, unitsResources ).write();
+         try ( final OutputStream outputStream = new FileOutputStream( outputFile ) ) {
+            outputStream.write( buffer.toByteArray() );
+         }
+         stamp.write( outputFile.toPath() );
       } catch ( final Exception exception ) {
          throw new MojoExecutionException( "Could not write file", exception );
       }
    }
 
+   BuildStamp createStamp() throws IOException {
+      return new BuildStamp( stampFile.toPath() )
+            .parameter( "rec20Url", rec20Url )
+            .parameter( "rec20Sha256", rec20Sha256 )
+            .parameter( "metaModelVersion", metaModelVersion )
+            .parameter( "generatorRevision", String.valueOf( GENERATOR_REVISION ) )
+            .textFile( "custom-quantitykinds.ttl", Path.of( customRDFInputDirectory + "custom-quantitykinds.ttl" ) )
+            .textFile( "custom-units.ttl", Path.of( customRDFInputDirectory + "custom-units.ttl" ) );
+   }
+
    /**
-    * Download and unzip the Rec20 Excel file
-    * @param rec20ZipUrl the URL of the zip file
+    * Unzip the Rec20 Excel file
+    * @param rec20Zip the content of the zip file
     * @return the content of the .xls file
-    * @throws IOException if something can not be downloaded or accessed
+    * @throws IOException if something can not be accessed
     */
-   private static byte[] getRec20Excel( final String rec20ZipUrl ) throws IOException {
+   private static byte[] getRec20Excel( final byte[] rec20Zip ) throws IOException {
       final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-      final InputStream inputStream = FileDownloader.download( rec20ZipUrl );
-      final ZipInputStream zip = new ZipInputStream( inputStream );
+      final ZipInputStream zip = new ZipInputStream( new ByteArrayInputStream( rec20Zip ) );
       ZipEntry entry;
       final byte[] buffer = new byte[2048];
       while ( (entry = zip.getNextEntry()) != null ) {
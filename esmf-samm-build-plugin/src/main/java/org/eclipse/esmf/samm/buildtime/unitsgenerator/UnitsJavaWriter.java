@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.unitsgenerator;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.stream.Collectors;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * Writes the units catalog as Java source: A subclass of org.eclipse.esmf.samm.unit.UnitCatalog that registers all
+ * quantity kinds and units of the model in its constructor, including each unit's fully resolved conversion to its
+ * base unit (see {@link UnitConversionGraph}). Registrations are split across several methods to stay
+ * below the JVM's size limit for a single method. The output is sorted by name, so it only changes when the catalog
+ * changes.
+ */
+public class UnitsJavaWriter {
+   /**
+    * The revision of the generated code, which is part of the build stamp; it must be incremented whenever the output
+    * for the same input changes
+    */
+   public static final int REVISION = 1;
+   private static final String INDENT = "   ";
+   private static final int ELEMENTS_PER_METHOD = 200;
+   private final Model model;
+   private final PrintWriter writer;
+   private final UnitsResources unitsResources;
+   private final String packageName;
+   private final String className;
+   private final String metaModelVersion;
+   private final UnitConversionGraph conversionGraph;
+
+   public UnitsJavaWriter( final Model model, final OutputStream outputStream, final UnitsResources unitsResources,
+         final String packageName, final String className, final String metaModelVersion ) {
+      this.model = model;
+      this.unitsResources = unitsResources;
+      this.packageName = packageName;
+      this.className = className;
+      this.metaModelVersion = metaModelVersion;
+      conversionGraph = new UnitConversionGraph( model, unitsResources );
+      writer = new PrintWriter( new OutputStreamWriter( outputStream, StandardCharsets.UTF_8 ) );
+   }
+
+   public void write() {
+      final List<Resource> quantityKinds = getResourcesByType( unitsResources.getQuantityKindClass() );
+      final List<Resource> units = getResourcesByType( unitsResources.getUnitClass() );
+      final int quantityKindMethods = numberOfMethods( quantityKinds );
+      final int unitMethods = numberOfMethods( units );
+
+      writeCopyrightHeader();
+      writer.format( "package %s;%n%n", packageName );
+      writer.format( "import org.eclipse.esmf.samm.KnownVersion;%n" );
+      writer.format( "import org.eclipse.esmf.samm.unit.UnitCatalog;%n%n" );
+      writer.format( "/**%n * The units catalog of SAMM %s, generated from units.ttl%n */%n", metaModelVersion );
+      writer.format( "public final class %s extends UnitCatalog {%n", className );
+      writer.format( "%spublic static final %s INSTANCE = new %s();%n%n", INDENT, className, className );
+      writer.format( "%sprivate %s() {%n", INDENT, className );
+      writer.format( "%s%ssuper( KnownVersion.SAMM_%s );%n", INDENT, INDENT, metaModelVersion.replace( '.', '_' ) );
+      for ( int i = 0; i < quantityKindMethods; i++ ) {
+         writer.format( "%s%squantityKinds%d();%n", INDENT, INDENT, i );
+      }
+      for ( int i = 0; i < unitMethods; i++ ) {
+         writer.format( "%s%sunits%d();%n", INDENT, INDENT, i );
+      }
+      writer.format( "%s%sresolveReferenceUnits();%n", INDENT, INDENT );
+      writer.format( "%s}%n", INDENT );
+
+      for ( int i = 0; i < quantityKindMethods; i++ ) {
+         writer.format( "%n%sprivate void quantityKinds%d() {%n", INDENT, i );
+         chunk( quantityKinds, i ).forEach( this::writeQuantityKind );
+         writer.format( "%s}%n", INDENT );
+      }
+      for ( int i = 0; i < unitMethods; i++ ) {
+         writer.format( "%n%sprivate void units%d() {%n", INDENT, i );
+         chunk( units, i ).forEach( this::writeUnit );
+         writer.format( "%s}%n", INDENT );
+      }
+      writer.format( "}%n" );
+      writer.flush();
+      writer.close();
+   }
+
+   private void writeCopyrightHeader() {
+      // The header does not contain the current year, so that the output only depends on the input
+      writer.format( "/*%n"
+            + " * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH%n"
+            + " *%n"
+            + " * See the AUTHORS file(s) distributed with this work for additional%n"
+            + " * information regarding authorship.%n"
+            + " *%n"
+            + " * This Source Code Form is subject to the terms of the Mozilla Public%n"
+            + " * License, v. 2.0. If a copy of the MPL was not distributed with this%n"
+            + " * file, You can obtain one at https://mozilla.org/MPL/2.0/.%n"
+            + " *%n"
+            + " * SPDX-License-Identifier: MPL-2.0%n"
+            + " *%n"
+            + " * This file was generated automatically, do not modify.%n"
+            + " */%n%n" );
+   }
+
+   private void writeQuantityKind( final Resource quantityKind ) {
+      writer.format( "%s%squantityKind( %s, %s );%n", INDENT, INDENT, javaString( localName( quantityKind ) ),
+            javaString( getString( quantityKind, unitsResources.getPreferredNameProperty() ).orElse( null ) ) );
+   }
+
+   private void writeUnit( final Resource unit ) {
+      final String quantityKinds = unit.listProperties( unitsResources.getQuantityKindProperty() ).toList().stream()
+            .map( Statement::getObject )
+            .filter( RDFNode::isURIResource )
+            .map( node -> localName( node.asResource() ) )
+            .sorted()
+            .map( this::javaString )
+            .map( name -> ", " + name )
+            .collect( Collectors.joining() );
+      final String numericConversionFactor = Optional.ofNullable( unit.getProperty( unitsResources.getNumericConversionFactorProperty() ) )
+            .map( Statement::getObject )
+            .filter( RDFNode::isLiteral )
+            .map( node -> Double.toString( node.asLiteral().getDouble() ) )
+            .orElse( "Double.NaN" );
+      final String referenceUnit = Optional.ofNullable( unit.getPropertyResourceValue( unitsResources.getReferenceUnitProperty() ) )
+            .map( UnitsJavaWriter::localName )
+            .orElse( null );
+      final String baseUnit = conversionGraph.getBaseUnit( unit ).map( UnitsJavaWriter::localName ).orElse( null );
+      final OptionalDouble factorToBaseUnit = conversionGraph.getFactorToBaseUnit( unit );
+      writer.format( "%s%sunit( %s, %s, %s, %s, %s, %s, %s, %s, %s%s );%n", INDENT, INDENT,
+            javaString( localName( unit ) ),
+            javaString( getString( unit, unitsResources.getPreferredNameProperty() ).orElse( null ) ),
+            javaString( getString( unit, unitsResources.getCommonCodeProperty() ).orElse( null ) ),
+            javaString( getString( unit, unitsResources.getSymbolProperty() ).orElse( null ) ),
+            javaString( getString( unit, unitsResources.getConversionFactorProperty() ).orElse( null ) ),
+            javaString( referenceUnit ),
+            numericConversionFactor,
+            javaString( baseUnit ),
+            factorToBaseUnit.isPresent() ? Double.toString( factorToBaseUnit.getAsDouble() ) : "Double.NaN",
+            quantityKinds );
+   }
+
+   private Optional<String> getString( final Resource resource, final Property property ) {
+      return resource.listProperties( property ).toList().stream()
+            .map( Statement::getObject )
+            .filter( RDFNode::isLiteral )
+            .map( RDFNode::asLiteral )
+            .sorted( Comparator.comparing( ( final Literal literal ) -> !literal.getLanguage().equals( "en" ) )
+                  .thenComparing( Literal::getLexicalForm ) )
+            .map( Literal::getLexicalForm )
+            .findFirst();
+   }
+
+   private String javaString( final String value ) {
+      return value == null ? "null" : "\"" + StringEscapeUtils.escapeJava( value ) + "\"";
+   }
+
+   private List<Resource> getResourcesByType( final Resource type ) {
+      return model.listSubjectsWithProperty( RDF.type, type ).toList().stream()
+            .filter( Resource::isURIResource )
+            .sorted( Comparator.comparing( UnitsJavaWriter::localName ) )
+            .collect( Collectors.toList() );
+   }
+
+   private static String localName( final Resource resource ) {
+      final String uri = resource.getURI();
+      return uri.substring( uri.indexOf( '#' ) + 1 );
+   }
+
+   private static int numberOfMethods( final List<Resource> resources ) {
+      return (resources.size() + ELEMENTS_PER_METHOD - 1) / ELEMENTS_PER_METHOD;
+   }
+
+   private static List<Resource> chunk( final List<Resource> resources, final int index ) {
+      return resources.subList( index * ELEMENTS_PER_METHOD, Math.min( resources.size(), (index + 1) * ELEMENTS_PER_METHOD ) );
+   }
+}
@@ -16,14 +16,18 @@ package org.eclipse.esmf.samm.buildtime.unitsgenerator;
 import static org.apache.jena.rdf.model.ResourceFactory.createStatement;
 import static org.apache.jena.rdf.model.ResourceFactory.createTypedLiteral;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 
 import org.apache.jena.rdf.model.Literal;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.RDFNode;
-import org.apache.jena.rdf.model.ResIterator;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
@@ -31,8 +35,19 @@ import org.apache.jena.rdf.model.StmtIterator;
 /**
  * For all units U in a model, this function takes U's conversion factor, extracts the non-numeric (i.e. unit) part
  * from it, finds out if there is a unit U' defined with this symbol and adds U' as a reference to U.
+ * The units are indexed by symbol once, so each unit's reference is resolved with a single lookup. If several units
+ * share a symbol, the unit that is defined by the symbol itself (i.e. whose conversion factor is just the symbol) is
+ * preferred, then the unit with the lexically smallest URI, so that the result does not depend on the model's
+ * iteration order.
  */
 public class UnitsReferencesAdder implements UnaryOperator<Model> {
+   private static final Pattern NUMERIC_PART = Pattern.compile( "([\\d×¹²³⁴⁵⁶⁷⁸⁹⁰.⁻ ]*).*" );
+   private static final Pattern SYMBOL_PART = Pattern.compile( "[\\d×¹²³⁴⁵⁶⁷⁸⁹⁰.⁻ ]*(.*)" );
+   private static final Pattern POWER_OF_TEN = Pattern.compile( "10([¹²³⁴⁵⁶⁷⁸⁹⁰⁻]+)" );
+   private static final Pattern LEADING_EXPONENT = Pattern.compile( "^e" );
+   private static final Pattern MULTIPLICATION = Pattern.compile( " [×] " );
+   private static final String SUPERSCRIPT_CHARACTERS = "⁻¹²³⁴⁵⁶⁷⁸⁹⁰";
+   private static final String REGULAR_CHARACTERS = "-1234567890";
 
    private final UnitsResources unitResources;
 
@@ -47,28 +62,22 @@ public class UnitsReferencesAdder implements UnaryOperator<Model> {
     * @param conversionFactor The conversion factor as given in the original Excel file
     * @return The numeric value of that conversion factor
     */
-   private Double getNumericPart( final String conversionFactor ) {
-      final String numericPart = conversionFactor.replaceAll( "([\\d×¹²³⁴⁵⁶⁷⁸⁹⁰.⁻ ]*).*", "$1" )
-            .replace( " ", "" )
-            .replaceAll( "10([¹²³⁴⁵⁶⁷⁸⁹⁰⁻]+)", "e$1" )
-            .replace( "×", "" )
-            .replaceAll( "^e", "1e" )
-            .replace( '⁻', '-' )
-            .replace( '¹', '1' )
-            .replace( '²', '2' )
-            .replace( '³', '3' )
-            .replace( '⁴', '4' )
-            .replace( '⁵', '5' )
-            .replace( '⁶', '6' )
-            .replace( '⁷', '7' )
-            .replace( '⁸', '8' )
-            .replace( '⁹', '9' )
-            .replace( '⁰', '0' );
+   static double getNumericPart( final String conversionFactor ) {
+      final String numericPartWithSpaces = NUMERIC_PART.matcher( conversionFactor ).replaceAll( "$1" );
+      final String numericPart = LEADING_EXPONENT.matcher(
+            POWER_OF_TEN.matcher( numericPartWithSpaces.replace( " ", "" ) ).replaceAll( "e$1" ).replace( "×", "" ) )
+            .replaceAll( "1e" );
 
       if ( numericPart.isEmpty() ) {
          return 1.0d;
       }
-      return Double.parseDouble( numericPart );
+      final StringBuilder result = new StringBuilder( numericPart.length() );
+      for ( int i = 0; i < numericPart.length(); i++ ) {
+         final char character = numericPart.charAt( i );
+         final int superscriptIndex = SUPERSCRIPT_CHARACTERS.indexOf( character );
+         result.append( superscriptIndex >= 0 ? REGULAR_CHARACTERS.charAt( superscriptIndex ) : character );
+      }
+      return Double.parseDouble( result.toString() );
    }
 
    /**
@@ -78,14 +87,57 @@ public class UnitsReferencesAdder implements UnaryOperator<Model> {
     * @param conversionFactor The conversion factor as given in the original Excel file
     * @return The symbol part that corresponds with the symbol of another unit
     */
-   private String getSymbolPart( final String conversionFactor ) {
-      return conversionFactor.replaceAll( "[\\d×¹²³⁴⁵⁶⁷⁸⁹⁰.⁻ ]*(.*)", "$1" )
-            .replaceAll( " [×] ", "·" );
+   static String getSymbolPart( final String conversionFactor ) {
+      return MULTIPLICATION.matcher( SYMBOL_PART.matcher( conversionFactor ).replaceAll( "$1" ) ).replaceAll( "·" );
+   }
+
+   private Optional<String> getLiteral( final Resource resource, final Property property ) {
+      return Optional.ofNullable( resource.getProperty( property ) )
+            .map( statement -> statement.getObject().asLiteral().toString() );
+   }
+
+   private boolean isDefinedBySymbol( final Resource unit, final String symbol ) {
+      return getLiteral( unit, unitResources.getConversionFactorProperty() )
+            .map( UnitsReferencesAdder::getSymbolPart )
+            .map( symbol::equals )
+            .orElse( false );
+   }
+
+   private boolean isPreferred( final Resource candidate, final Resource existing, final String symbol ) {
+      final boolean candidateIsDefinedBySymbol = isDefinedBySymbol( candidate, symbol );
+      if ( candidateIsDefinedBySymbol != isDefinedBySymbol( existing, symbol ) ) {
+         return candidateIsDefinedBySymbol;
+      }
+      return candidate.getURI().compareTo( existing.getURI() ) < 0;
+   }
+
+   /**
+    * Builds the index from symbol to unit, choosing deterministically if a symbol is used by several units
+    *
+    * @param model the units model
+    * @return the units by symbol
+    */
+   private Map<String, Resource> indexUnitsBySymbol( final Model model ) {
+      final Map<String, Resource> unitsBySymbol = new HashMap<>();
+      for ( final StmtIterator iterator = model.listStatements( null, unitResources.getSymbolProperty(), (RDFNode) null ); iterator.hasNext(); ) {
+         final Statement statement = iterator.next();
+         final Resource candidate = statement.getSubject();
+         if ( !candidate.isURIResource() ) {
+            continue;
+         }
+         final String symbol = statement.getObject().asLiteral().toString();
+         final Resource existing = unitsBySymbol.get( symbol );
+         if ( existing == null || isPreferred( candidate, existing, symbol ) ) {
+            unitsBySymbol.put( symbol, candidate );
+         }
+      }
+      return unitsBySymbol;
    }
 
    @Override
    public Model apply( final Model model ) {
-      final Set<Statement> additionalStatements = new HashSet<>();
+      final Map<String, Resource> unitsBySymbol = indexUnitsBySymbol( model );
+      final List<Statement> additionalStatements = new ArrayList<>();
       for ( final StmtIterator statementIterator = model.listStatements( null, unitResources.getConversionFactorProperty(),
             (RDFNode) null ); statementIterator.hasNext(); ) {
          final Statement statement = statementIterator.next();
@@ -100,23 +152,19 @@ public class UnitsReferencesAdder implements UnaryOperator<Model> {
          }
 
          // Check if conversion factor and symbol are the same, which makes no sense
-         final Statement unitSymbolStatement = unit.getProperty( unitResources.getSymbolProperty() );
-         if ( unitSymbolStatement != null && unitSymbolStatement.getObject().asLiteral().toString()
-               .equals( conversionFactorSymbol ) ) {
+         final Optional<String> unitSymbol = getLiteral( unit, unitResources.getSymbolProperty() );
+         if ( unitSymbol.isPresent() && unitSymbol.get().equals( conversionFactorSymbol ) ) {
             continue;
          }
-         final Double numericConversionFactor = getNumericPart( conversionFactor );
-         final Literal numericConversionFactorLiteral = createTypedLiteral( numericConversionFactor );
 
-         final ResIterator iterator = model.listSubjectsWithProperty( unitResources.getSymbolProperty(), conversionFactorSymbol );
-         if ( iterator.hasNext() ) {
-            final Resource referenceUnit = iterator.next();
+         final Resource referenceUnit = unitsBySymbol.get( conversionFactorSymbol );
+         if ( referenceUnit != null ) {
+            final Literal numericConversionFactorLiteral = createTypedLiteral( getNumericPart( conversionFactor ) );
             additionalStatements.add( createStatement( unit, unitResources.getReferenceUnitProperty(), referenceUnit ) );
-            additionalStatements.add(
-                  createStatement( statement.getSubject(), unitResources.getNumericConversionFactorProperty(), numericConversionFactorLiteral ) );
+            additionalStatements.add( createStatement( unit, unitResources.getNumericConversionFactorProperty(), numericConversionFactorLiteral ) );
          }
       }
-      additionalStatements.forEach( model::add );
+      model.add( additionalStatements );
 
       return model;
    }
@@ -26,15 +26,17 @@ public class UnitsResources {
       final String namespacePrefix = "urn:samm:org.eclipse.esmf.samm:";
       namespaceUnits = String.format( namespacePrefix + "unit:%s#", metaModelVersion );
       namespaceSamm = String.format( namespacePrefix + "meta-model:%s#", metaModelVersion );
+      // In SAMM 1.x, the classes and properties describing units are defined in the unit namespace itself
+      final String namespaceVocabulary = metaModelVersion.startsWith( "1." ) ? namespaceUnits : namespaceSamm;
       preferredNameProperty = createProperty( namespaceSamm + "preferredName" );
-      quantityKindClass = createResource( namespaceSamm + QUANTITY_KIND_CLASS_NAME );
-      unitClass = createResource( namespaceSamm + UNIT_CLASS_NAME );
-      quantityKindProperty = createProperty( namespaceSamm + QUANTITY_KIND_PROPERTY_NAME );
-      commonCodeProperty = createProperty( namespaceSamm + COMMON_CODE_PROPERTY_NAME );
-      conversionFactorProperty = createProperty( namespaceSamm + CONVERSION_FACTOR_PROPERTY_NAME );
-      symbolProperty = createProperty( namespaceSamm + SYMBOL_PROPERTY_NAME );
-      referenceUnitProperty = createProperty( namespaceSamm + REFERENCE_UNIT_NAME );
-      numericConversionFactorProperty = createProperty( namespaceSamm + NUMERIC_CONVERSION_FACTOR_PROPERTY_NAME );
+      quantityKindClass = createResource( namespaceVocabulary + QUANTITY_KIND_CLASS_NAME );
+      unitClass = createResource( namespaceVocabulary + UNIT_CLASS_NAME );
+      quantityKindProperty = createProperty( namespaceVocabulary + QUANTITY_KIND_PROPERTY_NAME );
+      commonCodeProperty = createProperty( namespaceVocabulary + COMMON_CODE_PROPERTY_NAME );
+      conversionFactorProperty = createProperty( namespaceVocabulary + CONVERSION_FACTOR_PROPERTY_NAME );
+      symbolProperty = createProperty( namespaceVocabulary + SYMBOL_PROPERTY_NAME );
+      referenceUnitProperty = createProperty( namespaceVocabulary + REFERENCE_UNIT_NAME );
+      numericConversionFactorProperty = createProperty( namespaceVocabulary + NUMERIC_CONVERSION_FACTOR_PROPERTY_NAME );
    }
 
    static final String QUANTITY_KIND_CLASS_NAME = "QuantityKind";
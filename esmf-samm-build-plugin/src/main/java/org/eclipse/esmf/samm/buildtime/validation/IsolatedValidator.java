@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.validation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * Validates Aspect Models against the SAMM shapes using the TopBraid SHACL engine. The engine release that evaluates the
+ * sh:js constraints of the shapes is built against Jena 3.13, and a class path can only hold one version of Jena, while
+ * this plugin uses Jena 4. So the engine and the meta model are resolved with the engine's own Jena 3 and loaded in a
+ * separate class loader, in the same way as the shape tests of the meta model run the engine on its own Jena. Their
+ * Jena classes are not the ones of this plugin, so they are only accessed via reflection: Models are passed in as Turtle,
+ * and the validation report is passed back as N-Triples and read with the Jena of this plugin.
+ * <p>
+ * A model is validated together with the models it depends on, but only the results whose focus node is a subject of
+ * the model itself are reported; the other models report their own results.
+ * <p>
+ * Instances are not thread-safe (the engine modifies the shapes model), so each thread should use its own instance.
+ */
+class IsolatedValidator {
+   private static final String SH = "http://www.w3.org/ns/shacl#";
+   private static final Property CONFORMS = ResourceFactory.createProperty( SH, "conforms" );
+   private static final Property RESULT = ResourceFactory.createProperty( SH, "result" );
+   private static final Property RESULT_SEVERITY = ResourceFactory.createProperty( SH, "resultSeverity" );
+   private static final Property FOCUS_NODE = ResourceFactory.createProperty( SH, "focusNode" );
+   private static final Property RESULT_PATH = ResourceFactory.createProperty( SH, "resultPath" );
+   private static final Property RESULT_MESSAGE = ResourceFactory.createProperty( SH, "resultMessage" );
+   private static final Property VALUE = ResourceFactory.createProperty( SH, "value" );
+   private static final Pattern SAMM_URL = Pattern.compile( "\"samm://([\\p{Alpha}-]*)/(\\d+\\.\\d+\\.\\d+)/([^\"]*)\"" );
+   private static final Pattern SAMM_SCRIPTS_URL = Pattern.compile( "\"samm://scripts/([^\"]*)\"" );
+   private static final String MODEL_GRAPH = "urn:samm:validation:model";
+   private static final String REMOVE_OTHER_RESULTS = "PREFIX sh: <" + SH + ">\n"
+         + "DELETE { ?report sh:result ?result } WHERE {\n"
+         + "   ?report sh:result ?result . ?result sh:focusNode ?focusNode .\n"
+         + "   FILTER NOT EXISTS { GRAPH <" + MODEL_GRAPH + "> { ?focusNode ?predicate ?object } }\n"
+         + "}";
+
+   private final ClassLoader classLoader;
+   private final Method createModel;
+   private final Method read;
+   private final Method add;
+   private final Method write;
+   private final Method validateModel;
+   private final Method getModel;
+   private final Method createDataset;
+   private final Method addNamedModel;
+   private final Method getDefaultModel;
+   private final Method executeUpdate;
+   private final Object shapes;
+   private final Object metaModel;
+
+   /**
+    * @param classLoader the class loader that contains the meta model, the SHACL engine and their dependencies
+    * @param metaModelVersion the version of the meta model to validate against, e.g. 2.0.0
+    * @throws IOException if the meta model files can not be found or read
+    * @throws ReflectiveOperationException if the class loader does not contain the expected classes of Jena and SHACL
+    */
+   IsolatedValidator( final ClassLoader classLoader, final String metaModelVersion ) throws IOException, ReflectiveOperationException {
+      this.classLoader = classLoader;
+      final Class<?> modelFactory = classLoader.loadClass( "org.apache.jena.rdf.model.ModelFactory" );
+      final Class<?> model = classLoader.loadClass( "org.apache.jena.rdf.model.Model" );
+      final Class<?> resource = classLoader.loadClass( "org.apache.jena.rdf.model.Resource" );
+      final Class<?> validationUtil = classLoader.loadClass( "org.topbraid.shacl.validation.ValidationUtil" );
+      final Class<?> dataset = classLoader.loadClass( "org.apache.jena.query.Dataset" );
+      createModel = modelFactory.getMethod( "createDefaultModel" );
+      read = model.getMethod( "read", InputStream.class, String.class, String.class );
+      add = model.getMethod( "add", model );
+      write = model.getMethod( "write", OutputStream.class, String.class );
+      validateModel = validationUtil.getMethod( "validateModel", model, model, boolean.class );
+      getModel = resource.getMethod( "getModel" );
+      createDataset = classLoader.loadClass( "org.apache.jena.query.DatasetFactory" ).getMethod( "create", model );
+      addNamedModel = dataset.getMethod( "addNamedModel", String.class, model );
+      getDefaultModel = dataset.getMethod( "getDefaultModel" );
+      executeUpdate = classLoader.loadClass( "org.apache.jena.update.UpdateAction" ).getMethod( "parseExecute", String.class, dataset );
+
+      shapes = loadModel( List.of(
+            "samm/meta-model/" + metaModelVersion + "/prefix-declarations.ttl",
+            "samm/meta-model/" + metaModelVersion + "/aspect-meta-model-shapes.ttl",
+            "samm/meta-model/" + metaModelVersion + "/type-conversions.ttl",
+            "samm/characteristic/" + metaModelVersion + "/characteristic-shapes.ttl" ) );
+      metaModel = loadModel( List.of(
+            "samm/meta-model/" + metaModelVersion + "/aspect-meta-model-definitions.ttl",
+            "samm/meta-model/" + metaModelVersion + "/type-conversions.ttl",
+            "samm/characteristic/" + metaModelVersion + "/characteristic-definitions.ttl",
+            "samm/characteristic/" + metaModelVersion + "/characteristic-instances.ttl",
+            "samm/entity/" + metaModelVersion + "/FileResource.ttl",
+            "samm/entity/" + metaModelVersion + "/TimeSeriesEntity.ttl",
+            "samm/entity/" + metaModelVersion + "/Point3d.ttl",
+            "samm/unit/" + metaModelVersion + "/units.ttl" ) );
+   }
+
+   /**
+    * Validates an Aspect Model
+    *
+    * @param turtle the Aspect Model in Turtle syntax
+    * @param dependencies the Aspect Models in Turtle syntax that the model depends on, see {@link ModelDependencies}
+    * @return the validation errors, or an empty list if the model conforms to the shapes
+    * @throws ReflectiveOperationException if the SHACL engine can not be invoked
+    */
+   List<String> validate( final byte[] turtle, final List<byte[]> dependencies ) throws ReflectiveOperationException {
+      final Thread thread = Thread.currentThread();
+      final ClassLoader contextClassLoader = thread.getContextClassLoader();
+      // The script engine for the sh:js constraints is looked up via the context class loader
+      thread.setContextClassLoader( classLoader );
+      try {
+         final Object model = createModel.invoke( null );
+         try {
+            read.invoke( model, new ByteArrayInputStream( turtle ), "", "TURTLE" );
+         } catch ( final InvocationTargetException exception ) {
+            return List.of( "Syntax error: " + exception.getCause().getMessage() );
+         }
+         final Object dataModel = createModel.invoke( null );
+         add.invoke( dataModel, model );
+         for ( final byte[] dependency : dependencies ) {
+            final Object dependencyModel = createModel.invoke( null );
+            try {
+               read.invoke( dependencyModel, new ByteArrayInputStream( dependency ), "", "TURTLE" );
+            } catch ( final InvocationTargetException exception ) {
+               // The syntax error is reported by the validation of the dependency itself
+               continue;
+            }
+            add.invoke( dataModel, dependencyModel );
+         }
+         add.invoke( dataModel, metaModel );
+         final Object report = validateModel.invoke( null, dataModel, shapes, true );
+         final Object reportDataset = createDataset.invoke( null, getModel.invoke( report ) );
+         addNamedModel.invoke( reportDataset, MODEL_GRAPH, model );
+         executeUpdate.invoke( null, REMOVE_OTHER_RESULTS, reportDataset );
+         final ByteArrayOutputStream reportNTriples = new ByteArrayOutputStream();
+         write.invoke( getDefaultModel.invoke( reportDataset ), reportNTriples, "N-TRIPLES" );
+         return readReport( reportNTriples.toByteArray() );
+      } finally {
+         thread.setContextClassLoader( contextClassLoader );
+      }
+   }
+
+   private List<String> readReport( final byte[] reportNTriples ) {
+      final Model report = ModelFactory.createDefaultModel();
+      report.read( new ByteArrayInputStream( reportNTriples ), "", RDFLanguages.NTRIPLES.getName() );
+      final List<String> errors = new ArrayList<>();
+      final boolean conforms = report.listObjectsOfProperty( CONFORMS ).toList().stream()
+            .allMatch( conformsNode -> conformsNode.isLiteral() && conformsNode.asLiteral().getBoolean() );
+      if ( conforms ) {
+         return errors;
+      }
+      for ( final Resource validationReport : report.listSubjectsWithProperty( RDF.type, report.createResource( SH + "ValidationReport" ) ).toList() ) {
+         for ( final RDFNode result : report.listObjectsOfProperty( validationReport, RESULT ).toList() ) {
+            final Resource validationResult = result.asResource();
+            errors.add( String.format( "%s: %s (focus node: %s, path: %s, value: %s)",
+                  field( validationResult, RESULT_SEVERITY ).replace( SH, "" ), field( validationResult, RESULT_MESSAGE ),
+                  field( validationResult, FOCUS_NODE ), field( validationResult, RESULT_PATH ), field( validationResult, VALUE ) ) );
+         }
+      }
+      errors.sort( String::compareTo );
+      return errors;
+   }
+
+   private static String field( final Resource validationResult, final Property property ) {
+      return Optional.ofNullable( validationResult.getProperty( property ) )
+            .map( Statement::getObject )
+            // Blank node labels differ between runs, so they are not shown
+            .map( node -> node.isAnon() ? "[]" : node.toString() )
+            .orElse( "" );
+   }
+
+   private Object loadModel( final List<String> resourcePaths ) throws IOException, ReflectiveOperationException {
+      final Object model = createModel.invoke( null );
+      for ( final String resourcePath : resourcePaths ) {
+         final String turtle;
+         try ( final InputStream input = classLoader.getResourceAsStream( resourcePath ) ) {
+            if ( input == null ) {
+               throw new IOException( "Could not find " + resourcePath + " in the meta model" );
+            }
+            turtle = rewriteSammUrls( new String( input.readAllBytes(), StandardCharsets.UTF_8 ) );
+         }
+         read.invoke( model, new ByteArrayInputStream( turtle.getBytes( StandardCharsets.UTF_8 ) ), "", "TURTLE" );
+      }
+      return model;
+   }
+
+   /**
+    * URLs inside the meta model shapes, in particular those used with sh:jsLibraryURL, are given as samm:// URLs; they
+    * are rewritten to the URLs of the respective resources in the class loader.
+    */
+   private String rewriteSammUrls( final String turtle ) {
+      final String rewritten = replace( SAMM_SCRIPTS_URL, turtle, matcher -> "samm/scripts/" + matcher.group( 1 ) );
+      return replace( SAMM_URL, rewritten,
+            matcher -> String.format( "samm/%s/%s/%s", matcher.group( 1 ), matcher.group( 2 ), matcher.group( 3 ) ) );
+   }
+
+   private String replace( final Pattern pattern, final String turtle, final Function<Matcher, String> resourcePath ) {
+      final Matcher matcher = pattern.matcher( turtle );
+      final StringBuilder result = new StringBuilder();
+      while ( matcher.find() ) {
+         final URL resource = classLoader.getResource( resourcePath.apply( matcher ) );
+         matcher.appendReplacement( result, Matcher.quoteReplacement( resource == null ? matcher.group() : "\"" + resource + "\"" ) );
+      }
+      matcher.appendTail( result );
+      return result.toString();
+   }
+}
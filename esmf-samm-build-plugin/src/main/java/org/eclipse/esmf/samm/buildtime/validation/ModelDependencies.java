@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.validation;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.riot.RDFLanguages;
+
+/**
+ * The files that an Aspect Model needs to be validated: An Aspect Model may refer to elements that are defined in other
+ * files, either in files of its own namespace or in files of other namespaces (imports). A file defines the namespaces
+ * of its subjects and refers to the namespaces of its predicates and objects; the dependencies of a file are the other
+ * files that define any of these namespaces, and their dependencies.
+ */
+class ModelDependencies {
+   private final Map<Path, Set<String>> namespaces = new HashMap<>();
+   private final Map<String, List<Path>> definingFiles = new HashMap<>();
+
+   /**
+    * @param models the contents of the Aspect Models by path
+    */
+   ModelDependencies( final Map<Path, byte[]> models ) {
+      models.forEach( ( path, content ) -> {
+         final Model model = ModelFactory.createDefaultModel();
+         try {
+            model.read( new ByteArrayInputStream( content ), "", RDFLanguages.TURTLE.getName() );
+         } catch ( final RuntimeException exception ) {
+            // The syntax error is reported by the validation of the file itself
+            namespaces.put( path, Set.of() );
+            return;
+         }
+         final Set<String> defined = new HashSet<>();
+         final Set<String> all = new HashSet<>();
+         for ( final Statement statement : model.listStatements().toList() ) {
+            if ( statement.getSubject().isURIResource() ) {
+               defined.add( namespace( statement.getSubject() ) );
+            }
+            all.add( namespace( statement.getPredicate() ) );
+            if ( statement.getObject().isURIResource() ) {
+               all.add( namespace( statement.getObject() ) );
+            }
+         }
+         all.addAll( defined );
+         namespaces.put( path, all );
+         defined.forEach( namespace -> definingFiles.computeIfAbsent( namespace, key -> new ArrayList<>() ).add( path ) );
+      } );
+   }
+
+   /**
+    * @param model the path of an Aspect Model
+    * @return the paths of the other Aspect Models that the model depends on, directly or indirectly, in sorted order
+    */
+   List<Path> get( final Path model ) {
+      final Set<Path> dependencies = new TreeSet<>();
+      final Set<String> visited = new HashSet<>( namespaces.get( model ) );
+      final Deque<String> pending = new ArrayDeque<>( visited );
+      while ( !pending.isEmpty() ) {
+         for ( final Path file : definingFiles.getOrDefault( pending.pop(), List.of() ) ) {
+            if ( !file.equals( model ) && dependencies.add( file ) ) {
+               namespaces.get( file ).stream().filter( visited::add ).forEach( pending::add );
+            }
+         }
+      }
+      return new ArrayList<>( dependencies );
+   }
+
+   private static String namespace( final RDFNode node ) {
+      final String uri = node.asResource().getURI();
+      final int separator = uri.lastIndexOf( '#' ) >= 0 ? uri.lastIndexOf( '#' ) : uri.lastIndexOf( '/' );
+      return separator >= 0 ? uri.substring( 0, separator + 1 ) : uri;
+   }
+}
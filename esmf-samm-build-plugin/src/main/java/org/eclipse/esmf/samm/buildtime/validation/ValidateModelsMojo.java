@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.validation;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.DependencyRequest;
+import org.eclipse.aether.resolution.DependencyResolutionException;
+import org.eclipse.aether.util.artifact.JavaScopes;
+import org.eclipse.aether.util.filter.DependencyFilterUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Validates all Aspect Models (.ttl files) in the given directories against the shapes of a meta model version. Each
+ * model is validated together with the models it depends on (see {@link ModelDependencies}), so that references to
+ * elements in other files are resolved. The models are validated in parallel, and the results are cached by the content
+ * hashes of each model and its dependencies, so that only models that changed or whose dependencies changed are
+ * validated again. All validation errors are collected in one report, and the build fails if any model is invalid.
+ * <p>
+ * The meta model and the SHACL engine are resolved from the Maven repositories and loaded in a separate class loader
+ * (see {@link IsolatedValidator}).
+ */
+@Mojo( name = "validateModels", defaultPhase = LifecyclePhase.PROCESS_RESOURCES, threadSafe = true )
+public class ValidateModelsMojo extends AbstractMojo {
+   private final Logger LOG = LoggerFactory.getLogger( ValidateModelsMojo.class );
+
+   /**
+    * The directories that are searched recursively for Aspect Models
+    */
+   @Parameter( required = true )
+   List<File> modelDirectories;
+
+   /**
+    * The meta model version to validate against, e.g. 2.0.0
+    */
+   @Parameter( property = "samm.metaModelVersion", required = true )
+   String metaModelVersion;
+
+   /**
+    * The version of the esmf-semantic-aspect-meta-model artifact that provides the shapes
+    */
+   @Parameter( defaultValue = "${plugin.version}" )
+   String metaModelArtifactVersion;
+
+   /**
+    * The version of the TopBraid SHACL engine
+    */
+   @Parameter( defaultValue = "1.3.1" )
+   String shaclVersion;
+
+   /**
+    * The number of models that are validated in parallel; 0 means one per available processor
+    */
+   @Parameter( property = "samm.validation.threads", defaultValue = "0" )
+   int threads;
+
+   @Parameter( defaultValue = "${project.build.directory}/samm-validation/validation-cache.properties" )
+   File cacheFile;
+
+   @Parameter( defaultValue = "${project.build.directory}/samm-validation/validation-report.txt" )
+   File reportFile;
+
+   @Parameter( property = "samm.validation.failOnError", defaultValue = "true" )
+   boolean failOnError;
+
+   @Parameter( property = "samm.validation.skip", defaultValue = "false" )
+   boolean skip;
+
+   @Component
+   RepositorySystem repositorySystem;
+
+   @Parameter( defaultValue = "${repositorySystemSession}", readonly = true )
+   RepositorySystemSession repositorySystemSession;
+
+   @Parameter( defaultValue = "${project.remotePluginRepositories}", readonly = true )
+   List<RemoteRepository> remoteRepositories;
+
+   @Override
+   public void execute() throws MojoExecutionException, MojoFailureException {
+      if ( skip ) {
+         LOG.info( "Skipping validation of Aspect Models" );
+         return;
+      }
+
+      final Map<Path, byte[]> models = readModels();
+      final Map<Path, String> contentHashes = new LinkedHashMap<>();
+      models.forEach( ( path, content ) -> contentHashes.put( path, DigestUtils.sha256Hex( content ) ) );
+      final ModelDependencies modelDependencies = new ModelDependencies( models );
+      final Map<Path, List<Path>> dependencies = new LinkedHashMap<>();
+      final Map<Path, String> validationKeys = new LinkedHashMap<>();
+      for ( final Path path : models.keySet() ) {
+         dependencies.put( path, modelDependencies.get( path ) );
+         final StringBuilder key = new StringBuilder( contentHashes.get( path ) );
+         dependencies.get( path ).forEach( dependency -> key.append( '\n' ).append( contentHashes.get( dependency ) ) );
+         validationKeys.put( path, DigestUtils.sha256Hex( key.toString() ) );
+      }
+
+      final List<ArtifactResult> artifacts = resolveValidatorArtifacts();
+      final ValidationCache cache = new ValidationCache( cacheFile.toPath(), validationContext( artifacts ) );
+      final List<Path> modelsToValidate = models.keySet().stream()
+            .filter( path -> cache.get( validationKeys.get( path ) ).isEmpty() )
+            .collect( Collectors.toList() );
+      LOG.info( "Validating {} Aspect Models against SAMM {} ({} unchanged models are not validated again)", modelsToValidate.size(),
+            metaModelVersion, models.size() - modelsToValidate.size() );
+
+      if ( !modelsToValidate.isEmpty() ) {
+         validate( modelsToValidate, models, dependencies, validationKeys, cache, artifacts );
+      }
+
+      final Map<Path, List<String>> errors = new LinkedHashMap<>();
+      for ( final Path path : models.keySet() ) {
+         final List<String> modelErrors = cache.get( validationKeys.get( path ) ).orElseThrow();
+         if ( !modelErrors.isEmpty() ) {
+            errors.put( path, modelErrors );
+         }
+      }
+      try {
+         cache.write( validationKeys.values() );
+         writeReport( models.size(), errors );
+      } catch ( final IOException exception ) {
+         throw new MojoExecutionException( "Could not write file", exception );
+      }
+
+      if ( errors.isEmpty() ) {
+         LOG.info( "All {} Aspect Models are valid", models.size() );
+         return;
+      }
+      errors.forEach( ( path, modelErrors ) -> LOG.error( "{}:{}{}", path, System.lineSeparator(),
+            modelErrors.stream().map( error -> "   " + error ).collect( Collectors.joining( System.lineSeparator() ) ) ) );
+      final String message = String.format( "%d of %d Aspect Models are invalid, see %s", errors.size(), models.size(), reportFile );
+      if ( failOnError ) {
+         throw new MojoFailureException( message );
+      }
+      LOG.warn( message );
+   }
+
+   private Map<Path, byte[]> readModels() throws MojoExecutionException {
+      final Map<Path, byte[]> models = new LinkedHashMap<>();
+      for ( final File modelDirectory : modelDirectories ) {
+         if ( !modelDirectory.isDirectory() ) {
+            throw new MojoExecutionException( "Model directory does not exist: " + modelDirectory );
+         }
+         try ( final Stream<Path> paths = Files.walk( modelDirectory.toPath() ) ) {
+            for ( final Path path : paths.filter( path -> path.toString().endsWith( ".ttl" ) ).sorted().collect( Collectors.toList() ) ) {
+               models.put( path, Files.readAllBytes( path ) );
+            }
+         } catch ( final IOException exception ) {
+            throw new MojoExecutionException( "Could not read Aspect Models in " + modelDirectory, exception );
+         }
+      }
+      return models;
+   }
+
+   List<ArtifactResult> resolveValidatorArtifacts() throws MojoExecutionException {
+      final CollectRequest collectRequest = new CollectRequest();
+      collectRequest.addDependency( new Dependency(
+            new DefaultArtifact( "org.eclipse.esmf:esmf-semantic-aspect-meta-model:" + metaModelArtifactVersion ), JavaScopes.RUNTIME ) );
+      collectRequest.addDependency( new Dependency( new DefaultArtifact( "org.topbraid:shacl:" + shaclVersion ), JavaScopes.RUNTIME ) );
+      collectRequest.setRepositories( remoteRepositories );
+      final DependencyRequest dependencyRequest = new DependencyRequest( collectRequest,
+            DependencyFilterUtils.classpathFilter( JavaScopes.RUNTIME ) );
+      try {
+         return repositorySystem.resolveDependencies( repositorySystemSession, dependencyRequest ).getArtifactResults();
+      } catch ( final DependencyResolutionException exception ) {
+         throw new MojoExecutionException( "Could not resolve the meta model and the SHACL engine", exception );
+      }
+   }
+
+   /**
+    * The validation context identifies everything except for the models that determine the validation result: the meta
+    * model version and the artifacts that provide the shapes and the SHACL engine. Snapshot artifacts are identified by
+    * their content, since their version does not change.
+    */
+   private String validationContext( final List<ArtifactResult> artifacts ) throws MojoExecutionException {
+      final StringBuilder context = new StringBuilder( metaModelVersion );
+      for ( final ArtifactResult result : artifacts ) {
+         final Artifact artifact = result.getArtifact();
+         context.append( '\n' ).append( artifact );
+         if ( artifact.isSnapshot() ) {
+            try {
+               context.append( '@' ).append( DigestUtils.sha256Hex( Files.readAllBytes( artifact.getFile().toPath() ) ) );
+            } catch ( final IOException exception ) {
+               throw new MojoExecutionException( "Could not read " + artifact.getFile(), exception );
+            }
+         }
+      }
+      return DigestUtils.sha256Hex( context.toString() );
+   }
+
+   /**
+    * @return a class loader that contains only the given artifacts and the platform classes
+    */
+   URLClassLoader validatorClassLoader( final List<ArtifactResult> artifacts ) throws MojoExecutionException {
+      final URL[] urls = new URL[artifacts.size()];
+      for ( int i = 0; i < urls.length; i++ ) {
+         try {
+            urls[i] = artifacts.get( i ).getArtifact().getFile().toURI().toURL();
+         } catch ( final MalformedURLException exception ) {
+            throw new MojoExecutionException( "Could not load " + artifacts.get( i ).getArtifact(), exception );
+         }
+      }
+      return new URLClassLoader( urls, ClassLoader.getPlatformClassLoader() );
+   }
+
+   private void validate( final List<Path> modelsToValidate, final Map<Path, byte[]> models, final Map<Path, List<Path>> dependencies,
+         final Map<Path, String> validationKeys, final ValidationCache cache, final List<ArtifactResult> artifacts )
+         throws MojoExecutionException {
+      final int threadCount = Math.min( modelsToValidate.size(), threads > 0 ? threads : Runtime.getRuntime().availableProcessors() );
+      final ExecutorService executor = Executors.newFixedThreadPool( threadCount );
+      try ( final URLClassLoader classLoader = validatorClassLoader( artifacts ) ) {
+         // Each thread uses its own validator, since the SHACL engine is not thread-safe
+         final ThreadLocal<IsolatedValidator> validator = ThreadLocal.withInitial( () -> {
+            try {
+               return new IsolatedValidator( classLoader, metaModelVersion );
+            } catch ( final IOException | ReflectiveOperationException exception ) {
+               throw new IllegalStateException( "Could not initialize the validator", exception );
+            }
+         } );
+         final List<Future<?>> futures = new ArrayList<>();
+         for ( final Path path : modelsToValidate ) {
+            futures.add( executor.submit( () -> {
+               final List<byte[]> dependencyContents = dependencies.get( path ).stream().map( models::get ).collect( Collectors.toList() );
+               final List<String> errors = validator.get().validate( models.get( path ), dependencyContents );
+               cache.put( validationKeys.get( path ), errors );
+               return null;
+            } ) );
+         }
+         for ( final Future<?> future : futures ) {
+            future.get();
+         }
+      } catch ( final ExecutionException exception ) {
+         throw new MojoExecutionException( "Could not validate Aspect Models", exception.getCause() );
+      } catch ( final InterruptedException exception ) {
+         Thread.currentThread().interrupt();
+         throw new MojoExecutionException( "Validation was interrupted", exception );
+      } catch ( final IOException exception ) {
+         throw new MojoExecutionException( "Could not close class loader", exception );
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private void writeReport( final int modelCount, final Map<Path, List<String>> errors ) throws IOException {
+      final StringBuilder report = new StringBuilder();
+      report.append( String.format( "Validated %d Aspect Models against SAMM %s: %d invalid%n", modelCount, metaModelVersion, errors.size() ) );
+      errors.forEach( ( path, modelErrors ) -> {
+         report.append( String.format( "%n%s%n", path ) );
+         modelErrors.forEach( error -> report.append( String.format( "   %s%n", error ) ) );
+      } );
+      Files.createDirectories( reportFile.toPath().toAbsolutePath().getParent() );
+      Files.write( reportFile.toPath(), report.toString().getBytes( StandardCharsets.UTF_8 ) );
+   }
+}
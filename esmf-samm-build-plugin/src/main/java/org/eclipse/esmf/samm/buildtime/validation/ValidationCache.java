@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.validation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The results of previous validations, by a SHA-256 hash of the contents of the validated model and its dependencies
+ * (the validation key). The cache is only valid for one validation context (the meta model version and the artifacts of
+ * the meta model and the SHACL engine); if the context changes, all entries are discarded.
+ */
+class ValidationCache {
+   private static final String CONTEXT_KEY = "context";
+   private static final String SEPARATOR = "\u001e";
+
+   private final Path cacheFile;
+   private final String context;
+   private final Map<String, List<String>> results = new ConcurrentHashMap<>();
+
+   ValidationCache( final Path cacheFile, final String context ) {
+      this.cacheFile = cacheFile;
+      this.context = context;
+      read();
+   }
+
+   /**
+    * @param validationKey the hash of the contents of the model and its dependencies
+    * @return the validation errors of the model (empty if it is valid), or empty if the model is not in the cache
+    */
+   Optional<List<String>> get( final String validationKey ) {
+      return Optional.ofNullable( results.get( validationKey ) );
+   }
+
+   void put( final String validationKey, final List<String> errors ) {
+      results.put( validationKey, List.copyOf( errors ) );
+   }
+
+   /**
+    * Writes the cache file, keeping only the entries of the given hashes, so that the cache does not grow with each
+    * changed model
+    *
+    * @param validationKeys the validation keys of the current models
+    * @throws IOException if the file can not be written
+    */
+   void write( final Iterable<String> validationKeys ) throws IOException {
+      final Properties properties = new Properties();
+      properties.setProperty( CONTEXT_KEY, context );
+      for ( final String validationKey : validationKeys ) {
+         final List<String> errors = results.get( validationKey );
+         if ( errors != null ) {
+            properties.setProperty( validationKey, String.join( SEPARATOR, errors ) );
+         }
+      }
+      Files.createDirectories( cacheFile.toAbsolutePath().getParent() );
+      final Path temporaryFile = Files.createTempFile( cacheFile.toAbsolutePath().getParent(), cacheFile.getFileName().toString(), ".tmp" );
+      try ( final OutputStream output = Files.newOutputStream( temporaryFile ) ) {
+         properties.store( output, null );
+      }
+      Files.move( temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+   }
+
+   private void read() {
+      if ( !Files.exists( cacheFile ) ) {
+         return;
+      }
+      final Properties properties = new Properties();
+      try ( final InputStream input = Files.newInputStream( cacheFile ) ) {
+         properties.load( input );
+      } catch ( final IOException | IllegalArgumentException exception ) {
+         return;
+      }
+      if ( !context.equals( properties.getProperty( CONTEXT_KEY ) ) ) {
+         return;
+      }
+      for ( final String key : properties.stringPropertyNames() ) {
+         if ( !key.equals( CONTEXT_KEY ) ) {
+            final String value = properties.getProperty( key );
+            results.put( key, value.isEmpty() ? List.of() : Arrays.asList( value.split( SEPARATOR ) ) );
+         }
+      }
+   }
+}
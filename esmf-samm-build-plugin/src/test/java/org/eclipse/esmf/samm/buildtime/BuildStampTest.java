@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BuildStampTest {
+   @TempDir
+   Path directory;
+
+   private BuildStamp stamp( final String revision ) throws IOException {
+      return new BuildStamp( directory.resolve( "step.stamp" ) )
+            .parameter( "revision", revision )
+            .textFile( "input.ttl", directory.resolve( "input.ttl" ) );
+   }
+
+   private void writeInput( final String content ) throws IOException {
+      Files.write( directory.resolve( "input.ttl" ), content.getBytes( StandardCharsets.UTF_8 ) );
+   }
+
+   @Test
+   public void testChangedInputs() throws IOException {
+      final Path output = Files.createFile( directory.resolve( "output" ) );
+      writeInput( "a\nb\n" );
+      assertThat( stamp( "1" ).isRecorded() ).isFalse();
+      assertThat( stamp( "1" ).isUpToDate( output ) ).isFalse();
+      stamp( "1" ).write( output );
+      assertThat( stamp( "1" ).isRecorded() ).isTrue();
+      assertThat( stamp( "1" ).isUpToDate( output ) ).isTrue();
+      assertThat( stamp( "1" ).isUpToDate( output, directory.resolve( "missing" ) ) ).isFalse();
+      assertThat( stamp( "2" ).getChanges( output ) ).containsExactly( "parameter:revision" );
+
+      writeInput( "a\nc\n" );
+      assertThat( stamp( "1" ).getChanges( output ) ).containsExactly( "file:input.ttl" );
+      Files.delete( directory.resolve( "input.ttl" ) );
+      assertThat( stamp( "1" ).getChanges( output ) ).containsExactly( "file:input.ttl" );
+   }
+
+   @Test
+   public void testChangedOutputsAreNotUpToDate() throws IOException {
+      final Path output = directory.resolve( "output" );
+      Files.write( output, "generated\n".getBytes( StandardCharsets.UTF_8 ) );
+      writeInput( "a\n" );
+      stamp( "1" ).write( output );
+      Files.write( output, "generated\r\n".getBytes( StandardCharsets.UTF_8 ) );
+      assertThat( stamp( "1" ).isUpToDate( output ) ).isTrue();
+
+      Files.write( output, "edited\n".getBytes( StandardCharsets.UTF_8 ) );
+      assertThat( stamp( "1" ).isUpToDate( output ) ).isFalse();
+      assertThat( stamp( "1" ).getChanges( output ) ).containsExactly( "output:output" );
+      Files.write( output, new byte[] { (byte) 0xff, '\r', '\n' } );
+      stamp( "1" ).write( output );
+      Files.write( output, new byte[] { (byte) 0xfe, '\n' } );
+      assertThat( stamp( "1" ).isUpToDate( output ) ).isFalse();
+   }
+
+   @Test
+   public void testLineEndingsOfTextFilesAreIgnored() throws IOException {
+      final Path output = Files.createFile( directory.resolve( "output" ) );
+      writeInput( "a\nb\n" );
+      stamp( "1" ).write( output );
+      writeInput( "a\r\nb\r\n" );
+      assertThat( stamp( "1" ).isUpToDate( output ) ).isTrue();
+      writeInput( "a\rb\r\n" );
+      assertThat( stamp( "1" ).isUpToDate( output ) ).isFalse();
+   }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class FileDownloaderTest {
+   private static final byte[] CONTENT = "Type: language\nSubtag: en\n".getBytes( StandardCharsets.UTF_8 );
+   private static final String ETAG = "\"v1\"";
+
+   @TempDir
+   Path cacheDirectory;
+
+   private HttpServer server;
+   private String url;
+   private byte[] served = CONTENT;
+   private final List<String> ifNoneMatchHeaders = new ArrayList<>();
+
+   @BeforeEach
+   public void startServer() throws IOException {
+      server = HttpServer.create( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ), 0 );
+      server.createContext( "/registry", this::handle );
+      server.start();
+      url = "http://localhost:" + server.getAddress().getPort() + "/registry";
+   }
+
+   @AfterEach
+   public void stopServer() {
+      server.stop( 0 );
+   }
+
+   private void handle( final HttpExchange exchange ) throws IOException {
+      final String ifNoneMatch = exchange.getRequestHeaders().getFirst( "If-None-Match" );
+      ifNoneMatchHeaders.add( ifNoneMatch );
+      if ( ETAG.equals( ifNoneMatch ) ) {
+         exchange.sendResponseHeaders( 304, -1 );
+         exchange.close();
+         return;
+      }
+      exchange.getResponseHeaders().add( "ETag", ETAG );
+      exchange.sendResponseHeaders( 200, served.length );
+      try ( final OutputStream output = exchange.getResponseBody() ) {
+         output.write( served );
+      }
+   }
+
+   @Test
+   public void testDownloadIsCached() throws IOException {
+      final FileDownloader downloader = new FileDownloader( cacheDirectory, false );
+      assertThat( downloader.fetch( url, DigestUtils.sha256Hex( CONTENT ) ) ).isEqualTo( CONTENT );
+      assertThat( ifNoneMatchHeaders ).containsExactly( (String) null );
+      assertThat( cacheDirectory.resolve( "content" ).resolve( DigestUtils.sha256Hex( CONTENT ) ) ).hasBinaryContent( CONTENT );
+   }
+
+   @Test
+   public void testNotModifiedUsesCache() throws IOException {
+      final FileDownloader downloader = new FileDownloader( cacheDirectory, false );
+      downloader.fetch( url, null );
+      served = "changed".getBytes( StandardCharsets.UTF_8 );
+      assertThat( downloader.fetch( url, DigestUtils.sha256Hex( CONTENT ) ) ).isEqualTo( CONTENT );
+      assertThat( ifNoneMatchHeaders ).containsExactly( null, ETAG );
+   }
+
+   @Test
+   public void testChecksumMismatchIsNotCached() {
+      final FileDownloader downloader = new FileDownloader( cacheDirectory, false );
+      assertThatThrownBy( () -> downloader.fetch( url, DigestUtils.sha256Hex( "other" ) ) ).isInstanceOf( IOException.class )
+            .hasMessageContaining( "Checksum mismatch" );
+      assertThat( cacheDirectory.resolve( "index" ) ).doesNotExist();
+      assertThat( cacheDirectory.resolve( "content" ) ).doesNotExist();
+   }
+
+   @Test
+   public void testOfflineMode() throws IOException {
+      final FileDownloader offlineDownloader = new FileDownloader( cacheDirectory, true );
+      assertThatThrownBy( () -> offlineDownloader.fetch( url, null ) ).isInstanceOf( IOException.class )
+            .hasMessageContaining( "is not in the download cache" );
+
+      new FileDownloader( cacheDirectory, false ).fetch( url, null );
+      server.stop( 0 );
+      assertThat( offlineDownloader.fetch( url, DigestUtils.sha256Hex( CONTENT ) ) ).isEqualTo( CONTENT );
+      assertThatThrownBy( () -> offlineDownloader.fetch( url, DigestUtils.sha256Hex( "other" ) ) ).isInstanceOf( IOException.class )
+            .hasMessageContaining( "Checksum mismatch" );
+      assertThat( ifNoneMatchHeaders ).hasSize( 1 );
+   }
+
+   @Test
+   public void testUnreachableServerUsesCache() throws IOException {
+      new FileDownloader( cacheDirectory, false ).fetch( url, null );
+      server.stop( 0 );
+      assertThat( new FileDownloader( cacheDirectory, false ).fetch( url, null ) ).isEqualTo( CONTENT );
+   }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.Test;
+
+public class TurtleWriterTest {
+   private static final String PREFIXES = "@prefix : <urn:samm:org.example:1.0.0#> .\n"
+         + "@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n";
+
+   private static final String LITERALS = PREFIXES
+         + ":literals :plain \"a\" ; :language \"b\"@en ; :typed \"1\"^^xsd:int, \"1.5\"^^xsd:double ;\n"
+         + "   :quotes \"say \\\"hi\\\"\", \"it's \\\"x\\\"\" ; :escapes \"back\\\\slash\\ttab\\rreturn\" ;\n"
+         + "   :multiLine \"\"\"first\n\\\"second\\\" \\\\\nthird\"\"\" ;\n"
+         + "   <urn:samm:org.example:1.0.0#not%20local> <http://example.com/other/name> .\n";
+
+   private static final String BLANK_NODES = PREFIXES
+         + ":a :inline [ :value \"1\" ; :nested [ :value \"2\" ] ] ; :list ( \"1\" [ :value \"3\" ] ( :x ) ) ; :empty () ;\n"
+         + "   :shared _:shared .\n"
+         + ":b :shared _:shared .\n"
+         + "_:shared :value \"4\" .\n"
+         + "[ :value \"5\" ] .\n"
+         + ":c :reference [] .\n";
+
+   /**
+    * Two cycles of blank nodes that only differ in the value of the second node, and a cycle of length three
+    */
+   private static final String CYCLES = PREFIXES
+         + "_:a1 :next _:a2 ; :value 1 . _:a2 :next _:a1 ; :value 2 .\n"
+         + "_:b1 :next _:b2 ; :value 1 . _:b2 :next _:b1 ; :value 3 .\n"
+         + "_:c1 :next _:c2 ; :value 1 . _:c2 :next _:c3 ; :value 2 . _:c3 :next _:c1 ; :value 3 .\n"
+         + "_:self :next _:self .\n"
+         + ":d :first _:a1 ; :second _:b2 .\n"
+         + ":e :first _:a1 .\n";
+
+   private static Model parse( final String turtle ) {
+      final Model model = ModelFactory.createDefaultModel();
+      model.read( new ByteArrayInputStream( turtle.getBytes( StandardCharsets.UTF_8 ) ), "", "TURTLE" );
+      return model;
+   }
+
+   private static String write( final Model model ) throws IOException {
+      final ByteArrayOutputStream output = new ByteArrayOutputStream();
+      new TurtleWriter( model ).header( List.of( "Header", "" ) ).write( output );
+      return output.toString( StandardCharsets.UTF_8 );
+   }
+
+   /**
+    * Copies the statements of a freshly parsed model in shuffled order, so that both the statement order and the
+    * blank node identifiers differ from the previous copy
+    */
+   private static Model shuffled( final String turtle, final Random random ) {
+      final Model parsed = parse( turtle );
+      final List<Statement> statements = parsed.listStatements().toList();
+      Collections.shuffle( statements, random );
+      final Model model = ModelFactory.createDefaultModel();
+      model.setNsPrefixes( parsed.getNsPrefixMap() );
+      statements.forEach( model::add );
+      return model;
+   }
+
+   private void assertRoundTrip( final String turtle ) throws IOException {
+      final Model model = parse( turtle );
+      final String written = write( model );
+      final Model read = parse( written );
+      assertThat( read.isIsomorphicWith( model ) ).as( written ).isTrue();
+      assertThat( write( read ) ).isEqualTo( written );
+   }
+
+   private void assertStable( final String turtle ) throws IOException {
+      final Random random = new Random( 42 );
+      final String expected = write( parse( turtle ) );
+      for ( int i = 0; i < 50; i++ ) {
+         assertThat( write( shuffled( turtle, random ) ) ).isEqualTo( expected );
+      }
+   }
+
+   @Test
+   public void testLiteralsAreWrittenAndReadBack() throws IOException {
+      assertRoundTrip( LITERALS );
+      assertStable( LITERALS );
+      final String written = write( parse( LITERALS ) );
+      assertThat( written ).startsWith( "# Header\n#\n\n@prefix :    <urn:samm:org.example:1.0.0#> .\n" );
+      assertThat( written ).contains( ":language \"b\"@en", "\"1\"^^xsd:int", "'say \"hi\"'", "\"\"\"first\n" );
+      assertThat( written ).contains( "<urn:samm:org.example:1.0.0#not%20local> <http://example.com/other/name>" );
+   }
+
+   @Test
+   public void testBlankNodesAreWrittenInlineOrLabeled() throws IOException {
+      assertRoundTrip( BLANK_NODES );
+      assertStable( BLANK_NODES );
+      final String written = write( parse( BLANK_NODES ) );
+      assertThat( written ).contains( ":inline [\n      :nested [\n         :value \"2\"\n      ] ;\n      :value \"1\"\n   ]" );
+      assertThat( written ).contains( ":list ( \"1\" [\n      :value \"3\"\n   ] ( :x ) )", ":empty ()", ":reference []" );
+      assertThat( written ).contains( ":shared _:b0", "[\n   :value \"5\"\n] ." );
+      assertThat( written ).doesNotContain( RDF.first.getURI(), "rdf:first" );
+   }
+
+   @Test
+   public void testCyclesOfBlankNodesAreWrittenDeterministically() throws IOException {
+      assertRoundTrip( CYCLES );
+      assertStable( CYCLES );
+   }
+
+   @Test
+   public void testEmptyModel() throws IOException {
+      assertThat( write( ModelFactory.createDefaultModel() ) ).isEqualTo( "# Header\n#\n\n" );
+   }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.shapes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.Test;
+
+public class ShapeOptimizerTest {
+   private static final Map<String, String> PREFIXES = Map.of( "", "urn:samm:org.example:1.0.0#" );
+   private static final String IS_PROPERTY = "EXISTS { ?property a :Property }";
+
+   private final ShapeOptimizer optimizer = new ShapeOptimizer( ModelFactory.createDefaultModel() );
+
+   private String optimize( final String... filters ) {
+      final String query = "SELECT $this ?property WHERE { $this :properties/rdf:rest*/rdf:first ?property .\n"
+            + String.join( "\n", filters ) + " }";
+      return optimizer.optimizeQuery( query, Map.of( "", PREFIXES.get( "" ), "rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#" ) );
+   }
+
+   @Test
+   public void testPatternEvaluatedByEveryFilterIsHoisted() {
+      final String optimized = optimize(
+            "FILTER ( !" + IS_PROPERTY + " || isBlank(?property) )",
+            "FILTER ( !" + IS_PROPERTY + " || isIRI(?property) )" );
+      assertThat( optimized ).contains( "BIND(EXISTS { ?property  a  <urn:samm:org.example:1.0.0#Property> } AS ?_exists0)" );
+      assertThat( optimized ).contains( "FILTER ( ( ! ?_exists0 ) || isBlank(?property) )" );
+      assertThat( optimizer.getHoistedPatterns() ).isEqualTo( 1 );
+   }
+
+   @Test
+   public void testPatternInShortCircuitedOperandIsNotHoisted() {
+      final String optimized = optimize(
+            "FILTER ( isBlank(?property) || " + IS_PROPERTY + " )",
+            "FILTER ( !" + IS_PROPERTY + " && isIRI(?property) )" );
+      assertThat( optimized ).doesNotContain( "BIND" );
+      assertThat( optimize( "FILTER ( isIRI(?property) && " + IS_PROPERTY + " && " + IS_PROPERTY + " )" ) ).doesNotContain( "BIND" );
+      assertThat( optimize( "FILTER ( if(isIRI(?property), " + IS_PROPERTY + ", !" + IS_PROPERTY + ") )" ) ).doesNotContain( "BIND" );
+      assertThat( optimizer.getHoistedPatterns() ).isZero();
+   }
+
+   @Test
+   public void testPatternMissingInOneFilterIsNotHoisted() {
+      final String optimized = optimize(
+            "FILTER ( !" + IS_PROPERTY + " || isBlank(?property) )",
+            "FILTER ( !" + IS_PROPERTY + " || isIRI(?property) )",
+            "FILTER ( ?property != $this )" );
+      assertThat( optimized ).doesNotContain( "BIND" );
+   }
+
+   @Test
+   public void testRepeatedPatternInOneFilterIsHoisted() {
+      final String optimized = optimize(
+            "FILTER ( " + IS_PROPERTY + " = isIRI(?property) || ( isBlank(?property) && " + IS_PROPERTY + " ) )" );
+      assertThat( optimized ).contains( "BIND(EXISTS" ).contains( "( ?_exists0 = isIRI(?property) )" );
+   }
+
+   @Test
+   public void testDollarVariablesAreKept() {
+      final String query = "SELECT $this ?thisValue WHERE {\n"
+            + "  # comment with $value\n"
+            + "  $this (:p)?/:q ?thisValue ; :r <urn:samm:org.example:1.0.0#?this> .\n"
+            + "  FILTER ( ?thisValue != \"?this\" && ?thisValue != '''$this ?this''' && $this != ?thisValue )\n"
+            + "}";
+      final String optimized = optimizer.optimizeQuery( query, PREFIXES );
+      assertThat( optimized ).contains( "SELECT  $this ?thisValue",
+            "$this (<urn:samm:org.example:1.0.0#p>)?/<urn:samm:org.example:1.0.0#q> ?thisValue" );
+      assertThat( optimized ).contains( "<urn:samm:org.example:1.0.0#?this>", "\"?this\"", "$this != ?thisValue" );
+      assertThat( optimized ).doesNotContain( "$value", "?this " );
+      assertThat( ShapeOptimizer.variables( optimized ).stream().map( variable -> optimized.substring( variable[0], variable[1] ) )
+            .collect( Collectors.toList() ) ).containsOnly( "$this", "?thisValue" );
+   }
+
+   @Test
+   public void testOptimizedQueryHasSameResults() {
+      final Model model = ModelFactory.createDefaultModel();
+      model.read( new StringReader( "@prefix : <urn:samm:org.example:1.0.0#> .\n"
+            + ":aspect :properties ( :a [ :property :a ] :b [ :property :c ] ) .\n"
+            + ":a a :Property . :c a :Other .\n" ), "", "TURTLE" );
+      final String[] filters = {
+            "FILTER ( !" + IS_PROPERTY + " || isBlank(?property) )",
+            "FILTER ( !" + IS_PROPERTY + " || isIRI(?property) )" };
+      final String original = "PREFIX : <urn:samm:org.example:1.0.0#>\nPREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#>\n"
+            + "SELECT $this ?property WHERE { $this :properties/rdf:rest*/rdf:first ?property .\n" + String.join( "\n", filters ) + " }";
+      assertThat( results( optimize( filters ), model ) ).isEqualTo( results( original, model ) ).hasSize( 3 );
+   }
+
+   private static List<String> results( final String query, final Model model ) {
+      try ( final QueryExecution execution = QueryExecutionFactory.create( QueryFactory.create( query ), model ) ) {
+         final List<String> results = new ArrayList<>();
+         execution.execSelect().forEachRemaining( solution -> results.add( solution.toString() ) );
+         return results.stream().sorted().collect( Collectors.toList() );
+      }
+   }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.unitsgenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.junit.jupiter.api.Test;
+
+public class Rec20ExcelRowReaderTest {
+   /**
+    * Creates a workbook with an introduction worksheet, two worksheets with a header row and a worksheet that is not read
+    */
+   static byte[] workbook( final String[][] annex1, final String[][] annex2 ) throws IOException {
+      try ( final HSSFWorkbook workbook = new HSSFWorkbook(); final ByteArrayOutputStream output = new ByteArrayOutputStream() ) {
+         workbook.createSheet( "Introduction" ).createRow( 0 ).createCell( 0 ).setCellValue( "Not read" );
+         fill( workbook.createSheet( "Annex I" ), annex1 );
+         fill( workbook.createSheet( "Annex II" ), annex2 );
+         workbook.createSheet( "Annex III" ).createRow( 1 ).createCell( 0 ).setCellValue( "Not read" );
+         workbook.write( output );
+         return output.toByteArray();
+      }
+   }
+
+   /**
+    * Fills a worksheet; null cells are left out, cells starting with "=" are formulas and cells starting with "#" are
+    * numbers
+    */
+   private static void fill( final HSSFSheet sheet, final String[][] rows ) {
+      for ( int rowIndex = 0; rowIndex < rows.length; rowIndex++ ) {
+         final Row row = sheet.createRow( rowIndex );
+         for ( int column = 0; column < rows[rowIndex].length; column++ ) {
+            final String value = rows[rowIndex][column];
+            if ( value == null ) {
+               continue;
+            }
+            final Cell cell = row.createCell( column );
+            if ( value.startsWith( "=" ) ) {
+               cell.setCellFormula( value.substring( 1 ) );
+               sheet.getWorkbook().getCreationHelper().createFormulaEvaluator().evaluateFormulaCell( cell );
+            } else if ( value.startsWith( "#" ) ) {
+               cell.setCellValue( Double.parseDouble( value.substring( 1 ) ) );
+            } else {
+               cell.setCellValue( value );
+            }
+         }
+      }
+   }
+
+   private List<String> read( final byte[] excel, final int[] worksheets, final int numberOfColumns ) throws IOException {
+      final List<String> rows = new ArrayList<>();
+      new Rec20ExcelRowReader( worksheets, numberOfColumns,
+            ( worksheet, cells ) -> rows.add( worksheet + ":" + String.join( "|", cells ) ) ).read( excel );
+      return rows;
+   }
+
+   @Test
+   public void testRowsOfRequestedWorksheetsAreRead() throws IOException {
+      final byte[] excel = workbook(
+            new String[][] {
+                  { "Status", "Code", "Name" },
+                  { "+", "MTR", "metre" },
+                  { null, "#12", "second", "ignored" },
+                  { "D", null, "=\"kilo\"&\"gram\"" } },
+            new String[][] {
+                  { "Status", "Code" },
+                  { null, "=6*7" } } );
+      assertThat( read( excel, new int[] { 1, 2 }, 3 ) ).containsExactly(
+            "1:+|MTR|metre",
+            "1:|12.0|second",
+            "1:D||kilogram",
+            "2:|42.0|" );
+   }
+
+   @Test
+   public void testOtherWorksheetsAreSkipped() throws IOException {
+      final byte[] excel = workbook(
+            new String[][] { { "Status" }, { "+" } },
+            new String[][] { { "Status" }, { "X" } } );
+      assertThat( read( excel, new int[] { 2 }, 1 ) ).containsExactly( "2:X" );
+   }
+
+   @Test
+   public void testInvalidExcelFails() {
+      assertThatThrownBy( () -> read( new byte[] { 1, 2, 3 }, new int[] { 1 }, 1 ) ).isInstanceOf( IOException.class );
+   }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.unitsgenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.junit.jupiter.api.Test;
+
+public class UnitsFromRec20ExcelSupplierTest {
+   private final UnitsResources unitsResources = new UnitsResources( "2.0.0" );
+
+   @Test
+   public void testAnnexRowsAreConverted() throws IOException {
+      final String[] header = { "Group", "", "", "Quantity", "", "Status", "Common Code", "Name", "Conversion Factor", "Symbol" };
+      final byte[] excel = Rec20ExcelRowReaderTest.workbook(
+            new String[][] {
+                  header,
+                  { null, null, null, "length", null, null, "MTR", "metre", "m", "m" },
+                  { null, null, null, "length", null, "+", "KMT", "kilometre", "10³ m", "km" },
+                  { null, null, null, "length", null, "X", "XXX", "deleted unit", "1 m", "x" } },
+            new String[][] {
+                  { "Status", "Common Code", "Name" },
+                  { null, "C62", "one", null, null, "1" } } );
+      final Model model = ModelFactory.createDefaultModel();
+      new UnitsFromRec20ExcelSupplier( unitsResources, excel ).forEachStatement( model::add );
+
+      final Resource kilometre = model.getResource( unitsResources.getNamespaceUnits() + "kilometre" );
+      assertThat( kilometre.getProperty( unitsResources.getCommonCodeProperty() ).getString() ).isEqualTo( "KMT" );
+      assertThat( kilometre.getProperty( unitsResources.getConversionFactorProperty() ).getString() ).isEqualTo( "10³ m" );
+      assertThat( kilometre.getProperty( unitsResources.getQuantityKindProperty() ).getResource().getLocalName() ).isEqualTo( "length" );
+      assertThat( model.getResource( unitsResources.getNamespaceUnits() + "one" ).getProperty( unitsResources.getSymbolProperty() )
+            .getString() ).isEqualTo( "1" );
+      assertThat( model.listSubjectsWithProperty( unitsResources.getCommonCodeProperty() ).toList() ).hasSize( 3 );
+      assertThat( model.containsResource( model.getResource( unitsResources.getNamespaceUnits() + "deletedUnit" ) ) ).isFalse();
+   }
+
+   @Test
+   public void testInvalidExcelFails() {
+      final UnitsFromRec20ExcelSupplier supplier = new UnitsFromRec20ExcelSupplier( unitsResources, new byte[] { 1, 2, 3 } );
+      assertThatThrownBy( () -> supplier.forEachStatement( statement -> { } ) ).isInstanceOf( IOException.class );
+      assertThatThrownBy( supplier::get ).isInstanceOf( UncheckedIOException.class );
+   }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.unitsgenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.junit.jupiter.api.Test;
+
+public class UnitsReferencesAdderTest {
+   private final UnitsResources unitsResources = new UnitsResources( "2.0.0" );
+
+   private Model model( final List<String[]> units ) {
+      final Model model = ModelFactory.createDefaultModel();
+      for ( final String[] unit : units ) {
+         model.createResource( unitsResources.getNamespaceUnits() + unit[0] )
+               .addProperty( unitsResources.getSymbolProperty(), unit[1] )
+               .addProperty( unitsResources.getConversionFactorProperty(), unit[2] );
+      }
+      return new UnitsReferencesAdder( unitsResources ).apply( model );
+   }
+
+   private String referenceUnit( final Model model, final String unit ) {
+      final Statement statement = model.getResource( unitsResources.getNamespaceUnits() + unit )
+            .getProperty( unitsResources.getReferenceUnitProperty() );
+      return statement == null ? null : statement.getResource().getLocalName();
+   }
+
+   @Test
+   public void testSmallestUriIsPreferredForSharedSymbol() {
+      final String[] millivolt = { "millivolt", "mV", "10⁻³ V" };
+      final String[] voltDc = { "voltDc", "V", "V" };
+      final String[] volt = { "volt", "V", "V" };
+      final String[] voltAc = { "voltAc", "V", "V" };
+      for ( final List<String[]> units : List.of( List.of( millivolt, voltDc, volt, voltAc ), List.of( voltAc, volt, voltDc, millivolt ) ) ) {
+         final Model model = model( units );
+         assertThat( referenceUnit( model, "millivolt" ) ).isEqualTo( "volt" );
+         final Resource unit = model.getResource( unitsResources.getNamespaceUnits() + "millivolt" );
+         assertThat( unit.getProperty( unitsResources.getNumericConversionFactorProperty() ).getDouble() ).isEqualTo( 0.001 );
+         // The units that are defined by their own symbol have no reference unit
+         assertThat( referenceUnit( model, "volt" ) ).isNull();
+         assertThat( referenceUnit( model, "voltDc" ) ).isNull();
+      }
+   }
+
+   @Test
+   public void testUnitDefinedBySymbolIsPreferred() {
+      final String[] hectolitre = { "hectolitre", "hl", "10² l" };
+      final String[] aLitre = { "aLitre", "l", "10⁻³ m³" };
+      final String[] litre = { "litre", "l", "l" };
+      for ( final List<String[]> units : List.of( List.of( hectolitre, aLitre, litre ), List.of( litre, aLitre, hectolitre ) ) ) {
+         assertThat( referenceUnit( model( units ), "hectolitre" ) ).isEqualTo( "litre" );
+      }
+   }
+
+   @Test
+   public void testUnknownSymbolHasNoReferenceUnit() {
+      final Model model = model( List.<String[]> of( new String[] { "kilofoo", "kfoo", "10³ foo" } ) );
+      assertThat( referenceUnit( model, "kilofoo" ) ).isNull();
+      assertThat( model.listStatements( null, unitsResources.getNumericConversionFactorProperty(), (String) null ).toList() ).isEmpty();
+   }
+
+   @Test
+   public void testNumericPart() {
+      assertThat( UnitsReferencesAdder.getNumericPart( "10⁻³ V" ) ).isEqualTo( 0.001 );
+      assertThat( UnitsReferencesAdder.getNumericPart( "10³ V" ) ).isEqualTo( 1000.0 );
+      assertThat( UnitsReferencesAdder.getNumericPart( "9.80665 × 10⁶ Pa" ) ).isEqualTo( 9806650.0 );
+      assertThat( UnitsReferencesAdder.getNumericPart( "6.894757 × 10³ Pa × m³/s" ) ).isEqualTo( 6894.757 );
+      assertThat( UnitsReferencesAdder.getNumericPart( "4.18190" ) ).isEqualTo( 4.1819 );
+      assertThat( UnitsReferencesAdder.getNumericPart( "V" ) ).isEqualTo( 1.0 );
+   }
+
+   @Test
+   public void testSymbolPart() {
+      assertThat( UnitsReferencesAdder.getSymbolPart( "10⁻³ V" ) ).isEqualTo( "V" );
+      assertThat( UnitsReferencesAdder.getSymbolPart( "6.894757 × 10³ Pa × m³/s" ) ).isEqualTo( "Pa·m³/s" );
+      assertThat( UnitsReferencesAdder.getSymbolPart( "2³⁰ B" ) ).isEqualTo( "B" );
+      assertThat( UnitsReferencesAdder.getSymbolPart( "4.18190" ) ).isEmpty();
+      assertThat( UnitsReferencesAdder.getSymbolPart( "V" ) ).isEqualTo( "V" );
+   }
+}
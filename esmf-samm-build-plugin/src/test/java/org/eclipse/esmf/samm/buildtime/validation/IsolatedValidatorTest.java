@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class IsolatedValidatorTest {
+   private static final String PREFIXES = "@prefix samm: <urn:samm:org.eclipse.esmf.samm:meta-model:2.0.0#> .\n"
+         + "@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n";
+   static final String SHARED = PREFIXES
+         + "@prefix : <urn:samm:org.example:1.0.0#> .\n"
+         + ":Name a samm:Characteristic ; samm:dataType xsd:string .\n";
+   static final String ASPECT = PREFIXES
+         + "@prefix : <urn:samm:org.example:1.0.0#> .\n"
+         + ":Machine a samm:Aspect ; samm:properties ( :name ) ; samm:operations ( ) .\n"
+         + ":name a samm:Property ; samm:characteristic :Name .\n";
+   static final String IMPORTING = PREFIXES
+         + "@prefix : <urn:samm:com.example:1.0.0#> .\n"
+         + "@prefix ex: <urn:samm:org.example:1.0.0#> .\n"
+         + ":Robot a samm:Aspect ; samm:properties ( :label ) ; samm:operations ( ) .\n"
+         + ":label a samm:Property ; samm:characteristic ex:Name .\n";
+   static final String INVALID_SHARED = PREFIXES
+         + "@prefix : <urn:samm:org.example:1.0.0#> .\n"
+         + ":Name a samm:Characteristic ; samm:dataType xsd:string .\n"
+         + ":Other a samm:Characteristic .\n";
+
+   private static IsolatedValidator validator;
+
+   @BeforeAll
+   public static void createValidator() throws IOException, ReflectiveOperationException {
+      validator = new IsolatedValidator( classLoader(), "2.0.0" );
+   }
+
+   /**
+    * @return a class loader with the meta model files of this repository; the SHACL engine is on the test class path
+    */
+   static URLClassLoader classLoader() {
+      try {
+         final URL metaModel = Path.of( "../esmf-semantic-aspect-meta-model/src/main/resources" ).toUri().toURL();
+         return new URLClassLoader( new URL[] { metaModel }, IsolatedValidatorTest.class.getClassLoader() );
+      } catch ( final IOException exception ) {
+         throw new UncheckedIOException( exception );
+      }
+   }
+
+   private static List<String> validate( final String model, final String... dependencies ) throws ReflectiveOperationException {
+      return validator.validate( model.getBytes( StandardCharsets.UTF_8 ),
+            Stream.of( dependencies ).map( dependency -> dependency.getBytes( StandardCharsets.UTF_8 ) ).collect( Collectors.toList() ) );
+   }
+
+   @Test
+   public void testValidModel() throws ReflectiveOperationException {
+      assertThat( validate( SHARED + ASPECT ) ).isEmpty();
+   }
+
+   @Test
+   public void testSyntaxError() throws ReflectiveOperationException {
+      assertThat( validate( PREFIXES + ":Machine a samm:Aspect" ) ).singleElement().asString().startsWith( "Syntax error: " );
+   }
+
+   @Test
+   public void testReferencesAreResolvedInDependencies() throws ReflectiveOperationException {
+      assertThat( validate( ASPECT ) ).isNotEmpty().allMatch( error -> error.contains( "urn:samm:org.example:1.0.0#name" ) );
+      assertThat( validate( ASPECT, SHARED ) ).isEmpty();
+      assertThat( validate( IMPORTING, SHARED ) ).isEmpty();
+   }
+
+   @Test
+   public void testErrorsOfDependenciesAreNotReported() throws ReflectiveOperationException {
+      assertThat( validate( INVALID_SHARED ) ).isNotEmpty().allMatch( error -> error.contains( "urn:samm:org.example:1.0.0#Other" ) );
+      assertThat( validate( ASPECT, INVALID_SHARED ) ).isEmpty();
+      assertThat( validate( ASPECT, "syntax error", SHARED ) ).isEmpty();
+   }
+}
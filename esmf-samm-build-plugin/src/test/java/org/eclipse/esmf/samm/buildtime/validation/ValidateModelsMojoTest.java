@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ValidateModelsMojoTest {
+   @TempDir
+   Path directory;
+
+   private Path models;
+
+   /**
+    * Uses the meta model files of this repository instead of resolving the artifacts
+    */
+   private class TestMojo extends ValidateModelsMojo {
+      @Override
+      List<ArtifactResult> resolveValidatorArtifacts() {
+         return List.of();
+      }
+
+      @Override
+      URLClassLoader validatorClassLoader( final List<ArtifactResult> artifacts ) {
+         return IsolatedValidatorTest.classLoader();
+      }
+   }
+
+   @BeforeEach
+   public void writeModels() throws IOException {
+      models = directory.resolve( "models" );
+      write( "org.example/1.0.0/Shared.ttl", IsolatedValidatorTest.SHARED );
+      write( "org.example/1.0.0/Machine.ttl", IsolatedValidatorTest.ASPECT );
+      write( "com.example/1.0.0/Robot.ttl", IsolatedValidatorTest.IMPORTING );
+   }
+
+   private void write( final String path, final String content ) throws IOException {
+      Files.createDirectories( models.resolve( path ).getParent() );
+      Files.write( models.resolve( path ), content.getBytes( StandardCharsets.UTF_8 ) );
+   }
+
+   private ValidateModelsMojo mojo() {
+      final ValidateModelsMojo mojo = new TestMojo();
+      mojo.modelDirectories = List.of( models.toFile() );
+      mojo.metaModelVersion = "2.0.0";
+      mojo.cacheFile = directory.resolve( "validation-cache.properties" ).toFile();
+      mojo.reportFile = directory.resolve( "validation-report.txt" ).toFile();
+      mojo.failOnError = true;
+      return mojo;
+   }
+
+   private String report() throws IOException {
+      return Files.readString( directory.resolve( "validation-report.txt" ) );
+   }
+
+   @Test
+   public void testReferencesToOtherFilesAreResolved() throws MojoExecutionException, MojoFailureException, IOException {
+      mojo().execute();
+      assertThat( report() ).startsWith( "Validated 3 Aspect Models against SAMM 2.0.0: 0 invalid" );
+   }
+
+   @Test
+   public void testDependentModelsAreValidatedAgain() throws MojoExecutionException, MojoFailureException, IOException {
+      mojo().execute();
+      final Map<Object, Object> cache = properties();
+      write( "org.example/1.0.0/Shared.ttl", IsolatedValidatorTest.SHARED.replace( ":Name a", ":Text a" ) );
+      assertThatThrownBy( () -> mojo().execute() ).isInstanceOf( MojoFailureException.class )
+            .hasMessageContaining( "2 of 3 Aspect Models are invalid" );
+      assertThat( report() ).contains( "Machine.ttl", "Robot.ttl" ).doesNotContain( "Shared.ttl" );
+      assertThat( properties().keySet() ).hasSize( 4 ).doesNotContainAnyElementsOf(
+            cache.keySet().stream().filter( key -> !key.equals( "context" ) ).collect( Collectors.toList() ) );
+   }
+
+   @Test
+   public void testUnchangedModelsAreNotValidatedAgain() throws MojoExecutionException, MojoFailureException, IOException {
+      mojo().execute();
+      final Map<Object, Object> cache = properties();
+      write( "com.example/1.0.0/Robot.ttl", IsolatedValidatorTest.IMPORTING + "# changed\n" );
+      mojo().execute();
+      final Map<Object, Object> changedCache = properties();
+      assertThat( changedCache ).hasSize( 4 );
+      assertThat( changedCache.entrySet() ).filteredOn( entry -> cache.containsKey( entry.getKey() ) ).hasSize( 3 );
+   }
+
+   @Test
+   public void testErrorsDoNotFailTheBuildIfConfigured() throws MojoExecutionException, MojoFailureException, IOException {
+      write( "org.example/1.0.0/Invalid.ttl", IsolatedValidatorTest.INVALID_SHARED.replace( ":Name a", ":Text a" ) );
+      final ValidateModelsMojo mojo = mojo();
+      mojo.failOnError = false;
+      mojo.execute();
+      assertThat( report() ).startsWith( "Validated 4 Aspect Models against SAMM 2.0.0: 1 invalid" ).contains( "Invalid.ttl" );
+   }
+
+   private Map<Object, Object> properties() throws IOException {
+      final Properties properties = new Properties();
+      try ( final InputStream input = Files.newInputStream( directory.resolve( "validation-cache.properties" ) ) ) {
+         properties.load( input );
+      }
+      return Map.copyOf( properties );
+   }
+}
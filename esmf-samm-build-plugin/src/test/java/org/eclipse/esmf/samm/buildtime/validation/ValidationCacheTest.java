@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.buildtime.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ValidationCacheTest {
+   @TempDir
+   Path directory;
+
+   @Test
+   public void testResultsAreWrittenAndRead() throws IOException {
+      final Path cacheFile = directory.resolve( "cache" ).resolve( "validation-cache.properties" );
+      final ValidationCache cache = new ValidationCache( cacheFile, "context" );
+      assertThat( cache.get( "a" ) ).isEmpty();
+      cache.put( "a", List.of() );
+      cache.put( "b", List.of( "Violation: first", "Violation: second" ) );
+      cache.put( "c", List.of( "Violation: removed" ) );
+      cache.write( List.of( "a", "b" ) );
+
+      final ValidationCache readCache = new ValidationCache( cacheFile, "context" );
+      assertThat( readCache.get( "a" ) ).contains( List.of() );
+      assertThat( readCache.get( "b" ) ).contains( List.of( "Violation: first", "Violation: second" ) );
+      assertThat( readCache.get( "c" ) ).isEmpty();
+   }
+
+   @Test
+   public void testOtherContextIsDiscarded() throws IOException {
+      final Path cacheFile = directory.resolve( "validation-cache.properties" );
+      final ValidationCache cache = new ValidationCache( cacheFile, "context" );
+      cache.put( "a", List.of() );
+      cache.write( List.of( "a" ) );
+      assertThat( new ValidationCache( cacheFile, "other context" ).get( "a" ) ).isEmpty();
+   }
+
+   @Test
+   public void testUnreadableFileIsIgnored() throws IOException {
+      final Path cacheFile = directory.resolve( "validation-cache.properties" );
+      Files.write( cacheFile, new byte[] { 'a', '=', '\\', 'u', 'z' } );
+      assertThat( new ValidationCache( cacheFile, "context" ).get( "a" ) ).isEmpty();
+   }
+}
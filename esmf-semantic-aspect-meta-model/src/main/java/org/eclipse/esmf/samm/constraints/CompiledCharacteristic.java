@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.constraints;
+
+/**
+ * The checks of a Characteristic, including the Constraints of the Traits that lead to it: a fused check of the
+ * lexical forms of its scalar values, a check of the language tags of rdf:langString values, the order of the values of
+ * its data type, and the bounds of the number of elements of a Collection. Instances are immutable and can be used concurrently.
+ */
+public final class CompiledCharacteristic {
+   private final String dataType;
+   private final boolean collection;
+   private final ValueCheck valueCheck;
+   private final ValueCheck languageCheck;
+   private final ValueOrder valueOrder;
+   private final long minElements;
+   private final long maxElements;
+
+   CompiledCharacteristic( final String dataType, final boolean collection, final ValueCheck valueCheck, final ValueCheck languageCheck,
+         final ValueOrder valueOrder, final long minElements, final long maxElements ) {
+      this.dataType = dataType;
+      this.collection = collection;
+      this.valueCheck = valueCheck;
+      this.languageCheck = languageCheck;
+      this.valueOrder = valueOrder;
+      this.minElements = minElements;
+      this.maxElements = maxElements;
+   }
+
+   /**
+    * @return the URI of the effective data type, which may also be an Entity, or null if the Characteristic has none
+    */
+   public String getDataType() {
+      return dataType;
+   }
+
+   /**
+    * @return true if the leaf Characteristic is a Collection, in which case the checks apply to its elements
+    */
+   public boolean isCollection() {
+      return collection;
+   }
+
+   /**
+    * @return the check of the lexical forms of scalar values: the lexical space of the data type and all Constraints.
+    *       For values of data types without a lexical validator (such as Entities) only the Constraints are checked.
+    */
+   public ValueCheck getValueCheck() {
+      return valueCheck;
+   }
+
+   /**
+    * @return the check of the language tags of rdf:langString values, which also includes samm-c:LanguageConstraint
+    *       and samm-c:LocaleConstraint; for other data types it accepts every tag
+    */
+   public ValueCheck getLanguageCheck() {
+      return languageCheck;
+   }
+
+   /**
+    * @return the order of the values of the data type, e.g. of the elements of a samm-c:SortedSet; values of data types
+    *       that XML Schema does not order, such as strings, are ordered by the code points of their lexical forms
+    */
+   public ValueOrder getValueOrder() {
+      return valueOrder;
+   }
+
+   /**
+    * @return the minimum number of elements of a Collection
+    */
+   public long getMinElements() {
+      return minElements;
+   }
+
+   /**
+    * @return the maximum number of elements of a Collection, or {@link Long#MAX_VALUE}
+    */
+   public long getMaxElements() {
+      return maxElements;
+   }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.constraints;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFList;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+import org.eclipse.esmf.samm.KnownVersion;
+import org.eclipse.esmf.samm.datatypes.DataTypeLattice;
+import org.eclipse.esmf.samm.datatypes.LexicalValidator;
+
+/**
+ * Compiles the Characteristics of an Aspect model into checks of payload values, see {@link CompiledCharacteristic}.
+ * The chain of samm-c:Trait (or Constraint) elements is followed along samm-c:baseCharacteristic to the leaf
+ * Characteristic, and the lexical validator of its data type and all Constraints along the chain are fused into one
+ * check: samm-c:RangeConstraint (honouring samm-c:lowerBoundDefinition and samm-c:upperBoundDefinition),
+ * samm-c:LengthConstraint (on the length of values, or on the number of elements of Collections),
+ * samm-c:FixedPointConstraint, samm-c:EncodingConstraint, samm-c:RegularExpressionConstraint, samm-c:LanguageConstraint
+ * and samm-c:LocaleConstraint, as well as the deconstruction rule of a samm-c:StructuredValue, the samm-c:values of
+ * a samm-c:Enumeration with scalar values (see {@link EnumerationIndex}) and the Constraints of the
+ * samm-c:elementCharacteristic of a Collection. Constraints that do not apply to the data type, e.g. a
+ * FixedPointConstraint on an xsd:float, are ignored, as the model is invalid and reported by the shapes anyway.
+ * <p>
+ * Except for regular expressions, the compiled checks work directly on the lexical form and do not allocate. The
+ * compiler caches the compiled Characteristics; it is not thread-safe, but its results are.
+ */
+public class ConstraintCompiler {
+   private static final Set<String> COLLECTION_CLASSES = Set.of( "Collection", "List", "Set", "SortedSet", "TimeSeries" );
+
+   private final Model model;
+   private final String characteristicNamespace;
+   private final Property dataType;
+   private final Property characteristic;
+   private final Property baseCharacteristic;
+   private final Property constraint;
+   private final Property elementCharacteristic;
+   private final Property deconstructionRule;
+   private final Property values;
+   private final Property value;
+   private final Property minValue;
+   private final Property maxValue;
+   private final Property lowerBoundDefinition;
+   private final Property upperBoundDefinition;
+   private final Property scale;
+   private final Property integer;
+   private final Property languageCode;
+   private final Property localeCode;
+   private final Resource greaterThan;
+   private final Resource lessThan;
+   private final Resource collection;
+   private final Map<Resource, CompiledCharacteristic> compiledCharacteristics = new HashMap<>();
+
+   /**
+    * @param model the Aspect model
+    * @param metaModelVersion the meta model version of the Aspect model
+    */
+   public ConstraintCompiler( final Model model, final KnownVersion metaModelVersion ) {
+      this.model = model;
+      final String metaModelNamespace = String.format( "urn:samm:org.eclipse.esmf.samm:meta-model:%s#",
+            metaModelVersion.toVersionString() );
+      characteristicNamespace = String.format( "urn:samm:org.eclipse.esmf.samm:characteristic:%s#", metaModelVersion.toVersionString() );
+      dataType = model.createProperty( metaModelNamespace + "dataType" );
+      characteristic = model.createProperty( metaModelNamespace + "characteristic" );
+      value = model.createProperty( metaModelNamespace + "value" );
+      baseCharacteristic = model.createProperty( characteristicNamespace + "baseCharacteristic" );
+      constraint = model.createProperty( characteristicNamespace + "constraint" );
+      elementCharacteristic = model.createProperty( characteristicNamespace + "elementCharacteristic" );
+      deconstructionRule = model.createProperty( characteristicNamespace + "deconstructionRule" );
+      values = model.createProperty( characteristicNamespace + "values" );
+      minValue = model.createProperty( characteristicNamespace + "minValue" );
+      maxValue = model.createProperty( characteristicNamespace + "maxValue" );
+      lowerBoundDefinition = model.createProperty( characteristicNamespace + "lowerBoundDefinition" );
+      upperBoundDefinition = model.createProperty( characteristicNamespace + "upperBoundDefinition" );
+      scale = model.createProperty( characteristicNamespace + "scale" );
+      integer = model.createProperty( characteristicNamespace + "integer" );
+      languageCode = model.createProperty( characteristicNamespace + "languageCode" );
+      localeCode = model.createProperty( characteristicNamespace + "localeCode" );
+      greaterThan = model.createResource( characteristicNamespace + "GREATER_THAN" );
+      lessThan = model.createResource( characteristicNamespace + "LESS_THAN" );
+      collection = model.createResource( characteristicNamespace + "Collection" );
+   }
+
+   /**
+    * Compiles the Characteristic of a Property
+    *
+    * @param property the Property
+    * @return the compiled Characteristic
+    * @throws IllegalArgumentException if the Property has no Characteristic
+    */
+   public CompiledCharacteristic compileProperty( final Resource property ) {
+      final Resource propertyCharacteristic = property.inModel( model ).getPropertyResourceValue( characteristic );
+      if ( propertyCharacteristic == null ) {
+         throw new IllegalArgumentException( "Property has no Characteristic: " + property );
+      }
+      return compile( propertyCharacteristic );
+   }
+
+   /**
+    * Compiles a Characteristic
+    *
+    * @param characteristic the Characteristic, e.g. a Trait
+    * @return the compiled Characteristic
+    * @throws IllegalArgumentException if a Constraint is invalid, e.g. a bound is not a valid value of the data type, or
+    *       a value of an Enumeration is not
+    */
+   public CompiledCharacteristic compile( final Resource characteristic ) {
+      final CompiledCharacteristic cached = compiledCharacteristics.get( characteristic );
+      if ( cached != null ) {
+         return cached;
+      }
+      final CompiledCharacteristic compiled = compileCharacteristic( characteristic.inModel( model ) );
+      compiledCharacteristics.put( characteristic, compiled );
+      return compiled;
+   }
+
+   private CompiledCharacteristic compileCharacteristic( final Resource characteristic ) {
+      final List<Resource> constraints = new ArrayList<>();
+      final Set<Resource> visited = new HashSet<>();
+      Resource leaf = characteristic;
+      while ( visited.add( leaf ) && leaf.hasProperty( baseCharacteristic ) ) {
+         leaf.listProperties( constraint ).forEachRemaining( statement -> constraints.add( statement.getResource() ) );
+         leaf = leaf.getPropertyResourceValue( baseCharacteristic );
+      }
+
+      final boolean isCollection = isCollection( leaf );
+      final CompiledCharacteristic element = isCollection && leaf.hasProperty( elementCharacteristic )
+            ? compile( leaf.getPropertyResourceValue( elementCharacteristic ) )
+            : null;
+      final Resource leafDataType = leaf.getPropertyResourceValue( dataType );
+      final String dataTypeUri = leafDataType != null ? leafDataType.getURI() : element != null ? element.getDataType() : null;
+
+      final LexicalValidator validator = dataTypeUri == null ? null : LexicalValidator.forDataType( dataTypeUri );
+      ValueCheck valueCheck = validator == null ? ValueCheck.ANY : validator::isValid;
+      final boolean langString = (DataTypeLattice.RDF_NAMESPACE + "langString").equals( dataTypeUri );
+      ValueCheck languageCheck = langString ? LanguageTags::isValid : ValueCheck.ANY;
+      if ( element != null ) {
+         valueCheck = valueCheck.and( element.getValueCheck() );
+         languageCheck = languageCheck.and( element.getLanguageCheck() );
+      }
+      final Statement rule = leaf.getProperty( deconstructionRule );
+      if ( rule != null && rule.getObject().isLiteral() ) {
+         valueCheck = valueCheck.and( ValueChecks.regularExpression( rule.getString() ) );
+      }
+
+      long minElements = 0;
+      long maxElements = Long.MAX_VALUE;
+      final String xsdType = dataTypeUri != null && dataTypeUri.startsWith( DataTypeLattice.XSD_NAMESPACE )
+            ? dataTypeUri.substring( DataTypeLattice.XSD_NAMESPACE.length() )
+            : "";
+      final List<String> enumerationValues = isCollection ? null : enumerationValues( leaf );
+      if ( enumerationValues != null ) {
+         valueCheck = valueCheck.and( EnumerationIndex.membership( xsdType, langString, enumerationValues ) );
+      }
+      for ( final Resource constraintResource : constraints ) {
+         final String type = constraintType( constraintResource );
+         if ( type == null ) {
+            continue;
+         }
+         switch ( type ) {
+            case "RangeConstraint": {
+               final ValueCheck check = RangeChecks.range( xsdType, lexicalForm( constraintResource, minValue ),
+                     constraintResource.hasProperty( lowerBoundDefinition, greaterThan ), lexicalForm( constraintResource, maxValue ),
+                     constraintResource.hasProperty( upperBoundDefinition, lessThan ) );
+               if ( check != null ) {
+                  valueCheck = valueCheck.and( check );
+               }
+               break;
+            }
+            case "LengthConstraint": {
+               final String min = lexicalForm( constraintResource, minValue );
+               final String max = lexicalForm( constraintResource, maxValue );
+               final long minLength = min == null ? 0 : Long.parseLong( min.trim() );
+               final long maxLength = max == null ? Long.MAX_VALUE : Long.parseLong( max.trim() );
+               if ( isCollection ) {
+                  minElements = Math.max( minElements, minLength );
+                  maxElements = Math.min( maxElements, maxLength );
+               } else {
+                  valueCheck = valueCheck.and( ValueChecks.length( minLength, maxLength ) );
+               }
+               break;
+            }
+            case "FixedPointConstraint":
+               if ( xsdType.equals( "decimal" ) ) {
+                  final String integerDigits = lexicalForm( constraintResource, integer );
+                  final String scaleDigits = lexicalForm( constraintResource, scale );
+                  valueCheck = valueCheck.and( ValueChecks.fixedPoint(
+                        integerDigits == null ? Integer.MAX_VALUE : Integer.parseInt( integerDigits.trim() ),
+                        scaleDigits == null ? Integer.MAX_VALUE : Integer.parseInt( scaleDigits.trim() ) ) );
+               }
+               break;
+            case "EncodingConstraint": {
+               final Resource encoding = constraintResource.getPropertyResourceValue( value );
+               final ValueCheck check = encoding == null || !encoding.isURIResource() ? null : ValueChecks.encoding( encoding.getLocalName() );
+               if ( check != null ) {
+                  valueCheck = valueCheck.and( check );
+               }
+               break;
+            }
+            case "RegularExpressionConstraint": {
+               final String pattern = lexicalForm( constraintResource, value );
+               if ( pattern != null ) {
+                  valueCheck = valueCheck.and( ValueChecks.regularExpression( pattern ) );
+               }
+               break;
+            }
+            case "LanguageConstraint": {
+               final String code = lexicalForm( constraintResource, languageCode );
+               if ( langString && code != null ) {
+                  languageCheck = languageCheck.and( ( tag, start, end ) -> LanguageTags.hasLanguage( tag, start, end, code ) );
+               }
+               break;
+            }
+            case "LocaleConstraint": {
+               final String code = lexicalForm( constraintResource, localeCode );
+               if ( langString && code != null ) {
+                  languageCheck = languageCheck.and( ( tag, start, end ) -> LanguageTags.isLocale( tag, start, end, code ) );
+               }
+               break;
+            }
+            default:
+               break;
+         }
+      }
+      return new CompiledCharacteristic( dataTypeUri, isCollection, valueCheck, languageCheck, RangeChecks.order( xsdType ), minElements,
+            maxElements );
+   }
+
+   /**
+    * @return the local name of the samm-c Constraint class of the resource, or null
+    */
+   private String constraintType( final Resource constraintResource ) {
+      for ( final Statement statement : constraintResource.listProperties( RDF.type ).toList() ) {
+         final RDFNode type = statement.getObject();
+         if ( type.isURIResource() && type.asResource().getURI().startsWith( characteristicNamespace ) ) {
+            return type.asResource().getURI().substring( characteristicNamespace.length() );
+         }
+      }
+      return null;
+   }
+
+   private boolean isCollection( final Resource leaf ) {
+      final Deque<Resource> types = new ArrayDeque<>();
+      leaf.listProperties( RDF.type ).forEachRemaining( statement -> {
+         if ( statement.getObject().isURIResource() ) {
+            types.add( statement.getResource() );
+         }
+      } );
+      final Set<Resource> visited = new HashSet<>();
+      while ( !types.isEmpty() ) {
+         final Resource type = types.poll();
+         if ( !visited.add( type ) ) {
+            continue;
+         }
+         if ( type.equals( collection ) || type.getURI().startsWith( characteristicNamespace )
+               && COLLECTION_CLASSES.contains( type.getURI().substring( characteristicNamespace.length() ) ) ) {
+            return true;
+         }
+         type.listProperties( RDFS.subClassOf ).forEachRemaining( statement -> {
+            if ( statement.getObject().isURIResource() ) {
+               types.add( statement.getResource() );
+            }
+         } );
+      }
+      return false;
+   }
+
+   /**
+    * @return the lexical forms of the samm-c:values of the Characteristic, or null if it has none or if they are not
+    *       all literals, e.g. for Enumerations of Entity instances
+    */
+   private List<String> enumerationValues( final Resource leaf ) {
+      final Resource list = leaf.getPropertyResourceValue( values );
+      if ( list == null || !list.canAs( RDFList.class ) ) {
+         return null;
+      }
+      final List<String> result = new ArrayList<>();
+      for ( final RDFNode node : list.as( RDFList.class ).asJavaList() ) {
+         if ( !node.isLiteral() ) {
+            return null;
+         }
+         result.add( node.asLiteral().getLexicalForm() );
+      }
+      return result;
+   }
+
+   private String lexicalForm( final Resource resource, final Property property ) {
+      final Statement statement = resource.getProperty( property );
+      return statement == null || !statement.getObject().isLiteral() ? null : statement.getLiteral().getLexicalForm();
+   }
+}
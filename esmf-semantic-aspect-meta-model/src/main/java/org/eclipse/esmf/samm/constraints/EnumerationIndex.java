@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.constraints;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.esmf.samm.datatypes.NumericLexicalForms;
+import org.eclipse.esmf.samm.datatypes.NumericLexicalForms.DecimalValue;
+
+/**
+ * Compiles the samm-c:values of a samm-c:Enumeration (or samm-c:State) into a membership check whose cost does not
+ * depend on the number of values: values of the bounded integer types, xsd:boolean and the floating point types are
+ * looked up as longs in a {@link LongHashSet}; xsd:decimal and the unbounded integer types are scaled to the largest
+ * scale of the Enumeration values and looked up as longs as well, with a set of BigDecimals for values that do not fit;
+ * strings are looked up in a {@link StringHashSet}, which compares xsd:string and rdf:langString values exactly and the
+ * lexical forms of all other data types without surrounding whitespace. Values are compared in the value space of the
+ * data type, so e.g. 1.50 is a member of the Enumeration ( 1.5 ), and the checks expect valid lexical forms, i.e. they
+ * must be combined with the lexical validator of the data type.
+ */
+final class EnumerationIndex {
+   private static final ThreadLocal<DecimalValue> DECIMAL_VALUES = ThreadLocal.withInitial( DecimalValue::new );
+   private static final long[] POWERS_OF_TEN = new long[19];
+
+   static {
+      POWERS_OF_TEN[0] = 1;
+      for ( int i = 1; i < POWERS_OF_TEN.length; i++ ) {
+         POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+      }
+   }
+
+   private EnumerationIndex() {
+   }
+
+   /**
+    * @param dataType the local name of the XSD data type, or the empty string for other data types
+    * @param exact true if lexical forms are compared including surrounding whitespace
+    * @param values the lexical forms of the Enumeration values
+    * @return the check
+    * @throws IllegalArgumentException if a value is not a valid lexical form of the data type
+    */
+   static ValueCheck membership( final String dataType, final boolean exact, final List<String> values ) {
+      try {
+         switch ( dataType ) {
+            case "boolean": {
+               final LongHashSet set = longs( values, value -> NumericLexicalForms.parseBoolean( value, 0, value.length() ) ? 1 : 0 );
+               return ( lexicalForm, start, end ) -> set.contains( NumericLexicalForms.parseBoolean( lexicalForm, start, end ) ? 1 : 0 );
+            }
+            case "double": {
+               final LongHashSet set = longs( values, value -> doubleKey( NumericLexicalForms.parseDouble( value, 0, value.length() ) ) );
+               return ( lexicalForm, start, end ) ->
+                     set.contains( doubleKey( NumericLexicalForms.parseDouble( lexicalForm, start, end ) ) );
+            }
+            case "float": {
+               final LongHashSet set = longs( values, value -> doubleKey( NumericLexicalForms.parseFloat( value, 0, value.length() ) ) );
+               return ( lexicalForm, start, end ) ->
+                     set.contains( doubleKey( NumericLexicalForms.parseFloat( lexicalForm, start, end ) ) );
+            }
+            case "decimal":
+            case "integer":
+            case "positiveInteger":
+            case "nonNegativeInteger":
+            case "negativeInteger":
+            case "nonPositiveInteger":
+               return decimalMembership( values );
+            case "byte":
+            case "short":
+            case "int":
+            case "long":
+            case "unsignedByte":
+            case "unsignedShort":
+            case "unsignedInt":
+            case "unsignedLong": {
+               final LongHashSet set = longs( values, value -> NumericLexicalForms.parseLong( value, 0, value.length() ) );
+               return ( lexicalForm, start, end ) -> set.contains( NumericLexicalForms.parseLong( lexicalForm, start, end ) );
+            }
+            case "string":
+               return strings( values, true );
+            default:
+               return strings( values, exact );
+         }
+      } catch ( final NumberFormatException exception ) {
+         throw new IllegalArgumentException( "Invalid Enumeration value of xsd:" + dataType, exception );
+      }
+   }
+
+   @FunctionalInterface
+   private interface LongKey {
+      long of( String lexicalForm );
+   }
+
+   private static LongHashSet longs( final List<String> values, final LongKey key ) {
+      final long[] keys = new long[values.size()];
+      for ( int i = 0; i < keys.length; i++ ) {
+         keys[i] = key.of( values.get( i ) );
+      }
+      return new LongHashSet( keys );
+   }
+
+   /**
+    * @return the bits of the value, with -0 and 0 as well as all NaNs mapped to the same key
+    */
+   private static long doubleKey( final double value ) {
+      return Double.doubleToLongBits( value == 0 ? 0.0 : value );
+   }
+
+   private static ValueCheck strings( final List<String> values, final boolean exact ) {
+      if ( exact ) {
+         final StringHashSet set = new StringHashSet( values );
+         return set::contains;
+      }
+      final List<String> trimmed = new ArrayList<>();
+      for ( final String value : values ) {
+         trimmed.add( value.trim() );
+      }
+      final StringHashSet set = new StringHashSet( trimmed );
+      return ( lexicalForm, start, end ) -> {
+         int from = start;
+         int to = end;
+         while ( from < to && RangeChecks.isWhitespace( lexicalForm.charAt( from ) ) ) {
+            from++;
+         }
+         while ( to > from && RangeChecks.isWhitespace( lexicalForm.charAt( to - 1 ) ) ) {
+            to--;
+         }
+         return set.contains( lexicalForm, from, to );
+      };
+   }
+
+   private static ValueCheck decimalMembership( final List<String> values ) {
+      final DecimalValue holder = new DecimalValue();
+      int maxScale = 0;
+      for ( final String value : values ) {
+         if ( NumericLexicalForms.parseDecimal( value, 0, value.length(), holder ) ) {
+            maxScale = Math.max( maxScale, holder.getScale() );
+         }
+      }
+      final int scale = Math.min( maxScale, POWERS_OF_TEN.length - 1 );
+      final List<Long> scaledValues = new ArrayList<>();
+      final Set<BigDecimal> largeValues = new HashSet<>();
+      for ( final String value : values ) {
+         final long scaled = NumericLexicalForms.parseDecimal( value, 0, value.length(), holder ) ? scale( holder, scale ) : Long.MIN_VALUE;
+         if ( scaled != Long.MIN_VALUE ) {
+            scaledValues.add( scaled );
+         } else {
+            largeValues.add( NumericLexicalForms.parseBigDecimal( value, 0, value.length() ).stripTrailingZeros() );
+         }
+      }
+      final LongHashSet set = new LongHashSet( scaledValues.stream().mapToLong( Long::longValue ).toArray() );
+      return ( lexicalForm, start, end ) -> {
+         final DecimalValue value = DECIMAL_VALUES.get();
+         final long scaled = NumericLexicalForms.parseDecimal( lexicalForm, start, end, value ) ? scale( value, scale ) : Long.MIN_VALUE;
+         if ( scaled != Long.MIN_VALUE ) {
+            return set.contains( scaled );
+         }
+         // Only values that do not fit into a long at the common scale allocate, and only if there are such Enumeration values
+         return !largeValues.isEmpty()
+               && largeValues.contains( NumericLexicalForms.parseBigDecimal( lexicalForm, start, end ).stripTrailingZeros() );
+      };
+   }
+
+   /**
+    * @return the unscaled value of the decimal at the given scale, or Long.MIN_VALUE if it does not fit into a long
+    *       or has more fraction digits
+    */
+   private static long scale( final DecimalValue value, final int scale ) {
+      if ( value.getScale() > scale ) {
+         return Long.MIN_VALUE;
+      }
+      final long factor = POWERS_OF_TEN[scale - value.getScale()];
+      final long unscaled = value.getUnscaledValue();
+      if ( unscaled > Long.MAX_VALUE / factor || unscaled < -(Long.MAX_VALUE / factor) ) {
+         return Long.MIN_VALUE;
+      }
+      return unscaled * factor;
+   }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.constraints;
+
+import org.eclipse.esmf.samm.language.LanguageSubtagRegistry;
+import org.eclipse.esmf.samm.language.LanguageSubtagRegistry.SubtagType;
+
+/**
+ * Checks of the language tags of rdf:langString values. Language tags are case-insensitive, while the
+ * {@link LanguageSubtagRegistry} expects the conventional case, so the primary language subtag is looked up through a
+ * reusable lower case view.
+ */
+final class LanguageTags {
+   private static final ThreadLocal<LowerCaseView> LOWER_CASE_VIEWS = ThreadLocal.withInitial( LowerCaseView::new );
+
+   private LanguageTags() {
+   }
+
+   /**
+    * Checks that a language tag is well-formed, i.e. it consists of subtags of one to eight letters and digits
+    * separated by hyphens, the first of which has only letters, and that its primary language subtag (if it has two or
+    * three letters) is registered
+    */
+   static boolean isValid( final CharSequence tag, final int start, final int end ) {
+      final int primaryEnd = subtagEnd( tag, start, end );
+      if ( primaryEnd == start || primaryEnd - start > 8 ) {
+         return false;
+      }
+      for ( int i = start; i < primaryEnd; i++ ) {
+         if ( !isLetter( tag.charAt( i ) ) ) {
+            return false;
+         }
+      }
+      int subtagStart = primaryEnd;
+      while ( subtagStart < end ) {
+         // Skip the hyphen
+         subtagStart++;
+         final int subtagEnd = subtagEnd( tag, subtagStart, end );
+         if ( subtagEnd == subtagStart || subtagEnd - subtagStart > 8 ) {
+            return false;
+         }
+         for ( int i = subtagStart; i < subtagEnd; i++ ) {
+            if ( !isLetter( tag.charAt( i ) ) && !isDigit( tag.charAt( i ) ) ) {
+               return false;
+            }
+         }
+         subtagStart = subtagEnd;
+      }
+      final int primaryLength = primaryEnd - start;
+      if ( primaryLength == 2 || primaryLength == 3 ) {
+         final LowerCaseView view = LOWER_CASE_VIEWS.get().reset( tag, start, primaryEnd );
+         return LanguageSubtagRegistry.getInstance().contains( SubtagType.LANGUAGE, view );
+      }
+      return true;
+   }
+
+   /**
+    * @return true if the primary language subtag of the tag is the language code, ignoring case
+    */
+   static boolean hasLanguage( final CharSequence tag, final int start, final int end, final String languageCode ) {
+      return equalsIgnoreCase( tag, start, subtagEnd( tag, start, end ), languageCode );
+   }
+
+   /**
+    * @return true if the tag is the locale code, ignoring case
+    */
+   static boolean isLocale( final CharSequence tag, final int start, final int end, final String localeCode ) {
+      return equalsIgnoreCase( tag, start, end, localeCode );
+   }
+
+   private static int subtagEnd( final CharSequence tag, final int start, final int end ) {
+      int i = start;
+      while ( i < end && tag.charAt( i ) != '-' ) {
+         i++;
+      }
+      return i;
+   }
+
+   private static boolean equalsIgnoreCase( final CharSequence value, final int start, final int end, final String expected ) {
+      if ( end - start != expected.length() ) {
+         return false;
+      }
+      for ( int i = 0; i < expected.length(); i++ ) {
+         if ( toLowerCase( value.charAt( start + i ) ) != toLowerCase( expected.charAt( i ) ) ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static boolean isLetter( final char c ) {
+      return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+   }
+
+   private static boolean isDigit( final char c ) {
+      return c >= '0' && c <= '9';
+   }
+
+   private static char toLowerCase( final char c ) {
+      return c >= 'A' && c <= 'Z' ? (char) (c + 'a' - 'A') : c;
+   }
+
+   /**
+    * A reusable view of a range of characters in lower case
+    */
+   private static final class LowerCaseView implements CharSequence {
+      private CharSequence value;
+      private int start;
+      private int end;
+
+      LowerCaseView reset( final CharSequence value, final int start, final int end ) {
+         this.value = value;
+         this.start = start;
+         this.end = end;
+         return this;
+      }
+
+      @Override
+      public int length() {
+         return end - start;
+      }
+
+      @Override
+      public char charAt( final int index ) {
+         return toLowerCase( value.charAt( start + index ) );
+      }
+
+      @Override
+      public CharSequence subSequence( final int from, final int to ) {
+         return new LowerCaseView().reset( value, start + from, start + to );
+      }
+
+      @Override
+      public String toString() {
+         return new StringBuilder( this ).toString();
+      }
+   }
+}
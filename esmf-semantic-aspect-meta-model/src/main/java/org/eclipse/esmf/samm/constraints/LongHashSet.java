@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.constraints;
+
+/**
+ * An immutable set of longs in an open addressing table with linear probing, without boxing. 0 marks free slots, so
+ * whether the set contains 0 is recorded separately.
+ */
+final class LongHashSet {
+   private final long[] table;
+   private final boolean containsZero;
+
+   LongHashSet( final long[] values ) {
+      table = new long[Integer.highestOneBit( Math.max( 1, values.length ) ) << 2];
+      boolean zero = false;
+      for ( final long value : values ) {
+         if ( value == 0 ) {
+            zero = true;
+            continue;
+         }
+         int slot = slot( value );
+         while ( table[slot] != 0 && table[slot] != value ) {
+            slot = slot + 1 & table.length - 1;
+         }
+         table[slot] = value;
+      }
+      containsZero = zero;
+   }
+
+   boolean contains( final long value ) {
+      if ( value == 0 ) {
+         return containsZero;
+      }
+      for ( int slot = slot( value ); table[slot] != 0; slot = slot + 1 & table.length - 1 ) {
+         if ( table[slot] == value ) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private int slot( final long value ) {
+      // Fibonacci hashing spreads consecutive values, which are common in enumerations, over the table
+      return (int) (value * 0x9e3779b97f4a7c15L >>> 32) & table.length - 1;
+   }
+}
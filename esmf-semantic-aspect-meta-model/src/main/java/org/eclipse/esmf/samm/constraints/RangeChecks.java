@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.constraints;
+
+import java.math.BigDecimal;
+
+import org.eclipse.esmf.samm.datatypes.NumericLexicalForms;
+import org.eclipse.esmf.samm.datatypes.NumericLexicalForms.DecimalValue;
+import org.eclipse.esmf.samm.datatypes.TemporalLexicalForms;
+import org.eclipse.esmf.samm.datatypes.TemporalLexicalForms.DateTimeType;
+import org.eclipse.esmf.samm.datatypes.TemporalLexicalForms.DateTimeValue;
+import org.eclipse.esmf.samm.datatypes.TemporalLexicalForms.DurationType;
+import org.eclipse.esmf.samm.datatypes.TemporalLexicalForms.DurationValue;
+
+/**
+ * Compiles the bounds of a samm-c:RangeConstraint into a check that compares values with them in the order of the data
+ * type, without allocation: Integer and decimal values are compared digit by digit with the normalized bounds, so the
+ * values may have any precision; floating point values are compared as doubles; date and time values are compared on
+ * the time line, where values without time zone are treated as UTC; durations are compared as defined by XML Schema,
+ * by adding them to four reference dates, and values that are not comparable with a bound (such as P1M and P30D) do not
+ * satisfy it. The checks expect valid lexical forms, i.e. they must be combined with the lexical validator of the data
+ * type. The same orders are available as comparisons of two values, see {@link #order(String)}.
+ */
+final class RangeChecks {
+   private static final int INCOMPARABLE = ValueOrder.INCOMPARABLE;
+   private static final int[][] REFERENCE_YEAR_MONTHS = { { 1696, 9 }, { 1697, 2 }, { 1903, 3 }, { 1903, 7 } };
+   private static final ThreadLocal<DateTimeValue> DATE_TIME_VALUES = ThreadLocal.withInitial( DateTimeValue::new );
+   private static final ThreadLocal<DateTimeValue> OTHER_DATE_TIME_VALUES = ThreadLocal.withInitial( DateTimeValue::new );
+   private static final ThreadLocal<DurationValue> DURATION_VALUES = ThreadLocal.withInitial( DurationValue::new );
+   private static final ThreadLocal<DurationValue> OTHER_DURATION_VALUES = ThreadLocal.withInitial( DurationValue::new );
+   private static final ThreadLocal<DecimalValue> DECIMAL_VALUES = ThreadLocal.withInitial( DecimalValue::new );
+   private static final ThreadLocal<DecimalValue> OTHER_DECIMAL_VALUES = ThreadLocal.withInitial( DecimalValue::new );
+
+   /**
+    * A comparison of a value with a bound
+    */
+   @FunctionalInterface
+   private interface Comparison {
+      /**
+       * @return a negative number, zero, or a positive number if the value is less than, equal to, or greater than the
+       *       bound, or {@link #INCOMPARABLE}
+       */
+      int compare( CharSequence lexicalForm, int start, int end );
+   }
+
+   private RangeChecks() {
+   }
+
+   /**
+    * @param dataType the local name of the XSD data type
+    * @param minValue the lexical form of the lower bound, or null
+    * @param minExclusive true if the lower bound is exclusive
+    * @param maxValue the lexical form of the upper bound, or null
+    * @param maxExclusive true if the upper bound is exclusive
+    * @return the check, or null if the data type is not ordered
+    * @throws IllegalArgumentException if a bound is not a valid lexical form of the data type
+    */
+   static ValueCheck range( final String dataType, final String minValue, final boolean minExclusive, final String maxValue,
+         final boolean maxExclusive ) {
+      ValueCheck check = ValueCheck.ANY;
+      if ( minValue != null ) {
+         final Comparison comparison = comparison( dataType, minValue );
+         if ( comparison == null ) {
+            return null;
+         }
+         check = minExclusive
+               ? ( lexicalForm, start, end ) -> comparison.compare( lexicalForm, start, end ) > 0
+               : ( lexicalForm, start, end ) -> {
+                  final int result = comparison.compare( lexicalForm, start, end );
+                  return result >= 0 && result != INCOMPARABLE;
+               };
+      }
+      if ( maxValue != null ) {
+         final Comparison comparison = comparison( dataType, maxValue );
+         if ( comparison == null ) {
+            return null;
+         }
+         check = check.and( maxExclusive
+               ? ( lexicalForm, start, end ) -> {
+                  final int result = comparison.compare( lexicalForm, start, end );
+                  return result < 0 && result != INCOMPARABLE;
+               }
+               : ( lexicalForm, start, end ) -> {
+                  final int result = comparison.compare( lexicalForm, start, end );
+                  return result <= 0 && result != INCOMPARABLE;
+               } );
+      }
+      return check;
+   }
+
+   private static Comparison comparison( final String dataType, final String bound ) {
+      switch ( dataType ) {
+         case "decimal":
+         case "integer":
+         case "byte":
+         case "short":
+         case "int":
+         case "long":
+         case "unsignedByte":
+         case "unsignedShort":
+         case "unsignedInt":
+         case "unsignedLong":
+         case "positiveInteger":
+         case "nonNegativeInteger":
+         case "negativeInteger":
+         case "nonPositiveInteger":
+            return decimalComparison( bound );
+         case "double": {
+            final double value = NumericLexicalForms.parseDouble( bound, 0, bound.length() );
+            return ( lexicalForm, start, end ) -> compareDoubles( NumericLexicalForms.parseDouble( lexicalForm, start, end ), value );
+         }
+         case "float": {
+            final float value = NumericLexicalForms.parseFloat( bound, 0, bound.length() );
+            return ( lexicalForm, start, end ) -> compareDoubles( NumericLexicalForms.parseFloat( lexicalForm, start, end ), value );
+         }
+         case "date":
+         case "time":
+         case "dateTime":
+         case "dateTimeStamp":
+         case "gYear":
+         case "gMonth":
+         case "gDay":
+         case "gYearMonth":
+         case "gMonthDay":
+            return dateTimeComparison( DateTimeType.fromName( dataType ), bound );
+         case "duration":
+         case "yearMonthDuration":
+         case "dayTimeDuration":
+            return durationComparison( DurationType.fromName( dataType ), bound );
+         default:
+            return null;
+      }
+   }
+
+   /**
+    * @param dataType the local name of the XSD data type, or the empty string for other data types
+    * @return the order of the values of the data type; values of data types that XML Schema does not order, such as
+    *       strings, are ordered by the code points of their lexical forms
+    */
+   static ValueOrder order( final String dataType ) {
+      switch ( dataType ) {
+         case "decimal":
+         case "integer":
+         case "byte":
+         case "short":
+         case "int":
+         case "long":
+         case "unsignedByte":
+         case "unsignedShort":
+         case "unsignedInt":
+         case "unsignedLong":
+         case "positiveInteger":
+         case "nonNegativeInteger":
+         case "negativeInteger":
+         case "nonPositiveInteger":
+            return RangeChecks::compareDecimals;
+         case "double":
+            return ( first, firstStart, firstEnd, second, secondStart, secondEnd ) -> compareDoubles(
+                  NumericLexicalForms.parseDouble( first, firstStart, firstEnd ),
+                  NumericLexicalForms.parseDouble( second, secondStart, secondEnd ) );
+         case "float":
+            return ( first, firstStart, firstEnd, second, secondStart, secondEnd ) -> compareDoubles(
+                  NumericLexicalForms.parseFloat( first, firstStart, firstEnd ),
+                  NumericLexicalForms.parseFloat( second, secondStart, secondEnd ) );
+         case "boolean":
+            return ( first, firstStart, firstEnd, second, secondStart, secondEnd ) -> Boolean.compare(
+                  NumericLexicalForms.parseBoolean( first, firstStart, firstEnd ),
+                  NumericLexicalForms.parseBoolean( second, secondStart, secondEnd ) );
+         case "date":
+         case "time":
+         case "dateTime":
+         case "dateTimeStamp":
+         case "gYear":
+         case "gMonth":
+         case "gDay":
+         case "gYearMonth":
+         case "gMonthDay": {
+            final DateTimeType type = DateTimeType.fromName( dataType );
+            return ( first, firstStart, firstEnd, second, secondStart, secondEnd ) -> {
+               final DateTimeValue firstValue = DATE_TIME_VALUES.get();
+               final DateTimeValue secondValue = OTHER_DATE_TIME_VALUES.get();
+               TemporalLexicalForms.parseDateTime( first, firstStart, firstEnd, type, firstValue );
+               TemporalLexicalForms.parseDateTime( second, secondStart, secondEnd, type, secondValue );
+               final int result = Long.compare( timelineSeconds( firstValue ), timelineSeconds( secondValue ) );
+               return result != 0 ? result : Integer.compare( firstValue.getNanos(), secondValue.getNanos() );
+            };
+         }
+         case "duration":
+         case "yearMonthDuration":
+         case "dayTimeDuration": {
+            final DurationType type = DurationType.fromName( dataType );
+            return ( first, firstStart, firstEnd, second, secondStart, secondEnd ) -> {
+               final DurationValue firstValue = DURATION_VALUES.get();
+               final DurationValue secondValue = OTHER_DURATION_VALUES.get();
+               TemporalLexicalForms.parseDuration( first, firstStart, firstEnd, type, firstValue );
+               TemporalLexicalForms.parseDuration( second, secondStart, secondEnd, type, secondValue );
+               final int firstSign = firstValue.isNegative() ? -1 : 1;
+               final int secondSign = secondValue.isNegative() ? -1 : 1;
+               return compareDurations( firstSign * firstValue.getMonths(), firstSign * firstValue.getSeconds(),
+                     firstSign * firstValue.getNanos(), secondSign * secondValue.getMonths(), secondSign * secondValue.getSeconds(),
+                     secondSign * secondValue.getNanos() );
+            };
+         }
+         default:
+            return RangeChecks::compareCodePoints;
+      }
+   }
+
+   private static int compareDecimals( final CharSequence first, final int firstStart, final int firstEnd, final CharSequence second,
+         final int secondStart, final int secondEnd ) {
+      final DecimalValue firstValue = DECIMAL_VALUES.get();
+      final DecimalValue secondValue = OTHER_DECIMAL_VALUES.get();
+      if ( NumericLexicalForms.parseDecimal( first, firstStart, firstEnd, firstValue )
+            && NumericLexicalForms.parseDecimal( second, secondStart, secondEnd, secondValue ) ) {
+         return Integer.signum( firstValue.compareTo( secondValue.getUnscaledValue(), secondValue.getScale() ) );
+      }
+      // Values that do not fit into a long are rare enough to allocate
+      return NumericLexicalForms.parseBigDecimal( first, firstStart, firstEnd )
+            .compareTo( NumericLexicalForms.parseBigDecimal( second, secondStart, secondEnd ) );
+   }
+
+   /**
+    * Compares in the order of code points, which differs from the order of UTF-16 chars for supplementary characters
+    */
+   private static int compareCodePoints( final CharSequence first, final int firstStart, final int firstEnd, final CharSequence second,
+         final int secondStart, final int secondEnd ) {
+      final int length = Math.min( firstEnd - firstStart, secondEnd - secondStart );
+      for ( int i = 0; i < length; i++ ) {
+         final char firstChar = first.charAt( firstStart + i );
+         final char secondChar = second.charAt( secondStart + i );
+         if ( firstChar != secondChar ) {
+            return Integer.compare( codePointOrder( firstChar ), codePointOrder( secondChar ) );
+         }
+      }
+      return Integer.compare( firstEnd - firstStart, secondEnd - secondStart );
+   }
+
+   /**
+    * @return a key of a UTF-16 char that sorts surrogates after all other chars, like the code points they encode
+    */
+   private static int codePointOrder( final char c ) {
+      if ( c < 0xd800 ) {
+         return c;
+      }
+      return c < 0xe000 ? c + 0x2000 : c - 0x800;
+   }
+
+   private static int compareDoubles( final double value, final double bound ) {
+      if ( Double.isNaN( value ) || Double.isNaN( bound ) ) {
+         return INCOMPARABLE;
+      }
+      // Unlike Double.compare, -0 and 0 are equal
+      return value < bound ? -1 : value > bound ? 1 : 0;
+   }
+
+   private static Comparison decimalComparison( final String bound ) {
+      final BigDecimal value = new BigDecimal( bound.trim().endsWith( "." ) ? bound.trim() + "0" : bound.trim() );
+      final boolean negative = value.signum() < 0;
+      final String digits = value.abs().stripTrailingZeros().toPlainString();
+      final int point = digits.indexOf( '.' );
+      final String integerDigits = point < 0 ? digits : digits.substring( 0, point );
+      final String normalizedIntegerDigits = integerDigits.equals( "0" ) ? "" : integerDigits;
+      final String fractionDigits = point < 0 ? "" : digits.substring( point + 1 );
+      return ( lexicalForm, start, end ) -> compareDecimal( lexicalForm, start, end, negative, normalizedIntegerDigits, fractionDigits );
+   }
+
+   /**
+    * Compares a valid xsd:decimal or integer lexical form with a decimal given by its sign, its integer digits without
+    * leading zeros and its fraction digits without trailing zeros
+    */
+   static int compareDecimal( final CharSequence lexicalForm, final int start, final int end, final boolean boundNegative,
+         final String boundIntegerDigits, final String boundFractionDigits ) {
+      int from = start;
+      int to = end;
+      while ( from < to && isWhitespace( lexicalForm.charAt( from ) ) ) {
+         from++;
+      }
+      while ( to > from && isWhitespace( lexicalForm.charAt( to - 1 ) ) ) {
+         to--;
+      }
+      final boolean negative = lexicalForm.charAt( from ) == '-';
+      int integerStart = lexicalForm.charAt( from ) == '-' || lexicalForm.charAt( from ) == '+' ? from + 1 : from;
+      int point = integerStart;
+      while ( point < to && lexicalForm.charAt( point ) != '.' ) {
+         point++;
+      }
+      while ( integerStart < point && lexicalForm.charAt( integerStart ) == '0' ) {
+         integerStart++;
+      }
+      int fractionEnd = to;
+      if ( point < to ) {
+         while ( fractionEnd > point + 1 && lexicalForm.charAt( fractionEnd - 1 ) == '0' ) {
+            fractionEnd--;
+         }
+      } else {
+         fractionEnd = point + 1;
+      }
+      final int integerLength = point - integerStart;
+      final int fractionLength = fractionEnd - point - 1;
+      final boolean zero = integerLength == 0 && fractionLength == 0;
+      final boolean boundZero = boundIntegerDigits.isEmpty() && boundFractionDigits.isEmpty();
+      final int sign = zero ? 0 : negative ? -1 : 1;
+      final int boundSign = boundZero ? 0 : boundNegative ? -1 : 1;
+      if ( sign != boundSign ) {
+         return Integer.compare( sign, boundSign );
+      }
+      int magnitude = Integer.compare( integerLength, boundIntegerDigits.length() );
+      for ( int i = 0; magnitude == 0 && i < integerLength; i++ ) {
+         magnitude = Character.compare( lexicalForm.charAt( integerStart + i ), boundIntegerDigits.charAt( i ) );
+      }
+      for ( int i = 0; magnitude == 0 && i < Math.max( fractionLength, boundFractionDigits.length() ); i++ ) {
+         final char digit = i < fractionLength ? lexicalForm.charAt( point + 1 + i ) : '0';
+         final char boundDigit = i < boundFractionDigits.length() ? boundFractionDigits.charAt( i ) : '0';
+         magnitude = Character.compare( digit, boundDigit );
+      }
+      return sign < 0 ? -magnitude : magnitude;
+   }
+
+   static boolean isWhitespace( final char c ) {
+      return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+   }
+
+   private static Comparison dateTimeComparison( final DateTimeType type, final String bound ) {
+      final DateTimeValue value = new DateTimeValue();
+      if ( !TemporalLexicalForms.parseDateTime( bound, 0, bound.length(), type, value ) ) {
+         throw new IllegalArgumentException( "Invalid bound: " + bound );
+      }
+      final long boundSeconds = timelineSeconds( value );
+      final int boundNanos = value.getNanos();
+      return ( lexicalForm, start, end ) -> {
+         final DateTimeValue parsed = DATE_TIME_VALUES.get();
+         TemporalLexicalForms.parseDateTime( lexicalForm, start, end, type, parsed );
+         final int result = Long.compare( timelineSeconds( parsed ), boundSeconds );
+         return result != 0 ? result : Integer.compare( parsed.getNanos(), boundNanos );
+      };
+   }
+
+   /**
+    * @return the seconds since 1970-01-01T00:00:00Z; components that the data type does not have are 0 (year) or 1
+    *       (month and day), which keeps the order of values of the same data type
+    */
+   private static long timelineSeconds( final DateTimeValue value ) {
+      final long days = daysFromCivil( value.getYear(), Math.max( value.getMonth(), 1 ), Math.max( value.getDay(), 1 ) );
+      final long offset = value.hasTimezone() ? value.getTimezoneOffset() * 60L : 0;
+      return days * 86400 + value.getHour() * 3600L + value.getMinute() * 60L + value.getSecond() - offset;
+   }
+
+   /**
+    * @return the number of days since 1970-01-01 of a date in the proleptic Gregorian calendar
+    */
+   private static long daysFromCivil( final long year, final int month, final int day ) {
+      final long adjustedYear = month <= 2 ? year - 1 : year;
+      final long era = Math.floorDiv( adjustedYear, 400 );
+      final long yearOfEra = adjustedYear - era * 400;
+      final long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+      final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+      return era * 146097 + dayOfEra - 719468;
+   }
+
+   private static Comparison durationComparison( final DurationType type, final String bound ) {
+      final DurationValue value = new DurationValue();
+      if ( !TemporalLexicalForms.parseDuration( bound, 0, bound.length(), type, value ) ) {
+         throw new IllegalArgumentException( "Invalid bound: " + bound );
+      }
+      final long boundMonths = value.isNegative() ? -value.getMonths() : value.getMonths();
+      final long boundSeconds = value.isNegative() ? -value.getSeconds() : value.getSeconds();
+      final int boundNanos = value.isNegative() ? -value.getNanos() : value.getNanos();
+      return ( lexicalForm, start, end ) -> {
+         final DurationValue parsed = DURATION_VALUES.get();
+         TemporalLexicalForms.parseDuration( lexicalForm, start, end, type, parsed );
+         final long months = parsed.isNegative() ? -parsed.getMonths() : parsed.getMonths();
+         final long seconds = parsed.isNegative() ? -parsed.getSeconds() : parsed.getSeconds();
+         final int nanos = parsed.isNegative() ? -parsed.getNanos() : parsed.getNanos();
+         return compareDurations( months, seconds, nanos, boundMonths, boundSeconds, boundNanos );
+      };
+   }
+
+   /**
+    * Compares durations given as signed months, seconds and nanoseconds, by adding them to the reference dates of XML
+    * Schema 1.1 Part 2, E.3.3
+    */
+   static int compareDurations( final long months, final long seconds, final int nanos, final long otherMonths, final long otherSeconds,
+         final int otherNanos ) {
+      int result = INCOMPARABLE;
+      for ( final int[] reference : REFERENCE_YEAR_MONTHS ) {
+         final long end = addDuration( reference[0], reference[1], months, seconds );
+         final long otherEnd = addDuration( reference[0], reference[1], otherMonths, otherSeconds );
+         int comparison = Long.compare( end, otherEnd );
+         if ( comparison == 0 ) {
+            comparison = Integer.compare( nanos, otherNanos );
+         }
+         if ( result != INCOMPARABLE && comparison != result ) {
+            return INCOMPARABLE;
+         }
+         result = comparison;
+      }
+      return result;
+   }
+
+   private static long addDuration( final int year, final int month, final long months, final long seconds ) {
+      final long totalMonths = year * 12L + month - 1 + months;
+      return daysFromCivil( Math.floorDiv( totalMonths, 12 ), Math.floorMod( totalMonths, 12 ) + 1, 1 ) * 86400 + seconds;
+   }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.constraints;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * An immutable set of strings in an open addressing table with linear probing, which is looked up with ranges of
+ * characters, without allocation. The table is at most half full, so that lookups of absent strings end after a few
+ * slots.
+ */
+final class StringHashSet {
+   private final String[] table;
+
+   StringHashSet( final List<String> values ) {
+      final String[] strings = new LinkedHashSet<>( values ).toArray( new String[0] );
+      table = new String[Integer.highestOneBit( Math.max( 1, strings.length ) ) << 2];
+      for ( final String string : strings ) {
+         int slot = hash( string, 0, string.length() ) & table.length - 1;
+         while ( table[slot] != null ) {
+            slot = slot + 1 & table.length - 1;
+         }
+         table[slot] = string;
+      }
+   }
+
+   private static int hash( final CharSequence chars, final int start, final int end ) {
+      int hash = 0x811c9dc5;
+      for ( int i = start; i < end; i++ ) {
+         hash = (hash ^ chars.charAt( i )) * 0x01000193;
+      }
+      return hash ^ hash >>> 16;
+   }
+
+   boolean contains( final CharSequence chars, final int start, final int end ) {
+      for ( int slot = hash( chars, start, end ) & table.length - 1; table[slot] != null; slot = slot + 1 & table.length - 1 ) {
+         if ( equals( table[slot], chars, start, end ) ) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private static boolean equals( final String string, final CharSequence chars, final int start, final int end ) {
+      if ( string.length() != end - start ) {
+         return false;
+      }
+      for ( int i = 0; i < string.length(); i++ ) {
+         if ( string.charAt( i ) != chars.charAt( start + i ) ) {
+            return false;
+         }
+      }
+      return true;
+   }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.constraints;
+
+/**
+ * A compiled check of a value, given as its lexical form. Checks are stateless and can be used concurrently.
+ */
+@FunctionalInterface
+public interface ValueCheck {
+   /**
+    * A check that accepts every value
+    */
+   ValueCheck ANY = ( lexicalForm, start, end ) -> true;
+
+   /**
+    * @param lexicalForm the characters
+    * @param start the index of the first character of the lexical form
+    * @param end the index after the last character of the lexical form
+    * @return true if the value satisfies the check
+    */
+   boolean test( CharSequence lexicalForm, int start, int end );
+
+   /**
+    * @param lexicalForm the lexical form
+    * @return true if the value satisfies the check
+    */
+   default boolean test( final CharSequence lexicalForm ) {
+      return test( lexicalForm, 0, lexicalForm.length() );
+   }
+
+   /**
+    * @param other the check to evaluate if this check is satisfied
+    * @return a check that is satisfied if both checks are
+    */
+   default ValueCheck and( final ValueCheck other ) {
+      if ( this == ANY ) {
+         return other;
+      }
+      if ( other == ANY ) {
+         return this;
+      }
+      return ( lexicalForm, start, end ) -> test( lexicalForm, start, end ) && other.test( lexicalForm, start, end );
+   }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.constraints;
+
+import org.eclipse.esmf.samm.regex.RegularExpression;
+
+/**
+ * The checks of the constraints on scalar values other than samm-c:RangeConstraint (see {@link RangeChecks}) and the
+ * language constraints (see {@link LanguageTags})
+ */
+final class ValueChecks {
+   private ValueChecks() {
+   }
+
+   /**
+    * samm-c:LengthConstraint on a value with a character value space: the number of characters (code points) of the
+    * lexical form
+    */
+   static ValueCheck length( final long minLength, final long maxLength ) {
+      return ( lexicalForm, start, end ) -> {
+         // Every code point has one or two chars, so most values are decided without counting
+         final int chars = end - start;
+         if ( chars < minLength || (chars + 1) / 2 > maxLength ) {
+            return false;
+         }
+         if ( chars <= maxLength && (chars + 1) / 2 >= minLength ) {
+            return true;
+         }
+         int codePoints = 0;
+         for ( int i = start; i < end; i++ ) {
+            if ( !Character.isLowSurrogate( lexicalForm.charAt( i ) ) || i == start
+                  || !Character.isHighSurrogate( lexicalForm.charAt( i - 1 ) ) ) {
+               codePoints++;
+            }
+         }
+         return codePoints >= minLength && codePoints <= maxLength;
+      };
+   }
+
+   /**
+    * samm-c:FixedPointConstraint on a valid xsd:decimal lexical form: at most the given number of integer digits
+    * (without leading zeros) and fraction digits (without trailing zeros)
+    */
+   static ValueCheck fixedPoint( final int integerDigits, final int scale ) {
+      return ( lexicalForm, start, end ) -> {
+         int from = start;
+         int to = end;
+         while ( from < to && !isDigitOrPoint( lexicalForm.charAt( from ) ) ) {
+            // Leading whitespace and sign
+            from++;
+         }
+         while ( to > from && !isDigitOrPoint( lexicalForm.charAt( to - 1 ) ) ) {
+            to--;
+         }
+         while ( from < to && lexicalForm.charAt( from ) == '0' ) {
+            from++;
+         }
+         int point = from;
+         while ( point < to && lexicalForm.charAt( point ) != '.' ) {
+            point++;
+         }
+         if ( point - from > integerDigits ) {
+            return false;
+         }
+         if ( point < to ) {
+            while ( to > point + 1 && lexicalForm.charAt( to - 1 ) == '0' ) {
+               to--;
+            }
+            return to - point - 1 <= scale;
+         }
+         return true;
+      };
+   }
+
+   private static boolean isDigitOrPoint( final char c ) {
+      return c >= '0' && c <= '9' || c == '.';
+   }
+
+   /**
+    * samm-c:EncodingConstraint: the characters must be representable in the encoding; as values are valid Unicode
+    * strings, every value can be encoded in UTF-8 and UTF-16
+    *
+    * @param encoding the local name of the encoding, e.g. US-ASCII
+    * @return the check, or null if the encoding is unknown
+    */
+   static ValueCheck encoding( final String encoding ) {
+      switch ( encoding ) {
+         case "US-ASCII":
+            return maxCharacter( 0x7f );
+         case "ISO-8859-1":
+            return maxCharacter( 0xff );
+         case "UTF-8":
+         case "UTF-16":
+         case "UTF-16BE":
+         case "UTF-16LE":
+            return ValueCheck.ANY;
+         default:
+            return null;
+      }
+   }
+
+   private static ValueCheck maxCharacter( final int max ) {
+      return ( lexicalForm, start, end ) -> {
+         for ( int i = start; i < end; i++ ) {
+            if ( lexicalForm.charAt( i ) > max ) {
+               return false;
+            }
+         }
+         return true;
+      };
+   }
+
+   /**
+    * samm-c:RegularExpressionConstraint and the deconstruction rule of samm-c:StructuredValue. Unlike the other checks,
+    * matching allocates the state of the matcher.
+    */
+   static ValueCheck regularExpression( final String pattern ) {
+      final RegularExpression expression = RegularExpression.compile( pattern );
+      return ( lexicalForm, start, end ) -> expression.matches(
+            start == 0 && end == lexicalForm.length() ? lexicalForm : lexicalForm.subSequence( start, end ) );
+   }
+}
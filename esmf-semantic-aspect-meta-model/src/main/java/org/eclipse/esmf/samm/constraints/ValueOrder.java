@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.constraints;
+
+/**
+ * A compiled comparison of two values of a data type, given as their lexical forms, e.g. for the order of the elements
+ * of a samm-c:SortedSet. Comparisons are stateless and can be used concurrently.
+ */
+@FunctionalInterface
+public interface ValueOrder {
+   /**
+    * The result of a comparison of values that are not ordered with respect to each other, e.g. NaN and 1, or the
+    * durations P1M and P30D
+    */
+   int INCOMPARABLE = Integer.MIN_VALUE;
+
+   /**
+    * Compares two valid lexical forms of the data type
+    *
+    * @return a negative number, zero, or a positive number if the first value is less than, equal to, or greater than
+    *       the second, or {@link #INCOMPARABLE}
+    */
+   int compare( CharSequence first, int firstStart, int firstEnd, CharSequence second, int secondStart, int secondEnd );
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.datatypes;
+
+import java.util.Arrays;
+
+/**
+ * Validators and decoders for the lexical forms of xsd:hexBinary and xsd:base64Binary, following XML Schema 1.1 Part
+ * 2. Leading and trailing whitespace is ignored; since the whitespace facet is collapse, xsd:base64Binary also allows
+ * any whitespace between the characters.
+ * The decoders write into a buffer of the caller, whose required size is returned by the corresponding length method.
+ */
+public final class BinaryLexicalForms {
+   private static final byte[] BASE64_VALUES = new byte[128];
+
+   static {
+      Arrays.fill( BASE64_VALUES, (byte) -1 );
+      final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+      for ( int i = 0; i < alphabet.length(); i++ ) {
+         BASE64_VALUES[alphabet.charAt( i )] = (byte) i;
+      }
+   }
+
+   private BinaryLexicalForms() {
+   }
+
+   /**
+    * Checks the lexical form of xsd:hexBinary: an even number of hexadecimal digits in either case
+    */
+   public static boolean isValidHexBinary( final CharSequence lexicalForm, final int start, final int end ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      if ( (to - from) % 2 != 0 ) {
+         return false;
+      }
+      for ( int i = from; i < to; i++ ) {
+         if ( hexValue( lexicalForm.charAt( i ) ) < 0 ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * @return the number of bytes of a valid xsd:hexBinary lexical form
+    */
+   public static int hexBinaryLength( final CharSequence lexicalForm, final int start, final int end ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      return (Whitespace.trimEnd( lexicalForm, from, end ) - from) / 2;
+   }
+
+   /**
+    * Decodes the lexical form of xsd:hexBinary
+    *
+    * @param target the buffer for the bytes
+    * @param offset the index in the buffer of the first byte
+    * @return the number of bytes written
+    * @throws IllegalArgumentException if the lexical form is not valid
+    * @throws IndexOutOfBoundsException if the buffer is too small
+    */
+   public static int decodeHexBinary( final CharSequence lexicalForm, final int start, final int end, final byte[] target,
+         final int offset ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      if ( (to - from) % 2 != 0 ) {
+         throw new IllegalArgumentException( "Odd number of hexadecimal digits" );
+      }
+      int position = offset;
+      for ( int i = from; i < to; i += 2 ) {
+         final int high = hexValue( lexicalForm.charAt( i ) );
+         final int low = hexValue( lexicalForm.charAt( i + 1 ) );
+         if ( high < 0 || low < 0 ) {
+            throw new IllegalArgumentException( "Invalid hexadecimal digit" );
+         }
+         target[position++] = (byte) (high << 4 | low);
+      }
+      return position - offset;
+   }
+
+   private static int hexValue( final char c ) {
+      if ( c >= '0' && c <= '9' ) {
+         return c - '0';
+      }
+      if ( c >= 'a' && c <= 'f' ) {
+         return c - 'a' + 10;
+      }
+      if ( c >= 'A' && c <= 'F' ) {
+         return c - 'A' + 10;
+      }
+      return -1;
+   }
+
+   /**
+    * Checks the lexical form of xsd:base64Binary: groups of four characters of the base64 alphabet, where the last group
+    * may end with one or two padding characters, and the bits discarded by the padding must be zero
+    */
+   public static boolean isValidBase64Binary( final CharSequence lexicalForm, final int start, final int end ) {
+      return scanBase64( lexicalForm, start, end, null, 0 ) >= 0;
+   }
+
+   /**
+    * @return the number of bytes of a valid xsd:base64Binary lexical form
+    */
+   public static int base64BinaryLength( final CharSequence lexicalForm, final int start, final int end ) {
+      int characters = 0;
+      int padding = 0;
+      for ( int i = start; i < end; i++ ) {
+         final char c = lexicalForm.charAt( i );
+         if ( c == '=' ) {
+            padding++;
+         } else if ( !Whitespace.isXmlWhitespace( c ) ) {
+            characters++;
+         }
+      }
+      return (characters + padding) / 4 * 3 - padding;
+   }
+
+   /**
+    * Decodes the lexical form of xsd:base64Binary
+    *
+    * @param target the buffer for the bytes, see {@link #base64BinaryLength(CharSequence, int, int)}
+    * @param offset the index in the buffer of the first byte
+    * @return the number of bytes written
+    * @throws IllegalArgumentException if the lexical form is not valid
+    * @throws IndexOutOfBoundsException if the buffer is too small
+    */
+   public static int decodeBase64Binary( final CharSequence lexicalForm, final int start, final int end, final byte[] target,
+         final int offset ) {
+      final int length = scanBase64( lexicalForm, start, end, target, offset );
+      if ( length < 0 ) {
+         throw new IllegalArgumentException( "Invalid base64Binary" );
+      }
+      return length;
+   }
+
+   /**
+    * Validates and optionally decodes base64
+    *
+    * @return the number of bytes, or -1 if the lexical form is not valid
+    */
+   private static int scanBase64( final CharSequence lexicalForm, final int start, final int end, final byte[] target, final int offset ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      int position = offset;
+      int quad = 0;
+      int count = 0;
+      int padding = 0;
+      for ( int i = from; i < to; i++ ) {
+         final char c = lexicalForm.charAt( i );
+         if ( Whitespace.isXmlWhitespace( c ) ) {
+            // The whitespace facet of xsd:base64Binary is collapse, so any run of whitespace is a single separator
+            continue;
+         }
+         if ( c == '=' ) {
+            // Padding is only allowed at positions 3 and 4 of the last group
+            if ( count < 2 ) {
+               return -1;
+            }
+            padding++;
+            count++;
+            quad <<= 6;
+         } else {
+            final int value = c < 128 ? BASE64_VALUES[c] : -1;
+            if ( value < 0 || padding > 0 ) {
+               return -1;
+            }
+            quad = quad << 6 | value;
+            count++;
+         }
+         if ( count == 4 ) {
+            if ( padding > 0 && (i != to - 1 || (quad & (padding == 1 ? 0xff : 0xffff)) != 0) ) {
+               // Padding must end the lexical form, and the bits it discards must be zero
+               return -1;
+            }
+            if ( target != null ) {
+               target[position] = (byte) (quad >> 16);
+               if ( padding < 2 ) {
+                  target[position + 1] = (byte) (quad >> 8);
+               }
+               if ( padding < 1 ) {
+                  target[position + 2] = (byte) quad;
+               }
+            }
+            position += 3 - padding;
+            quad = 0;
+            count = 0;
+         }
+      }
+      return count == 0 ? position - offset : -1;
+   }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.datatypes;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable view of a byte range as characters, one char per byte (ISO-8859-1), so that the lexical validators and
+ * parsers can be applied to encoded payloads without decoding them. All lexical forms except those of xsd:string,
+ * rdf:langString and xsd:anyURI consist of ASCII characters only, so for them the view of UTF-8 bytes is exact; use
+ * {@link TextLexicalForms#isValidUtf8String(byte[], int, int)} for strings.
+ */
+public final class ByteCharSequence implements CharSequence {
+   private byte[] bytes;
+   private int offset;
+   private int length;
+
+   public ByteCharSequence() {
+      this( new byte[0], 0, 0 );
+   }
+
+   public ByteCharSequence( final byte[] bytes, final int offset, final int length ) {
+      reset( bytes, offset, length );
+   }
+
+   /**
+    * Points the view to another byte range
+    *
+    * @return this view
+    */
+   public ByteCharSequence reset( final byte[] bytes, final int offset, final int length ) {
+      if ( offset < 0 || length < 0 || offset + length > bytes.length ) {
+         throw new IndexOutOfBoundsException( "Invalid byte range " + offset + "+" + length + " of " + bytes.length );
+      }
+      this.bytes = bytes;
+      this.offset = offset;
+      this.length = length;
+      return this;
+   }
+
+   @Override
+   public int length() {
+      return length;
+   }
+
+   @Override
+   public char charAt( final int index ) {
+      if ( index < 0 || index >= length ) {
+         throw new IndexOutOfBoundsException( index );
+      }
+      return (char) (bytes[offset + index] & 0xff);
+   }
+
+   @Override
+   public CharSequence subSequence( final int start, final int end ) {
+      if ( start < 0 || start > end || end > length ) {
+         throw new IndexOutOfBoundsException( "Invalid range " + start + "-" + end );
+      }
+      return new ByteCharSequence( bytes, offset + start, end - start );
+   }
+
+   @Override
+   public String toString() {
+      return new String( bytes, offset, length, StandardCharsets.ISO_8859_1 );
+   }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.datatypes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.esmf.samm.KnownVersion;
+
+/**
+ * The data types of one meta model version with the implicit type conversions between them (samm:canBeCastTo) and
+ * the data types that have a character-based value space (samm:hasCharacterValueSpace), as defined in
+ * type-conversions.ttl. The lattices are Java classes that are generated at build time from the respective
+ * type-conversions.ttl (see the generateDataTypesJava goal of the esmf-samm-build-plugin).
+ * <p>
+ * Each data type has an ordinal: The data types of the SAMM type system come first, in the order of the data types
+ * documentation, so their ordinals are the same for all meta model versions; data types that only occur in
+ * type-conversions.ttl follow. The reflexive and transitive closure of samm:canBeCastTo is calculated once into a bit
+ * matrix, so {@link #canCast(int, int)} and {@link #hasCharacterValueSpace(int)} are a single array access.
+ */
+public abstract class DataTypeLattice {
+   public static final String XSD_NAMESPACE = "http://www.w3.org/2001/XMLSchema#";
+   public static final String RDF_NAMESPACE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+
+   private static final List<String> XSD_DATA_TYPES = List.of( "string", "boolean", "decimal", "integer", "double", "float",
+         "date", "time", "dateTime", "dateTimeStamp", "gYear", "gMonth", "gDay", "gYearMonth", "gMonthDay", "duration",
+         "yearMonthDuration", "dayTimeDuration", "byte", "short", "int", "long", "unsignedByte", "unsignedShort", "unsignedInt",
+         "unsignedLong", "positiveInteger", "nonNegativeInteger", "negativeInteger", "nonPositiveInteger", "hexBinary",
+         "base64Binary", "anyURI" );
+
+   private final KnownVersion version;
+   private final List<String> dataTypes = new ArrayList<>();
+   private final Map<String, Integer> ordinals = new HashMap<>();
+   private final List<int[]> casts = new ArrayList<>();
+   private final List<Integer> characterValueSpaces = new ArrayList<>();
+   private int words;
+   private long[] castMatrix;
+   private long[] characterValueSpace;
+
+   protected DataTypeLattice( final KnownVersion version ) {
+      this.version = version;
+      XSD_DATA_TYPES.forEach( name -> register( XSD_NAMESPACE + name ) );
+      register( String.format( "urn:samm:org.eclipse.esmf.samm:meta-model:%s#curie", version.toVersionString() ) );
+      register( RDF_NAMESPACE + "langString" );
+   }
+
+   /**
+    * Returns the generated lattice for the given meta model version
+    *
+    * @param version the meta model version
+    * @return the data type lattice
+    */
+   public static DataTypeLattice forVersion( final KnownVersion version ) {
+      switch ( version ) {
+         case SAMM_1_0_0:
+            return org.eclipse.esmf.samm.datatypes.samm_1_0_0.DataTypes.INSTANCE;
+         case SAMM_2_0_0:
+            return org.eclipse.esmf.samm.datatypes.samm_2_0_0.DataTypes.INSTANCE;
+         default:
+            throw new IllegalArgumentException( "No data type lattice available for meta model version " + version );
+      }
+   }
+
+   /**
+    * Registers an implicit type conversion. Only to be called by the generated lattice constructors.
+    *
+    * @param dataType the URI of the data type that can be cast
+    * @param targetDataType the URI of the data type it can be cast to
+    */
+   protected final void canBeCastTo( final String dataType, final String targetDataType ) {
+      casts.add( new int[] { register( dataType ), register( targetDataType ) } );
+   }
+
+   /**
+    * Registers a data type with a character-based value space. Only to be called by the generated lattice
+    * constructors.
+    *
+    * @param dataType the URI of the data type
+    */
+   protected final void characterValueSpace( final String dataType ) {
+      characterValueSpaces.add( register( dataType ) );
+   }
+
+   /**
+    * Calculates the reflexive and transitive closure of the type conversions. Only to be called by the generated
+    * lattice constructors, after all type conversions have been registered.
+    */
+   protected final void computeClosure() {
+      final int size = dataTypes.size();
+      words = (size + 63) >>> 6;
+      castMatrix = new long[size * words];
+      for ( int dataType = 0; dataType < size; dataType++ ) {
+         set( castMatrix, dataType * words, dataType );
+      }
+      for ( final int[] cast : casts ) {
+         set( castMatrix, cast[0] * words, cast[1] );
+      }
+      // Warshall's algorithm on rows of bits: a data type that can be cast to k can be cast to everything k can be cast to
+      for ( int k = 0; k < size; k++ ) {
+         for ( int dataType = 0; dataType < size; dataType++ ) {
+            if ( isSet( castMatrix, dataType * words, k ) ) {
+               for ( int word = 0; word < words; word++ ) {
+                  castMatrix[dataType * words + word] |= castMatrix[k * words + word];
+               }
+            }
+         }
+      }
+      characterValueSpace = new long[words];
+      characterValueSpaces.forEach( dataType -> set( characterValueSpace, 0, dataType ) );
+      casts.clear();
+      characterValueSpaces.clear();
+   }
+
+   private int register( final String dataType ) {
+      return ordinals.computeIfAbsent( dataType, uri -> {
+         dataTypes.add( uri );
+         return dataTypes.size() - 1;
+      } );
+   }
+
+   private static void set( final long[] bits, final int offset, final int index ) {
+      bits[offset + (index >>> 6)] |= 1L << index;
+   }
+
+   private static boolean isSet( final long[] bits, final int offset, final int index ) {
+      return (bits[offset + (index >>> 6)] & (1L << index)) != 0;
+   }
+
+   /**
+    * Returns the meta model version this lattice belongs to
+    *
+    * @return the meta model version
+    */
+   public KnownVersion getVersion() {
+      return version;
+   }
+
+   /**
+    * Returns the URIs of all data types, indexed by their ordinal
+    *
+    * @return the data types
+    */
+   public List<String> getDataTypes() {
+      return Collections.unmodifiableList( dataTypes );
+   }
+
+   /**
+    * Returns the ordinal of a data type
+    *
+    * @param dataType the URI of the data type
+    * @return the ordinal, or -1 if the data type is not known
+    */
+   public int ordinal( final String dataType ) {
+      final Integer ordinal = ordinals.get( dataType );
+      return ordinal == null ? -1 : ordinal;
+   }
+
+   /**
+    * Returns the data type with the given ordinal
+    *
+    * @param ordinal the ordinal
+    * @return the URI of the data type
+    */
+   public String dataType( final int ordinal ) {
+      return dataTypes.get( ordinal );
+   }
+
+   /**
+    * Checks whether a value of a data type can be used where the target data type is expected, i.e. whether the data
+    * types are connected by samm:canBeCastTo*
+    *
+    * @param dataType the ordinal of the data type of the value
+    * @param targetDataType the ordinal of the expected data type
+    * @return true if the value can be cast
+    */
+   public boolean canCast( final int dataType, final int targetDataType ) {
+      return isSet( castMatrix, dataType * words, targetDataType );
+   }
+
+   /**
+    * Checks whether a value of a data type can be used where the target data type is expected, see
+    * {@link #canCast(int, int)}. Data types that are not known can only be cast to themselves.
+    *
+    * @param dataType the URI of the data type of the value
+    * @param targetDataType the URI of the expected data type
+    * @return true if the value can be cast
+    */
+   public boolean canCast( final String dataType, final String targetDataType ) {
+      final int ordinal = ordinal( dataType );
+      final int targetOrdinal = ordinal( targetDataType );
+      if ( ordinal < 0 || targetOrdinal < 0 ) {
+         return dataType.equals( targetDataType );
+      }
+      return canCast( ordinal, targetOrdinal );
+   }
+
+   /**
+    * Checks whether the values of a data type are inherently character-based
+    *
+    * @param dataType the ordinal of the data type
+    * @return true if the data type has samm:hasCharacterValueSpace true
+    */
+   public boolean hasCharacterValueSpace( final int dataType ) {
+      return isSet( characterValueSpace, 0, dataType );
+   }
+
+   /**
+    * Checks whether the values of a data type are inherently character-based
+    *
+    * @param dataType the URI of the data type
+    * @return true if the data type has samm:hasCharacterValueSpace true, false if it has not or is not known
+    */
+   public boolean hasCharacterValueSpace( final String dataType ) {
+      final int ordinal = ordinal( dataType );
+      return ordinal >= 0 && hasCharacterValueSpace( ordinal );
+   }
+}
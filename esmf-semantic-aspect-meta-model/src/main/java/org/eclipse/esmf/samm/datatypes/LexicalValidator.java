@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.datatypes;
+
+/**
+ * Checks whether a character sequence is in the lexical space of a data type, without allocating any objects. The
+ * validators of all SAMM data types are returned by {@link #forDataType(String)}; the grammars and whitespace
+ * handling of the individual data types are described in {@link NumericLexicalForms}, {@link TemporalLexicalForms},
+ * {@link BinaryLexicalForms} and {@link TextLexicalForms}.
+ */
+@FunctionalInterface
+public interface LexicalValidator {
+   /**
+    * @param lexicalForm the characters
+    * @param start the index of the first character of the lexical form
+    * @param end the index after the last character of the lexical form
+    * @return true if the characters between start and end are a valid lexical form
+    */
+   boolean isValid( CharSequence lexicalForm, int start, int end );
+
+   /**
+    * @param lexicalForm the lexical form
+    * @return true if the lexical form is valid
+    */
+   default boolean isValid( final CharSequence lexicalForm ) {
+      return isValid( lexicalForm, 0, lexicalForm.length() );
+   }
+
+   /**
+    * Returns the validator for a SAMM data type
+    *
+    * @param dataType the URI of the data type
+    * @return the validator, or null if the data type is not a SAMM data type
+    */
+   static LexicalValidator forDataType( final String dataType ) {
+      if ( dataType.startsWith( DataTypeLattice.XSD_NAMESPACE ) ) {
+         return xsdValidator( dataType.substring( DataTypeLattice.XSD_NAMESPACE.length() ) );
+      }
+      if ( dataType.equals( DataTypeLattice.RDF_NAMESPACE + "langString" ) ) {
+         return TextLexicalForms::isValidString;
+      }
+      if ( dataType.startsWith( "urn:samm:org.eclipse.esmf.samm:meta-model:" ) && dataType.endsWith( "#curie" ) ) {
+         return TextLexicalForms::isValidCurie;
+      }
+      return null;
+   }
+
+   private static LexicalValidator xsdValidator( final String name ) {
+      switch ( name ) {
+         case "string":
+            return TextLexicalForms::isValidString;
+         case "anyURI":
+            return TextLexicalForms::isValidAnyUri;
+         case "boolean":
+            return NumericLexicalForms::isValidBoolean;
+         case "decimal":
+            return NumericLexicalForms::isValidDecimal;
+         case "float":
+         case "double":
+            return NumericLexicalForms::isValidFloatingPoint;
+         case "integer":
+         case "byte":
+         case "short":
+         case "int":
+         case "long":
+         case "unsignedByte":
+         case "unsignedShort":
+         case "unsignedInt":
+         case "unsignedLong":
+         case "positiveInteger":
+         case "nonNegativeInteger":
+         case "negativeInteger":
+         case "nonPositiveInteger":
+            final NumericLexicalForms.IntegerType type = NumericLexicalForms.IntegerType.fromName( name );
+            return ( lexicalForm, start, end ) -> NumericLexicalForms.isValidInteger( lexicalForm, start, end, type );
+         case "date":
+         case "time":
+         case "dateTime":
+         case "dateTimeStamp":
+         case "gYear":
+         case "gMonth":
+         case "gDay":
+         case "gYearMonth":
+         case "gMonthDay":
+            final TemporalLexicalForms.DateTimeType dateTimeType = TemporalLexicalForms.DateTimeType.fromName( name );
+            return ( lexicalForm, start, end ) -> TemporalLexicalForms.parseDateTime( lexicalForm, start, end, dateTimeType, null );
+         case "duration":
+         case "yearMonthDuration":
+         case "dayTimeDuration":
+            final TemporalLexicalForms.DurationType durationType = TemporalLexicalForms.DurationType.fromName( name );
+            return ( lexicalForm, start, end ) -> TemporalLexicalForms.parseDuration( lexicalForm, start, end, durationType, null );
+         case "hexBinary":
+            return BinaryLexicalForms::isValidHexBinary;
+         case "base64Binary":
+            return BinaryLexicalForms::isValidBase64Binary;
+         default:
+            return null;
+      }
+   }
+}
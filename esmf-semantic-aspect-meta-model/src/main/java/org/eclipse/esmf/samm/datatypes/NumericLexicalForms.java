@@ -0,0 +1,670 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.datatypes;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Validators and parsers for the lexical forms of xsd:boolean, xsd:decimal, xsd:float, xsd:double and the integer
+ * types, following XML Schema 1.1 Part 2. As these types have the whitespace facet collapse, leading and trailing
+ * whitespace is ignored. Validation and parsing work directly on the characters and do not allocate objects; the
+ * parsers expect a valid lexical form and throw a {@link NumberFormatException} otherwise.
+ */
+public final class NumericLexicalForms {
+   private static final double[] DOUBLE_POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13,
+         1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+   private static final float[] FLOAT_POWERS_OF_TEN = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+
+   /**
+    * The largest unsigned long that can be multiplied by 10 without overflow; Long.divideUnsigned is not used per digit,
+    * as it allocates for negative dividends on older JDKs
+    */
+   private static final long UNSIGNED_LIMIT = 0x1999999999999999L;
+
+   /**
+    * The integer types with their value ranges. Types without a bound in a direction use {@link Long#MIN_VALUE} or
+    * {@link Long#MAX_VALUE} and are not limited to the range of long; xsd:unsignedLong is checked separately.
+    */
+   public enum IntegerType {
+      INTEGER( "integer", Long.MIN_VALUE, Long.MAX_VALUE, false ),
+      LONG( "long", Long.MIN_VALUE, Long.MAX_VALUE, true ),
+      INT( "int", Integer.MIN_VALUE, Integer.MAX_VALUE, true ),
+      SHORT( "short", Short.MIN_VALUE, Short.MAX_VALUE, true ),
+      BYTE( "byte", Byte.MIN_VALUE, Byte.MAX_VALUE, true ),
+      UNSIGNED_LONG( "unsignedLong", 0, Long.MAX_VALUE, true ),
+      UNSIGNED_INT( "unsignedInt", 0, 0xffffffffL, true ),
+      UNSIGNED_SHORT( "unsignedShort", 0, 0xffff, true ),
+      UNSIGNED_BYTE( "unsignedByte", 0, 0xff, true ),
+      NON_NEGATIVE_INTEGER( "nonNegativeInteger", 0, Long.MAX_VALUE, false ),
+      POSITIVE_INTEGER( "positiveInteger", 1, Long.MAX_VALUE, false ),
+      NON_POSITIVE_INTEGER( "nonPositiveInteger", Long.MIN_VALUE, 0, false ),
+      NEGATIVE_INTEGER( "negativeInteger", Long.MIN_VALUE, -1, false );
+
+      private final String name;
+      private final long min;
+      private final long max;
+      private final boolean bounded;
+
+      IntegerType( final String name, final long min, final long max, final boolean bounded ) {
+         this.name = name;
+         this.min = min;
+         this.max = max;
+         this.bounded = bounded;
+      }
+
+      /**
+       * @param name the local name of the XSD data type
+       * @return the integer type
+       * @throws IllegalArgumentException if the data type is not an integer type
+       */
+      public static IntegerType fromName( final String name ) {
+         for ( final IntegerType type : values() ) {
+            if ( type.name.equals( name ) ) {
+               return type;
+            }
+         }
+         throw new IllegalArgumentException( "Not an integer data type: " + name );
+      }
+
+      /**
+       * @return true if all values of the type can be parsed with {@link #parseLong(CharSequence, int, int)}; the
+       *       values of xsd:unsignedLong are returned as unsigned long
+       */
+      public boolean isBounded() {
+         return bounded;
+      }
+   }
+
+   private NumericLexicalForms() {
+   }
+
+   /**
+    * Checks the lexical form of xsd:boolean: true, false, 1 or 0
+    */
+   public static boolean isValidBoolean( final CharSequence lexicalForm, final int start, final int end ) {
+      return booleanValue( lexicalForm, start, end ) >= 0;
+   }
+
+   /**
+    * Parses the lexical form of xsd:boolean
+    */
+   public static boolean parseBoolean( final CharSequence lexicalForm, final int start, final int end ) {
+      final int value = booleanValue( lexicalForm, start, end );
+      if ( value < 0 ) {
+         throw new NumberFormatException( "Invalid boolean" );
+      }
+      return value == 1;
+   }
+
+   private static int booleanValue( final CharSequence lexicalForm, final int start, final int end ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      if ( matches( lexicalForm, from, to, "true" ) || matches( lexicalForm, from, to, "1" ) ) {
+         return 1;
+      }
+      if ( matches( lexicalForm, from, to, "false" ) || matches( lexicalForm, from, to, "0" ) ) {
+         return 0;
+      }
+      return -1;
+   }
+
+   /**
+    * Checks the lexical form of an integer type: an optional sign and at least one digit, and the value must be in the
+    * range of the type
+    */
+   public static boolean isValidInteger( final CharSequence lexicalForm, final int start, final int end, final IntegerType type ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      if ( from == to ) {
+         return false;
+      }
+      final char first = lexicalForm.charAt( from );
+      final boolean negative = first == '-';
+      final int digits = first == '-' || first == '+' ? from + 1 : from;
+      if ( digits == to ) {
+         return false;
+      }
+      boolean zero = true;
+      for ( int i = digits; i < to; i++ ) {
+         final char c = lexicalForm.charAt( i );
+         if ( c < '0' || c > '9' ) {
+            return false;
+         }
+         zero &= c == '0';
+      }
+      if ( type == IntegerType.UNSIGNED_LONG ) {
+         return zero || !negative && isUnsignedLong( lexicalForm, digits, to );
+      }
+      if ( type.bounded ) {
+         final long value = accumulate( lexicalForm, digits, to, negative );
+         if ( value == OVERFLOW ) {
+            return negative && type.min == Long.MIN_VALUE && isMinLong( lexicalForm, digits, to );
+         }
+         return value >= type.min && value <= type.max;
+      }
+      // Unbounded types only restrict the sign
+      if ( zero ) {
+         return type.min <= 0 && type.max >= 0;
+      }
+      return negative ? type.min < 0 : type.max > 0;
+   }
+
+   /**
+    * A marker for values that do not fit into a long; as it equals {@link Long#MIN_VALUE}, that value is checked
+    * separately
+    */
+   private static final long OVERFLOW = Long.MIN_VALUE;
+
+   private static long accumulate( final CharSequence lexicalForm, final int from, final int to, final boolean negative ) {
+      // Accumulate negatively, as the range of negative longs is larger
+      long value = 0;
+      for ( int i = from; i < to; i++ ) {
+         final int digit = lexicalForm.charAt( i ) - '0';
+         if ( value < (Long.MIN_VALUE + digit) / 10 ) {
+            return OVERFLOW;
+         }
+         value = value * 10 - digit;
+      }
+      if ( negative || value == Long.MIN_VALUE ) {
+         return value;
+      }
+      return -value;
+   }
+
+   private static boolean overflowsUnsigned( final long value, final int digit ) {
+      final int comparison = Long.compareUnsigned( value, UNSIGNED_LIMIT );
+      return comparison > 0 || comparison == 0 && digit > 5;
+   }
+
+   private static boolean isUnsignedLong( final CharSequence lexicalForm, final int from, final int to ) {
+      long value = 0;
+      for ( int i = from; i < to; i++ ) {
+         final int digit = lexicalForm.charAt( i ) - '0';
+         if ( overflowsUnsigned( value, digit ) ) {
+            return false;
+         }
+         value = value * 10 + digit;
+      }
+      return true;
+   }
+
+   /**
+    * Parses the lexical form of a bounded integer type (see {@link IntegerType#isBounded()}). Values of xsd:unsignedLong
+    * that are larger than {@link Long#MAX_VALUE} are returned as negative longs, i.e. they must be interpreted as
+    * unsigned, see {@link Long#toUnsignedString(long)}.
+    *
+    * @throws NumberFormatException if the lexical form is not valid or the value does not fit into a long
+    */
+   public static long parseLong( final CharSequence lexicalForm, final int start, final int end ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      if ( from == to ) {
+         throw new NumberFormatException( "Empty integer" );
+      }
+      final char first = lexicalForm.charAt( from );
+      final boolean negative = first == '-';
+      final int digits = first == '-' || first == '+' ? from + 1 : from;
+      if ( digits == to ) {
+         throw new NumberFormatException( "Invalid integer" );
+      }
+      for ( int i = digits; i < to; i++ ) {
+         if ( !isDigit( lexicalForm.charAt( i ) ) ) {
+            throw new NumberFormatException( "Invalid integer" );
+         }
+      }
+      if ( negative ) {
+         final long value = accumulate( lexicalForm, digits, to, true );
+         if ( value == OVERFLOW && !isMinLong( lexicalForm, digits, to ) ) {
+            throw new NumberFormatException( "Integer out of range" );
+         }
+         return value;
+      }
+      return parseUnsignedLong( lexicalForm, digits, to );
+   }
+
+   private static boolean isMinLong( final CharSequence lexicalForm, final int from, final int to ) {
+      int i = from;
+      while ( i < to - 1 && lexicalForm.charAt( i ) == '0' ) {
+         i++;
+      }
+      return matches( lexicalForm, i, to, "9223372036854775808" );
+   }
+
+   private static long parseUnsignedLong( final CharSequence lexicalForm, final int from, final int to ) {
+      long value = 0;
+      for ( int i = from; i < to; i++ ) {
+         final int digit = lexicalForm.charAt( i ) - '0';
+         if ( overflowsUnsigned( value, digit ) ) {
+            throw new NumberFormatException( "Integer out of range" );
+         }
+         value = value * 10 + digit;
+      }
+      return value;
+   }
+
+   /**
+    * Checks the lexical form of xsd:decimal: an optional sign, digits with an optional decimal point, and at least one
+    * digit
+    */
+   public static boolean isValidDecimal( final CharSequence lexicalForm, final int start, final int end ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      return scanDecimal( lexicalForm, from, to ) == to;
+   }
+
+   /**
+    * Scans the decimal at the start
+    *
+    * @return the index after the decimal, or -1 if there is no valid decimal
+    */
+   private static int scanDecimal( final CharSequence lexicalForm, final int from, final int to ) {
+      int i = from;
+      if ( i < to && (lexicalForm.charAt( i ) == '+' || lexicalForm.charAt( i ) == '-') ) {
+         i++;
+      }
+      int digits = 0;
+      while ( i < to && isDigit( lexicalForm.charAt( i ) ) ) {
+         i++;
+         digits++;
+      }
+      if ( i < to && lexicalForm.charAt( i ) == '.' ) {
+         i++;
+         while ( i < to && isDigit( lexicalForm.charAt( i ) ) ) {
+            i++;
+            digits++;
+         }
+      }
+      return digits == 0 ? -1 : i;
+   }
+
+   /**
+    * Parses the lexical form of xsd:decimal into the holder. The value is represented as long unscaled value and scale
+    * if it fits, otherwise the holder only records that it does not, and {@link #parseBigDecimal(CharSequence, int, int)}
+    * must be used.
+    *
+    * @return true if the value fits into the holder
+    * @throws NumberFormatException if the lexical form is not valid
+    */
+   public static boolean parseDecimal( final CharSequence lexicalForm, final int start, final int end, final DecimalValue target ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      if ( scanDecimal( lexicalForm, from, to ) != to ) {
+         throw new NumberFormatException( "Invalid decimal" );
+      }
+      int i = from;
+      final boolean negative = lexicalForm.charAt( i ) == '-';
+      if ( lexicalForm.charAt( i ) == '+' || negative ) {
+         i++;
+      }
+      long unscaled = 0;
+      int scale = 0;
+      boolean fraction = false;
+      // Trailing zeros of the fraction do not change the value
+      int significantEnd = to;
+      if ( indexOf( lexicalForm, i, to, '.' ) >= 0 ) {
+         while ( significantEnd > i && lexicalForm.charAt( significantEnd - 1 ) == '0' ) {
+            significantEnd--;
+         }
+      }
+      for ( ; i < significantEnd; i++ ) {
+         final char c = lexicalForm.charAt( i );
+         if ( c == '.' ) {
+            fraction = true;
+            continue;
+         }
+         final int digit = c - '0';
+         if ( unscaled > (Long.MAX_VALUE - digit) / 10 ) {
+            target.fits = false;
+            return false;
+         }
+         unscaled = unscaled * 10 + digit;
+         if ( fraction ) {
+            scale++;
+         }
+      }
+      target.unscaledValue = negative ? -unscaled : unscaled;
+      target.scale = scale;
+      target.fits = true;
+      return true;
+   }
+
+   /**
+    * Parses the lexical form of xsd:decimal or an integer type of any size; unlike the other parsers, this allocates
+    * the result
+    *
+    * @throws NumberFormatException if the lexical form is not valid
+    */
+   public static BigDecimal parseBigDecimal( final CharSequence lexicalForm, final int start, final int end ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      if ( scanDecimal( lexicalForm, from, to ) != to ) {
+         throw new NumberFormatException( "Invalid decimal" );
+      }
+      final String value = lexicalForm.subSequence( from, to ).toString();
+      // BigDecimal does not accept a trailing decimal point
+      return new BigDecimal( value.endsWith( "." ) ? value.substring( 0, value.length() - 1 ) : value );
+   }
+
+   /**
+    * Parses the lexical form of an integer type of any size; unlike the other parsers, this allocates the result
+    *
+    * @throws NumberFormatException if the lexical form is not valid
+    */
+   public static BigInteger parseBigInteger( final CharSequence lexicalForm, final int start, final int end ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      if ( !isValidInteger( lexicalForm, from, to, IntegerType.INTEGER ) ) {
+         throw new NumberFormatException( "Invalid integer" );
+      }
+      final int sign = lexicalForm.charAt( from ) == '+' ? from + 1 : from;
+      return new BigInteger( lexicalForm.subSequence( sign, to ).toString() );
+   }
+
+   /**
+    * Checks the lexical form of xsd:float and xsd:double: a decimal with an optional exponent, or INF, +INF, -INF or
+    * NaN. Values that are too large for the type are valid, as they map to infinity.
+    */
+   public static boolean isValidFloatingPoint( final CharSequence lexicalForm, final int start, final int end ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      return scanFloatingPoint( lexicalForm, from, to );
+   }
+
+   private static boolean scanFloatingPoint( final CharSequence lexicalForm, final int from, final int to ) {
+      if ( isSpecialFloatingPoint( lexicalForm, from, to ) ) {
+         return true;
+      }
+      int i = scanDecimal( lexicalForm, from, to );
+      if ( i < 0 ) {
+         return false;
+      }
+      if ( i == to ) {
+         return true;
+      }
+      if ( lexicalForm.charAt( i ) != 'e' && lexicalForm.charAt( i ) != 'E' ) {
+         return false;
+      }
+      i++;
+      if ( i < to && (lexicalForm.charAt( i ) == '+' || lexicalForm.charAt( i ) == '-') ) {
+         i++;
+      }
+      if ( i == to ) {
+         return false;
+      }
+      for ( ; i < to; i++ ) {
+         if ( !isDigit( lexicalForm.charAt( i ) ) ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static boolean isSpecialFloatingPoint( final CharSequence lexicalForm, final int from, final int to ) {
+      return matches( lexicalForm, from, to, "INF" ) || matches( lexicalForm, from, to, "+INF" )
+            || matches( lexicalForm, from, to, "-INF" ) || matches( lexicalForm, from, to, "NaN" );
+   }
+
+   /**
+    * Parses the lexical form of xsd:double. Values with up to 15 significant digits and a decimal exponent of at most 22
+    * are calculated exactly without allocation; other values fall back to {@link Double#parseDouble(String)}.
+    *
+    * @throws NumberFormatException if the lexical form is not valid
+    */
+   public static double parseDouble( final CharSequence lexicalForm, final int start, final int end ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      if ( !scanFloatingPoint( lexicalForm, from, to ) ) {
+         throw new NumberFormatException( "Invalid double" );
+      }
+      if ( isSpecialFloatingPoint( lexicalForm, from, to ) ) {
+         return special( lexicalForm, from );
+      }
+      final long mantissaAndExponent = decompose( lexicalForm, from, to, 15 );
+      if ( mantissaAndExponent != NOT_DECOMPOSABLE ) {
+         final long mantissa = mantissa( mantissaAndExponent );
+         final int exponent = exponent( mantissaAndExponent );
+         if ( Math.abs( exponent ) < DOUBLE_POWERS_OF_TEN.length ) {
+            // Both operands are exact, so the single operation is correctly rounded
+            final double value = exponent < 0 ? mantissa / DOUBLE_POWERS_OF_TEN[-exponent] : mantissa * DOUBLE_POWERS_OF_TEN[exponent];
+            return lexicalForm.charAt( from ) == '-' ? -value : value;
+         }
+      }
+      return Double.parseDouble( lexicalForm.subSequence( from, to ).toString() );
+   }
+
+   /**
+    * Parses the lexical form of xsd:float, like {@link #parseDouble(CharSequence, int, int)} for values with up to 7
+    * significant digits and a decimal exponent of at most 10
+    *
+    * @throws NumberFormatException if the lexical form is not valid
+    */
+   public static float parseFloat( final CharSequence lexicalForm, final int start, final int end ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      if ( !scanFloatingPoint( lexicalForm, from, to ) ) {
+         throw new NumberFormatException( "Invalid float" );
+      }
+      if ( isSpecialFloatingPoint( lexicalForm, from, to ) ) {
+         return (float) special( lexicalForm, from );
+      }
+      final long mantissaAndExponent = decompose( lexicalForm, from, to, 7 );
+      if ( mantissaAndExponent != NOT_DECOMPOSABLE ) {
+         final long mantissa = mantissa( mantissaAndExponent );
+         final int exponent = exponent( mantissaAndExponent );
+         if ( Math.abs( exponent ) < FLOAT_POWERS_OF_TEN.length ) {
+            final float value = exponent < 0 ? mantissa / FLOAT_POWERS_OF_TEN[-exponent] : mantissa * FLOAT_POWERS_OF_TEN[exponent];
+            return lexicalForm.charAt( from ) == '-' ? -value : value;
+         }
+      }
+      return Float.parseFloat( lexicalForm.subSequence( from, to ).toString() );
+   }
+
+   private static double special( final CharSequence lexicalForm, final int from ) {
+      switch ( lexicalForm.charAt( from ) ) {
+         case '-':
+            return Double.NEGATIVE_INFINITY;
+         case 'N':
+            return Double.NaN;
+         default:
+            return Double.POSITIVE_INFINITY;
+      }
+   }
+
+   private static final long NOT_DECOMPOSABLE = Long.MIN_VALUE;
+
+   /**
+    * Splits a valid floating point number without sign into a mantissa of at most the given number of significant
+    * digits and a decimal exponent, packed into one long: the mantissa in the upper 48 bits, the exponent in the lower 16
+    *
+    * @return the packed mantissa and exponent, or {@link #NOT_DECOMPOSABLE} if there are too many digits or the exponent
+    *       is too large
+    */
+   private static long decompose( final CharSequence lexicalForm, final int from, final int to, final int maxDigits ) {
+      int i = from;
+      if ( lexicalForm.charAt( i ) == '+' || lexicalForm.charAt( i ) == '-' ) {
+         i++;
+      }
+      long mantissa = 0;
+      int digits = 0;
+      int exponent = 0;
+      boolean fraction = false;
+      for ( ; i < to; i++ ) {
+         final char c = lexicalForm.charAt( i );
+         if ( c == '.' ) {
+            fraction = true;
+            continue;
+         }
+         if ( c == 'e' || c == 'E' ) {
+            break;
+         }
+         if ( mantissa == 0 && c == '0' ) {
+            // Leading zeros are not significant
+            exponent -= fraction ? 1 : 0;
+            continue;
+         }
+         if ( digits == maxDigits ) {
+            // Trailing zeros only change the exponent
+            if ( c != '0' ) {
+               return NOT_DECOMPOSABLE;
+            }
+            exponent += fraction ? 0 : 1;
+            continue;
+         }
+         mantissa = mantissa * 10 + (c - '0');
+         digits++;
+         exponent -= fraction ? 1 : 0;
+      }
+      if ( i < to ) {
+         i++;
+         final boolean negativeExponent = lexicalForm.charAt( i ) == '-';
+         if ( lexicalForm.charAt( i ) == '+' || negativeExponent ) {
+            i++;
+         }
+         int explicitExponent = 0;
+         for ( ; i < to; i++ ) {
+            explicitExponent = explicitExponent * 10 + (lexicalForm.charAt( i ) - '0');
+            if ( explicitExponent > 10_000 ) {
+               return NOT_DECOMPOSABLE;
+            }
+         }
+         exponent += negativeExponent ? -explicitExponent : explicitExponent;
+      }
+      if ( mantissa == 0 ) {
+         exponent = 0;
+      }
+      if ( Math.abs( exponent ) > Short.MAX_VALUE ) {
+         return NOT_DECOMPOSABLE;
+      }
+      return (mantissa << 16) | (exponent & 0xffff);
+   }
+
+   private static long mantissa( final long mantissaAndExponent ) {
+      return mantissaAndExponent >>> 16;
+   }
+
+   private static int exponent( final long mantissaAndExponent ) {
+      return (short) mantissaAndExponent;
+   }
+
+   private static boolean isDigit( final char c ) {
+      return c >= '0' && c <= '9';
+   }
+
+   private static int indexOf( final CharSequence lexicalForm, final int from, final int to, final char c ) {
+      for ( int i = from; i < to; i++ ) {
+         if ( lexicalForm.charAt( i ) == c ) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   static boolean matches( final CharSequence lexicalForm, final int from, final int to, final String expected ) {
+      if ( to - from != expected.length() ) {
+         return false;
+      }
+      for ( int i = 0; i < expected.length(); i++ ) {
+         if ( lexicalForm.charAt( from + i ) != expected.charAt( i ) ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * A reusable holder for a parsed xsd:decimal that fits into a long unscaled value
+    */
+   public static final class DecimalValue {
+      private long unscaledValue;
+      private int scale;
+      private boolean fits;
+
+      /**
+       * @return the unscaled value, i.e. the value is unscaledValue * 10^-scale
+       */
+      public long getUnscaledValue() {
+         return unscaledValue;
+      }
+
+      /**
+       * @return the number of fraction digits, without trailing zeros
+       */
+      public int getScale() {
+         return scale;
+      }
+
+      /**
+       * @return true if the last parsed value fits into the holder
+       */
+      public boolean fits() {
+         return fits;
+      }
+
+      /**
+       * @return the value as BigDecimal (allocates)
+       */
+      public BigDecimal toBigDecimal() {
+         return BigDecimal.valueOf( unscaledValue, scale );
+      }
+
+      /**
+       * Compares the value to another decimal value without allocating
+       *
+       * @return a negative number, zero or a positive number if this value is less than, equal to, or greater than the
+       *       other
+       */
+      public int compareTo( final long otherUnscaledValue, final int otherScale ) {
+         if ( scale == otherScale ) {
+            return Long.compare( unscaledValue, otherUnscaledValue );
+         }
+         final int signum = Long.signum( unscaledValue );
+         if ( signum != Long.signum( otherUnscaledValue ) || signum == 0 ) {
+            return Integer.compare( signum, Long.signum( otherUnscaledValue ) );
+         }
+         // Bring both values to the larger scale; if that overflows, the rescaled value has the larger magnitude
+         final int difference = Math.abs( scale - otherScale );
+         final long factor = difference < 19 ? pow10( difference ) : 0;
+         if ( scale < otherScale ) {
+            final long scaled = scale( unscaledValue, factor );
+            return scaled == Long.MIN_VALUE ? signum : Long.compare( scaled, otherUnscaledValue );
+         }
+         final long scaled = scale( otherUnscaledValue, factor );
+         return scaled == Long.MIN_VALUE ? -signum : Long.compare( unscaledValue, scaled );
+      }
+   }
+
+   private static long pow10( final int exponent ) {
+      long result = 1;
+      for ( int i = 0; i < exponent; i++ ) {
+         result *= 10;
+      }
+      return result;
+   }
+
+   /**
+    * @return value * factor, or Long.MIN_VALUE if it overflows
+    */
+   private static long scale( final long value, final long factor ) {
+      if ( factor == 0 ) {
+         return value == 0 ? 0 : Long.MIN_VALUE;
+      }
+      final long high = Math.multiplyHigh( value, factor );
+      final long low = value * factor;
+      if ( (high == 0 && low >= 0) || (high == -1 && low < 0) ) {
+         return low;
+      }
+      return Long.MIN_VALUE;
+   }
+}
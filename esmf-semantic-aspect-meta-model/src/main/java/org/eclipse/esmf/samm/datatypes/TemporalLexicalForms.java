@@ -0,0 +1,512 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.datatypes;
+
+/**
+ * Validators and parsers for the lexical forms of the date, time and duration types, following XML Schema 1.1 Part 2:
+ * Years may have more than four digits and include 0000 (1 BCE), 24:00:00 is a valid time, the day must exist in the
+ * given month (February 29 only in leap years, except in xsd:gMonthDay), and time zones range from -14:00 to +14:00.
+ * As these types have the whitespace facet collapse, leading and trailing whitespace is ignored.
+ *
+ * <p>Each method validates the lexical form and, if a holder is passed, also stores the components in it, so that
+ * validation and parsing share one pass and neither allocates. Pass null to only validate.
+ */
+public final class TemporalLexicalForms {
+   /**
+    * The value of {@link DateTimeValue#getTimezoneOffset()} for values without time zone
+    */
+   public static final int NO_TIMEZONE = Integer.MIN_VALUE;
+
+   private static final int MAX_TIMEZONE_MINUTES = 14 * 60;
+   private static final int[] DAYS_IN_MONTH = { 31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+   /**
+    * The date and time types with the components of their lexical forms
+    */
+   public enum DateTimeType {
+      DATE_TIME( "dateTime", true, true, true, true, false ),
+      DATE_TIME_STAMP( "dateTimeStamp", true, true, true, true, true ),
+      DATE( "date", true, true, true, false, false ),
+      TIME( "time", false, false, false, true, false ),
+      G_YEAR( "gYear", true, false, false, false, false ),
+      G_YEAR_MONTH( "gYearMonth", true, true, false, false, false ),
+      G_MONTH( "gMonth", false, true, false, false, false ),
+      G_MONTH_DAY( "gMonthDay", false, true, true, false, false ),
+      G_DAY( "gDay", false, false, true, false, false );
+
+      private final String name;
+      private final boolean hasYear;
+      private final boolean hasMonth;
+      private final boolean hasDay;
+      private final boolean hasTime;
+      private final boolean requiresTimezone;
+
+      DateTimeType( final String name, final boolean hasYear, final boolean hasMonth, final boolean hasDay, final boolean hasTime,
+            final boolean requiresTimezone ) {
+         this.name = name;
+         this.hasYear = hasYear;
+         this.hasMonth = hasMonth;
+         this.hasDay = hasDay;
+         this.hasTime = hasTime;
+         this.requiresTimezone = requiresTimezone;
+      }
+
+      /**
+       * @param name the local name of the XSD data type
+       * @return the date and time type
+       * @throws IllegalArgumentException if the data type is not a date and time type
+       */
+      public static DateTimeType fromName( final String name ) {
+         for ( final DateTimeType type : values() ) {
+            if ( type.name.equals( name ) ) {
+               return type;
+            }
+         }
+         throw new IllegalArgumentException( "Not a date/time data type: " + name );
+      }
+   }
+
+   /**
+    * The duration types
+    */
+   public enum DurationType {
+      DURATION( "duration", true, true ),
+      YEAR_MONTH_DURATION( "yearMonthDuration", true, false ),
+      DAY_TIME_DURATION( "dayTimeDuration", false, true );
+
+      private final String name;
+      private final boolean allowsYearMonth;
+      private final boolean allowsDayTime;
+
+      DurationType( final String name, final boolean allowsYearMonth, final boolean allowsDayTime ) {
+         this.name = name;
+         this.allowsYearMonth = allowsYearMonth;
+         this.allowsDayTime = allowsDayTime;
+      }
+
+      /**
+       * @param name the local name of the XSD data type
+       * @return the duration type
+       * @throws IllegalArgumentException if the data type is not a duration type
+       */
+      public static DurationType fromName( final String name ) {
+         for ( final DurationType type : values() ) {
+            if ( type.name.equals( name ) ) {
+               return type;
+            }
+         }
+         throw new IllegalArgumentException( "Not a duration data type: " + name );
+      }
+   }
+
+   private TemporalLexicalForms() {
+   }
+
+   /**
+    * Validates and optionally parses the lexical form of a date and time type
+    *
+    * @param lexicalForm the characters
+    * @param start the index of the first character of the lexical form
+    * @param end the index after the last character of the lexical form
+    * @param type the data type
+    * @param target the holder for the components, or null to only validate
+    * @return true if the lexical form is valid; if not, the contents of the holder are undefined
+    * @throws ArithmeticException if a holder is passed and the year does not fit into a long
+    */
+   public static boolean parseDateTime( final CharSequence lexicalForm, final int start, final int end, final DateTimeType type,
+         final DateTimeValue target ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      int i = from;
+      int yearMod400 = 0;
+      int month = 0;
+      int day = 0;
+      if ( type.hasYear ) {
+         final boolean negative = i < to && lexicalForm.charAt( i ) == '-';
+         if ( negative ) {
+            i++;
+         }
+         final int yearStart = i;
+         while ( i < to && isDigit( lexicalForm.charAt( i ) ) ) {
+            yearMod400 = (yearMod400 * 10 + lexicalForm.charAt( i ) - '0') % 400;
+            i++;
+         }
+         // At least four digits, and a leading zero only for exactly four digits
+         if ( i - yearStart < 4 || i - yearStart > 4 && lexicalForm.charAt( yearStart ) == '0' ) {
+            return false;
+         }
+         if ( negative ) {
+            yearMod400 = (400 - yearMod400) % 400;
+         }
+         if ( target != null ) {
+            target.year = parseYear( lexicalForm, yearStart, i, negative );
+         }
+      } else if ( !type.hasTime ) {
+         // gMonth, gMonthDay and gDay start with -- and gDay with ---
+         if ( !isChar( lexicalForm, i++, to, '-' ) || !isChar( lexicalForm, i++, to, '-' ) ) {
+            return false;
+         }
+      }
+      if ( type.hasMonth ) {
+         if ( type.hasYear && !isChar( lexicalForm, i++, to, '-' ) ) {
+            return false;
+         }
+         month = twoDigits( lexicalForm, i, to );
+         i += 2;
+         if ( month < 1 || month > 12 ) {
+            return false;
+         }
+      }
+      if ( type.hasDay ) {
+         if ( !isChar( lexicalForm, i++, to, '-' ) ) {
+            return false;
+         }
+         day = twoDigits( lexicalForm, i, to );
+         i += 2;
+         if ( day < 1 || day > (type.hasMonth ? DAYS_IN_MONTH[month - 1] : 31) ) {
+            return false;
+         }
+         if ( type.hasYear && month == 2 && day == 29 && !isLeapYear( yearMod400 ) ) {
+            return false;
+         }
+      }
+      if ( type.hasYear && type.hasTime && !isChar( lexicalForm, i++, to, 'T' ) ) {
+         return false;
+      }
+      int hour = 0;
+      int minute = 0;
+      int second = 0;
+      int nanos = 0;
+      if ( type.hasTime ) {
+         hour = twoDigits( lexicalForm, i, to );
+         minute = isChar( lexicalForm, i + 2, to, ':' ) ? twoDigits( lexicalForm, i + 3, to ) : -1;
+         second = isChar( lexicalForm, i + 5, to, ':' ) ? twoDigits( lexicalForm, i + 6, to ) : -1;
+         i += 8;
+         if ( hour < 0 || hour > 24 || minute < 0 || minute > 59 || second < 0 || second > 59 ) {
+            return false;
+         }
+         if ( i < to && lexicalForm.charAt( i ) == '.' ) {
+            i++;
+            final int fractionStart = i;
+            while ( i < to && isDigit( lexicalForm.charAt( i ) ) ) {
+               // Digits beyond nanoseconds are truncated
+               if ( i - fractionStart < 9 ) {
+                  nanos = nanos * 10 + lexicalForm.charAt( i ) - '0';
+               }
+               i++;
+            }
+            if ( i == fractionStart ) {
+               return false;
+            }
+            for ( int digits = i - fractionStart; digits < 9; digits++ ) {
+               nanos *= 10;
+            }
+         }
+         if ( hour == 24 && (minute != 0 || second != 0 || nanos != 0) ) {
+            return false;
+         }
+      }
+      int timezoneOffset = NO_TIMEZONE;
+      if ( i < to ) {
+         timezoneOffset = timezone( lexicalForm, i, to );
+         if ( timezoneOffset == NO_TIMEZONE ) {
+            return false;
+         }
+      } else if ( type.requiresTimezone ) {
+         return false;
+      }
+      if ( target != null ) {
+         if ( !type.hasYear ) {
+            target.year = 0;
+         }
+         target.month = month;
+         target.day = day;
+         target.hour = hour;
+         target.minute = minute;
+         target.second = second;
+         target.nanos = nanos;
+         target.timezoneOffset = timezoneOffset;
+      }
+      return true;
+   }
+
+   private static long parseYear( final CharSequence lexicalForm, final int from, final int to, final boolean negative ) {
+      long year = 0;
+      for ( int i = from; i < to; i++ ) {
+         year = Math.addExact( Math.multiplyExact( year, 10 ), lexicalForm.charAt( i ) - '0' );
+      }
+      return negative ? -year : year;
+   }
+
+   /**
+    * Years are proleptic Gregorian and year 0 is 1 BCE, so the usual rule also applies to negative years
+    */
+   private static boolean isLeapYear( final int yearMod400 ) {
+      return yearMod400 % 4 == 0 && (yearMod400 % 100 != 0 || yearMod400 == 0);
+   }
+
+   /**
+    * Parses a time zone, which must extend to the end of the lexical form
+    *
+    * @return the offset in minutes, or {@link #NO_TIMEZONE} if the time zone is invalid
+    */
+   private static int timezone( final CharSequence lexicalForm, final int from, final int to ) {
+      final char sign = lexicalForm.charAt( from );
+      if ( sign == 'Z' ) {
+         return to == from + 1 ? 0 : NO_TIMEZONE;
+      }
+      if ( sign != '+' && sign != '-' || to != from + 6 || lexicalForm.charAt( from + 3 ) != ':' ) {
+         return NO_TIMEZONE;
+      }
+      final int hours = twoDigits( lexicalForm, from + 1, to );
+      final int minutes = twoDigits( lexicalForm, from + 4, to );
+      if ( hours < 0 || minutes < 0 || minutes > 59 ) {
+         return NO_TIMEZONE;
+      }
+      final int offset = hours * 60 + minutes;
+      if ( offset > MAX_TIMEZONE_MINUTES ) {
+         return NO_TIMEZONE;
+      }
+      return sign == '-' ? -offset : offset;
+   }
+
+   /**
+    * Validates and optionally parses the lexical form of a duration type
+    *
+    * @param lexicalForm the characters
+    * @param start the index of the first character of the lexical form
+    * @param end the index after the last character of the lexical form
+    * @param type the data type
+    * @param target the holder for the value, or null to only validate
+    * @return true if the lexical form is valid; if not, the contents of the holder are undefined
+    * @throws ArithmeticException if a holder is passed and the months or seconds do not fit into a long
+    */
+   public static boolean parseDuration( final CharSequence lexicalForm, final int start, final int end, final DurationType type,
+         final DurationValue target ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      int i = from;
+      final boolean negative = i < to && lexicalForm.charAt( i ) == '-';
+      if ( negative ) {
+         i++;
+      }
+      if ( !isChar( lexicalForm, i++, to, 'P' ) || i == to ) {
+         return false;
+      }
+      long months = 0;
+      long seconds = 0;
+      int nanos = 0;
+      // The designators that may still follow, in order: Y, M, D, T, H, M, S
+      final String designators = "YMDTHMS";
+      int next = 0;
+      boolean inTime = false;
+      boolean timeComponent = false;
+      while ( i < to ) {
+         final char c = lexicalForm.charAt( i );
+         if ( c == 'T' ) {
+            if ( next > 3 ) {
+               return false;
+            }
+            next = 4;
+            inTime = true;
+            i++;
+            continue;
+         }
+         final int numberStart = i;
+         long number = 0;
+         while ( i < to && isDigit( lexicalForm.charAt( i ) ) ) {
+            if ( target != null ) {
+               number = Math.addExact( Math.multiplyExact( number, 10 ), lexicalForm.charAt( i ) - '0' );
+            }
+            i++;
+         }
+         if ( i == numberStart || i == to ) {
+            return false;
+         }
+         int fraction = -1;
+         if ( lexicalForm.charAt( i ) == '.' ) {
+            // Only seconds may have a fraction
+            fraction = 0;
+            i++;
+            final int fractionStart = i;
+            while ( i < to && isDigit( lexicalForm.charAt( i ) ) ) {
+               if ( i - fractionStart < 9 ) {
+                  fraction = fraction * 10 + lexicalForm.charAt( i ) - '0';
+               }
+               i++;
+            }
+            if ( i == fractionStart || i == to || lexicalForm.charAt( i ) != 'S' ) {
+               return false;
+            }
+            for ( int digits = i - fractionStart; digits < 9; digits++ ) {
+               fraction *= 10;
+            }
+         }
+         final int designator = designators.indexOf( lexicalForm.charAt( i ), inTime ? 4 : 0 );
+         if ( designator < next || designator == 3 || !inTime && designator > 3 ) {
+            return false;
+         }
+         next = designator + 1;
+         i++;
+         if ( designator < 2 ? !type.allowsYearMonth : !type.allowsDayTime ) {
+            return false;
+         }
+         timeComponent = inTime;
+         if ( target == null ) {
+            continue;
+         }
+         switch ( designator ) {
+            case 0:
+               months = Math.addExact( months, Math.multiplyExact( number, 12 ) );
+               break;
+            case 1:
+               months = Math.addExact( months, number );
+               break;
+            case 2:
+               seconds = Math.addExact( seconds, Math.multiplyExact( number, 86400 ) );
+               break;
+            case 4:
+               seconds = Math.addExact( seconds, Math.multiplyExact( number, 3600 ) );
+               break;
+            case 5:
+               seconds = Math.addExact( seconds, Math.multiplyExact( number, 60 ) );
+               break;
+            default:
+               seconds = Math.addExact( seconds, number );
+               nanos = Math.max( fraction, 0 );
+         }
+      }
+      // A T must be followed by at least one time component, and P alone is not a duration
+      if ( inTime && !timeComponent || next == 0 ) {
+         return false;
+      }
+      if ( target != null ) {
+         target.negative = negative && (months != 0 || seconds != 0 || nanos != 0);
+         target.months = months;
+         target.seconds = seconds;
+         target.nanos = nanos;
+      }
+      return true;
+   }
+
+   private static boolean isDigit( final char c ) {
+      return c >= '0' && c <= '9';
+   }
+
+   private static boolean isChar( final CharSequence lexicalForm, final int index, final int to, final char expected ) {
+      return index < to && lexicalForm.charAt( index ) == expected;
+   }
+
+   /**
+    * @return the value of the two digits at the index, or -1 if there are no two digits
+    */
+   private static int twoDigits( final CharSequence lexicalForm, final int index, final int to ) {
+      if ( index + 2 > to || !isDigit( lexicalForm.charAt( index ) ) || !isDigit( lexicalForm.charAt( index + 1 ) ) ) {
+         return -1;
+      }
+      return (lexicalForm.charAt( index ) - '0') * 10 + lexicalForm.charAt( index + 1 ) - '0';
+   }
+
+   /**
+    * A reusable holder for the components of a parsed date and time value. Components that the data type does not have
+    * are 0, and hour 24 of the lexical form 24:00:00 is kept as is.
+    */
+   public static final class DateTimeValue {
+      private long year;
+      private int month;
+      private int day;
+      private int hour;
+      private int minute;
+      private int second;
+      private int nanos;
+      private int timezoneOffset;
+
+      public long getYear() {
+         return year;
+      }
+
+      public int getMonth() {
+         return month;
+      }
+
+      public int getDay() {
+         return day;
+      }
+
+      public int getHour() {
+         return hour;
+      }
+
+      public int getMinute() {
+         return minute;
+      }
+
+      public int getSecond() {
+         return second;
+      }
+
+      public int getNanos() {
+         return nanos;
+      }
+
+      /**
+       * @return the time zone offset in minutes, or {@link #NO_TIMEZONE}
+       */
+      public int getTimezoneOffset() {
+         return timezoneOffset;
+      }
+
+      public boolean hasTimezone() {
+         return timezoneOffset != NO_TIMEZONE;
+      }
+   }
+
+   /**
+    * A reusable holder for a parsed duration, which XML Schema defines as a number of months and a number of seconds
+    */
+   public static final class DurationValue {
+      private boolean negative;
+      private long months;
+      private long seconds;
+      private int nanos;
+
+      /**
+       * @return true if the duration is negative; a negative duration of zero length is not
+       */
+      public boolean isNegative() {
+         return negative;
+      }
+
+      /**
+       * @return the absolute number of months of the years and months components
+       */
+      public long getMonths() {
+         return months;
+      }
+
+      /**
+       * @return the absolute number of whole seconds of the days, hours, minutes and seconds components
+       */
+      public long getSeconds() {
+         return seconds;
+      }
+
+      /**
+       * @return the fraction of the seconds component in nanoseconds
+       */
+      public int getNanos() {
+         return nanos;
+      }
+   }
+}
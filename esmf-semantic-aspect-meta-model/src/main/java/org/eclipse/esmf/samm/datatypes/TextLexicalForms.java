@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.datatypes;
+
+/**
+ * Validators for the lexical forms of xsd:string, rdf:langString, xsd:anyURI and samm:curie. Strings are checked
+ * for the characters allowed in XML 1.0, either as chars or as UTF-8 bytes. xsd:anyURI is checked for the characters
+ * allowed in an IRI reference (RFC 3987) and well-formed percent encodings; non-ASCII characters are accepted. samm:curie
+ * follows the pattern of the XML Schema definition in the W3C CURIE Syntax 1.0 note.
+ */
+public final class TextLexicalForms {
+   private static final String IRI_DELIMITERS = ":/?#[]@!$&'()*+,;=-._~";
+
+   private TextLexicalForms() {
+   }
+
+   /**
+    * Checks the lexical form of xsd:string (and the string part of rdf:langString): any sequence of XML characters, i.e.
+    * without control characters other than tab, line feed and carriage return, without U+FFFE and U+FFFF, and with
+    * only paired surrogates. Whitespace is preserved.
+    */
+   public static boolean isValidString( final CharSequence lexicalForm, final int start, final int end ) {
+      for ( int i = start; i < end; i++ ) {
+         final char c = lexicalForm.charAt( i );
+         if ( c < 0x20 ) {
+            if ( c != '\t' && c != '\n' && c != '\r' ) {
+               return false;
+            }
+         } else if ( Character.isHighSurrogate( c ) ) {
+            if ( i + 1 == end || !Character.isLowSurrogate( lexicalForm.charAt( i + 1 ) ) ) {
+               return false;
+            }
+            i++;
+         } else if ( Character.isLowSurrogate( c ) || c == 0xfffe || c == 0xffff ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Checks that bytes are well-formed UTF-8 (without overlong encodings and encoded surrogates) of a valid xsd:string
+    *
+    * @param bytes the buffer
+    * @param start the index of the first byte of the lexical form
+    * @param end the index after the last byte of the lexical form
+    * @return true if the bytes are a valid lexical form
+    */
+   public static boolean isValidUtf8String( final byte[] bytes, final int start, final int end ) {
+      int i = start;
+      while ( i < end ) {
+         final int b = bytes[i] & 0xff;
+         if ( b < 0x80 ) {
+            if ( b < 0x20 && b != '\t' && b != '\n' && b != '\r' ) {
+               return false;
+            }
+            i++;
+            continue;
+         }
+         final int length;
+         int codePoint;
+         if ( b >= 0xc2 && b <= 0xdf ) {
+            length = 2;
+            codePoint = b & 0x1f;
+         } else if ( b >= 0xe0 && b <= 0xef ) {
+            length = 3;
+            codePoint = b & 0x0f;
+         } else if ( b >= 0xf0 && b <= 0xf4 ) {
+            length = 4;
+            codePoint = b & 0x07;
+         } else {
+            return false;
+         }
+         if ( i + length > end ) {
+            return false;
+         }
+         for ( int j = 1; j < length; j++ ) {
+            final int continuation = bytes[i + j] & 0xff;
+            if ( (continuation & 0xc0) != 0x80 ) {
+               return false;
+            }
+            codePoint = codePoint << 6 | continuation & 0x3f;
+         }
+         // Reject overlong encodings, surrogates, code points beyond U+10FFFF, and U+FFFE and U+FFFF
+         if ( length == 3 && (codePoint < 0x800 || codePoint >= 0xd800 && codePoint <= 0xdfff || codePoint >= 0xfffe)
+               || length == 4 && (codePoint < 0x10000 || codePoint > 0x10ffff) ) {
+            return false;
+         }
+         i += length;
+      }
+      return true;
+   }
+
+   /**
+    * Checks the lexical form of xsd:anyURI. Leading and trailing whitespace is ignored.
+    */
+   public static boolean isValidAnyUri( final CharSequence lexicalForm, final int start, final int end ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      return isValidIriReference( lexicalForm, from, to );
+   }
+
+   private static boolean isValidIriReference( final CharSequence lexicalForm, final int from, final int to ) {
+      for ( int i = from; i < to; i++ ) {
+         final char c = lexicalForm.charAt( i );
+         if ( c == '%' ) {
+            if ( i + 2 >= to || !isHexDigit( lexicalForm.charAt( i + 1 ) ) || !isHexDigit( lexicalForm.charAt( i + 2 ) ) ) {
+               return false;
+            }
+            i += 2;
+         } else if ( !isIriCharacter( c ) ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static boolean isIriCharacter( final char c ) {
+      if ( c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' ) {
+         return true;
+      }
+      if ( c < 0x80 ) {
+         return IRI_DELIMITERS.indexOf( c ) >= 0;
+      }
+      // Controls and the private use and non-character ranges are not allowed in IRIs
+      return c >= 0xa0 && c != 0xfffe && c != 0xffff;
+   }
+
+   private static boolean isHexDigit( final char c ) {
+      return c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+   }
+
+   /**
+    * Checks the lexical form of samm:curie: an optional prefix (an NCName, which may be empty) followed by a colon, and a
+    * reference without whitespace that does not start with //. As the reference alone may also contain colons, this
+    * accepts every non-empty sequence without whitespace that does not start with //. Leading and trailing whitespace is
+    * ignored.
+    */
+   public static boolean isValidCurie( final CharSequence lexicalForm, final int start, final int end ) {
+      final int from = Whitespace.trimStart( lexicalForm, start, end );
+      final int to = Whitespace.trimEnd( lexicalForm, from, end );
+      if ( from == to ) {
+         return false;
+      }
+      if ( from + 1 < to && lexicalForm.charAt( from ) == '/' && lexicalForm.charAt( from + 1 ) == '/' ) {
+         return false;
+      }
+      for ( int i = from; i < to; i++ ) {
+         if ( Whitespace.isXmlWhitespace( lexicalForm.charAt( i ) ) ) {
+            return false;
+         }
+      }
+      return true;
+   }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.datatypes;
+
+/**
+ * Implements the whitespace facet collapse for lexical forms that can not contain inner whitespace: leading and trailing
+ * XML whitespace (space, tab, carriage return and line feed) is skipped.
+ */
+final class Whitespace {
+   private Whitespace() {
+   }
+
+   static boolean isXmlWhitespace( final int c ) {
+      return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+   }
+
+   /**
+    * @return the index of the first non-whitespace character between start and end, or end
+    */
+   static int trimStart( final CharSequence lexicalForm, final int start, final int end ) {
+      int i = start;
+      while ( i < end && isXmlWhitespace( lexicalForm.charAt( i ) ) ) {
+         i++;
+      }
+      return i;
+   }
+
+   /**
+    * @return the index after the last non-whitespace character between start and end, or start
+    */
+   static int trimEnd( final CharSequence lexicalForm, final int start, final int end ) {
+      int i = end;
+      while ( i > start && isXmlWhitespace( lexicalForm.charAt( i - 1 ) ) ) {
+         i--;
+      }
+      return i;
+   }
+}
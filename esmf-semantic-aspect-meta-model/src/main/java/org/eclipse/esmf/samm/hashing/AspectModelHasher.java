@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * Calculates content hashes of aspect models that are independent of the order of statements and of blank node labels,
+ * so that they can be used as cache keys or to detect changes.
+ * <p>
+ * Aspect models use blank nodes in a tree-like fashion: for the cells of RDF lists, for property references in
+ * samm:properties lists (e.g. [ samm:property :foo ; samm:optional true ]) and for anonymous samm-c:Trait and
+ * constraint definitions. Each blank node is therefore identified by a hash of its content, i.e. of its own statements,
+ * where referenced blank nodes are in turn represented by their hash. Every blank node is hashed exactly once, bottom-up
+ * and without recursion, so that long lists do not exhaust the stack. With these labels, the model is canonicalized to
+ * sorted N-Triples, which are hashed.
+ * <p>
+ * Note that blank nodes that are part of a cycle of blank nodes (which do not occur in valid aspect models) are hashed
+ * with a placeholder for the back reference, so their hashes are not independent of blank node labels.
+ */
+public class AspectModelHasher {
+   private static final String CYCLE = "_:cycle";
+   private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+   private final String algorithm;
+
+   /**
+    * Creates a hasher that uses SHA-256
+    */
+   public AspectModelHasher() {
+      this( "SHA-256" );
+   }
+
+   /**
+    * Creates a hasher that uses the given digest algorithm
+    *
+    * @param algorithm the name of the algorithm, see {@link MessageDigest#getInstance(String)}
+    * @throws IllegalArgumentException if the algorithm is not available
+    */
+   public AspectModelHasher( final String algorithm ) {
+      this.algorithm = algorithm;
+      // Fail early if the algorithm is unknown
+      newDigest( algorithm );
+   }
+
+   private static MessageDigest newDigest( final String algorithm ) {
+      try {
+         return MessageDigest.getInstance( algorithm );
+      } catch ( final NoSuchAlgorithmException exception ) {
+         throw new IllegalArgumentException( exception );
+      }
+   }
+
+   /**
+    * Calculates the hash of a model
+    *
+    * @param model the model
+    * @return the hex encoded hash
+    */
+   public String hash( final Model model ) {
+      return digest( canonicalize( model ) );
+   }
+
+   /**
+    * Calculates the hash of a single model element, i.e. of the statements with the element as subject, including
+    * the statements of all blank nodes that are reachable from it (e.g., the cells of its samm:properties list)
+    *
+    * @param element the model element
+    * @return the hex encoded hash
+    */
+   public String hash( final Resource element ) {
+      final Model model = element.getModel();
+      final Canonicalization canonicalization = new Canonicalization( model );
+      final List<String> lines = new ArrayList<>();
+      final Deque<Resource> subjects = new ArrayDeque<>();
+      final Set<Resource> visited = new HashSet<>();
+      subjects.push( element );
+      visited.add( element );
+      while ( !subjects.isEmpty() ) {
+         final Resource subject = subjects.pop();
+         for ( final Statement statement : canonicalization.statements( subject ) ) {
+            lines.add( canonicalization.line( statement ) );
+            final RDFNode object = statement.getObject();
+            if ( object.isAnon() && visited.add( object.asResource() ) ) {
+               subjects.push( object.asResource() );
+            }
+         }
+      }
+      return digest( lines.stream().sorted().distinct().collect( Collectors.toList() ) );
+   }
+
+   /**
+    * Canonicalizes a model to N-Triples: Blank nodes are labeled by the hash of their content, the lines are sorted
+    * and duplicates (i.e. statements that differ only in blank nodes with the same content) are removed.
+    *
+    * @param model the model
+    * @return the N-Triples lines
+    */
+   public List<String> canonicalize( final Model model ) {
+      final Canonicalization canonicalization = new Canonicalization( model );
+      final List<String> lines = new ArrayList<>( (int) model.size() );
+      canonicalization.allStatements.forEach( statement -> lines.add( canonicalization.line( statement ) ) );
+      return lines.stream().sorted().distinct().collect( Collectors.toList() );
+   }
+
+   private String digest( final List<String> lines ) {
+      final MessageDigest digest = newDigest( algorithm );
+      for ( final String line : lines ) {
+         digest.update( line.getBytes( StandardCharsets.UTF_8 ) );
+         digest.update( (byte) '\n' );
+      }
+      final byte[] bytes = digest.digest();
+      final char[] hex = new char[bytes.length * 2];
+      for ( int i = 0; i < bytes.length; i++ ) {
+         hex[2 * i] = HEX_DIGITS[bytes[i] >> 4 & 0xf];
+         hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+      }
+      return new String( hex );
+   }
+
+   /**
+    * The state of a canonicalization of one model: the statements indexed by blank node subject and the blank node
+    * labels
+    */
+   private class Canonicalization {
+      private final Model model;
+      private final List<Statement> allStatements = new ArrayList<>();
+      private final Map<Resource, List<Statement>> blankNodeStatements = new HashMap<>();
+      private final Map<Resource, String> blankNodeLabels = new HashMap<>();
+
+      private Canonicalization( final Model model ) {
+         this.model = model;
+         model.listStatements().forEachRemaining( statement -> {
+            allStatements.add( statement );
+            if ( statement.getSubject().isAnon() ) {
+               blankNodeStatements.computeIfAbsent( statement.getSubject(), subject -> new ArrayList<>() ).add( statement );
+            }
+         } );
+         for ( final Statement statement : allStatements ) {
+            if ( statement.getSubject().isAnon() ) {
+               labelBlankNodes( statement.getSubject() );
+            }
+            if ( statement.getObject().isAnon() ) {
+               labelBlankNodes( statement.getObject().asResource() );
+            }
+         }
+      }
+
+      private List<Statement> statements( final Resource subject ) {
+         return subject.isAnon()
+               ? blankNodeStatements.getOrDefault( subject, List.of() )
+               : model.listStatements( subject, null, (RDFNode) null ).toList();
+      }
+
+      /**
+       * Labels the given blank node and all blank nodes reachable from it, children before parents
+       */
+      private void labelBlankNodes( final Resource start ) {
+         if ( blankNodeLabels.containsKey( start ) ) {
+            return;
+         }
+         final Deque<Resource> stack = new ArrayDeque<>();
+         final Set<Resource> expanded = new HashSet<>();
+         stack.push( start );
+         while ( !stack.isEmpty() ) {
+            final Resource blankNode = stack.peek();
+            if ( blankNodeLabels.containsKey( blankNode ) ) {
+               stack.pop();
+               continue;
+            }
+            if ( expanded.add( blankNode ) ) {
+               for ( final Statement statement : blankNodeStatements.getOrDefault( blankNode, List.of() ) ) {
+                  final RDFNode object = statement.getObject();
+                  if ( object.isAnon() && !blankNodeLabels.containsKey( object.asResource() )
+                        && !expanded.contains( object.asResource() ) ) {
+                     stack.push( object.asResource() );
+                  }
+               }
+               continue;
+            }
+            // All children are labeled now, except for back references of cycles
+            final List<String> content = new ArrayList<>();
+            for ( final Statement statement : blankNodeStatements.getOrDefault( blankNode, List.of() ) ) {
+               content.add( uri( statement.getPredicate().getURI() ) + " " + term( statement.getObject() ) );
+            }
+            content.sort( null );
+            blankNodeLabels.put( blankNode, "_:" + digest( content ) );
+            stack.pop();
+         }
+      }
+
+      private String line( final Statement statement ) {
+         return term( statement.getSubject() ) + " " + uri( statement.getPredicate().getURI() ) + " "
+               + term( statement.getObject() ) + " .";
+      }
+
+      private String term( final RDFNode node ) {
+         if ( node.isAnon() ) {
+            return blankNodeLabels.getOrDefault( node.asResource(), CYCLE );
+         }
+         if ( node.isURIResource() ) {
+            return uri( node.asResource().getURI() );
+         }
+         final Literal literal = node.asLiteral();
+         final String lexicalForm = "\"" + escape( literal.getLexicalForm() ) + "\"";
+         final String datatypeUri = literal.getDatatypeURI();
+         if ( datatypeUri == null || datatypeUri.equals( XSDDatatype.XSDstring.getURI() ) ) {
+            return lexicalForm;
+         }
+         if ( datatypeUri.equals( RDF.langString.getURI() ) ) {
+            return lexicalForm + "@" + literal.getLanguage().toLowerCase();
+         }
+         return lexicalForm + "^^" + uri( datatypeUri );
+      }
+   }
+
+   private static String uri( final String uri ) {
+      return "<" + uri + ">";
+   }
+
+   private static String escape( final String value ) {
+      final StringBuilder builder = new StringBuilder( value.length() );
+      for ( int i = 0; i < value.length(); i++ ) {
+         final char character = value.charAt( i );
+         switch ( character ) {
+            case '"':
+               builder.append( "\\\"" );
+               break;
+            case '\\':
+               builder.append( "\\\\" );
+               break;
+            case '\n':
+               builder.append( "\\n" );
+               break;
+            case '\r':
+               builder.append( "\\r" );
+               break;
+            default:
+               builder.append( character );
+         }
+      }
+      return builder.toString();
+   }
+}
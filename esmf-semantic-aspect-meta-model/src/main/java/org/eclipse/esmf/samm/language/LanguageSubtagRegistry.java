@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.language;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The subtags of the BCP 47 Language Subtag Registry that are required to validate locale codes. The registry is read
+ * from the lookup table file that is generated at build time (see the downloadBcp47LanguageSubtagRegistry goal of the
+ * esmf-samm-build-plugin): It contains the sorted subtags of each type with a fixed width, so they are searched directly
+ * in the loaded bytes without any parsing or object allocation.
+ */
+public final class LanguageSubtagRegistry {
+   private static final String RESOURCE = "samm/scripts/language-registry.bin";
+
+   /**
+    * The types of subtags in the registry
+    */
+   public enum SubtagType {
+      EXTLANG( "extlangs" ),
+      GRANDFATHERED( "grandfathered" ),
+      LANGUAGE( "languages" ),
+      REGION( "regions" ),
+      SCRIPT( "scripts" ),
+      VARIANT( "variants" );
+
+      private final String tableName;
+
+      SubtagType( final String tableName ) {
+         this.tableName = tableName;
+      }
+   }
+
+   private final byte[] data;
+   private final int[] offsets = new int[SubtagType.values().length];
+   private final int[] widths = new int[SubtagType.values().length];
+   private final int[] sizes = new int[SubtagType.values().length];
+
+   private LanguageSubtagRegistry( final byte[] data ) {
+      this.data = data;
+      int position = 0;
+      while ( position < data.length ) {
+         final int nameLength = data[position++];
+         final String name = new String( data, position, nameLength, StandardCharsets.US_ASCII );
+         position += nameLength;
+         final int width = data[position++];
+         final int size = ((data[position] & 0xff) << 24) | ((data[position + 1] & 0xff) << 16)
+               | ((data[position + 2] & 0xff) << 8) | (data[position + 3] & 0xff);
+         position += 4;
+         for ( final SubtagType type : SubtagType.values() ) {
+            if ( type.tableName.equals( name ) ) {
+               offsets[type.ordinal()] = position;
+               widths[type.ordinal()] = width;
+               sizes[type.ordinal()] = size;
+            }
+         }
+         position += width * size;
+      }
+   }
+
+   private static class InstanceHolder {
+      private static final LanguageSubtagRegistry INSTANCE = load();
+
+      private static LanguageSubtagRegistry load() {
+         try ( final InputStream input = LanguageSubtagRegistry.class.getClassLoader().getResourceAsStream( RESOURCE ) ) {
+            if ( input == null ) {
+               throw new IllegalStateException( "Could not find " + RESOURCE );
+            }
+            return new LanguageSubtagRegistry( input.readAllBytes() );
+         } catch ( final IOException exception ) {
+            throw new UncheckedIOException( exception );
+         }
+      }
+   }
+
+   /**
+    * Returns the registry. It is loaded once on first access.
+    *
+    * @return the registry
+    */
+   public static LanguageSubtagRegistry getInstance() {
+      return InstanceHolder.INSTANCE;
+   }
+
+   /**
+    * Checks whether a subtag is registered. Like the validation in the SHACL shapes, the check is case-sensitive, i.e.
+    * it expects the conventional case of the registry (e.g. "de", "Latn", "DE").
+    *
+    * @param type the type of the subtag
+    * @param subtag the subtag, or the full tag for {@link SubtagType#GRANDFATHERED}
+    * @return true if the subtag is registered with the given type
+    */
+   public boolean contains( final SubtagType type, final CharSequence subtag ) {
+      return contains( type, subtag, 0, subtag.length() );
+   }
+
+   /**
+    * Checks whether a subtag, given as a region of a character sequence (e.g. of a complete language tag), is registered
+    *
+    * @param type the type of the subtag
+    * @param value the character sequence that contains the subtag
+    * @param start the index of the first character of the subtag
+    * @param end the index after the last character of the subtag
+    * @return true if the subtag is registered with the given type
+    */
+   public boolean contains( final SubtagType type, final CharSequence value, final int start, final int end ) {
+      final int width = widths[type.ordinal()];
+      if ( end - start > width || end <= start ) {
+         return false;
+      }
+      final int offset = offsets[type.ordinal()];
+      int low = 0;
+      int high = sizes[type.ordinal()] - 1;
+      while ( low <= high ) {
+         final int middle = (low + high) >>> 1;
+         final int comparison = compare( offset + middle * width, width, value, start, end );
+         if ( comparison < 0 ) {
+            low = middle + 1;
+         } else if ( comparison > 0 ) {
+            high = middle - 1;
+         } else {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Returns the number of registered subtags of a type
+    *
+    * @param type the type
+    * @return the number of subtags
+    */
+   public int size( final SubtagType type ) {
+      return sizes[type.ordinal()];
+   }
+
+   /**
+    * Compares an entry of the table with a subtag like {@link String#compareTo(String)} does
+    */
+   private int compare( final int entryOffset, final int width, final CharSequence value, final int start, final int end ) {
+      final int length = end - start;
+      for ( int i = 0; i < width; i++ ) {
+         final int entryCharacter = data[entryOffset + i];
+         if ( entryCharacter == 0 ) {
+            // End of entry: it is a prefix of the value, or equal to it
+            return i - length;
+         }
+         if ( i == length ) {
+            return 1;
+         }
+         final int difference = entryCharacter - value.charAt( start + i );
+         if ( difference != 0 ) {
+            return difference;
+         }
+      }
+      return width - length;
+   }
+}
@@ -0,0 +1,572 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.eclipse.esmf.samm.datatypes.BinaryLexicalForms;
+import org.eclipse.esmf.samm.datatypes.NumericLexicalForms;
+
+/**
+ * Converts JSON payloads of an Aspect to a compact binary format that is derived from the {@link PayloadSchema}, and
+ * back. The binary format contains no names: the Properties of an Aspect or Entity are written in the order of
+ * samm:properties (see {@link PayloadSchemaCompiler}), preceded by a bit set of the optional Properties that are
+ * present. Values are written according to their type:
+ * <ul>
+ *    <li>bounded integer types as zigzag varint, xsd:unsignedLong as varint,</li>
+ *    <li>xsd:decimal and the unbounded integer types as zigzag varint of the scale (shifted left by one, the lowest bit
+ *    is set if the unscaled value does not fit into a long) followed by the zigzag varint of the unscaled value, or the
+ *    length and two's complement bytes of a larger unscaled value,</li>
+ *    <li>xsd:double and xsd:float as little-endian IEEE 754 bits, xsd:boolean as one byte,</li>
+ *    <li>xsd:hexBinary and xsd:base64Binary as varint length and the decoded bytes, other strings as varint length and
+ *    UTF-8 bytes,</li>
+ *    <li>rdf:langString values as varint count of language tag and string pairs,</li>
+ *    <li>Collections as varint count of elements, samm-c:Either as one byte (0 for left, 1 for right) and the value,</li>
+ *    <li>and values of unknown type as varint length and the bytes of the JSON value.</li>
+ * </ul>
+ * Decoding writes the strings of the binary payload directly into the JSON output. Numbers, binary values and members
+ * are written in their canonical form, so that the JSON after a round trip is equal in value, but not necessarily byte
+ * for byte, to the original payload.
+ * <p>
+ * The codec expects valid payloads, see {@link PayloadValidator}; it rejects payloads whose structure or values cannot
+ * be represented with a {@link MalformedPayloadException}, but does not check Constraints. As the Properties of an
+ * object can appear in any order, the members of each object and the elements of each array are located before they
+ * are encoded. A codec is not thread-safe; use one codec per thread.
+ */
+public class BinaryPayloadCodec {
+   private final PayloadSchema schema;
+   private final JsonReader reader = new JsonReader();
+   private final ByteOutput output = new ByteOutput();
+   private final NumericLexicalForms.DecimalValue decimal = new NumericLexicalForms.DecimalValue();
+   private int[] offsets = new int[64];
+   private int top;
+   private byte[] input;
+   private int position;
+   private int end;
+
+   public BinaryPayloadCodec( final PayloadSchema schema ) {
+      this.schema = schema;
+   }
+
+   /**
+    * @param json the UTF-8 encoded JSON payload
+    * @return the binary payload
+    * @throws MalformedPayloadException if the payload is not valid JSON or does not have the structure of the schema
+    */
+   public byte[] toBinary( final byte[] json ) {
+      return toBinary( json, 0, json.length );
+   }
+
+   /**
+    * @param json the buffer with the UTF-8 encoded JSON payload
+    * @param offset the offset of the payload in the buffer
+    * @param length the length of the payload
+    * @return the binary payload
+    * @throws MalformedPayloadException if the payload is not valid JSON or does not have the structure of the schema
+    */
+   public byte[] toBinary( final byte[] json, final int offset, final int length ) {
+      input = json;
+      end = offset + length;
+      top = 0;
+      output.reset();
+      final int valueEnd = skipWhitespace( encode( schema.getRoot(), offset ) );
+      if ( valueEnd != end ) {
+         throw new MalformedPayloadException( "Unexpected data after the value", valueEnd );
+      }
+      return output.toByteArray();
+   }
+
+   /**
+    * @param binary the binary payload
+    * @return the UTF-8 encoded JSON payload
+    * @throws MalformedPayloadException if the binary payload is truncated or invalid
+    */
+   public byte[] toJson( final byte[] binary ) {
+      return toJson( binary, 0, binary.length );
+   }
+
+   /**
+    * @param binary the buffer with the binary payload
+    * @param offset the offset of the payload in the buffer
+    * @param length the length of the payload
+    * @return the UTF-8 encoded JSON payload
+    * @throws MalformedPayloadException if the binary payload is truncated or invalid
+    */
+   public byte[] toJson( final byte[] binary, final int offset, final int length ) {
+      if ( offset < 0 || length < 0 || offset + length > binary.length ) {
+         throw new IndexOutOfBoundsException( "Invalid byte range " + offset + "+" + length + " of " + binary.length );
+      }
+      input = binary;
+      position = offset;
+      end = offset + length;
+      output.reset();
+      decode( schema.getRoot() );
+      if ( position != end ) {
+         throw new MalformedPayloadException( "Unexpected data after the payload", position );
+      }
+      return output.toByteArray();
+   }
+
+   /**
+    * Encodes the JSON value that starts at the offset
+    *
+    * @return the offset after the value
+    */
+   private int encode( final PayloadType type, final int offset ) {
+      reader.reset( input, offset, end - offset );
+      final JsonReader.Token token = reader.next();
+      switch ( type.getKind() ) {
+         case SCALAR:
+            return encodeScalar( (ScalarType) type, token );
+         case OBJECT:
+            return encodeObject( (ObjectType) type, token );
+         case COLLECTION:
+            return encodeCollection( (CollectionType) type, token );
+         case EITHER:
+            return encodeEither( (EitherType) type, token );
+         default:
+            final int start = reader.getTokenOffset();
+            reader.skipValue( token );
+            output.writeVarint( reader.getPosition() - start );
+            output.write( input, start, reader.getPosition() - start );
+            return reader.getPosition();
+      }
+   }
+
+   private int encodeObject( final ObjectType type, final JsonReader.Token token ) {
+      expect( token, JsonReader.Token.START_OBJECT, "an object" );
+      final PayloadField[] fields = type.getFields();
+      final int base = push( fields.length );
+      Arrays.fill( offsets, base, top, -1 );
+      for ( JsonReader.Token member = reader.next(); member != JsonReader.Token.END_OBJECT; member = reader.next() ) {
+         final PayloadField field = type.findField( reader );
+         if ( field == null ) {
+            throw new MalformedPayloadException( "Unknown property '" + reader.getString() + "'", reader.getTokenOffset() );
+         }
+         if ( offsets[base + field.getIndex()] != -1 ) {
+            throw new MalformedPayloadException( "Duplicate property '" + field.getName() + "'", reader.getTokenOffset() );
+         }
+         final int valueOffset = reader.getPosition();
+         final JsonReader.Token value = reader.next();
+         if ( value == JsonReader.Token.NULL && !field.isOptional() ) {
+            throw new MalformedPayloadException( "Property '" + field.getName() + "' must not be null", reader.getTokenOffset() );
+         }
+         // Optional Properties with the value null are marked as seen, but are not present
+         offsets[base + field.getIndex()] = value == JsonReader.Token.NULL ? -2 : valueOffset;
+         reader.skipValue( value );
+      }
+      final int objectEnd = reader.getPosition();
+
+      int bits = 0;
+      int bitCount = 0;
+      for ( final PayloadField field : fields ) {
+         final boolean present = offsets[base + field.getIndex()] >= 0;
+         if ( field.isOptional() ) {
+            bits |= (present ? 1 : 0) << bitCount++;
+            if ( bitCount == 8 ) {
+               output.write( bits );
+               bits = 0;
+               bitCount = 0;
+            }
+         } else if ( !present ) {
+            throw new MalformedPayloadException( "Missing property '" + field.getName() + "'", objectEnd - 1 );
+         }
+      }
+      if ( bitCount > 0 ) {
+         output.write( bits );
+      }
+      for ( final PayloadField field : fields ) {
+         if ( offsets[base + field.getIndex()] >= 0 ) {
+            encode( field.getType(), offsets[base + field.getIndex()] );
+         }
+      }
+      top = base;
+      return objectEnd;
+   }
+
+   private int encodeCollection( final CollectionType type, final JsonReader.Token token ) {
+      expect( token, JsonReader.Token.START_ARRAY, "an array" );
+      final int base = top;
+      for ( JsonReader.Token element = reader.next(); element != JsonReader.Token.END_ARRAY; element = reader.next() ) {
+         offsets[push( 1 )] = reader.getTokenOffset();
+         reader.skipValue( element );
+      }
+      final int arrayEnd = reader.getPosition();
+      output.writeVarint( top - base );
+      final int count = top - base;
+      for ( int i = 0; i < count; i++ ) {
+         encode( type.getElementType(), offsets[base + i] );
+      }
+      top = base;
+      return arrayEnd;
+   }
+
+   private int encodeEither( final EitherType type, final JsonReader.Token token ) {
+      expect( token, JsonReader.Token.START_OBJECT, "an object" );
+      final JsonReader.Token name = reader.next();
+      final boolean left = name == JsonReader.Token.NAME && reader.valueEquals( EitherType.LEFT );
+      if ( !left && (name != JsonReader.Token.NAME || !reader.valueEquals( EitherType.RIGHT )) ) {
+         throw new MalformedPayloadException( "Expected the member \"left\" or \"right\"", reader.getTokenOffset() );
+      }
+      final int valueOffset = reader.getPosition();
+      reader.skipValue( reader.next() );
+      if ( reader.next() != JsonReader.Token.END_OBJECT ) {
+         throw new MalformedPayloadException( "Expected only one of the members \"left\" and \"right\"", reader.getTokenOffset() );
+      }
+      final int eitherEnd = reader.getPosition();
+      output.write( left ? 0 : 1 );
+      encode( left ? type.getLeft() : type.getRight(), valueOffset );
+      return eitherEnd;
+   }
+
+   private int encodeScalar( final ScalarType type, final JsonReader.Token token ) {
+      switch ( type.getBinaryFormat() ) {
+         case LANG_STRING:
+            return encodeLangString( token );
+         case BOOLEAN:
+            if ( token != JsonReader.Token.TRUE && token != JsonReader.Token.FALSE ) {
+               throw unexpected( "a boolean" );
+            }
+            output.write( token == JsonReader.Token.TRUE ? 1 : 0 );
+            break;
+         case ZIGZAG:
+         case UNSIGNED:
+         case DECIMAL:
+         case DOUBLE:
+         case FLOAT:
+            expect( token, JsonReader.Token.NUMBER, "a number" );
+            encodeNumber( type.getBinaryFormat(), reader.getString() );
+            break;
+         default:
+            expect( token, JsonReader.Token.STRING, "a string" );
+            encodeString( type.getBinaryFormat() );
+            break;
+      }
+      return reader.getPosition();
+   }
+
+   private void encodeNumber( final ScalarType.BinaryFormat format, final CharSequence value ) {
+      try {
+         switch ( format ) {
+            case ZIGZAG:
+               output.writeZigzag( NumericLexicalForms.parseLong( value, 0, value.length() ) );
+               break;
+            case UNSIGNED:
+               output.writeVarint( NumericLexicalForms.parseLong( value, 0, value.length() ) );
+               break;
+            case DOUBLE:
+               output.writeLittleEndian( Double.doubleToRawLongBits( NumericLexicalForms.parseDouble( value, 0, value.length() ) ), 8 );
+               break;
+            case FLOAT:
+               output.writeLittleEndian( Float.floatToRawIntBits( NumericLexicalForms.parseFloat( value, 0, value.length() ) ), 4 );
+               break;
+            default:
+               if ( NumericLexicalForms.parseDecimal( value, 0, value.length(), decimal ) ) {
+                  output.writeZigzag( (long) decimal.getScale() << 1 );
+                  output.writeZigzag( decimal.getUnscaledValue() );
+               } else {
+                  final BigDecimal bigDecimal = NumericLexicalForms.parseBigDecimal( value, 0, value.length() );
+                  final byte[] unscaled = bigDecimal.unscaledValue().toByteArray();
+                  output.writeZigzag( (long) bigDecimal.scale() << 1 | 1 );
+                  output.writeVarint( unscaled.length );
+                  output.write( unscaled );
+               }
+               break;
+         }
+      } catch ( final NumberFormatException exception ) {
+         throw new MalformedPayloadException( "Invalid value '" + value + "'", reader.getTokenOffset() );
+      }
+   }
+
+   private void encodeString( final ScalarType.BinaryFormat format ) {
+      if ( format != ScalarType.BinaryFormat.HEX && format != ScalarType.BinaryFormat.BASE64 ) {
+         output.writeVarint( reader.getValueLength() );
+         output.write( reader.getValueBytes(), reader.getValueStart(), reader.getValueLength() );
+         return;
+      }
+      final CharSequence value = reader.getString();
+      final boolean hex = format == ScalarType.BinaryFormat.HEX;
+      final int length = hex
+            ? BinaryLexicalForms.hexBinaryLength( value, 0, value.length() )
+            : BinaryLexicalForms.base64BinaryLength( value, 0, value.length() );
+      output.writeVarint( length );
+      final int offset = output.reserve( length );
+      try {
+         final int written = hex
+               ? BinaryLexicalForms.decodeHexBinary( value, 0, value.length(), output.buffer(), offset )
+               : BinaryLexicalForms.decodeBase64Binary( value, 0, value.length(), output.buffer(), offset );
+         if ( written != length ) {
+            throw new IllegalArgumentException( "Invalid length" );
+         }
+      } catch ( final IllegalArgumentException | IndexOutOfBoundsException exception ) {
+         throw new MalformedPayloadException( "Invalid value '" + value + "'", reader.getTokenOffset() );
+      }
+      output.advance( length );
+   }
+
+   private int encodeLangString( final JsonReader.Token token ) {
+      expect( token, JsonReader.Token.START_OBJECT, "an object of localized strings" );
+      final int base = top;
+      for ( JsonReader.Token member = reader.next(); member != JsonReader.Token.END_OBJECT; member = reader.next() ) {
+         offsets[push( 1 )] = reader.getTokenOffset();
+         expect( reader.next(), JsonReader.Token.STRING, "a string" );
+      }
+      final int objectEnd = reader.getPosition();
+      output.writeVarint( top - base );
+      for ( int i = base; i < top; i++ ) {
+         // The language tag is read as a string value, the localized string after the colon as another one
+         reader.reset( input, offsets[i], end - offsets[i] );
+         reader.next();
+         output.writeVarint( reader.getValueLength() );
+         output.write( reader.getValueBytes(), reader.getValueStart(), reader.getValueLength() );
+         final int colon = skipWhitespace( reader.getPosition() );
+         reader.reset( input, colon + 1, end - colon - 1 );
+         reader.next();
+         output.writeVarint( reader.getValueLength() );
+         output.write( reader.getValueBytes(), reader.getValueStart(), reader.getValueLength() );
+      }
+      top = base;
+      return objectEnd;
+   }
+
+   /**
+    * @return the offset of the first byte at or after the offset that is not JSON whitespace
+    */
+   private int skipWhitespace( final int offset ) {
+      int i = offset;
+      while ( i < end && (input[i] == ' ' || input[i] == '\n' || input[i] == '\r' || input[i] == '\t') ) {
+         i++;
+      }
+      return i;
+   }
+
+   /**
+    * Reserves slots on the stack of offsets
+    *
+    * @return the index of the first slot
+    */
+   private int push( final int count ) {
+      if ( top + count > offsets.length ) {
+         offsets = Arrays.copyOf( offsets, Math.max( offsets.length * 2, top + count ) );
+      }
+      final int base = top;
+      top += count;
+      return base;
+   }
+
+   private void expect( final JsonReader.Token token, final JsonReader.Token expected, final String description ) {
+      if ( token != expected ) {
+         throw unexpected( description );
+      }
+   }
+
+   private MalformedPayloadException unexpected( final String expected ) {
+      return new MalformedPayloadException( "Expected " + expected, reader.getTokenOffset() );
+   }
+
+   private void decode( final PayloadType type ) {
+      switch ( type.getKind() ) {
+         case SCALAR:
+            decodeScalar( (ScalarType) type );
+            break;
+         case OBJECT: {
+            final PayloadField[] fields = ((ObjectType) type).getFields();
+            int optionalCount = 0;
+            for ( final PayloadField field : fields ) {
+               optionalCount += field.isOptional() ? 1 : 0;
+            }
+            final int bitSet = position;
+            require( optionalCount + 7 >> 3 );
+            position += optionalCount + 7 >> 3;
+            output.write( '{' );
+            int optionalIndex = 0;
+            boolean first = true;
+            for ( final PayloadField field : fields ) {
+               if ( field.isOptional() && (input[bitSet + (optionalIndex >> 3)] & 1 << (optionalIndex++ & 7)) == 0 ) {
+                  continue;
+               }
+               if ( !first ) {
+                  output.write( ',' );
+               }
+               first = false;
+               output.writeJsonString( field.getNameBytes() );
+               output.write( ':' );
+               decode( field.getType() );
+            }
+            output.write( '}' );
+            break;
+         }
+         case COLLECTION: {
+            final long count = readVarint();
+            output.write( '[' );
+            for ( long i = 0; i < count; i++ ) {
+               if ( i > 0 ) {
+                  output.write( ',' );
+               }
+               decode( ((CollectionType) type).getElementType() );
+            }
+            output.write( ']' );
+            break;
+         }
+         case EITHER: {
+            require( 1 );
+            final int side = input[position++];
+            if ( side != 0 && side != 1 ) {
+               throw new MalformedPayloadException( "Invalid alternative of Either", position - 1 );
+            }
+            output.writeAscii( side == 0 ? "{\"left\":" : "{\"right\":" );
+            decode( side == 0 ? ((EitherType) type).getLeft() : ((EitherType) type).getRight() );
+            output.write( '}' );
+            break;
+         }
+         default: {
+            final int length = readLength();
+            output.write( input, position, length );
+            position += length;
+            break;
+         }
+      }
+   }
+
+   private void decodeScalar( final ScalarType type ) {
+      switch ( type.getBinaryFormat() ) {
+         case LANG_STRING: {
+            final long count = readVarint();
+            output.write( '{' );
+            for ( long i = 0; i < count; i++ ) {
+               if ( i > 0 ) {
+                  output.write( ',' );
+               }
+               decodeString();
+               output.write( ':' );
+               decodeString();
+            }
+            output.write( '}' );
+            break;
+         }
+         case BOOLEAN:
+            require( 1 );
+            output.writeAscii( input[position++] == 0 ? "false" : "true" );
+            break;
+         case ZIGZAG:
+            output.writeLong( unzigzag( readVarint() ), false );
+            break;
+         case UNSIGNED:
+            output.writeLong( readVarint(), true );
+            break;
+         case DOUBLE:
+            writeFloatingPoint( Double.longBitsToDouble( readLittleEndian( 8 ) ) );
+            break;
+         case FLOAT:
+            writeFloatingPoint( Float.intBitsToFloat( (int) readLittleEndian( 4 ) ) );
+            break;
+         case DECIMAL: {
+            final long header = unzigzag( readVarint() );
+            final long scale = header >> 1;
+            if ( scale < Integer.MIN_VALUE || scale > Integer.MAX_VALUE ) {
+               throw new MalformedPayloadException( "Invalid scale", position );
+            }
+            if ( (header & 1) == 0 ) {
+               output.writeDecimal( unzigzag( readVarint() ), (int) scale );
+            } else {
+               final int length = readLength();
+               if ( length == 0 ) {
+                  throw new MalformedPayloadException( "Invalid unscaled value", position );
+               }
+               final byte[] unscaled = Arrays.copyOfRange( input, position, position + length );
+               position += length;
+               output.writeAscii( new BigDecimal( new BigInteger( unscaled ), (int) scale ).toPlainString() );
+            }
+            break;
+         }
+         case HEX: {
+            final int length = readLength();
+            output.writeHexString( input, position, length );
+            position += length;
+            break;
+         }
+         case BASE64: {
+            final int length = readLength();
+            output.writeBase64String( input, position, length );
+            position += length;
+            break;
+         }
+         default:
+            decodeString();
+            break;
+      }
+   }
+
+   private void writeFloatingPoint( final double value ) {
+      if ( Double.isNaN( value ) || Double.isInfinite( value ) ) {
+         throw new MalformedPayloadException( "Number cannot be represented in JSON", position );
+      }
+      output.writeAscii( Double.toString( value ) );
+   }
+
+   private void writeFloatingPoint( final float value ) {
+      if ( Float.isNaN( value ) || Float.isInfinite( value ) ) {
+         throw new MalformedPayloadException( "Number cannot be represented in JSON", position );
+      }
+      output.writeAscii( Float.toString( value ) );
+   }
+
+   private void decodeString() {
+      final int length = readLength();
+      output.writeJsonString( input, position, length );
+      position += length;
+   }
+
+   private long readVarint() {
+      long result = 0;
+      for ( int shift = 0; shift < 64; shift += 7 ) {
+         require( 1 );
+         final byte b = input[position++];
+         result |= (long) (b & 0x7f) << shift;
+         if ( b >= 0 ) {
+            return result;
+         }
+      }
+      throw new MalformedPayloadException( "Invalid varint", position );
+   }
+
+   private static long unzigzag( final long value ) {
+      return value >>> 1 ^ -(value & 1);
+   }
+
+   private int readLength() {
+      final long length = readVarint();
+      if ( length > end - position ) {
+         throw new MalformedPayloadException( "Truncated binary payload", position );
+      }
+      return (int) length;
+   }
+
+   private long readLittleEndian( final int bytes ) {
+      require( bytes );
+      long result = 0;
+      for ( int i = 0; i < bytes; i++ ) {
+         result |= (input[position++] & 0xffL) << 8 * i;
+      }
+      return result;
+   }
+
+   private void require( final int bytes ) {
+      if ( position + bytes > end ) {
+         throw new MalformedPayloadException( "Truncated binary payload", position );
+      }
+   }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+/**
+ * Reads a stream of bits that was written by a {@link BitWriter}
+ */
+final class BitReader {
+   private byte[] bytes;
+   private int position;
+   private int end;
+   private int current;
+   private int remaining;
+
+   void reset( final byte[] source, final int offset, final int limit ) {
+      bytes = source;
+      position = offset;
+      end = limit;
+      current = 0;
+      remaining = 0;
+   }
+
+   /**
+    * @return the offset of the first byte after the bits that were read, i.e. the rest of a partially read byte is
+    * skipped
+    */
+   int getPosition() {
+      return position;
+   }
+
+   boolean readBit() {
+      return read( 1 ) != 0;
+   }
+
+   /**
+    * @param bits the number of bits, at most 64
+    * @return the value of the bits
+    * @throws MalformedPayloadException if the stream ends before
+    */
+   long read( final int bits ) {
+      long result = 0;
+      int missing = bits;
+      while ( missing > 0 ) {
+         if ( remaining == 0 ) {
+            if ( position >= end ) {
+               throw new MalformedPayloadException( "Truncated binary payload", position );
+            }
+            current = bytes[position++] & 0xff;
+            remaining = 8;
+         }
+         final int take = Math.min( missing, remaining );
+         remaining -= take;
+         missing -= take;
+         result = result << take | current >>> remaining & (1 << take) - 1;
+      }
+      return result;
+   }
+
+   /**
+    * Reads a value written by {@link BitWriter#writeSigned(long)}
+    */
+   long readSigned() {
+      if ( !readBit() ) {
+         return 0;
+      }
+      final int bits;
+      if ( !readBit() ) {
+         bits = 7;
+      } else if ( !readBit() ) {
+         bits = 9;
+      } else if ( !readBit() ) {
+         bits = 12;
+      } else {
+         bits = readBit() ? 64 : 32;
+      }
+      final long zigzag = read( bits );
+      return zigzag >>> 1 ^ -(zigzag & 1);
+   }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+/**
+ * Writes a stream of bits, most significant bit first, into a {@link ByteOutput}; see {@link BitReader}
+ */
+final class BitWriter {
+   private ByteOutput output;
+   private int current;
+   private int count;
+
+   void reset( final ByteOutput target ) {
+      output = target;
+      current = 0;
+      count = 0;
+   }
+
+   void writeBit( final boolean bit ) {
+      current = current << 1 | (bit ? 1 : 0);
+      if ( ++count == 8 ) {
+         output.write( current );
+         current = 0;
+         count = 0;
+      }
+   }
+
+   /**
+    * Writes the lowest bits of a value
+    *
+    * @param value the value
+    * @param bits the number of bits, at most 64
+    */
+   void write( final long value, final int bits ) {
+      int remaining = bits;
+      while ( remaining > 0 ) {
+         final int take = Math.min( 8 - count, remaining );
+         remaining -= take;
+         current = current << take | (int) (value >>> remaining) & (1 << take) - 1;
+         count += take;
+         if ( count == 8 ) {
+            output.write( current );
+            current = 0;
+            count = 0;
+         }
+      }
+   }
+
+   /**
+    * Writes a signed value with a prefix code for its magnitude: 0 as a single bit, and the zigzag encoding of other
+    * values in 7, 9, 12, 32 or 64 bits. Most deltas of regular series fit into the shortest codes.
+    */
+   void writeSigned( final long value ) {
+      if ( value == 0 ) {
+         writeBit( false );
+         return;
+      }
+      final long zigzag = value << 1 ^ value >> 63;
+      if ( zigzag >>> 7 == 0 ) {
+         write( 0b10, 2 );
+         write( zigzag, 7 );
+      } else if ( zigzag >>> 9 == 0 ) {
+         write( 0b110, 3 );
+         write( zigzag, 9 );
+      } else if ( zigzag >>> 12 == 0 ) {
+         write( 0b1110, 4 );
+         write( zigzag, 12 );
+      } else if ( zigzag >>> 32 == 0 ) {
+         write( 0b11110, 5 );
+         write( zigzag, 32 );
+      } else {
+         write( 0b11111, 5 );
+         write( zigzag, 64 );
+      }
+   }
+
+   /**
+    * Writes the remaining bits, padded with zeros to a full byte
+    */
+   void flush() {
+      if ( count > 0 ) {
+         output.write( current << 8 - count );
+         current = 0;
+         count = 0;
+      }
+   }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A reusable, growing byte buffer with the primitives of the binary payload format and of JSON output
+ */
+final class ByteOutput {
+   private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes( StandardCharsets.US_ASCII );
+   private static final byte[] BASE64_DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+         .getBytes( StandardCharsets.US_ASCII );
+
+   private byte[] buffer = new byte[256];
+   private int length;
+   private final byte[] digits = new byte[20];
+
+   void reset() {
+      length = 0;
+   }
+
+   int length() {
+      return length;
+   }
+
+   byte[] buffer() {
+      return buffer;
+   }
+
+   byte[] toByteArray() {
+      return Arrays.copyOf( buffer, length );
+   }
+
+   /**
+    * Makes room for the given number of bytes and returns the offset at which they can be written, see
+    * {@link #advance(int)}
+    */
+   int reserve( final int count ) {
+      if ( buffer.length - length < count ) {
+         buffer = Arrays.copyOf( buffer, Math.max( buffer.length * 2, length + count ) );
+      }
+      return length;
+   }
+
+   /**
+    * Marks bytes that were written into the reserved space as written
+    */
+   void advance( final int count ) {
+      length += count;
+   }
+
+   void write( final int b ) {
+      if ( length == buffer.length ) {
+         buffer = Arrays.copyOf( buffer, buffer.length * 2 );
+      }
+      buffer[length++] = (byte) b;
+   }
+
+   void write( final byte[] bytes, final int offset, final int count ) {
+      reserve( count );
+      System.arraycopy( bytes, offset, buffer, length, count );
+      length += count;
+   }
+
+   void write( final byte[] bytes ) {
+      write( bytes, 0, bytes.length );
+   }
+
+   void writeAscii( final String string ) {
+      reserve( string.length() );
+      for ( int i = 0; i < string.length(); i++ ) {
+         buffer[length++] = (byte) string.charAt( i );
+      }
+   }
+
+   /**
+    * Writes an unsigned LEB128 variable-length integer: 7 bits per byte, least significant group first
+    */
+   void writeVarint( final long value ) {
+      reserve( 10 );
+      long remaining = value;
+      while ( (remaining & ~0x7fL) != 0 ) {
+         buffer[length++] = (byte) (remaining & 0x7f | 0x80);
+         remaining >>>= 7;
+      }
+      buffer[length++] = (byte) remaining;
+   }
+
+   /**
+    * Writes a signed value as varint of its zigzag encoding, so that small negative values are short as well
+    */
+   void writeZigzag( final long value ) {
+      writeVarint( value << 1 ^ value >> 63 );
+   }
+
+   void writeLittleEndian( final long value, final int bytes ) {
+      reserve( bytes );
+      for ( int i = 0; i < bytes; i++ ) {
+         buffer[length++] = (byte) (value >>> 8 * i);
+      }
+   }
+
+   /**
+    * Writes the decimal digits of a long, interpreted as unsigned if requested
+    */
+   void writeLong( final long value, final boolean unsigned ) {
+      long remaining = value;
+      if ( !unsigned && value < 0 ) {
+         write( '-' );
+         if ( value == Long.MIN_VALUE ) {
+            writeAscii( "9223372036854775808" );
+            return;
+         }
+         remaining = -value;
+      }
+      int count = 0;
+      if ( remaining < 0 ) {
+         // An unsigned value beyond Long.MAX_VALUE
+         final long quotient = (remaining >>> 1) / 5;
+         digits[count++] = (byte) ('0' + remaining - quotient * 10);
+         remaining = quotient;
+      }
+      do {
+         digits[count++] = (byte) ('0' + remaining % 10);
+         remaining /= 10;
+      } while ( remaining != 0 );
+      reserve( count );
+      while ( count > 0 ) {
+         buffer[length++] = digits[--count];
+      }
+   }
+
+   /**
+    * Writes the decimal digits of a non-negative value, padded with leading zeros to the given width
+    */
+   void writePadded( final long value, final int width ) {
+      final int start = length;
+      writeLong( value, false );
+      final int padding = width - (length - start);
+      if ( padding > 0 ) {
+         reserve( padding );
+         System.arraycopy( buffer, start, buffer, start + padding, length - start );
+         Arrays.fill( buffer, start, start + padding, (byte) '0' );
+         length += padding;
+      }
+   }
+
+   /**
+    * Writes the plain decimal representation of unscaledValue * 10^-scale
+    */
+   void writeDecimal( final long unscaledValue, final int scale ) {
+      if ( scale <= 0 ) {
+         writeLong( unscaledValue, false );
+         for ( int i = 0; i < -scale; i++ ) {
+            write( '0' );
+         }
+         return;
+      }
+      if ( unscaledValue < 0 ) {
+         write( '-' );
+      }
+      final int start = length;
+      if ( unscaledValue == Long.MIN_VALUE ) {
+         writeAscii( "9223372036854775808" );
+      } else {
+         writeLong( Math.abs( unscaledValue ), false );
+      }
+      final int digitCount = length - start;
+      if ( digitCount > scale ) {
+         final int point = length - scale;
+         reserve( 1 );
+         System.arraycopy( buffer, point, buffer, point + 1, scale );
+         buffer[point] = '.';
+         length++;
+      } else {
+         final int zeros = scale - digitCount + 2;
+         reserve( zeros );
+         System.arraycopy( buffer, start, buffer, start + zeros, digitCount );
+         buffer[start] = '0';
+         buffer[start + 1] = '.';
+         Arrays.fill( buffer, start + 2, start + zeros, (byte) '0' );
+         length += zeros;
+      }
+   }
+
+   /**
+    * Writes UTF-8 bytes as JSON string, escaping quotes, backslashes and control characters
+    */
+   void writeJsonString( final byte[] utf8, final int offset, final int count ) {
+      reserve( count + 2 );
+      buffer[length++] = '"';
+      for ( int i = offset; i < offset + count; i++ ) {
+         final byte b = utf8[i];
+         if ( b == '"' || b == '\\' ) {
+            reserve( 2 );
+            buffer[length++] = '\\';
+            buffer[length++] = b;
+         } else if ( b >= 0 && b < 0x20 ) {
+            reserve( 6 );
+            buffer[length++] = '\\';
+            buffer[length++] = 'u';
+            buffer[length++] = '0';
+            buffer[length++] = '0';
+            buffer[length++] = HEX_DIGITS[b >> 4];
+            buffer[length++] = HEX_DIGITS[b & 0xf];
+         } else {
+            write( b );
+         }
+      }
+      write( '"' );
+   }
+
+   void writeJsonString( final byte[] utf8 ) {
+      writeJsonString( utf8, 0, utf8.length );
+   }
+
+   /**
+    * Writes bytes in the canonical lexical form of xsd:hexBinary, as JSON string
+    */
+   void writeHexString( final byte[] bytes, final int offset, final int count ) {
+      reserve( count * 2 + 2 );
+      buffer[length++] = '"';
+      for ( int i = offset; i < offset + count; i++ ) {
+         buffer[length++] = HEX_DIGITS[bytes[i] >> 4 & 0xf];
+         buffer[length++] = HEX_DIGITS[bytes[i] & 0xf];
+      }
+      buffer[length++] = '"';
+   }
+
+   /**
+    * Writes bytes in the canonical lexical form of xsd:base64Binary, as JSON string
+    */
+   void writeBase64String( final byte[] bytes, final int offset, final int count ) {
+      reserve( (count + 2) / 3 * 4 + 2 );
+      buffer[length++] = '"';
+      int i = offset;
+      final int end = offset + count;
+      for ( ; i + 2 < end; i += 3 ) {
+         final int group = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | bytes[i + 2] & 0xff;
+         buffer[length++] = BASE64_DIGITS[group >> 18];
+         buffer[length++] = BASE64_DIGITS[group >> 12 & 0x3f];
+         buffer[length++] = BASE64_DIGITS[group >> 6 & 0x3f];
+         buffer[length++] = BASE64_DIGITS[group & 0x3f];
+      }
+      if ( i < end ) {
+         final int group = (bytes[i] & 0xff) << 16 | (i + 1 < end ? (bytes[i + 1] & 0xff) << 8 : 0);
+         buffer[length++] = BASE64_DIGITS[group >> 18];
+         buffer[length++] = BASE64_DIGITS[group >> 12 & 0x3f];
+         buffer[length++] = i + 1 < end ? BASE64_DIGITS[group >> 6 & 0x3f] : (byte) '=';
+         buffer[length++] = '=';
+      }
+      buffer[length++] = '"';
+   }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+/**
+ * A reusable view of the start of a char array
+ */
+final class CharArrayView implements CharSequence {
+   private char[] chars = new char[0];
+   private int length;
+
+   CharArrayView reset( final char[] chars, final int length ) {
+      this.chars = chars;
+      this.length = length;
+      return this;
+   }
+
+   @Override
+   public int length() {
+      return length;
+   }
+
+   @Override
+   public char charAt( final int index ) {
+      if ( index < 0 || index >= length ) {
+         throw new IndexOutOfBoundsException( index );
+      }
+      return chars[index];
+   }
+
+   @Override
+   public CharSequence subSequence( final int start, final int end ) {
+      if ( start < 0 || start > end || end > length ) {
+         throw new IndexOutOfBoundsException( "Invalid range " + start + "-" + end );
+      }
+      return new String( chars, start, end - start );
+   }
+
+   @Override
+   public String toString() {
+      return new String( chars, 0, length );
+   }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+/**
+ * A Collection, which is represented as a JSON array
+ */
+final class CollectionType extends PayloadType {
+   /**
+    * The most specific samm-c Collection class of the Characteristic
+    */
+   enum CollectionKind {
+      COLLECTION, LIST, SET, SORTED_SET, TIME_SERIES
+   }
+
+   private final CollectionKind collectionKind;
+   private final PayloadType elementType;
+   private final long minElements;
+   private final long maxElements;
+
+   CollectionType( final CollectionKind collectionKind, final PayloadType elementType, final long minElements, final long maxElements ) {
+      super( Kind.COLLECTION );
+      this.collectionKind = collectionKind;
+      this.elementType = elementType;
+      this.minElements = minElements;
+      this.maxElements = maxElements;
+   }
+
+   CollectionKind getCollectionKind() {
+      return collectionKind;
+   }
+
+   PayloadType getElementType() {
+      return elementType;
+   }
+
+   long getMinElements() {
+      return minElements;
+   }
+
+   long getMaxElements() {
+      return maxElements;
+   }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A samm-c:Either, which is represented as a JSON object with exactly one member: "left" with a value of the left
+ * type, or "right" with a value of the right type
+ */
+final class EitherType extends PayloadType {
+   static final byte[] LEFT = "left".getBytes( StandardCharsets.UTF_8 );
+   static final byte[] RIGHT = "right".getBytes( StandardCharsets.UTF_8 );
+
+   private final PayloadType left;
+   private final PayloadType right;
+
+   EitherType( final PayloadType left, final PayloadType right ) {
+      super( Kind.EITHER );
+      this.left = left;
+      this.right = right;
+   }
+
+   PayloadType getLeft() {
+      return left;
+   }
+
+   PayloadType getRight() {
+      return right;
+   }
+}
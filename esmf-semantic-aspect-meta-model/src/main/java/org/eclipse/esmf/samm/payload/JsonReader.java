@@ -0,0 +1,617 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import org.eclipse.esmf.samm.datatypes.ByteCharSequence;
+
+/**
+ * A streaming pull parser for JSON (RFC 8259) in UTF-8. The reader checks the syntax while it returns the tokens one
+ * by one and does not allocate: the value of the current string, name or number token is available as a byte range,
+ * either of the payload itself or, for strings with escape sequences, of a reused buffer of the unescaped UTF-8 bytes.
+ * The nesting of objects and arrays is tracked in a bit set, so the memory of a reader is bounded by the maximum
+ * nesting depth and the longest string. Well-formedness of UTF-8 is checked when a string is decoded to characters.
+ * Readers can be reused for many payloads, but not concurrently.
+ */
+final class JsonReader {
+   enum Token {
+      START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END
+   }
+
+   static final int DEFAULT_MAX_DEPTH = 512;
+
+   private static final int EXPECT_VALUE = 0;
+   private static final int EXPECT_VALUE_OR_END = 1;
+   private static final int EXPECT_NAME_OR_END = 2;
+   private static final int EXPECT_NAME = 3;
+   private static final int EXPECT_SEPARATOR = 4;
+
+   private final int maxDepth;
+   private final long[] objects;
+   private final ByteCharSequence byteView = new ByteCharSequence();
+   private final CharArrayView charView = new CharArrayView();
+   private byte[] bytes = new byte[0];
+   private int position;
+   private int end;
+   private int depth;
+   private int expect;
+   private int tokenOffset;
+   private byte[] valueBytes = bytes;
+   private int valueStart;
+   private int valueEnd;
+   private boolean valueAscii;
+   private byte[] scratch = new byte[64];
+   private char[] chars = new char[64];
+
+   JsonReader() {
+      this( DEFAULT_MAX_DEPTH );
+   }
+
+   /**
+    * @param maxDepth the maximum nesting depth of objects and arrays
+    */
+   JsonReader( final int maxDepth ) {
+      this.maxDepth = maxDepth;
+      objects = new long[(maxDepth >> 6) + 1];
+   }
+
+   /**
+    * Starts reading a payload
+    *
+    * @return this reader
+    */
+   JsonReader reset( final byte[] bytes, final int offset, final int length ) {
+      if ( offset < 0 || length < 0 || offset + length > bytes.length ) {
+         throw new IndexOutOfBoundsException( "Invalid byte range " + offset + "+" + length + " of " + bytes.length );
+      }
+      this.bytes = bytes;
+      position = offset;
+      end = offset + length;
+      depth = 0;
+      expect = EXPECT_VALUE;
+      return this;
+   }
+
+   /**
+    * Reads the next token. After the value at the top level, the only remaining token is {@link Token#END}.
+    *
+    * @return the token
+    * @throws MalformedPayloadException if the payload is not valid JSON
+    */
+   Token next() {
+      skipWhitespace();
+      switch ( expect ) {
+         case EXPECT_SEPARATOR:
+            tokenOffset = position;
+            if ( depth == 0 ) {
+               if ( position < end ) {
+                  throw error( "Unexpected data after the value" );
+               }
+               return Token.END;
+            }
+            if ( position == end ) {
+               throw error( "Unexpected end of payload" );
+            }
+            final boolean inObject = isObject();
+            final byte separator = bytes[position];
+            if ( separator == ',' ) {
+               position++;
+               skipWhitespace();
+               return inObject ? readName() : readValue();
+            }
+            if ( separator == (inObject ? '}' : ']') ) {
+               position++;
+               depth--;
+               return inObject ? Token.END_OBJECT : Token.END_ARRAY;
+            }
+            throw error( inObject ? "Expected ',' or '}'" : "Expected ',' or ']'" );
+         case EXPECT_NAME_OR_END:
+            if ( position < end && bytes[position] == '}' ) {
+               tokenOffset = position++;
+               depth--;
+               expect = EXPECT_SEPARATOR;
+               return Token.END_OBJECT;
+            }
+            return readName();
+         case EXPECT_VALUE_OR_END:
+            if ( position < end && bytes[position] == ']' ) {
+               tokenOffset = position++;
+               depth--;
+               expect = EXPECT_SEPARATOR;
+               return Token.END_ARRAY;
+            }
+            return readValue();
+         case EXPECT_NAME:
+            return readName();
+         default:
+            return readValue();
+      }
+   }
+
+   /**
+    * Skips the children of the object or array whose start token was returned last, so that the next token is the one
+    * after its end
+    */
+   void skipChildren() {
+      final int parentDepth = depth - 1;
+      while ( depth > parentDepth ) {
+         next();
+      }
+   }
+
+   /**
+    * Skips the value whose first token was returned last
+    */
+   void skipValue( final Token token ) {
+      if ( token == Token.START_OBJECT || token == Token.START_ARRAY ) {
+         skipChildren();
+      }
+   }
+
+   /**
+    * @return the nesting depth of the current position: the number of objects and arrays that were started and not yet
+    *       ended
+    */
+   int getDepth() {
+      return depth;
+   }
+
+   /**
+    * @return the offset of the first byte of the current token
+    */
+   int getTokenOffset() {
+      return tokenOffset;
+   }
+
+   /**
+    * @return the offset after the last byte read so far, e.g. after the end of the current token
+    */
+   int getPosition() {
+      return position;
+   }
+
+   /**
+    * @return the buffer of the value of the current string, name or number token, which is only valid until the next
+    *       token is read
+    */
+   byte[] getValueBytes() {
+      return valueBytes;
+   }
+
+   int getValueStart() {
+      return valueStart;
+   }
+
+   int getValueEnd() {
+      return valueEnd;
+   }
+
+   /**
+    * @return the length in bytes of the value of the current string, name or number token
+    */
+   int getValueLength() {
+      return valueEnd - valueStart;
+   }
+
+   /**
+    * @return true if the value of the current string, name or number token consists of ASCII characters only
+    */
+   boolean isAscii() {
+      return valueAscii;
+   }
+
+   /**
+    * @return true if the value of the current string or name token is the given UTF-8 encoded string
+    */
+   boolean valueEquals( final byte[] utf8 ) {
+      final int length = valueEnd - valueStart;
+      if ( utf8.length != length ) {
+         return false;
+      }
+      for ( int i = 0; i < length; i++ ) {
+         if ( utf8[i] != valueBytes[valueStart + i] ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * @return the hash of the value of the current string or name token, see {@link #hash(byte[], int, int)}
+    */
+   int valueHash() {
+      return hash( valueBytes, valueStart, valueEnd );
+   }
+
+   /**
+    * The FNV-1a hash of UTF-8 bytes, which is used to look up names
+    */
+   static int hash( final byte[] utf8, final int start, final int end ) {
+      int hash = 0x811c9dc5;
+      for ( int i = start; i < end; i++ ) {
+         hash = (hash ^ utf8[i]) * 0x01000193;
+      }
+      return hash;
+   }
+
+   /**
+    * The hash of the UTF-8 encoding of the characters, without encoding them, see {@link #hash(byte[], int, int)}
+    */
+   static int hash( final CharSequence chars ) {
+      int hash = 0x811c9dc5;
+      for ( int i = 0; i < chars.length(); i++ ) {
+         final int codePoint = Character.codePointAt( chars, i );
+         if ( codePoint < 0x80 ) {
+            hash = (hash ^ codePoint) * 0x01000193;
+            continue;
+         }
+         if ( codePoint < 0x800 ) {
+            hash = (hash ^ (byte) (0xc0 | codePoint >> 6)) * 0x01000193;
+         } else if ( codePoint < 0x10000 ) {
+            hash = (hash ^ (byte) (0xe0 | codePoint >> 12)) * 0x01000193;
+            hash = (hash ^ (byte) (0x80 | codePoint >> 6 & 0x3f)) * 0x01000193;
+         } else {
+            hash = (hash ^ (byte) (0xf0 | codePoint >> 18)) * 0x01000193;
+            hash = (hash ^ (byte) (0x80 | codePoint >> 12 & 0x3f)) * 0x01000193;
+            hash = (hash ^ (byte) (0x80 | codePoint >> 6 & 0x3f)) * 0x01000193;
+            i++;
+         }
+         hash = (hash ^ (byte) (0x80 | codePoint & 0x3f)) * 0x01000193;
+      }
+      return hash;
+   }
+
+   /**
+    * Returns the value of the current string, name or number token as characters. The returned sequence is reused and
+    * only valid until the next token is read.
+    *
+    * @throws MalformedPayloadException if the value is not well-formed UTF-8
+    */
+   CharSequence getString() {
+      if ( valueAscii ) {
+         return byteView.reset( valueBytes, valueStart, valueEnd - valueStart );
+      }
+      if ( chars.length < valueEnd - valueStart ) {
+         chars = new char[Math.max( valueEnd - valueStart, chars.length * 2 )];
+      }
+      int length = 0;
+      int i = valueStart;
+      while ( i < valueEnd ) {
+         final int b = valueBytes[i] & 0xff;
+         if ( b < 0x80 ) {
+            chars[length++] = (char) b;
+            i++;
+            continue;
+         }
+         final int sequenceLength;
+         int codePoint;
+         if ( b >= 0xc2 && b <= 0xdf ) {
+            sequenceLength = 2;
+            codePoint = b & 0x1f;
+         } else if ( b >= 0xe0 && b <= 0xef ) {
+            sequenceLength = 3;
+            codePoint = b & 0x0f;
+         } else if ( b >= 0xf0 && b <= 0xf4 ) {
+            sequenceLength = 4;
+            codePoint = b & 0x07;
+         } else {
+            throw new MalformedPayloadException( "Invalid UTF-8 in string", tokenOffset );
+         }
+         if ( i + sequenceLength > valueEnd ) {
+            throw new MalformedPayloadException( "Invalid UTF-8 in string", tokenOffset );
+         }
+         for ( int j = 1; j < sequenceLength; j++ ) {
+            final int continuation = valueBytes[i + j] & 0xff;
+            if ( (continuation & 0xc0) != 0x80 ) {
+               throw new MalformedPayloadException( "Invalid UTF-8 in string", tokenOffset );
+            }
+            codePoint = codePoint << 6 | continuation & 0x3f;
+         }
+         if ( sequenceLength == 3 && (codePoint < 0x800 || codePoint >= 0xd800 && codePoint <= 0xdfff)
+               || sequenceLength == 4 && (codePoint < 0x10000 || codePoint > 0x10ffff) ) {
+            throw new MalformedPayloadException( "Invalid UTF-8 in string", tokenOffset );
+         }
+         if ( sequenceLength == 4 ) {
+            chars[length++] = Character.highSurrogate( codePoint );
+            chars[length++] = Character.lowSurrogate( codePoint );
+         } else {
+            chars[length++] = (char) codePoint;
+         }
+         i += sequenceLength;
+      }
+      return charView.reset( chars, length );
+   }
+
+   private boolean isObject() {
+      return (objects[depth >> 6] & 1L << depth) != 0;
+   }
+
+   private void push( final boolean object ) {
+      if ( depth == maxDepth ) {
+         throw error( "Nesting deeper than " + maxDepth );
+      }
+      depth++;
+      if ( object ) {
+         objects[depth >> 6] |= 1L << depth;
+      } else {
+         objects[depth >> 6] &= ~(1L << depth);
+      }
+   }
+
+   private Token readName() {
+      tokenOffset = position;
+      if ( position == end || bytes[position] != '"' ) {
+         throw error( "Expected a name" );
+      }
+      readString();
+      skipWhitespace();
+      if ( position == end || bytes[position] != ':' ) {
+         throw error( "Expected ':'" );
+      }
+      position++;
+      expect = EXPECT_VALUE;
+      return Token.NAME;
+   }
+
+   private Token readValue() {
+      tokenOffset = position;
+      if ( position == end ) {
+         throw error( "Unexpected end of payload" );
+      }
+      switch ( bytes[position] ) {
+         case '{':
+            push( true );
+            position++;
+            expect = EXPECT_NAME_OR_END;
+            return Token.START_OBJECT;
+         case '[':
+            push( false );
+            position++;
+            expect = EXPECT_VALUE_OR_END;
+            return Token.START_ARRAY;
+         case '"':
+            readString();
+            expect = EXPECT_SEPARATOR;
+            return Token.STRING;
+         case 't':
+            readLiteral( "true" );
+            return Token.TRUE;
+         case 'f':
+            readLiteral( "false" );
+            return Token.FALSE;
+         case 'n':
+            readLiteral( "null" );
+            return Token.NULL;
+         default:
+            readNumber();
+            expect = EXPECT_SEPARATOR;
+            return Token.NUMBER;
+      }
+   }
+
+   private void readLiteral( final String literal ) {
+      if ( end - position < literal.length() ) {
+         throw error( "Unexpected end of payload" );
+      }
+      for ( int i = 0; i < literal.length(); i++ ) {
+         if ( bytes[position + i] != literal.charAt( i ) ) {
+            throw error( "Unexpected character" );
+         }
+      }
+      position += literal.length();
+      expect = EXPECT_SEPARATOR;
+   }
+
+   private void readNumber() {
+      final int start = position;
+      if ( bytes[position] == '-' ) {
+         position++;
+      }
+      if ( position < end && bytes[position] == '0' ) {
+         position++;
+      } else if ( !skipDigits() ) {
+         throw error( position == start ? "Unexpected character" : "Invalid number" );
+      }
+      if ( position < end && bytes[position] == '.' ) {
+         position++;
+         if ( !skipDigits() ) {
+            throw error( "Invalid number" );
+         }
+      }
+      if ( position < end && (bytes[position] == 'e' || bytes[position] == 'E') ) {
+         position++;
+         if ( position < end && (bytes[position] == '+' || bytes[position] == '-') ) {
+            position++;
+         }
+         if ( !skipDigits() ) {
+            throw error( "Invalid number" );
+         }
+      }
+      valueBytes = bytes;
+      valueStart = start;
+      valueEnd = position;
+      valueAscii = true;
+   }
+
+   private boolean skipDigits() {
+      final int start = position;
+      while ( position < end && bytes[position] >= '0' && bytes[position] <= '9' ) {
+         position++;
+      }
+      return position > start;
+   }
+
+   private void readString() {
+      final int start = ++position;
+      boolean ascii = true;
+      while ( position < end ) {
+         final byte b = bytes[position];
+         if ( b == '"' ) {
+            valueBytes = bytes;
+            valueStart = start;
+            valueEnd = position++;
+            valueAscii = ascii;
+            return;
+         }
+         if ( b == '\\' ) {
+            readEscapedString( start, ascii );
+            return;
+         }
+         if ( b >= 0 && b < 0x20 ) {
+            throw error( "Control character in string" );
+         }
+         ascii &= b >= 0;
+         position++;
+      }
+      throw error( "Unterminated string" );
+   }
+
+   /**
+    * Continues reading a string at its first escape sequence, unescaping it into the scratch buffer
+    */
+   private void readEscapedString( final int start, final boolean asciiPrefix ) {
+      boolean ascii = asciiPrefix;
+      int length = position - start;
+      ensureScratch( length + 4 );
+      System.arraycopy( bytes, start, scratch, 0, length );
+      while ( position < end ) {
+         final byte b = bytes[position];
+         if ( b == '"' ) {
+            position++;
+            valueBytes = scratch;
+            valueStart = 0;
+            valueEnd = length;
+            valueAscii = ascii;
+            return;
+         }
+         ensureScratch( length + 4 );
+         if ( b != '\\' ) {
+            if ( b >= 0 && b < 0x20 ) {
+               throw error( "Control character in string" );
+            }
+            ascii &= b >= 0;
+            scratch[length++] = b;
+            position++;
+            continue;
+         }
+         if ( position + 1 == end ) {
+            throw error( "Unterminated string" );
+         }
+         final byte escaped = bytes[position + 1];
+         position += 2;
+         switch ( escaped ) {
+            case '"':
+            case '\\':
+            case '/':
+               scratch[length++] = escaped;
+               break;
+            case 'b':
+               scratch[length++] = '\b';
+               break;
+            case 'f':
+               scratch[length++] = '\f';
+               break;
+            case 'n':
+               scratch[length++] = '\n';
+               break;
+            case 'r':
+               scratch[length++] = '\r';
+               break;
+            case 't':
+               scratch[length++] = '\t';
+               break;
+            case 'u': {
+               int codePoint = readHexQuad();
+               if ( Character.isHighSurrogate( (char) codePoint ) && position + 1 < end && bytes[position] == '\\'
+                     && bytes[position + 1] == 'u' ) {
+                  final int mark = position;
+                  position += 2;
+                  final int low = readHexQuad();
+                  if ( Character.isLowSurrogate( (char) low ) ) {
+                     codePoint = Character.toCodePoint( (char) codePoint, (char) low );
+                  } else {
+                     position = mark;
+                  }
+               }
+               ascii &= codePoint < 0x80;
+               length = encodeUtf8( codePoint, length );
+               break;
+            }
+            default:
+               throw error( "Invalid escape sequence" );
+         }
+      }
+      throw error( "Unterminated string" );
+   }
+
+   private int readHexQuad() {
+      if ( end - position < 4 ) {
+         throw error( "Invalid escape sequence" );
+      }
+      int value = 0;
+      for ( int i = 0; i < 4; i++ ) {
+         final int digit = Character.digit( bytes[position++], 16 );
+         if ( digit < 0 ) {
+            throw error( "Invalid escape sequence" );
+         }
+         value = value << 4 | digit;
+      }
+      return value;
+   }
+
+   /**
+    * Appends a code point to the scratch buffer; unpaired surrogates are encoded like other BMP characters, so that
+    * they are rejected when the string is decoded
+    */
+   private int encodeUtf8( final int codePoint, final int length ) {
+      int i = length;
+      if ( codePoint < 0x80 ) {
+         scratch[i++] = (byte) codePoint;
+      } else if ( codePoint < 0x800 ) {
+         scratch[i++] = (byte) (0xc0 | codePoint >> 6);
+         scratch[i++] = (byte) (0x80 | codePoint & 0x3f);
+      } else if ( codePoint < 0x10000 ) {
+         scratch[i++] = (byte) (0xe0 | codePoint >> 12);
+         scratch[i++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+         scratch[i++] = (byte) (0x80 | codePoint & 0x3f);
+      } else {
+         scratch[i++] = (byte) (0xf0 | codePoint >> 18);
+         scratch[i++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+         scratch[i++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+         scratch[i++] = (byte) (0x80 | codePoint & 0x3f);
+      }
+      return i;
+   }
+
+   private void ensureScratch( final int capacity ) {
+      if ( scratch.length < capacity ) {
+         final byte[] larger = new byte[Math.max( capacity, scratch.length * 2 )];
+         System.arraycopy( scratch, 0, larger, 0, scratch.length );
+         scratch = larger;
+      }
+   }
+
+   private void skipWhitespace() {
+      while ( position < end ) {
+         final byte b = bytes[position];
+         if ( b != ' ' && b != '\n' && b != '\r' && b != '\t' ) {
+            return;
+         }
+         position++;
+      }
+   }
+
+   private MalformedPayloadException error( final String message ) {
+      return new MalformedPayloadException( message, position );
+   }
+}
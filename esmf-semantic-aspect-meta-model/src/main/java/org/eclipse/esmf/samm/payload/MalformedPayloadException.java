@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+/**
+ * Signals that a payload is not well-formed, e.g. that it is not valid JSON
+ */
+public class MalformedPayloadException extends RuntimeException {
+   private static final long serialVersionUID = 1L;
+
+   private final int offset;
+
+   MalformedPayloadException( final String message, final int offset ) {
+      super( message + " at offset " + offset );
+      this.offset = offset;
+   }
+
+   /**
+    * @return the offset of the byte in the payload where the error was detected
+    */
+   public int getOffset() {
+      return offset;
+   }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An Aspect or Entity, which is represented as a JSON object with its Properties (including those of the Entities it
+ * extends) as members. The fields are looked up by the UTF-8 bytes of their names in an open addressing table. The
+ * type of an Enumeration of Entity instances is a copy of the Entity type that is restricted to the canonical keys of
+ * the instances, see {@link ValueKeys}.
+ */
+final class ObjectType extends PayloadType {
+   private final String uri;
+   private final Set<String> extendedEntities;
+   private PayloadField[] fields = new PayloadField[0];
+   private long[] required = new long[0];
+   private int[] table = new int[1];
+   private Set<String> values;
+   private final List<ObjectType> restrictions = new ArrayList<>();
+
+   /**
+    * @param uri the URI of the Aspect or Entity
+    * @param extendedEntities the URIs of the Entities that the Entity extends, transitively
+    */
+   ObjectType( final String uri, final Set<String> extendedEntities ) {
+      super( Kind.OBJECT );
+      this.uri = uri;
+      this.extendedEntities = extendedEntities;
+   }
+
+   /**
+    * Sets the fields, once; the type is created before the fields are compiled, so that Entities can refer to
+    * themselves
+    */
+   void setFields( final List<PayloadField> fields ) {
+      this.fields = fields.toArray( new PayloadField[0] );
+      required = new long[words()];
+      for ( final PayloadField field : this.fields ) {
+         if ( !field.isOptional() ) {
+            required[field.getIndex() >> 6] |= 1L << field.getIndex();
+         }
+      }
+      table = new int[Integer.highestOneBit( Math.max( 1, this.fields.length ) ) << 2];
+      for ( final PayloadField field : this.fields ) {
+         int slot = JsonReader.hash( field.getNameBytes(), 0, field.getNameBytes().length ) & table.length - 1;
+         while ( table[slot] != 0 ) {
+            slot = slot + 1 & table.length - 1;
+         }
+         table[slot] = field.getIndex() + 1;
+      }
+      for ( final ObjectType restriction : restrictions ) {
+         restriction.shareFields( this );
+      }
+   }
+
+   private void shareFields( final ObjectType type ) {
+      fields = type.fields;
+      required = type.required;
+      table = type.table;
+   }
+
+   /**
+    * @param keys the canonical keys of the allowed values
+    * @return a copy of this type that only allows the given values; it gets the fields of this type when they are set
+    */
+   ObjectType withValues( final Set<String> keys ) {
+      final ObjectType restriction = new ObjectType( uri, extendedEntities );
+      restriction.values = keys;
+      restriction.shareFields( this );
+      restrictions.add( restriction );
+      return restriction;
+   }
+
+   /**
+    * @return the canonical keys of the allowed values, or null if all values are allowed
+    */
+   Set<String> getValues() {
+      return values;
+   }
+
+   String getUri() {
+      return uri;
+   }
+
+   /**
+    * @return true if this is the given Entity or extends it
+    */
+   boolean isOrExtends( final String entity ) {
+      return uri.equals( entity ) || extendedEntities.contains( entity );
+   }
+
+   PayloadField[] getFields() {
+      return fields;
+   }
+
+   /**
+    * @return the number of longs of a bit set of the fields
+    */
+   int words() {
+      return fields.length + 63 >> 6;
+   }
+
+   /**
+    * @return the field with the name of the current name token of the reader, or null
+    */
+   PayloadField findField( final JsonReader reader ) {
+      int slot = reader.valueHash() & table.length - 1;
+      while ( table[slot] != 0 ) {
+         final PayloadField field = fields[table[slot] - 1];
+         if ( reader.valueEquals( field.getNameBytes() ) ) {
+            return field;
+         }
+         slot = slot + 1 & table.length - 1;
+      }
+      return null;
+   }
+
+   /**
+    * @return the field with the given name, or null
+    */
+   PayloadField findField( final String name ) {
+      int slot = JsonReader.hash( name ) & table.length - 1;
+      while ( table[slot] != 0 ) {
+         final PayloadField field = fields[table[slot] - 1];
+         if ( field.getName().equals( name ) ) {
+            return field;
+         }
+         slot = slot + 1 & table.length - 1;
+      }
+      return null;
+   }
+
+   /**
+    * @param present the bit set of the fields that are present
+    * @return the first required field that is not present, or null
+    */
+   PayloadField firstMissingField( final long[] present ) {
+      for ( int word = 0; word < required.length; word++ ) {
+         final long missing = required[word] & ~present[word];
+         if ( missing != 0 ) {
+            return fields[(word << 6) + Long.numberOfTrailingZeros( missing )];
+         }
+      }
+      return null;
+   }
+}
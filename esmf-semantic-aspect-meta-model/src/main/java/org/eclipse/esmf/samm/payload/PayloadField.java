@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A Property of an Aspect or Entity as it appears in payloads
+ */
+final class PayloadField {
+   private final String name;
+   private final byte[] nameBytes;
+   private final String property;
+   private final boolean optional;
+   private final PayloadType type;
+   private final int index;
+
+   PayloadField( final String name, final String property, final boolean optional, final PayloadType type, final int index ) {
+      this.name = name;
+      nameBytes = name.getBytes( StandardCharsets.UTF_8 );
+      this.property = property;
+      this.optional = optional;
+      this.type = type;
+      this.index = index;
+   }
+
+   /**
+    * @return the name in the payload, i.e. the samm:payloadName or the name of the Property
+    */
+   String getName() {
+      return name;
+   }
+
+   /**
+    * @return the name in the payload in UTF-8
+    */
+   byte[] getNameBytes() {
+      return nameBytes;
+   }
+
+   /**
+    * @return the URI of the Property
+    */
+   String getProperty() {
+      return property;
+   }
+
+   boolean isOptional() {
+      return optional;
+   }
+
+   PayloadType getType() {
+      return type;
+   }
+
+   /**
+    * @return the position of the Property in the Aspect or Entity
+    */
+   int getIndex() {
+      return index;
+   }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import java.util.Collection;
+
+/**
+ * Projects JSON payloads of an Aspect onto a set of Property paths in a single pass over the tokens of a streaming
+ * parser, without building a tree. A path is a sequence of payload names separated by "/", e.g. "position/x", where
+ * <ul>
+ *    <li>a name selects a Property of the Aspect or Entity at its position,</li>
+ *    <li>Collections are transparent, i.e. the rest of the path applies to each element, so "parts/name" selects the
+ *    names of all parts,</li>
+ *    <li>and "left" and "right" select the alternatives of a samm-c:Either.</li>
+ * </ul>
+ * The value at the end of a path is kept as a whole, and the value of a path that is a prefix of another path, too.
+ * Kept values are copied from the input byte for byte, so they are neither decoded nor validated; the projector only
+ * reads the tokens of the input to find the end of each value. Members that are not selected are dropped, as are members
+ * that are not Properties. Collections keep all of their elements, and Entities and Either values whose selected
+ * members are all missing are kept as empty objects.
+ * <p>
+ * The paths are compiled into a selection tree that follows the types of the {@link PayloadSchema}, so invalid paths
+ * are rejected when the projector is created. A projector is not thread-safe; use one projector per thread.
+ */
+public class PayloadProjector {
+   private final Selection root;
+   private final JsonReader reader = new JsonReader();
+   private final ByteOutput output = new ByteOutput();
+   private byte[] input;
+
+   /**
+    * @param schema the payload schema of the Aspect
+    * @param paths the paths of the Properties to keep
+    * @throws IllegalArgumentException if a path does not exist in the schema
+    */
+   public PayloadProjector( final PayloadSchema schema, final Collection<String> paths ) {
+      root = new Selection( schema.getRoot() );
+      for ( final String path : paths ) {
+         select( path );
+      }
+   }
+
+   /**
+    * A node of the selection tree: either the whole value of the type is kept, or only the selected children, which
+    * are indexed by the index of the Property of an Aspect or Entity, 0 for the elements of a Collection, or 0 and 1 for
+    * the left and right alternative of an Either
+    */
+   private static final class Selection {
+      private final PayloadType type;
+      private boolean all;
+      private Selection[] children;
+
+      private Selection( final PayloadType type ) {
+         this.type = type;
+      }
+
+      private Selection child( final int index, final PayloadType childType ) {
+         if ( children == null ) {
+            children = new Selection[type.getKind() == PayloadType.Kind.OBJECT ? ((ObjectType) type).getFields().length : 2];
+         }
+         if ( children[index] == null ) {
+            children[index] = new Selection( childType );
+         }
+         return children[index];
+      }
+   }
+
+   private void select( final String path ) {
+      if ( path.isEmpty() ) {
+         throw new IllegalArgumentException( "Empty path" );
+      }
+      Selection selection = root;
+      for ( final String name : path.split( "/", -1 ) ) {
+         while ( selection.type.getKind() == PayloadType.Kind.COLLECTION ) {
+            selection = selection.child( 0, ((CollectionType) selection.type).getElementType() );
+         }
+         switch ( selection.type.getKind() ) {
+            case OBJECT: {
+               final PayloadField field = ((ObjectType) selection.type).findField( name );
+               if ( field == null ) {
+                  throw new IllegalArgumentException( "Unknown property '" + name + "' in path '" + path + "'" );
+               }
+               selection = selection.child( field.getIndex(), field.getType() );
+               break;
+            }
+            case EITHER: {
+               final EitherType either = (EitherType) selection.type;
+               if ( name.equals( "left" ) ) {
+                  selection = selection.child( 0, either.getLeft() );
+               } else if ( name.equals( "right" ) ) {
+                  selection = selection.child( 1, either.getRight() );
+               } else {
+                  throw new IllegalArgumentException( "Expected \"left\" or \"right\" instead of '" + name + "' in path '" + path + "'" );
+               }
+               break;
+            }
+            default:
+               throw new IllegalArgumentException( "The value before '" + name + "' in path '" + path + "' has no Properties" );
+         }
+      }
+      selection.all = true;
+   }
+
+   /**
+    * @param json the UTF-8 encoded JSON payload
+    * @return the UTF-8 encoded JSON payload with the selected Properties
+    * @throws MalformedPayloadException if the payload is not valid JSON or does not have the structure of the schema
+    */
+   public byte[] project( final byte[] json ) {
+      return project( json, 0, json.length );
+   }
+
+   /**
+    * @param json the buffer with the UTF-8 encoded JSON payload
+    * @param offset the offset of the payload in the buffer
+    * @param length the length of the payload
+    * @return the UTF-8 encoded JSON payload with the selected Properties
+    * @throws MalformedPayloadException if the payload is not valid JSON or does not have the structure of the schema
+    */
+   public byte[] project( final byte[] json, final int offset, final int length ) {
+      reader.reset( json, offset, length );
+      input = json;
+      output.reset();
+      project( root, reader.next() );
+      reader.next();
+      return output.toByteArray();
+   }
+
+   /**
+    * Projects the value whose first token was read last
+    */
+   private void project( final Selection selection, final JsonReader.Token token ) {
+      if ( selection.all || token == JsonReader.Token.NULL ) {
+         final int start = reader.getTokenOffset();
+         reader.skipValue( token );
+         output.write( input, start, reader.getPosition() - start );
+         return;
+      }
+      if ( selection.type.getKind() == PayloadType.Kind.COLLECTION ) {
+         expect( token, JsonReader.Token.START_ARRAY, "an array" );
+         output.write( '[' );
+         boolean first = true;
+         for ( JsonReader.Token element = reader.next(); element != JsonReader.Token.END_ARRAY; element = reader.next() ) {
+            if ( !first ) {
+               output.write( ',' );
+            }
+            first = false;
+            project( selection.children[0], element );
+         }
+         output.write( ']' );
+         return;
+      }
+      // Only the selections of Aspects, Entities and Either values have children, see select
+      expect( token, JsonReader.Token.START_OBJECT, "an object" );
+      output.write( '{' );
+      boolean first = true;
+      for ( JsonReader.Token member = reader.next(); member != JsonReader.Token.END_OBJECT; member = reader.next() ) {
+         final Selection child = selectedMember( selection );
+         final int nameStart = reader.getTokenOffset();
+         final int nameEnd = reader.getPosition();
+         final JsonReader.Token value = reader.next();
+         if ( child == null ) {
+            reader.skipValue( value );
+            continue;
+         }
+         if ( !first ) {
+            output.write( ',' );
+         }
+         first = false;
+         // The name is copied with its colon, as it is in the input
+         output.write( input, nameStart, nameEnd - nameStart );
+         project( child, value );
+      }
+      output.write( '}' );
+   }
+
+   /**
+    * @return the selection of the member whose name was read last, or null if the member is not selected
+    */
+   private Selection selectedMember( final Selection selection ) {
+      if ( selection.children == null ) {
+         return null;
+      }
+      if ( selection.type.getKind() == PayloadType.Kind.EITHER ) {
+         if ( reader.valueEquals( EitherType.LEFT ) ) {
+            return selection.children[0];
+         }
+         return reader.valueEquals( EitherType.RIGHT ) ? selection.children[1] : null;
+      }
+      final PayloadField field = ((ObjectType) selection.type).findField( reader );
+      return field == null ? null : selection.children[field.getIndex()];
+   }
+
+   private void expect( final JsonReader.Token token, final JsonReader.Token expected, final String description ) {
+      if ( token != expected ) {
+         throw new MalformedPayloadException( "Expected " + description, reader.getTokenOffset() );
+      }
+   }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import org.eclipse.esmf.samm.KnownVersion;
+
+/**
+ * The structure of the JSON payloads of an Aspect, compiled from the Aspect model by {@link PayloadSchemaCompiler}.
+ * Schemas are immutable and can be shared by validators in several threads.
+ */
+public final class PayloadSchema {
+   private final ObjectType root;
+   private final KnownVersion metaModelVersion;
+
+   PayloadSchema( final ObjectType root, final KnownVersion metaModelVersion ) {
+      this.root = root;
+      this.metaModelVersion = metaModelVersion;
+   }
+
+   /**
+    * @return the URI of the Aspect
+    */
+   public String getAspect() {
+      return root.getUri();
+   }
+
+   /**
+    * @return the meta model version of the Aspect model
+    */
+   public KnownVersion getMetaModelVersion() {
+      return metaModelVersion;
+   }
+
+   ObjectType getRoot() {
+      return root;
+   }
+}
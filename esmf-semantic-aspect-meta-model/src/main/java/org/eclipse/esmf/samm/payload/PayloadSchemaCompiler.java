@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFList;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+import org.eclipse.esmf.samm.KnownVersion;
+import org.eclipse.esmf.samm.constraints.CompiledCharacteristic;
+import org.eclipse.esmf.samm.constraints.ConstraintCompiler;
+
+/**
+ * Compiles an Aspect model into the {@link PayloadSchema} of its payloads, following the rules for the construction of
+ * JSON payloads: the Properties of the Aspect and of Entities (including the Properties of the Entities they extend,
+ * with refined abstract Properties in place of the abstract ones) with their payload names, optionality and
+ * Characteristics, leaving out Properties that are samm:notInPayload; Collections, samm-c:Either and the scalar data
+ * types with the checks of their Constraints, see {@link ConstraintCompiler}; Enumerations of Entity instances restrict
+ * the Entity type to the keys of the instances, see {@link ValueKeys}.
+ * <p>
+ * The model must contain the definitions of the shared Characteristics and Entities that it uses, e.g. of
+ * samm-c:Timestamp; Properties whose Characteristic or data type is unknown accept any value.
+ */
+public class PayloadSchemaCompiler {
+   private static final Map<String, CollectionType.CollectionKind> COLLECTION_CLASSES = new LinkedHashMap<>();
+
+   static {
+      // The most specific classes first
+      COLLECTION_CLASSES.put( "TimeSeries", CollectionType.CollectionKind.TIME_SERIES );
+      COLLECTION_CLASSES.put( "SortedSet", CollectionType.CollectionKind.SORTED_SET );
+      COLLECTION_CLASSES.put( "Set", CollectionType.CollectionKind.SET );
+      COLLECTION_CLASSES.put( "List", CollectionType.CollectionKind.LIST );
+      COLLECTION_CLASSES.put( "Collection", CollectionType.CollectionKind.COLLECTION );
+   }
+
+   private final Model model;
+   private final KnownVersion metaModelVersion;
+   private final String metaModelNamespace;
+   private final String characteristicNamespace;
+   private final ConstraintCompiler constraintCompiler;
+   private final Property properties;
+   private final Property property;
+   private final Property extends_;
+   private final Property optional;
+   private final Property notInPayload;
+   private final Property payloadName;
+   private final Property characteristic;
+   private final Property dataType;
+   private final Property baseCharacteristic;
+   private final Property elementCharacteristic;
+   private final Property values;
+   private final Property left;
+   private final Property right;
+   private final Map<Resource, ObjectType> objectTypes = new HashMap<>();
+   private final Map<Resource, PayloadType> characteristicTypes = new HashMap<>();
+
+   /**
+    * @param model the Aspect model
+    * @param metaModelVersion the meta model version of the Aspect model
+    */
+   public PayloadSchemaCompiler( final Model model, final KnownVersion metaModelVersion ) {
+      this.model = model;
+      this.metaModelVersion = metaModelVersion;
+      metaModelNamespace = String.format( "urn:samm:org.eclipse.esmf.samm:meta-model:%s#", metaModelVersion.toVersionString() );
+      characteristicNamespace = String.format( "urn:samm:org.eclipse.esmf.samm:characteristic:%s#", metaModelVersion.toVersionString() );
+      constraintCompiler = new ConstraintCompiler( model, metaModelVersion );
+      properties = model.createProperty( metaModelNamespace + "properties" );
+      property = model.createProperty( metaModelNamespace + "property" );
+      extends_ = model.createProperty( metaModelNamespace + "extends" );
+      optional = model.createProperty( metaModelNamespace + "optional" );
+      notInPayload = model.createProperty( metaModelNamespace + "notInPayload" );
+      payloadName = model.createProperty( metaModelNamespace + "payloadName" );
+      characteristic = model.createProperty( metaModelNamespace + "characteristic" );
+      dataType = model.createProperty( metaModelNamespace + "dataType" );
+      baseCharacteristic = model.createProperty( characteristicNamespace + "baseCharacteristic" );
+      elementCharacteristic = model.createProperty( characteristicNamespace + "elementCharacteristic" );
+      values = model.createProperty( characteristicNamespace + "values" );
+      left = model.createProperty( characteristicNamespace + "left" );
+      right = model.createProperty( characteristicNamespace + "right" );
+   }
+
+   /**
+    * Compiles the payload schema of an Aspect
+    *
+    * @param aspect the Aspect
+    * @return the schema
+    * @throws IllegalArgumentException if a Constraint of the model is invalid
+    */
+   public PayloadSchema compile( final Resource aspect ) {
+      return new PayloadSchema( compileObject( aspect.inModel( model ) ), metaModelVersion );
+   }
+
+   /**
+    * @return the type of an Aspect or Entity
+    */
+   ObjectType compileObject( final Resource resource ) {
+      final ObjectType cached = objectTypes.get( resource );
+      if ( cached != null ) {
+         return cached;
+      }
+      final List<Resource> entities = new ArrayList<>( closure( resource, extends_ ) );
+      final Set<String> extendedEntities = new HashSet<>();
+      for ( final Resource entity : entities.subList( 1, entities.size() ) ) {
+         if ( entity.isURIResource() ) {
+            extendedEntities.add( entity.getURI() );
+         }
+      }
+      final ObjectType type = new ObjectType( resource.getURI(), extendedEntities );
+      objectTypes.put( resource, type );
+
+      // Starting with the most general Entity, so that refined abstract Properties take the place of the abstract ones
+      Collections.reverse( entities );
+      final Map<Resource, Resource> elements = new LinkedHashMap<>();
+      for ( final Resource entity : entities ) {
+         final Resource list = entity.getPropertyResourceValue( properties );
+         if ( list == null || !list.canAs( RDFList.class ) ) {
+            continue;
+         }
+         for ( final RDFNode node : list.as( RDFList.class ).asJavaList() ) {
+            if ( node.isResource() ) {
+               final Resource element = node.asResource();
+               final Resource refined = element.getPropertyResourceValue( extends_ );
+               elements.put( refined != null ? refined : element, element );
+            }
+         }
+      }
+      final List<PayloadField> fields = new ArrayList<>();
+      for ( final Map.Entry<Resource, Resource> entry : elements.entrySet() ) {
+         final Resource element = entry.getValue();
+         if ( element.hasLiteral( notInPayload, true ) ) {
+            continue;
+         }
+         final Resource referencedProperty = element.isAnon() && element.hasProperty( property )
+               ? element.getPropertyResourceValue( property )
+               : null;
+         final Resource actualProperty = referencedProperty != null ? referencedProperty : element;
+         final Resource propertyCharacteristic = actualProperty.getPropertyResourceValue( characteristic );
+         final Statement name = element.getProperty( payloadName );
+         final Resource named = referencedProperty != null || !element.isAnon() ? actualProperty : entry.getKey();
+         fields.add( new PayloadField(
+               name != null && name.getObject().isLiteral() ? name.getString() : named.getLocalName(),
+               actualProperty.isURIResource() ? actualProperty.getURI() : entry.getKey().getURI(),
+               element.hasLiteral( optional, true ),
+               compileCharacteristic( propertyCharacteristic ),
+               fields.size() ) );
+      }
+      type.setFields( fields );
+      return type;
+   }
+
+   /**
+    * @return the type of the values of a Characteristic
+    */
+   PayloadType compileCharacteristic( final Resource characteristicResource ) {
+      if ( characteristicResource == null ) {
+         return PayloadType.ANY;
+      }
+      final PayloadType cached = characteristicTypes.get( characteristicResource );
+      if ( cached != null ) {
+         return cached;
+      }
+      Resource leaf = characteristicResource;
+      final Set<Resource> visited = new HashSet<>();
+      while ( visited.add( leaf ) && leaf.hasProperty( baseCharacteristic ) ) {
+         leaf = leaf.getPropertyResourceValue( baseCharacteristic );
+      }
+      final Set<String> classes = characteristicClasses( leaf );
+      final PayloadType type;
+      if ( classes.contains( "Either" ) ) {
+         type = new EitherType( compileCharacteristic( leaf.getPropertyResourceValue( left ) ),
+               compileCharacteristic( leaf.getPropertyResourceValue( right ) ) );
+      } else {
+         final CompiledCharacteristic compiled = constraintCompiler.compile( characteristicResource );
+         final CollectionType.CollectionKind collectionKind = collectionKind( classes );
+         if ( collectionKind == null ) {
+            final PayloadType valueType = dataType( leaf.getPropertyResourceValue( dataType ), compiled );
+            type = valueType instanceof ObjectType ? restrict( (ObjectType) valueType, leaf ) : valueType;
+         } else {
+            final Resource element = leaf.getPropertyResourceValue( elementCharacteristic );
+            final PayloadType elementType = element != null
+                  ? compileCharacteristic( element )
+                  : dataType( leaf.getPropertyResourceValue( dataType ), compiled );
+            type = new CollectionType( collectionKind, elementType, compiled.getMinElements(), compiled.getMaxElements() );
+         }
+      }
+      characteristicTypes.put( characteristicResource, type );
+      return type;
+   }
+
+   private PayloadType dataType( final Resource type, final CompiledCharacteristic compiled ) {
+      if ( type == null ) {
+         return PayloadType.ANY;
+      }
+      if ( isEntity( type ) ) {
+         return compileObject( type );
+      }
+      return type.isURIResource() ? new ScalarType( type.getURI(), compiled ) : PayloadType.ANY;
+   }
+
+   /**
+    * @return the type restricted to the samm-c:values of the Characteristic, or the type itself if the Characteristic
+    *       has no values or one of them has no key
+    */
+   private ObjectType restrict( final ObjectType type, final Resource leaf ) {
+      final Resource list = leaf.getPropertyResourceValue( values );
+      if ( list == null || !list.canAs( RDFList.class ) ) {
+         return type;
+      }
+      final Set<String> keys = new HashSet<>();
+      for ( final RDFNode node : list.as( RDFList.class ).asJavaList() ) {
+         final String key = node.isResource() ? ValueKeys.fromInstance( type, node.asResource() ) : null;
+         if ( key == null ) {
+            return type;
+         }
+         keys.add( key );
+      }
+      return type.withValues( keys );
+   }
+
+   private boolean isEntity( final Resource type ) {
+      return type.hasProperty( properties ) || type.hasProperty( extends_ )
+            || type.hasProperty( RDF.type, model.createResource( metaModelNamespace + "Entity" ) )
+            || type.hasProperty( RDF.type, model.createResource( metaModelNamespace + "AbstractEntity" ) );
+   }
+
+   private CollectionType.CollectionKind collectionKind( final Set<String> classes ) {
+      for ( final Map.Entry<String, CollectionType.CollectionKind> entry : COLLECTION_CLASSES.entrySet() ) {
+         if ( classes.contains( entry.getKey() ) ) {
+            return entry.getValue();
+         }
+      }
+      return null;
+   }
+
+   /**
+    * @return the local names of the samm-c classes of the Characteristic, including their superclasses as far as
+    *       they are defined in the model
+    */
+   private Set<String> characteristicClasses( final Resource leaf ) {
+      final Set<String> result = new HashSet<>();
+      for ( final Statement statement : leaf.listProperties( RDF.type ).toList() ) {
+         if ( !statement.getObject().isURIResource() ) {
+            continue;
+         }
+         for ( final Resource type : closure( statement.getResource(), RDFS.subClassOf ) ) {
+            if ( type.isURIResource() && type.getURI().startsWith( characteristicNamespace ) ) {
+               result.add( type.getURI().substring( characteristicNamespace.length() ) );
+            }
+         }
+      }
+      return result;
+   }
+
+   /**
+    * @return the resources that are reachable from the start via predicate*, including the start, in breadth-first
+    *       order
+    */
+   private Set<Resource> closure( final Resource start, final Property predicate ) {
+      final Set<Resource> result = new LinkedHashSet<>();
+      final Deque<Resource> queue = new ArrayDeque<>();
+      result.add( start );
+      queue.add( start );
+      while ( !queue.isEmpty() ) {
+         for ( final Statement statement : queue.poll().listProperties( predicate ).toList() ) {
+            if ( statement.getObject().isResource() && result.add( statement.getResource() ) ) {
+               queue.add( statement.getResource() );
+            }
+         }
+      }
+      return result;
+   }
+}
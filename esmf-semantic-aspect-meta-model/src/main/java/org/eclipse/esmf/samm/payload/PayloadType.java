@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+/**
+ * The compiled type of a value in a payload, derived from a Characteristic or the Properties of an Aspect or Entity
+ */
+abstract class PayloadType {
+   enum Kind {
+      /**
+       * Any JSON value, e.g. for Properties without a Characteristic
+       */
+      ANY,
+      /**
+       * A value of a scalar data type, see {@link ScalarType}
+       */
+      SCALAR,
+      /**
+       * An Aspect or Entity, see {@link ObjectType}
+       */
+      OBJECT,
+      /**
+       * A Collection, see {@link CollectionType}
+       */
+      COLLECTION,
+      /**
+       * A samm-c:Either, see {@link EitherType}
+       */
+      EITHER
+   }
+
+   static final PayloadType ANY = new PayloadType( Kind.ANY ) {
+   };
+
+   private final Kind kind;
+
+   PayloadType( final Kind kind ) {
+      this.kind = kind;
+   }
+
+   Kind getKind() {
+      return kind;
+   }
+}
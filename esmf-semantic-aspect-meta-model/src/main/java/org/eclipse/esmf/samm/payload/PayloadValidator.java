@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.eclipse.esmf.samm.constraints.ValueOrder;
+
+/**
+ * Validates JSON payloads against the {@link PayloadSchema} of their Aspect in a single pass over the tokens of a
+ * streaming parser, without building a tree: each open object or array of the payload is one frame of a state machine
+ * that knows its compiled type, so every token is checked against the type that the model expects at its position.
+ * The validator checks
+ * <ul>
+ *    <li>that the payload is well-formed JSON,</li>
+ *    <li>that Aspects and Entities contain all non-optional Properties under their payload names, no other members
+ *    and no duplicates, and that only optional Properties are null,</li>
+ *    <li>that values have the JSON type of their data type, and that their lexical forms are valid and satisfy the
+ *    Constraints of their Characteristics,</li>
+ *    <li>that the values of Enumerations of Entity instances are one of the instances,</li>
+ *    <li>that Collections are arrays within the bounds of their LengthConstraints,</li>
+ *    <li>that the elements of a samm-c:Set are unique, and that the elements of a samm-c:SortedSet are in strictly
+ *    ascending order of their data type, e.g. numbers by value and dates on the time line,</li>
+ *    <li>that rdf:langString values are objects of localized strings with valid language tags,</li>
+ *    <li>and that samm-c:Either values are objects with exactly one of the members "left" or "right".</li>
+ * </ul>
+ * Validation stops at the first violation. Once the frames for the deepest nesting have been created, validating a
+ * valid payload does not allocate, except for regular expression constraints, the keys of Entity values that are
+ * looked up in an Enumeration and the keys of elements of Sets that are not scalar values. The elements of a SortedSet
+ * of scalar values are checked against the previous element only, and the other Sets are checked with fingerprints of
+ * their elements, so the memory of the validator is bounded by the nesting depth, the longest scalar value and the
+ * number of elements of a Set that is not sorted. A validator is not thread-safe; use one
+ * validator per thread.
+ */
+public class PayloadValidator {
+   private final PayloadSchema schema;
+   private final JsonReader reader = new JsonReader();
+   private final JsonReader keyReader = new JsonReader();
+   private byte[] payload;
+   private Frame[] frames = new Frame[8];
+   private int depth;
+
+   public PayloadValidator( final PayloadSchema schema ) {
+      this.schema = schema;
+   }
+
+   /**
+    * @param payload the UTF-8 encoded JSON payload
+    * @return the first violation, or empty if the payload is valid
+    */
+   public Optional<PayloadViolation> validate( final byte[] payload ) {
+      return validate( payload, 0, payload.length );
+   }
+
+   /**
+    * @param payload the buffer with the UTF-8 encoded JSON payload
+    * @param offset the offset of the payload in the buffer
+    * @param length the length of the payload
+    * @return the first violation, or empty if the payload is valid
+    */
+   public Optional<PayloadViolation> validate( final byte[] payload, final int offset, final int length ) {
+      reader.reset( payload, offset, length );
+      this.payload = payload;
+      depth = 0;
+      try {
+         String error = begin( schema.getRoot(), reader.next() );
+         while ( error == null && depth > 0 ) {
+            final Frame frame = frames[depth - 1];
+            final JsonReader.Token token = reader.next();
+            final int frameDepth = depth;
+            switch ( frame.type.getKind() ) {
+               case OBJECT:
+                  error = member( frame, token );
+                  break;
+               case COLLECTION:
+                  error = element( frame, token );
+                  break;
+               case EITHER:
+                  error = alternative( frame, token );
+                  break;
+               default:
+                  error = localizedString( frame, token );
+                  break;
+            }
+            if ( error == null && depth < frameDepth && depth > 0 && isSet( frames[depth - 1].type ) ) {
+               // The value that just ended is an element of a Set
+               error = uniqueElement( frames[depth - 1], null, frames[depth].start );
+            }
+         }
+         if ( error == null ) {
+            reader.next();
+            return Optional.empty();
+         }
+         return Optional.of( new PayloadViolation( path(), reader.getTokenOffset() - offset, error ) );
+      } catch ( final MalformedPayloadException exception ) {
+         return Optional.of( new PayloadViolation( path(), exception.getOffset() - offset, exception.getMessage() ) );
+      }
+   }
+
+   /**
+    * Checks the first token of a value
+    *
+    * @return null, or the message of the violation
+    */
+   private String begin( final PayloadType type, final JsonReader.Token token ) {
+      switch ( type.getKind() ) {
+         case SCALAR:
+            return scalar( (ScalarType) type, token );
+         case OBJECT:
+            if ( token != JsonReader.Token.START_OBJECT ) {
+               return unexpected( "an object", token );
+            }
+            push( type ).clear( ((ObjectType) type).words() );
+            return null;
+         case COLLECTION:
+            if ( token != JsonReader.Token.START_ARRAY ) {
+               return unexpected( "an array", token );
+            }
+            final Frame frame = push( type );
+            if ( isSet( type ) ) {
+               frame.uniqueElements().clear();
+            }
+            return null;
+         case EITHER:
+            if ( token != JsonReader.Token.START_OBJECT ) {
+               return unexpected( "an object with the member \"left\" or \"right\"", token );
+            }
+            push( type );
+            return null;
+         default:
+            reader.skipValue( token );
+            return null;
+      }
+   }
+
+   private String scalar( final ScalarType type, final JsonReader.Token token ) {
+      switch ( type.getJsonType() ) {
+         case LANG_STRING:
+            if ( token != JsonReader.Token.START_OBJECT ) {
+               return unexpected( "an object of localized strings", token );
+            }
+            push( type );
+            return null;
+         case BOOLEAN:
+            return token == JsonReader.Token.TRUE || token == JsonReader.Token.FALSE ? null : unexpected( "a boolean", token );
+         case NUMBER:
+            if ( token != JsonReader.Token.NUMBER ) {
+               return unexpected( "a number", token );
+            }
+            return checkValue( type );
+         default:
+            if ( token != JsonReader.Token.STRING ) {
+               return unexpected( "a string", token );
+            }
+            return checkValue( type );
+      }
+   }
+
+   private String checkValue( final ScalarType type ) {
+      final CharSequence value = reader.getString();
+      if ( type.getValueCheck().test( value, 0, value.length() ) ) {
+         return null;
+      }
+      return "Value '" + value + "' is not a valid value of " + type.getDataType() + " or violates a Constraint";
+   }
+
+   private String member( final Frame frame, final JsonReader.Token token ) {
+      final ObjectType type = (ObjectType) frame.type;
+      if ( token == JsonReader.Token.END_OBJECT ) {
+         final PayloadField missing = type.firstMissingField( frame.present );
+         if ( missing != null ) {
+            frame.field = null;
+            return "Missing property '" + missing.getName() + "'";
+         }
+         if ( type.getValues() != null
+               && !type.getValues().contains( ValueKeys.fromJson( keyReader, type, payload, frame.start, reader.getPosition() ) ) ) {
+            frame.field = null;
+            return "Value is not one of the values of the Enumeration";
+         }
+         depth--;
+         return null;
+      }
+      final PayloadField field = type.findField( reader );
+      if ( field == null ) {
+         frame.field = null;
+         return "Unknown property '" + reader.getString() + "'";
+      }
+      frame.field = field;
+      final int index = field.getIndex();
+      if ( (frame.present[index >> 6] & 1L << index) != 0 ) {
+         return "Duplicate property '" + field.getName() + "'";
+      }
+      frame.present[index >> 6] |= 1L << index;
+      final JsonReader.Token value = reader.next();
+      if ( value == JsonReader.Token.NULL ) {
+         return field.isOptional() ? null : "Property '" + field.getName() + "' is not optional and must not be null";
+      }
+      return begin( field.getType(), value );
+   }
+
+   private String element( final Frame frame, final JsonReader.Token token ) {
+      final CollectionType type = (CollectionType) frame.type;
+      if ( token == JsonReader.Token.END_ARRAY ) {
+         if ( frame.count < type.getMinElements() ) {
+            return "Expected at least " + type.getMinElements() + " elements, but found " + frame.count;
+         }
+         depth--;
+         return null;
+      }
+      if ( ++frame.count > type.getMaxElements() ) {
+         return "Expected at most " + type.getMaxElements() + " elements";
+      }
+      final int elementStart = reader.getTokenOffset();
+      final String error = begin( type.getElementType(), token );
+      if ( error != null || !isSet( type ) || frames[depth - 1] != frame ) {
+         // Elements that are objects or arrays are checked when they end
+         return error;
+      }
+      return uniqueElement( frame, token, elementStart );
+   }
+
+   private static boolean isSet( final PayloadType type ) {
+      if ( type.getKind() != PayloadType.Kind.COLLECTION ) {
+         return false;
+      }
+      final CollectionType.CollectionKind kind = ((CollectionType) type).getCollectionKind();
+      return kind == CollectionType.CollectionKind.SET || kind == CollectionType.CollectionKind.SORTED_SET;
+   }
+
+   /**
+    * Checks that an element of a Set is not equal to one of the previous elements
+    *
+    * @param frame the frame of the Set
+    * @param token the token of a scalar element that was read last, or null if the element ended with the last token
+    * @param elementStart the offset of the element
+    * @return null, or the message of the violation
+    */
+   private String uniqueElement( final Frame frame, final JsonReader.Token token, final int elementStart ) {
+      final CollectionType type = (CollectionType) frame.type;
+      final PayloadType elementType = type.getElementType();
+      final boolean scalar = token != null && elementType.getKind() == PayloadType.Kind.SCALAR;
+      if ( scalar && type.getCollectionKind() == CollectionType.CollectionKind.SORTED_SET ) {
+         return sortedElement( frame, (ScalarType) elementType, token );
+      }
+      final long fingerprint = scalar
+            ? frame.uniqueElements().fingerprint( (ScalarType) elementType, reader, token )
+            : UniqueElements.fingerprint( ValueKeys.fromJson( keyReader, elementType, payload, elementStart, reader.getPosition() ) );
+      if ( frame.uniqueElements().add( fingerprint ) || !isDuplicate( frame, elementType, elementStart ) ) {
+         return null;
+      }
+      return "Duplicate element of a Set";
+   }
+
+   /**
+    * Confirms a duplicate fingerprint by comparing the keys of the element and of the previous elements of the Set
+    */
+   private boolean isDuplicate( final Frame frame, final PayloadType elementType, final int elementStart ) {
+      final String key = ValueKeys.fromJson( keyReader, elementType, payload, elementStart, reader.getPosition() );
+      keyReader.reset( payload, frame.start, elementStart - frame.start );
+      keyReader.next();
+      for ( long i = 1; i < frame.count; i++ ) {
+         if ( key.equals( ValueKeys.jsonValue( keyReader, payload, elementType, keyReader.next() ) ) ) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private String sortedElement( final Frame frame, final ScalarType type, final JsonReader.Token token ) {
+      final CharSequence value = token == JsonReader.Token.TRUE ? "true" : token == JsonReader.Token.FALSE ? "false" : reader.getString();
+      if ( frame.count > 1 ) {
+         final int order = type.getValueOrder().compare( frame.previousView, 0, frame.previousView.length(), value, 0, value.length() );
+         if ( order == 0 ) {
+            return "Duplicate element of a Set";
+         }
+         if ( order == ValueOrder.INCOMPARABLE || order > 0 ) {
+            return "Element is not greater than the previous element of the SortedSet";
+         }
+      }
+      frame.setPrevious( value );
+      return null;
+   }
+
+   private String alternative( final Frame frame, final JsonReader.Token token ) {
+      final EitherType type = (EitherType) frame.type;
+      if ( frame.count == 0 ) {
+         if ( token == JsonReader.Token.NAME && reader.valueEquals( EitherType.LEFT ) ) {
+            frame.count = 1;
+            return begin( type.getLeft(), reader.next() );
+         }
+         if ( token == JsonReader.Token.NAME && reader.valueEquals( EitherType.RIGHT ) ) {
+            frame.count = 2;
+            return begin( type.getRight(), reader.next() );
+         }
+         return "Expected the member \"left\" or \"right\"";
+      }
+      if ( token != JsonReader.Token.END_OBJECT ) {
+         return "Expected only one of the members \"left\" and \"right\"";
+      }
+      depth--;
+      return null;
+   }
+
+   private String localizedString( final Frame frame, final JsonReader.Token token ) {
+      final ScalarType type = (ScalarType) frame.type;
+      if ( token == JsonReader.Token.END_OBJECT ) {
+         depth--;
+         return null;
+      }
+      final CharSequence languageTag = reader.getString();
+      if ( !type.getLanguageCheck().test( languageTag, 0, languageTag.length() ) ) {
+         return "Invalid or disallowed language tag '" + languageTag + "'";
+      }
+      final JsonReader.Token value = reader.next();
+      if ( value != JsonReader.Token.STRING ) {
+         return unexpected( "a string", value );
+      }
+      return checkValue( type );
+   }
+
+   private String unexpected( final String expected, final JsonReader.Token token ) {
+      return "Expected " + expected + ", but found " + token.name().toLowerCase().replace( '_', ' ' );
+   }
+
+   private Frame push( final PayloadType type ) {
+      if ( depth == frames.length ) {
+         frames = Arrays.copyOf( frames, depth * 2 );
+      }
+      Frame frame = frames[depth];
+      if ( frame == null ) {
+         frame = new Frame();
+         frames[depth] = frame;
+      }
+      depth++;
+      frame.type = type;
+      frame.field = null;
+      frame.count = 0;
+      frame.start = reader.getTokenOffset();
+      return frame;
+   }
+
+   /**
+    * @return the JSON Pointer of the current position
+    */
+   private String path() {
+      final StringBuilder path = new StringBuilder();
+      for ( int i = 0; i < depth; i++ ) {
+         final Frame frame = frames[i];
+         switch ( frame.type.getKind() ) {
+            case OBJECT:
+               if ( frame.field != null ) {
+                  path.append( '/' ).append( frame.field.getName().replace( "~", "~0" ).replace( "/", "~1" ) );
+               }
+               break;
+            case COLLECTION:
+               if ( frame.count > 0 ) {
+                  path.append( '/' ).append( frame.count - 1 );
+               }
+               break;
+            case EITHER:
+               if ( frame.count > 0 ) {
+                  path.append( frame.count == 1 ? "/left" : "/right" );
+               }
+               break;
+            default:
+               break;
+         }
+      }
+      return path.toString();
+   }
+
+   /**
+    * The state of an open object or array: its type, its offset, and the Properties that were found (for Aspects and
+    * Entities), the number of elements and the elements of Sets (for Collections) or the chosen alternative (for
+    * samm-c:Either)
+    */
+   private static final class Frame {
+      private PayloadType type;
+      private PayloadField field;
+      private long count;
+      private int start;
+      private long[] present = new long[1];
+      private UniqueElements uniqueElements;
+      private char[] previous = new char[16];
+      private final CharArrayView previousView = new CharArrayView();
+
+      private void clear( final int words ) {
+         if ( present.length < words ) {
+            present = new long[words];
+         } else {
+            Arrays.fill( present, 0, words, 0 );
+         }
+      }
+
+      private UniqueElements uniqueElements() {
+         if ( uniqueElements == null ) {
+            uniqueElements = new UniqueElements();
+         }
+         return uniqueElements;
+      }
+
+      /**
+       * Keeps a copy of the value of the last element of a SortedSet
+       */
+      private void setPrevious( final CharSequence value ) {
+         if ( previous.length < value.length() ) {
+            previous = new char[Math.max( value.length(), previous.length * 2 )];
+         }
+         for ( int i = 0; i < value.length(); i++ ) {
+            previous[i] = value.charAt( i );
+         }
+         previousView.reset( previous, value.length() );
+      }
+   }
+}
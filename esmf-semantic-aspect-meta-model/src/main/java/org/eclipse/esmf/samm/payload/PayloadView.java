@@ -0,0 +1,538 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.eclipse.esmf.samm.datatypes.NumericLexicalForms;
+
+/**
+ * A read-only view of a JSON payload of an Aspect that decodes values only when they are accessed. On the first access,
+ * the payload is scanned once, guided by the {@link PayloadSchema}, and the offsets of the values are recorded in an
+ * index of ints:
+ * <ul>
+ *    <li>every value has the offsets of its first byte and of the byte after its end,</li>
+ *    <li>an Aspect or Entity has a slot per Property with the index of its value, so that a Property is found without
+ *    looking at the other members,</li>
+ *    <li>a Collection has the number of its elements and a table with the index of each element,</li>
+ *    <li>and a samm-c:Either has a slot for "left" and one for "right".</li>
+ * </ul>
+ * Scalar values, rdf:langString values and values of unknown type are not decoded while scanning; their accessors
+ * parse them directly from the payload bytes, e.g. {@link #getLong(String)} and {@link #getDouble(String)} return
+ * primitives without allocating. Members of values of unknown type and of rdf:langString values (whose names are the
+ * language tags) are looked up by scanning the value.
+ * <p>
+ * Properties are accessed by their payload names. The view does not validate the payload, see
+ * {@link PayloadValidator}: it only rejects payloads that are not valid JSON or whose structure does not match the
+ * schema, with a {@link MalformedPayloadException}. Members that are not Properties are ignored, and optional Properties
+ * with the value null are not present. A view is not thread-safe; the views of the values of a payload share the index
+ * and a reader, so they must be used by one thread at a time.
+ */
+public final class PayloadView {
+   private final Index index;
+   private final PayloadType type;
+   /**
+    * The position of the value in the index, or -1 if the value is not indexed
+    */
+   private final int position;
+   private final int rawStart;
+   private final int rawEnd;
+
+   private PayloadView( final Index index, final PayloadType type, final int position, final int rawStart, final int rawEnd ) {
+      this.index = index;
+      this.type = type;
+      this.position = position;
+      this.rawStart = rawStart;
+      this.rawEnd = rawEnd;
+   }
+
+   /**
+    * @param schema the payload schema of the Aspect
+    * @param payload the UTF-8 encoded JSON payload, which must not be modified while the view is used
+    * @return the view of the Aspect
+    */
+   public static PayloadView of( final PayloadSchema schema, final byte[] payload ) {
+      return of( schema, payload, 0, payload.length );
+   }
+
+   /**
+    * @param schema the payload schema of the Aspect
+    * @param payload the buffer with the UTF-8 encoded JSON payload, which must not be modified while the view is used
+    * @param offset the offset of the payload in the buffer
+    * @param length the length of the payload
+    * @return the view of the Aspect
+    */
+   public static PayloadView of( final PayloadSchema schema, final byte[] payload, final int offset, final int length ) {
+      if ( offset < 0 || length < 0 || offset + length > payload.length ) {
+         throw new IndexOutOfBoundsException( "Invalid byte range " + offset + "+" + length + " of " + payload.length );
+      }
+      return new PayloadView( new Index( schema.getRoot(), payload, offset, offset + length ), schema.getRoot(), 0, -1, -1 );
+   }
+
+   private int start() {
+      return position < 0 ? rawStart : index.tape()[position];
+   }
+
+   private int end() {
+      return position < 0 ? rawEnd : index.tape()[position + 1];
+   }
+
+   /**
+    * @return true if the value is null, which is only the case for elements of Collections and values of unknown type
+    */
+   public boolean isNull() {
+      return index.payload[start()] == 'n';
+   }
+
+   /**
+    * @param name the payload name of a Property of an Aspect or Entity, "left" or "right" for a samm-c:Either, or a
+    *       language tag for an rdf:langString value
+    * @return true if the member is present and not null
+    * @throws IllegalArgumentException if the value is an Aspect or Entity that has no Property with the name
+    * @throws IllegalStateException if the value is not an object
+    */
+   public boolean has( final String name ) {
+      return member( name ) != null;
+   }
+
+   /**
+    * @param name the payload name of a Property of an Aspect or Entity, "left" or "right" for a samm-c:Either, or a
+    *       language tag for an rdf:langString value
+    * @return the view of the value of the member
+    * @throws NoSuchElementException if the member is not present or null
+    * @throws IllegalArgumentException if the value is an Aspect or Entity that has no Property with the name
+    * @throws IllegalStateException if the value is not an object
+    */
+   public PayloadView get( final String name ) {
+      final PayloadView member = member( name );
+      if ( member == null ) {
+         throw new NoSuchElementException( "Property '" + name + "' is not present" );
+      }
+      return member;
+   }
+
+   /**
+    * @return the number of elements of a Collection
+    * @throws IllegalStateException if the value is not an array
+    */
+   public int size() {
+      if ( position >= 0 && type.getKind() == PayloadType.Kind.COLLECTION ) {
+         return index.tape()[position + 2];
+      }
+      requireRaw( "an array" );
+      final JsonReader reader = index.read( start() );
+      expect( reader, reader.next(), JsonReader.Token.START_ARRAY, "an array" );
+      int size = 0;
+      for ( JsonReader.Token element = reader.next(); element != JsonReader.Token.END_ARRAY; element = reader.next() ) {
+         reader.skipValue( element );
+         size++;
+      }
+      return size;
+   }
+
+   /**
+    * @param elementIndex the index of an element of a Collection
+    * @return the view of the element
+    * @throws IndexOutOfBoundsException if there is no element with the index
+    * @throws IllegalStateException if the value is not an array
+    */
+   public PayloadView get( final int elementIndex ) {
+      if ( position >= 0 && type.getKind() == PayloadType.Kind.COLLECTION ) {
+         final int[] tape = index.tape();
+         if ( elementIndex < 0 || elementIndex >= tape[position + 2] ) {
+            throw new IndexOutOfBoundsException( "Invalid element index " + elementIndex + " of " + tape[position + 2] );
+         }
+         return indexed( ((CollectionType) type).getElementType(), tape[tape[position + 3] + elementIndex] );
+      }
+      requireRaw( "an array" );
+      final JsonReader reader = index.read( start() );
+      expect( reader, reader.next(), JsonReader.Token.START_ARRAY, "an array" );
+      int i = 0;
+      for ( JsonReader.Token element = reader.next(); element != JsonReader.Token.END_ARRAY; element = reader.next() ) {
+         final int elementStart = reader.getTokenOffset();
+         reader.skipValue( element );
+         if ( i++ == elementIndex ) {
+            return new PayloadView( index, PayloadType.ANY, -1, elementStart, reader.getPosition() );
+         }
+      }
+      throw new IndexOutOfBoundsException( "Invalid element index " + elementIndex + " of " + i );
+   }
+
+   /**
+    * @return the value of xsd:boolean
+    * @throws MalformedPayloadException if the value is not a boolean
+    */
+   public boolean booleanValue() {
+      return decodeBoolean( start() );
+   }
+
+   /**
+    * @return the value of a bounded integer type, where values of xsd:unsignedLong that are larger than
+    *       {@link Long#MAX_VALUE} are negative, see {@link NumericLexicalForms#parseLong(CharSequence, int, int)}
+    * @throws MalformedPayloadException if the value is not an integer number that fits into a long
+    */
+   public long longValue() {
+      return decodeLong( start() );
+   }
+
+   /**
+    * @return the value of xsd:double or xsd:float, or of another numeric type rounded to the nearest double
+    * @throws MalformedPayloadException if the value is not a number
+    */
+   public double doubleValue() {
+      return decodeDouble( start() );
+   }
+
+   /**
+    * @return the value of xsd:decimal, of an integer type, or of a floating point type
+    * @throws MalformedPayloadException if the value is not a number
+    */
+   public BigDecimal decimalValue() {
+      return decodeDecimal( start() );
+   }
+
+   /**
+    * @return the lexical form of a scalar value, i.e. the unescaped string, or the text of a number or boolean
+    * @throws MalformedPayloadException if the value is not a string, number or boolean
+    */
+   public String stringValue() {
+      return decodeString( start() );
+   }
+
+   /**
+    * Equivalent to {@code get( name ).booleanValue()}, but does not create a view of the member
+    */
+   public boolean getBoolean( final String name ) {
+      return decodeBoolean( memberStart( name ) );
+   }
+
+   /**
+    * Equivalent to {@code get( name ).longValue()}, but does not create a view of the member
+    */
+   public long getLong( final String name ) {
+      return decodeLong( memberStart( name ) );
+   }
+
+   /**
+    * Equivalent to {@code get( name ).doubleValue()}, but does not create a view of the member
+    */
+   public double getDouble( final String name ) {
+      return decodeDouble( memberStart( name ) );
+   }
+
+   /**
+    * Equivalent to {@code get( name ).decimalValue()}, but does not create a view of the member
+    */
+   public BigDecimal getDecimal( final String name ) {
+      return decodeDecimal( memberStart( name ) );
+   }
+
+   /**
+    * Equivalent to {@code get( name ).stringValue()}, but does not create a view of the member
+    */
+   public String getString( final String name ) {
+      return decodeString( memberStart( name ) );
+   }
+
+   /**
+    * @return the JSON text of the value as it is in the payload
+    */
+   @Override
+   public String toString() {
+      final int start = start();
+      return new String( index.payload, start, end() - start, StandardCharsets.UTF_8 );
+   }
+
+   private PayloadView indexed( final PayloadType valueType, final int valuePosition ) {
+      // Null elements of Collections are indexed like values of unknown type, as they have no slots
+      return new PayloadView( index, index.payload[index.tape()[valuePosition]] == 'n' ? PayloadType.ANY : valueType, valuePosition,
+            -1, -1 );
+   }
+
+   /**
+    * @return the view of the member, or null if it is not present or null
+    */
+   private PayloadView member( final String name ) {
+      if ( position >= 0 && type.getKind() == PayloadType.Kind.OBJECT ) {
+         final PayloadField field = ((ObjectType) type).findField( name );
+         if ( field == null ) {
+            throw new IllegalArgumentException( "Unknown property '" + name + "'" );
+         }
+         final int valuePosition = index.tape()[position + 2 + field.getIndex()];
+         return valuePosition < 0 ? null : new PayloadView( index, field.getType(), valuePosition, -1, -1 );
+      }
+      if ( position >= 0 && type.getKind() == PayloadType.Kind.EITHER ) {
+         final boolean left = name.equals( "left" );
+         if ( !left && !name.equals( "right" ) ) {
+            throw new IllegalArgumentException( "Unknown member '" + name + "' of Either" );
+         }
+         final EitherType either = (EitherType) type;
+         final int valuePosition = index.tape()[position + (left ? 2 : 3)];
+         return valuePosition < 0 ? null : new PayloadView( index, left ? either.getLeft() : either.getRight(), valuePosition, -1, -1 );
+      }
+      final boolean langString = type.getKind() == PayloadType.Kind.SCALAR
+            && ((ScalarType) type).getJsonType() == ScalarType.JsonType.LANG_STRING;
+      if ( !langString ) {
+         requireRaw( "an object" );
+      }
+      final JsonReader reader = index.read( start() );
+      expect( reader, reader.next(), JsonReader.Token.START_OBJECT, "an object" );
+      for ( JsonReader.Token member = reader.next(); member != JsonReader.Token.END_OBJECT; member = reader.next() ) {
+         final boolean found = name.contentEquals( reader.getString() );
+         final JsonReader.Token value = reader.next();
+         final int valueStart = reader.getTokenOffset();
+         reader.skipValue( value );
+         if ( found ) {
+            return value == JsonReader.Token.NULL ? null : new PayloadView( index, PayloadType.ANY, -1, valueStart, reader.getPosition() );
+         }
+      }
+      return null;
+   }
+
+   /**
+    * @return the offset of the value of the member
+    */
+   private int memberStart( final String name ) {
+      if ( position >= 0 && type.getKind() == PayloadType.Kind.OBJECT ) {
+         final PayloadField field = ((ObjectType) type).findField( name );
+         if ( field != null ) {
+            final int[] tape = index.tape();
+            final int valuePosition = tape[position + 2 + field.getIndex()];
+            if ( valuePosition >= 0 ) {
+               return tape[valuePosition];
+            }
+         }
+      }
+      return get( name ).start();
+   }
+
+   private void requireRaw( final String expected ) {
+      if ( type.getKind() != PayloadType.Kind.ANY ) {
+         throw new IllegalStateException( "The value at offset " + start() + " is not " + expected );
+      }
+   }
+
+   private boolean decodeBoolean( final int start ) {
+      final JsonReader reader = index.read( start );
+      final JsonReader.Token token = reader.next();
+      if ( token != JsonReader.Token.TRUE && token != JsonReader.Token.FALSE ) {
+         throw unexpected( reader, "a boolean" );
+      }
+      return token == JsonReader.Token.TRUE;
+   }
+
+   private long decodeLong( final int start ) {
+      final JsonReader reader = index.read( start );
+      expect( reader, reader.next(), JsonReader.Token.NUMBER, "a number" );
+      final CharSequence value = reader.getString();
+      try {
+         return NumericLexicalForms.parseLong( value, 0, value.length() );
+      } catch ( final NumberFormatException exception ) {
+         throw new MalformedPayloadException( "Invalid value '" + value + "'", reader.getTokenOffset() );
+      }
+   }
+
+   private double decodeDouble( final int start ) {
+      final JsonReader reader = index.read( start );
+      expect( reader, reader.next(), JsonReader.Token.NUMBER, "a number" );
+      final CharSequence value = reader.getString();
+      return NumericLexicalForms.parseDouble( value, 0, value.length() );
+   }
+
+   private BigDecimal decodeDecimal( final int start ) {
+      final JsonReader reader = index.read( start );
+      expect( reader, reader.next(), JsonReader.Token.NUMBER, "a number" );
+      final CharSequence value = reader.getString();
+      return NumericLexicalForms.parseBigDecimal( value, 0, value.length() );
+   }
+
+   private String decodeString( final int start ) {
+      final JsonReader reader = index.read( start );
+      final JsonReader.Token token = reader.next();
+      switch ( token ) {
+         case STRING:
+         case NUMBER:
+            return reader.getString().toString();
+         case TRUE:
+            return "true";
+         case FALSE:
+            return "false";
+         default:
+            throw unexpected( reader, "a string, number or boolean" );
+      }
+   }
+
+   private static void expect( final JsonReader reader, final JsonReader.Token token, final JsonReader.Token expected,
+         final String description ) {
+      if ( token != expected ) {
+         throw unexpected( reader, description );
+      }
+   }
+
+   private static MalformedPayloadException unexpected( final JsonReader reader, final String expected ) {
+      return new MalformedPayloadException( "Expected " + expected, reader.getTokenOffset() );
+   }
+
+   /**
+    * The index of the values of a payload, which is shared by the views of the payload. Each value has two entries,
+    * the offset of its first token and the offset after its end, followed by the slots of its type.
+    */
+   private static final class Index {
+      private final ObjectType root;
+      private final byte[] payload;
+      private final int start;
+      private final int end;
+      private final JsonReader reader = new JsonReader();
+      private boolean indexed;
+      private int[] tape;
+      private int size;
+      // The positions of the elements of the Collections that are being scanned
+      private int[] elements = new int[16];
+      private int top;
+
+      Index( final ObjectType root, final byte[] payload, final int start, final int end ) {
+         this.root = root;
+         this.payload = payload;
+         this.start = start;
+         this.end = end;
+      }
+
+      /**
+       * @return the index, which is built on the first call
+       */
+      int[] tape() {
+         if ( !indexed ) {
+            tape = new int[64];
+            size = 0;
+            top = 0;
+            reader.reset( payload, start, end - start );
+            final JsonReader.Token token = reader.next();
+            expect( reader, token, JsonReader.Token.START_OBJECT, "an object" );
+            index( root, token );
+            reader.next();
+            indexed = true;
+            elements = null;
+         }
+         return tape;
+      }
+
+      /**
+       * @return the reader, positioned before the value that starts at the offset
+       */
+      JsonReader read( final int offset ) {
+         return reader.reset( payload, offset, end - offset );
+      }
+
+      /**
+       * Indexes the value whose first token was read last
+       *
+       * @return the position of the value
+       */
+      private int index( final PayloadType type, final JsonReader.Token token ) {
+         final int position = append( 2 );
+         tape[position] = reader.getTokenOffset();
+         if ( token == JsonReader.Token.NULL ) {
+            tape[position + 1] = reader.getPosition();
+            return position;
+         }
+         switch ( type.getKind() ) {
+            case OBJECT:
+               indexObject( (ObjectType) type, token );
+               break;
+            case COLLECTION:
+               indexCollection( (CollectionType) type, token );
+               break;
+            case EITHER:
+               indexEither( (EitherType) type, token );
+               break;
+            default:
+               reader.skipValue( token );
+               break;
+         }
+         tape[position + 1] = reader.getPosition();
+         return position;
+      }
+
+      private void indexObject( final ObjectType type, final JsonReader.Token token ) {
+         expect( reader, token, JsonReader.Token.START_OBJECT, "an object" );
+         final int slots = append( type.getFields().length );
+         Arrays.fill( tape, slots, size, -1 );
+         for ( JsonReader.Token member = reader.next(); member != JsonReader.Token.END_OBJECT; member = reader.next() ) {
+            final PayloadField field = type.findField( reader );
+            final JsonReader.Token value = reader.next();
+            if ( field == null || value == JsonReader.Token.NULL ) {
+               reader.skipValue( value );
+               continue;
+            }
+            // The tape can grow while the value is indexed
+            final int valuePosition = index( field.getType(), value );
+            tape[slots + field.getIndex()] = valuePosition;
+         }
+      }
+
+      private void indexCollection( final CollectionType type, final JsonReader.Token token ) {
+         expect( reader, token, JsonReader.Token.START_ARRAY, "an array" );
+         final int header = append( 2 );
+         final int base = top;
+         for ( JsonReader.Token element = reader.next(); element != JsonReader.Token.END_ARRAY; element = reader.next() ) {
+            final int elementPosition = index( type.getElementType(), element );
+            if ( top == elements.length ) {
+               elements = Arrays.copyOf( elements, top * 2 );
+            }
+            elements[top++] = elementPosition;
+         }
+         final int count = top - base;
+         final int table = append( count );
+         System.arraycopy( elements, base, tape, table, count );
+         tape[header] = count;
+         tape[header + 1] = table;
+         top = base;
+      }
+
+      private void indexEither( final EitherType type, final JsonReader.Token token ) {
+         expect( reader, token, JsonReader.Token.START_OBJECT, "an object" );
+         final int slots = append( 2 );
+         tape[slots] = -1;
+         tape[slots + 1] = -1;
+         for ( JsonReader.Token member = reader.next(); member != JsonReader.Token.END_OBJECT; member = reader.next() ) {
+            final boolean left = reader.valueEquals( EitherType.LEFT );
+            final boolean right = !left && reader.valueEquals( EitherType.RIGHT );
+            final JsonReader.Token value = reader.next();
+            if ( !left && !right || value == JsonReader.Token.NULL ) {
+               reader.skipValue( value );
+               continue;
+            }
+            final int valuePosition = index( left ? type.getLeft() : type.getRight(), value );
+            tape[slots + (left ? 0 : 1)] = valuePosition;
+         }
+      }
+
+      /**
+       * Reserves entries at the end of the index
+       *
+       * @return the position of the first entry
+       */
+      private int append( final int count ) {
+         if ( size + count > tape.length ) {
+            tape = Arrays.copyOf( tape, Math.max( tape.length * 2, size + count ) );
+         }
+         final int position = size;
+         size += count;
+         return position;
+      }
+   }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+/**
+ * A payload that does not match the payload schema of its Aspect, or that is not well-formed
+ */
+public class PayloadViolation {
+   private final String path;
+   private final int offset;
+   private final String message;
+
+   PayloadViolation( final String path, final int offset, final String message ) {
+      this.path = path;
+      this.offset = offset;
+      this.message = message;
+   }
+
+   /**
+    * @return the location of the violation in the payload as a JSON Pointer (RFC 6901), e.g. /items/3/name
+    */
+   public String getPath() {
+      return path;
+   }
+
+   /**
+    * @return the offset of the byte in the payload where the violation was detected
+    */
+   public int getOffset() {
+      return offset;
+   }
+
+   public String getMessage() {
+      return message;
+   }
+
+   @Override
+   public String toString() {
+      return "PayloadViolation{"
+            + "path='" + path + '\''
+            + ", offset=" + offset
+            + ", message='" + message + '\''
+            + '}';
+   }
+}
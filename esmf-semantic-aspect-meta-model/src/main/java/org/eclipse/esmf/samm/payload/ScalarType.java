@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import java.util.Set;
+
+import org.eclipse.esmf.samm.constraints.CompiledCharacteristic;
+import org.eclipse.esmf.samm.constraints.ValueCheck;
+import org.eclipse.esmf.samm.constraints.ValueOrder;
+import org.eclipse.esmf.samm.datatypes.DataTypeLattice;
+import org.eclipse.esmf.samm.datatypes.NumericLexicalForms;
+
+/**
+ * A value of a scalar data type, with the checks of its Characteristic
+ */
+final class ScalarType extends PayloadType {
+   /**
+    * The representation of a value in JSON, see the data type mappings of the payload rules
+    */
+   enum JsonType {
+      STRING, NUMBER, BOOLEAN,
+      /**
+       * An object with language tags as keys and the localized strings as values
+       */
+      LANG_STRING
+   }
+
+   /**
+    * The representation of a value in the binary payload format, see {@link BinaryPayloadCodec}
+    */
+   enum BinaryFormat {
+      BOOLEAN, ZIGZAG, UNSIGNED, DECIMAL, DOUBLE, FLOAT, HEX, BASE64, UTF8, LANG_STRING
+   }
+
+   private static final Set<String> NUMBER_TYPES = Set.of( "decimal", "integer", "double", "float", "byte", "short", "int", "long",
+         "unsignedByte", "unsignedShort", "unsignedInt", "unsignedLong", "positiveInteger", "nonNegativeInteger", "negativeInteger",
+         "nonPositiveInteger" );
+
+   private final String dataType;
+   private final JsonType jsonType;
+   private final BinaryFormat binaryFormat;
+   private final ValueCheck valueCheck;
+   private final ValueCheck languageCheck;
+   private final ValueOrder valueOrder;
+
+   ScalarType( final String dataType, final CompiledCharacteristic characteristic ) {
+      super( Kind.SCALAR );
+      this.dataType = dataType;
+      jsonType = jsonType( dataType );
+      binaryFormat = binaryFormat( dataType, jsonType );
+      valueCheck = characteristic.getValueCheck();
+      languageCheck = characteristic.getLanguageCheck();
+      valueOrder = characteristic.getValueOrder();
+   }
+
+   private static JsonType jsonType( final String dataType ) {
+      if ( (DataTypeLattice.RDF_NAMESPACE + "langString").equals( dataType ) ) {
+         return JsonType.LANG_STRING;
+      }
+      if ( dataType.startsWith( DataTypeLattice.XSD_NAMESPACE ) ) {
+         final String name = dataType.substring( DataTypeLattice.XSD_NAMESPACE.length() );
+         if ( name.equals( "boolean" ) ) {
+            return JsonType.BOOLEAN;
+         }
+         if ( NUMBER_TYPES.contains( name ) ) {
+            return JsonType.NUMBER;
+         }
+      }
+      return JsonType.STRING;
+   }
+
+   private static BinaryFormat binaryFormat( final String dataType, final JsonType jsonType ) {
+      final String name = dataType.startsWith( DataTypeLattice.XSD_NAMESPACE )
+            ? dataType.substring( DataTypeLattice.XSD_NAMESPACE.length() )
+            : "";
+      switch ( jsonType ) {
+         case LANG_STRING:
+            return BinaryFormat.LANG_STRING;
+         case BOOLEAN:
+            return BinaryFormat.BOOLEAN;
+         case NUMBER:
+            if ( name.equals( "double" ) ) {
+               return BinaryFormat.DOUBLE;
+            }
+            if ( name.equals( "float" ) ) {
+               return BinaryFormat.FLOAT;
+            }
+            if ( name.equals( "unsignedLong" ) ) {
+               return BinaryFormat.UNSIGNED;
+            }
+            if ( name.equals( "decimal" ) ) {
+               return BinaryFormat.DECIMAL;
+            }
+            return NumericLexicalForms.IntegerType.fromName( name ).isBounded() ? BinaryFormat.ZIGZAG : BinaryFormat.DECIMAL;
+         default:
+            if ( name.equals( "hexBinary" ) ) {
+               return BinaryFormat.HEX;
+            }
+            return name.equals( "base64Binary" ) ? BinaryFormat.BASE64 : BinaryFormat.UTF8;
+      }
+   }
+
+   /**
+    * @return the URI of the data type
+    */
+   String getDataType() {
+      return dataType;
+   }
+
+   JsonType getJsonType() {
+      return jsonType;
+   }
+
+   BinaryFormat getBinaryFormat() {
+      return binaryFormat;
+   }
+
+   /**
+    * @return the check of the lexical form of a value, or of the localized strings of an rdf:langString value
+    */
+   ValueCheck getValueCheck() {
+      return valueCheck;
+   }
+
+   /**
+    * @return the check of the language tags of an rdf:langString value
+    */
+   ValueCheck getLanguageCheck() {
+      return languageCheck;
+   }
+
+   /**
+    * @return the order of the values of the data type
+    */
+   ValueOrder getValueOrder() {
+      return valueOrder;
+   }
+}
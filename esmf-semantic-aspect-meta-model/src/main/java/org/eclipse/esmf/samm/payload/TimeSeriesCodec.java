@@ -0,0 +1,806 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import java.time.Instant;
+
+import org.eclipse.esmf.samm.datatypes.DataTypeLattice;
+import org.eclipse.esmf.samm.datatypes.NumericLexicalForms;
+import org.eclipse.esmf.samm.datatypes.TemporalLexicalForms;
+
+/**
+ * Stores the values of a Property whose Characteristic is a Collection of samm-e:TimeSeriesEntity (or of an Entity
+ * that extends it and refines samm-e:value) in a columnar format. The JSON array of entries is split into blocks of a
+ * fixed number of entries; each block stores
+ * <ul>
+ *    <li>the timestamps as instants in the coarsest unit (from seconds to nanoseconds) that represents all of them
+ *    exactly, with the first value, the first delta and then the delta of deltas in a bit stream, so that a regular
+ *    series takes one bit per timestamp (timestamps too far from the epoch for the unit are stored as seconds and
+ *    fractions),</li>
+ *    <li>the time zone offsets, once if they are the same for the whole block,</li>
+ *    <li>and the values in a column whose encoding depends on the data type of the value's Characteristic: xsd:double
+ *    and xsd:float values as XOR of consecutive IEEE 754 bits, integer and xsd:decimal values as deltas of fixed-point
+ *    values with a common scale, xsd:boolean values as bits, and other values as their JSON text.</li>
+ * </ul>
+ * The blocks are preceded by an index of their time ranges and sizes, so that {@link #decode(byte[], Instant, Instant)}
+ * only decodes the blocks that overlap with the requested time range.
+ * <p>
+ * Decoding writes timestamps and numbers in their canonical lexical forms, e.g. "Z" for the time zone offset 0, so the
+ * JSON after a round trip is equal in value to the original entries. A block falls back to storing values as JSON text
+ * if a value is null or a decimal value does not fit into the fixed-point representation. A codec is not thread-safe;
+ * use one codec per thread.
+ */
+public class TimeSeriesCodec {
+   /**
+    * The default number of entries per block
+    */
+   public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+   /**
+    * The code for a timestamp without time zone, outside the range of valid offsets
+    */
+   private static final int NO_TIMEZONE = 1024;
+   private static final int MAX_TIMEZONE_MINUTES = 14 * 60;
+   /**
+    * The flag of the timestamp unit of a block whose timestamps are stored as seconds and fractions
+    */
+   private static final int SPLIT_TIMESTAMPS = 0x80;
+   private static final long[] POWERS_OF_TEN = new long[19];
+
+   static {
+      POWERS_OF_TEN[0] = 1;
+      for ( int i = 1; i < POWERS_OF_TEN.length; i++ ) {
+         POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+      }
+   }
+
+   /**
+    * The encodings of the value column of a block
+    */
+   private enum ValueColumn {
+      XOR, FIXED_POINT, BITS, JSON
+   }
+
+   private final ObjectType entryType;
+   private final PayloadField timestampField;
+   private final PayloadField valueField;
+   private final ScalarType.BinaryFormat valueFormat;
+   private final ValueColumn valueColumn;
+   private final int blockSize;
+   private final JsonReader reader = new JsonReader();
+   private final TemporalLexicalForms.DateTimeValue dateTime = new TemporalLexicalForms.DateTimeValue();
+   private final NumericLexicalForms.DecimalValue decimal = new NumericLexicalForms.DecimalValue();
+   private final ByteOutput output = new ByteOutput();
+   private final ByteOutput index = new ByteOutput();
+   private final ByteOutput blocks = new ByteOutput();
+   private final BitWriter bitWriter = new BitWriter();
+   private final BitReader bitReader = new BitReader();
+
+   // The entries of the current block
+   private int count;
+   private boolean jsonValues;
+   private long[] seconds;
+   private long[] instants;
+   private int[] nanos;
+   private int[] timezones;
+   private long[] numbers;
+   private int[] scales;
+   private int[] valueStarts;
+   private int[] valueEnds;
+
+   private byte[] input;
+   private int position;
+   private int end;
+
+   /**
+    * @param schema the payload schema of the Aspect
+    * @param property the payload name of a Property of the Aspect whose Characteristic is a Collection of
+    *       samm-e:TimeSeriesEntity, usually a samm-c:TimeSeries
+    * @throws IllegalArgumentException if the Property does not exist or is not a Collection of samm-e:TimeSeriesEntity
+    */
+   public TimeSeriesCodec( final PayloadSchema schema, final String property ) {
+      this( schema, property, DEFAULT_BLOCK_SIZE );
+   }
+
+   /**
+    * @param schema the payload schema of the Aspect
+    * @param property the payload name of a Property of the Aspect whose Characteristic is a Collection of
+    *       samm-e:TimeSeriesEntity, usually a samm-c:TimeSeries
+    * @param blockSize the number of entries per block
+    * @throws IllegalArgumentException if the Property does not exist or is not a Collection of samm-e:TimeSeriesEntity
+    */
+   public TimeSeriesCodec( final PayloadSchema schema, final String property, final int blockSize ) {
+      if ( blockSize < 1 ) {
+         throw new IllegalArgumentException( "Invalid block size " + blockSize );
+      }
+      final String entityNamespace = String.format( "urn:samm:org.eclipse.esmf.samm:entity:%s#",
+            schema.getMetaModelVersion().toVersionString() );
+      final PayloadField field = schema.getRoot().findField( property );
+      if ( field == null ) {
+         throw new IllegalArgumentException( "Unknown property '" + property + "'" );
+      }
+      if ( field.getType().getKind() != PayloadType.Kind.COLLECTION
+            || ((CollectionType) field.getType()).getElementType().getKind() != PayloadType.Kind.OBJECT
+            || !((ObjectType) ((CollectionType) field.getType()).getElementType()).isOrExtends( entityNamespace + "TimeSeriesEntity" ) ) {
+         throw new IllegalArgumentException( "Property '" + property + "' is not a Collection of samm-e:TimeSeriesEntity" );
+      }
+      entryType = (ObjectType) ((CollectionType) field.getType()).getElementType();
+      PayloadField timestamp = null;
+      PayloadField value = null;
+      for ( final PayloadField entryField : entryType.getFields() ) {
+         if ( entryField.getProperty().equals( entityNamespace + "timestamp" ) ) {
+            timestamp = entryField;
+         } else if ( entryField.getProperty().equals( entityNamespace + "value" ) ) {
+            value = entryField;
+         } else {
+            throw new IllegalArgumentException( "Entity " + entryType.getUri() + " has the additional Property "
+                  + entryField.getProperty() );
+         }
+      }
+      if ( timestamp == null || value == null || timestamp.getType().getKind() != PayloadType.Kind.SCALAR
+            || !((ScalarType) timestamp.getType()).getDataType().startsWith( DataTypeLattice.XSD_NAMESPACE + "dateTime" ) ) {
+         throw new IllegalArgumentException( "Entity " + entryType.getUri() + " has no timestamp and value Properties" );
+      }
+      timestampField = timestamp;
+      valueField = value;
+      valueFormat = value.getType().getKind() == PayloadType.Kind.SCALAR ? ((ScalarType) value.getType()).getBinaryFormat() : null;
+      valueColumn = valueColumn( valueFormat );
+      this.blockSize = blockSize;
+      allocate( blockSize );
+   }
+
+   private static ValueColumn valueColumn( final ScalarType.BinaryFormat format ) {
+      if ( format == null ) {
+         return ValueColumn.JSON;
+      }
+      switch ( format ) {
+         case DOUBLE:
+         case FLOAT:
+            return ValueColumn.XOR;
+         case ZIGZAG:
+         case UNSIGNED:
+         case DECIMAL:
+            return ValueColumn.FIXED_POINT;
+         case BOOLEAN:
+            return ValueColumn.BITS;
+         default:
+            return ValueColumn.JSON;
+      }
+   }
+
+   private void allocate( final int capacity ) {
+      seconds = new long[capacity];
+      instants = new long[capacity];
+      nanos = new int[capacity];
+      timezones = new int[capacity];
+      numbers = new long[capacity];
+      scales = new int[capacity];
+      valueStarts = new int[capacity];
+      valueEnds = new int[capacity];
+   }
+
+   /**
+    * @param json the UTF-8 encoded JSON array of the time series entries
+    * @return the columnar representation
+    * @throws MalformedPayloadException if the JSON is not valid or does not have the structure of the time series
+    */
+   public byte[] encode( final byte[] json ) {
+      return encode( json, 0, json.length );
+   }
+
+   /**
+    * @param json the buffer with the UTF-8 encoded JSON array of the time series entries
+    * @param offset the offset of the array in the buffer
+    * @param length the length of the array
+    * @return the columnar representation
+    * @throws MalformedPayloadException if the JSON is not valid or does not have the structure of the time series
+    */
+   public byte[] encode( final byte[] json, final int offset, final int length ) {
+      input = json;
+      reader.reset( json, offset, length );
+      index.reset();
+      blocks.reset();
+      count = 0;
+      jsonValues = false;
+      long entries = 0;
+      long blockCount = 0;
+      JsonReader.Token token = reader.next();
+      if ( token != JsonReader.Token.START_ARRAY ) {
+         throw new MalformedPayloadException( "Expected an array", reader.getTokenOffset() );
+      }
+      for ( token = reader.next(); token != JsonReader.Token.END_ARRAY; token = reader.next() ) {
+         readEntry( token );
+         entries++;
+         if ( count == blockSize ) {
+            writeBlock();
+            blockCount++;
+         }
+      }
+      if ( count > 0 ) {
+         writeBlock();
+         blockCount++;
+      }
+      reader.next();
+      output.reset();
+      output.writeVarint( entries );
+      output.writeVarint( blockCount );
+      output.write( index.buffer(), 0, index.length() );
+      output.write( blocks.buffer(), 0, blocks.length() );
+      return output.toByteArray();
+   }
+
+   private void readEntry( final JsonReader.Token token ) {
+      if ( token != JsonReader.Token.START_OBJECT ) {
+         throw new MalformedPayloadException( "Expected an object", reader.getTokenOffset() );
+      }
+      boolean hasTimestamp = false;
+      boolean hasValue = false;
+      for ( JsonReader.Token member = reader.next(); member != JsonReader.Token.END_OBJECT; member = reader.next() ) {
+         final PayloadField field = entryType.findField( reader );
+         if ( field == null ) {
+            throw new MalformedPayloadException( "Unknown property '" + reader.getString() + "'", reader.getTokenOffset() );
+         }
+         if ( field == timestampField ? hasTimestamp : hasValue ) {
+            throw new MalformedPayloadException( "Duplicate property '" + field.getName() + "'", reader.getTokenOffset() );
+         }
+         if ( field == timestampField ) {
+            hasTimestamp = true;
+            readTimestamp( reader.next() );
+         } else {
+            hasValue = true;
+            readValue( reader.next() );
+         }
+      }
+      if ( !hasTimestamp || !hasValue ) {
+         final String missing = hasTimestamp ? valueField.getName() : timestampField.getName();
+         throw new MalformedPayloadException( "Missing property '" + missing + "'", reader.getTokenOffset() );
+      }
+      count++;
+   }
+
+   private void readTimestamp( final JsonReader.Token token ) {
+      if ( token != JsonReader.Token.STRING ) {
+         throw new MalformedPayloadException( "Expected a string", reader.getTokenOffset() );
+      }
+      final CharSequence value = reader.getString();
+      try {
+         if ( !TemporalLexicalForms.parseDateTime( value, 0, value.length(), TemporalLexicalForms.DateTimeType.DATE_TIME, dateTime ) ) {
+            throw new MalformedPayloadException( "Invalid value '" + value + "'", reader.getTokenOffset() );
+         }
+         final long secondOfDay = dateTime.getHour() * 3600L + dateTime.getMinute() * 60L + dateTime.getSecond()
+               - (dateTime.hasTimezone() ? dateTime.getTimezoneOffset() * 60L : 0);
+         final long epochDay = epochDay( dateTime.getYear(), dateTime.getMonth(), dateTime.getDay() );
+         seconds[count] = Math.addExact( Math.multiplyExact( epochDay, 86400L ), secondOfDay );
+      } catch ( final ArithmeticException exception ) {
+         throw new MalformedPayloadException( "Timestamp '" + value + "' is out of range", reader.getTokenOffset() );
+      }
+      nanos[count] = dateTime.getNanos();
+      timezones[count] = dateTime.hasTimezone() ? dateTime.getTimezoneOffset() : NO_TIMEZONE;
+   }
+
+   private void readValue( final JsonReader.Token token ) {
+      valueStarts[count] = reader.getTokenOffset();
+      if ( token == JsonReader.Token.NULL ) {
+         if ( !valueField.isOptional() ) {
+            throw new MalformedPayloadException( "Property '" + valueField.getName() + "' must not be null", reader.getTokenOffset() );
+         }
+         jsonValues = true;
+      } else if ( valueColumn == ValueColumn.BITS ) {
+         if ( token != JsonReader.Token.TRUE && token != JsonReader.Token.FALSE ) {
+            throw new MalformedPayloadException( "Expected a boolean", reader.getTokenOffset() );
+         }
+         numbers[count] = token == JsonReader.Token.TRUE ? 1 : 0;
+      } else if ( valueColumn != ValueColumn.JSON ) {
+         if ( token != JsonReader.Token.NUMBER ) {
+            throw new MalformedPayloadException( "Expected a number", reader.getTokenOffset() );
+         }
+         readNumber( reader.getString() );
+      } else {
+         reader.skipValue( token );
+      }
+      valueEnds[count] = reader.getPosition();
+   }
+
+   private void readNumber( final CharSequence value ) {
+      try {
+         switch ( valueFormat ) {
+            case DOUBLE:
+               numbers[count] = Double.doubleToRawLongBits( NumericLexicalForms.parseDouble( value, 0, value.length() ) );
+               break;
+            case FLOAT:
+               // Widened to double, whose lower bits are then zero and compress well
+               numbers[count] = Double.doubleToRawLongBits( NumericLexicalForms.parseFloat( value, 0, value.length() ) );
+               break;
+            case DECIMAL:
+               if ( NumericLexicalForms.parseDecimal( value, 0, value.length(), decimal ) ) {
+                  numbers[count] = decimal.getUnscaledValue();
+                  scales[count] = decimal.getScale();
+               } else {
+                  jsonValues = true;
+               }
+               break;
+            default:
+               numbers[count] = NumericLexicalForms.parseLong( value, 0, value.length() );
+               scales[count] = 0;
+               break;
+         }
+      } catch ( final NumberFormatException exception ) {
+         throw new MalformedPayloadException( "Invalid value '" + value + "'", reader.getTokenOffset() );
+      }
+   }
+
+   private void writeBlock() {
+      final int blockStart = blocks.length();
+      // The number of fraction digits of the unit of the timestamps
+      int digits = 0;
+      for ( int i = 0; i < count; i++ ) {
+         digits = Math.max( digits, fractionDigits( nanos[i] ) );
+      }
+      final long unit = POWERS_OF_TEN[digits];
+      final long divisor = POWERS_OF_TEN[9 - digits];
+      // Timestamps too far from the epoch for the unit are split into seconds and fractions
+      boolean split = false;
+      long min = Long.MAX_VALUE;
+      long max = Long.MIN_VALUE;
+      for ( int i = 0; i < count; i++ ) {
+         min = Math.min( min, seconds[i] );
+         max = Math.max( max, seconds[i] );
+         try {
+            instants[i] = Math.addExact( Math.multiplyExact( seconds[i], unit ), nanos[i] / divisor );
+         } catch ( final ArithmeticException exception ) {
+            split = true;
+         }
+      }
+      blocks.write( split ? digits | SPLIT_TIMESTAMPS : digits );
+
+      boolean sameTimezone = true;
+      for ( int i = 1; i < count; i++ ) {
+         sameTimezone &= timezones[i] == timezones[0];
+      }
+      blocks.write( sameTimezone ? 0 : 1 );
+      for ( int i = 0; i < (sameTimezone ? 1 : count); i++ ) {
+         blocks.writeZigzag( timezones[i] );
+      }
+
+      // Regular series have a constant delta, so the deltas of the deltas are mostly zero
+      final long[] timestamps = split ? seconds : instants;
+      bitWriter.reset( blocks );
+      long delta = 0;
+      for ( int i = 0; i < count; i++ ) {
+         if ( i == 0 ) {
+            bitWriter.writeSigned( timestamps[0] );
+         } else {
+            final long nextDelta = timestamps[i] - timestamps[i - 1];
+            bitWriter.writeSigned( nextDelta - delta );
+            delta = nextDelta;
+         }
+      }
+      for ( int i = 0; split && i < count; i++ ) {
+         bitWriter.writeSigned( nanos[i] / divisor );
+      }
+      bitWriter.flush();
+
+      final int scale = jsonValues || valueFormat != ScalarType.BinaryFormat.DECIMAL ? 0 : commonScale();
+      final ValueColumn column = jsonValues ? ValueColumn.JSON : valueColumn;
+      blocks.write( column.ordinal() );
+      switch ( column ) {
+         case XOR:
+            writeXor();
+            break;
+         case FIXED_POINT:
+            blocks.writeVarint( scale );
+            bitWriter.reset( blocks );
+            for ( int i = 0; i < count; i++ ) {
+               bitWriter.writeSigned( i == 0 ? numbers[0] : numbers[i] - numbers[i - 1] );
+            }
+            bitWriter.flush();
+            break;
+         case BITS:
+            bitWriter.reset( blocks );
+            for ( int i = 0; i < count; i++ ) {
+               bitWriter.writeBit( numbers[i] != 0 );
+            }
+            bitWriter.flush();
+            break;
+         default:
+            for ( int i = 0; i < count; i++ ) {
+               blocks.writeVarint( valueEnds[i] - valueStarts[i] );
+               blocks.write( input, valueStarts[i], valueEnds[i] - valueStarts[i] );
+            }
+            break;
+      }
+
+      index.writeZigzag( min );
+      index.writeZigzag( max );
+      index.writeVarint( count );
+      index.writeVarint( blocks.length() - blockStart );
+      count = 0;
+      jsonValues = false;
+   }
+
+   /**
+    * Brings the decimal values of the block to their largest scale
+    *
+    * @return the scale, or 0 if the values were switched to JSON because they do not fit
+    */
+   private int commonScale() {
+      int scale = 0;
+      for ( int i = 0; i < count; i++ ) {
+         scale = Math.max( scale, scales[i] );
+      }
+      try {
+         for ( int i = 0; i < count; i++ ) {
+            if ( scale - scales[i] >= POWERS_OF_TEN.length ) {
+               throw new ArithmeticException();
+            }
+            numbers[i] = Math.multiplyExact( numbers[i], POWERS_OF_TEN[scale - scales[i]] );
+            scales[i] = scale;
+         }
+         return scale;
+      } catch ( final ArithmeticException exception ) {
+         jsonValues = true;
+         return 0;
+      }
+   }
+
+   /**
+    * Writes the values as XOR with their predecessor: a zero bit for an equal value, otherwise the meaningful bits of
+    * the XOR, in the window of the previous one if they fit, or with the number of leading zeros and the length
+    */
+   private void writeXor() {
+      bitWriter.reset( blocks );
+      bitWriter.write( numbers[0], 64 );
+      int leading = -1;
+      int trailing = 0;
+      for ( int i = 1; i < count; i++ ) {
+         final long xor = numbers[i] ^ numbers[i - 1];
+         if ( xor == 0 ) {
+            bitWriter.writeBit( false );
+            continue;
+         }
+         bitWriter.writeBit( true );
+         final int nextLeading = Long.numberOfLeadingZeros( xor );
+         final int nextTrailing = Long.numberOfTrailingZeros( xor );
+         if ( leading >= 0 && nextLeading >= leading && nextTrailing >= trailing ) {
+            bitWriter.writeBit( false );
+            bitWriter.write( xor >>> trailing, 64 - leading - trailing );
+         } else {
+            leading = nextLeading;
+            trailing = nextTrailing;
+            bitWriter.writeBit( true );
+            bitWriter.write( leading, 6 );
+            bitWriter.write( 63 - leading - trailing, 6 );
+            bitWriter.write( xor >>> trailing, 64 - leading - trailing );
+         }
+      }
+      bitWriter.flush();
+   }
+
+   private static int fractionDigits( final int nanos ) {
+      if ( nanos == 0 ) {
+         return 0;
+      }
+      int digits = 9;
+      for ( int remaining = nanos; remaining % 10 == 0; remaining /= 10 ) {
+         digits--;
+      }
+      return digits;
+   }
+
+   /**
+    * @param encoded the columnar representation
+    * @return the UTF-8 encoded JSON array of the time series entries
+    * @throws MalformedPayloadException if the columnar representation is truncated or invalid
+    */
+   public byte[] decode( final byte[] encoded ) {
+      return decode( encoded, Long.MIN_VALUE, 0, Long.MAX_VALUE, 0 );
+   }
+
+   /**
+    * Decodes the entries of a time range, skipping the blocks that do not overlap with it
+    *
+    * @param encoded the columnar representation
+    * @param from the start of the time range, inclusive
+    * @param to the end of the time range, exclusive
+    * @return the UTF-8 encoded JSON array of the time series entries whose timestamps are in the time range;
+    *       timestamps without time zone count as UTC
+    * @throws MalformedPayloadException if the columnar representation is truncated or invalid
+    */
+   public byte[] decode( final byte[] encoded, final Instant from, final Instant to ) {
+      return decode( encoded, from.getEpochSecond(), from.getNano(), to.getEpochSecond(), to.getNano() );
+   }
+
+   private byte[] decode( final byte[] encoded, final long fromSecond, final int fromNano, final long toSecond, final int toNano ) {
+      input = encoded;
+      position = 0;
+      end = encoded.length;
+      output.reset();
+      readVarint();
+      final long blockCount = readVarint();
+      final int indexStart = position;
+      for ( long i = 0; i < blockCount * 4; i++ ) {
+         readVarint();
+      }
+      int blockOffset = position;
+      position = indexStart;
+      output.write( '[' );
+      boolean first = true;
+      for ( long i = 0; i < blockCount; i++ ) {
+         final long min = unzigzag( readVarint() );
+         final long max = unzigzag( readVarint() );
+         final long entries = readVarint();
+         final long length = readVarint();
+         if ( length > end - blockOffset || entries > length * 8 ) {
+            throw new MalformedPayloadException( "Truncated binary payload", blockOffset );
+         }
+         if ( max >= fromSecond && (min < toSecond || min == toSecond && toNano > 0) ) {
+            final int indexPosition = position;
+            position = blockOffset;
+            end = blockOffset + (int) length;
+            first = decodeBlock( (int) entries, fromSecond, fromNano, toSecond, toNano, first );
+            end = encoded.length;
+            position = indexPosition;
+         }
+         blockOffset += (int) length;
+      }
+      output.write( ']' );
+      return output.toByteArray();
+   }
+
+   /**
+    * Writes the entries of a block that are in the time range
+    *
+    * @return whether no entry was written yet
+    */
+   private boolean decodeBlock( final int entries, final long fromSecond, final int fromNano, final long toSecond, final int toNano,
+         final boolean first ) {
+      if ( entries > seconds.length ) {
+         allocate( entries );
+      }
+      final int unitByte = readByte();
+      final int digits = unitByte & ~SPLIT_TIMESTAMPS;
+      if ( digits > 9 ) {
+         throw new MalformedPayloadException( "Invalid timestamp unit", position - 1 );
+      }
+      final boolean sameTimezone = readByte() == 0;
+      for ( int i = 0; i < (sameTimezone ? 1 : entries); i++ ) {
+         final long timezone = unzigzag( readVarint() );
+         if ( timezone != NO_TIMEZONE && Math.abs( timezone ) > MAX_TIMEZONE_MINUTES ) {
+            throw new MalformedPayloadException( "Invalid time zone offset", position );
+         }
+         timezones[i] = (int) timezone;
+      }
+      bitReader.reset( input, position, end );
+      long delta = 0;
+      for ( int i = 0; i < entries; i++ ) {
+         if ( i == 0 ) {
+            instants[0] = bitReader.readSigned();
+         } else {
+            delta += bitReader.readSigned();
+            instants[i] = instants[i - 1] + delta;
+         }
+      }
+      final long unit = POWERS_OF_TEN[digits];
+      final long divisor = POWERS_OF_TEN[9 - digits];
+      final boolean split = (unitByte & SPLIT_TIMESTAMPS) != 0;
+      for ( int i = 0; i < entries; i++ ) {
+         final long fraction = split ? bitReader.readSigned() : Math.floorMod( instants[i], unit );
+         if ( fraction < 0 || fraction >= unit ) {
+            throw new MalformedPayloadException( "Invalid fraction of a second", bitReader.getPosition() );
+         }
+         seconds[i] = split ? instants[i] : Math.floorDiv( instants[i], unit );
+         nanos[i] = (int) (fraction * divisor);
+      }
+      position = bitReader.getPosition();
+
+      final int columnIndex = readByte();
+      if ( columnIndex >= ValueColumn.values().length ) {
+         throw new MalformedPayloadException( "Invalid value column", position - 1 );
+      }
+      final ValueColumn column = ValueColumn.values()[columnIndex];
+      final long scale = column == ValueColumn.FIXED_POINT ? readVarint() : 0;
+      if ( scale > Integer.MAX_VALUE ) {
+         throw new MalformedPayloadException( "Invalid scale", position );
+      }
+      bitReader.reset( input, position, end );
+      boolean noneWritten = first;
+      long value = 0;
+      int leading = 0;
+      int trailing = 0;
+      for ( int i = 0; i < entries; i++ ) {
+         int valueLength = 0;
+         switch ( column ) {
+            case XOR:
+               if ( i == 0 ) {
+                  value = bitReader.read( 64 );
+               } else if ( bitReader.readBit() ) {
+                  if ( bitReader.readBit() ) {
+                     leading = (int) bitReader.read( 6 );
+                     trailing = 63 - leading - (int) bitReader.read( 6 );
+                     if ( trailing < 0 ) {
+                        throw new MalformedPayloadException( "Invalid XOR window", position );
+                     }
+                  }
+                  value ^= bitReader.read( 64 - leading - trailing ) << trailing;
+               }
+               break;
+            case FIXED_POINT:
+               value = i == 0 ? bitReader.readSigned() : value + bitReader.readSigned();
+               break;
+            case BITS:
+               value = bitReader.readBit() ? 1 : 0;
+               break;
+            default: {
+               final long length = readVarint();
+               if ( length > end - position ) {
+                  throw new MalformedPayloadException( "Truncated binary payload", position );
+               }
+               valueLength = (int) length;
+               position += valueLength;
+               break;
+            }
+         }
+         final long second = seconds[i];
+         final int nano = nanos[i];
+         final boolean afterFrom = second > fromSecond || second == fromSecond && nano >= fromNano;
+         if ( afterFrom && (second < toSecond || second == toSecond && nano < toNano) ) {
+            if ( !noneWritten ) {
+               output.write( ',' );
+            }
+            noneWritten = false;
+            output.write( '{' );
+            for ( final PayloadField field : entryType.getFields() ) {
+               if ( field.getIndex() > 0 ) {
+                  output.write( ',' );
+               }
+               output.writeJsonString( field.getNameBytes() );
+               output.write( ':' );
+               if ( field == timestampField ) {
+                  writeTimestamp( second, nano, timezones[sameTimezone ? 0 : i] );
+               } else if ( column == ValueColumn.JSON ) {
+                  output.write( input, position - valueLength, valueLength );
+               } else {
+                  writeValue( column, value, (int) scale );
+               }
+            }
+            output.write( '}' );
+         }
+      }
+      return noneWritten;
+   }
+
+   private void writeValue( final ValueColumn column, final long value, final int scale ) {
+      switch ( column ) {
+         case XOR: {
+            final double number = Double.longBitsToDouble( value );
+            if ( Double.isNaN( number ) || Double.isInfinite( number ) ) {
+               throw new MalformedPayloadException( "Number cannot be represented in JSON", position );
+            }
+            output.writeAscii( valueFormat == ScalarType.BinaryFormat.FLOAT
+                  ? Float.toString( (float) number )
+                  : Double.toString( number ) );
+            break;
+         }
+         case BITS:
+            output.writeAscii( value != 0 ? "true" : "false" );
+            break;
+         default:
+            if ( valueFormat != ScalarType.BinaryFormat.DECIMAL ) {
+               output.writeLong( value, valueFormat == ScalarType.BinaryFormat.UNSIGNED );
+               break;
+            }
+            long unscaled = value;
+            int canonicalScale = scale;
+            while ( canonicalScale > 0 && unscaled % 10 == 0 ) {
+               unscaled /= 10;
+               canonicalScale--;
+            }
+            output.writeDecimal( unscaled, canonicalScale );
+            break;
+      }
+   }
+
+   /**
+    * Writes the canonical lexical form of xsd:dateTime as JSON string
+    */
+   private void writeTimestamp( final long second, final int nano, final int timezone ) {
+      final long local;
+      try {
+         local = Math.addExact( second, timezone == NO_TIMEZONE ? 0 : timezone * 60L );
+      } catch ( final ArithmeticException exception ) {
+         throw new MalformedPayloadException( "Timestamp is out of range", position );
+      }
+      final long secondOfDay = Math.floorMod( local, 86400L );
+      // Proleptic Gregorian calendar, from the days since 0000-03-01, see http://howardhinnant.github.io/date_algorithms.html
+      final long days = Math.floorDiv( local, 86400L ) + 719468;
+      final long era = Math.floorDiv( days, 146097L );
+      final long dayOfEra = days - era * 146097;
+      final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+      final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+      final long shiftedMonth = (5 * dayOfYear + 2) / 153;
+      final long day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+      final long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+      final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+      output.write( '"' );
+      if ( year < 0 ) {
+         output.write( '-' );
+      }
+      output.writePadded( Math.abs( year ), 4 );
+      output.write( '-' );
+      output.writePadded( month, 2 );
+      output.write( '-' );
+      output.writePadded( day, 2 );
+      output.write( 'T' );
+      output.writePadded( secondOfDay / 3600, 2 );
+      output.write( ':' );
+      output.writePadded( secondOfDay / 60 % 60, 2 );
+      output.write( ':' );
+      output.writePadded( secondOfDay % 60, 2 );
+      if ( nano != 0 ) {
+         long fraction = nano;
+         int width = 9;
+         while ( fraction % 10 == 0 ) {
+            fraction /= 10;
+            width--;
+         }
+         output.write( '.' );
+         output.writePadded( fraction, width );
+      }
+      if ( timezone == 0 ) {
+         output.write( 'Z' );
+      } else if ( timezone != NO_TIMEZONE ) {
+         output.write( timezone < 0 ? '-' : '+' );
+         output.writePadded( Math.abs( timezone ) / 60, 2 );
+         output.write( ':' );
+         output.writePadded( Math.abs( timezone ) % 60, 2 );
+      }
+      output.write( '"' );
+   }
+
+   /**
+    * @return the days since 1970-01-01 of a date of the proleptic Gregorian calendar
+    */
+   private static long epochDay( final long year, final int month, final int day ) {
+      final long shiftedYear = month <= 2 ? year - 1 : year;
+      final long era = Math.floorDiv( shiftedYear, 400L );
+      final long yearOfEra = shiftedYear - era * 400;
+      final long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+      final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+      return Math.addExact( Math.multiplyExact( era, 146097L ), dayOfEra - 719468 );
+   }
+
+   private static long unzigzag( final long value ) {
+      return value >>> 1 ^ -(value & 1);
+   }
+
+   private int readByte() {
+      if ( position >= end ) {
+         throw new MalformedPayloadException( "Truncated binary payload", position );
+      }
+      return input[position++] & 0xff;
+   }
+
+   private long readVarint() {
+      long result = 0;
+      for ( int shift = 0; shift < 64; shift += 7 ) {
+         final int b = readByte();
+         result |= (long) (b & 0x7f) << shift;
+         if ( b < 0x80 ) {
+            return result;
+         }
+      }
+      throw new MalformedPayloadException( "Invalid varint", position );
+   }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import java.util.Arrays;
+
+import org.eclipse.esmf.samm.datatypes.DataTypeLattice;
+import org.eclipse.esmf.samm.datatypes.NumericLexicalForms;
+import org.eclipse.esmf.samm.datatypes.NumericLexicalForms.DecimalValue;
+
+/**
+ * The elements of a samm-c:Set that were found so far, as 64-bit fingerprints of their values in an open addressing
+ * table, which needs 16 bytes per element at most and is reused for the next Set. Scalar values are fingerprinted from
+ * their tokens without allocation, consistently with their canonical keys (see {@link ValueKeys}), i.e. 1.5 and 1.50
+ * have the same fingerprint; other values are fingerprinted by their keys. Equal values always have the same
+ * fingerprint, but different values may have as well, so a fingerprint that was found before must be confirmed by
+ * comparing the values.
+ */
+final class UniqueElements {
+   private static final int INITIAL_CAPACITY = 16;
+   private static final int MAX_RETAINED_CAPACITY = 1 << 12;
+
+   private final DecimalValue decimal = new DecimalValue();
+   private long[] table = new long[INITIAL_CAPACITY];
+   private int size;
+   private boolean containsZero;
+
+   void clear() {
+      if ( table.length > MAX_RETAINED_CAPACITY ) {
+         // Do not keep the memory of a huge Set for the Sets that follow
+         table = new long[INITIAL_CAPACITY];
+      } else if ( size > 0 ) {
+         Arrays.fill( table, 0 );
+      }
+      size = 0;
+      containsZero = false;
+   }
+
+   /**
+    * @return true if the fingerprint was not found before
+    */
+   boolean add( final long fingerprint ) {
+      if ( fingerprint == 0 ) {
+         final boolean added = !containsZero;
+         containsZero = true;
+         return added;
+      }
+      if ( (size + 1) * 2 > table.length ) {
+         grow();
+      }
+      int slot = slot( fingerprint, table.length );
+      while ( table[slot] != 0 ) {
+         if ( table[slot] == fingerprint ) {
+            return false;
+         }
+         slot = slot + 1 & table.length - 1;
+      }
+      table[slot] = fingerprint;
+      size++;
+      return true;
+   }
+
+   private void grow() {
+      final long[] old = table;
+      table = new long[old.length * 2];
+      for ( final long fingerprint : old ) {
+         if ( fingerprint != 0 ) {
+            int slot = slot( fingerprint, table.length );
+            while ( table[slot] != 0 ) {
+               slot = slot + 1 & table.length - 1;
+            }
+            table[slot] = fingerprint;
+         }
+      }
+   }
+
+   private static int slot( final long fingerprint, final int capacity ) {
+      return (int) (fingerprint ^ fingerprint >>> 32) & capacity - 1;
+   }
+
+   /**
+    * @param type the type of the value
+    * @param reader the reader, whose current token is the value
+    * @param token the token
+    * @return the fingerprint of the scalar value
+    */
+   long fingerprint( final ScalarType type, final JsonReader reader, final JsonReader.Token token ) {
+      switch ( type.getBinaryFormat() ) {
+         case BOOLEAN:
+            return mix( token == JsonReader.Token.TRUE ? 1 : 2 );
+         case ZIGZAG:
+         case UNSIGNED: {
+            final CharSequence value = reader.getString();
+            return mix( NumericLexicalForms.parseLong( value, 0, value.length() ) );
+         }
+         case DECIMAL: {
+            final CharSequence value = reader.getString();
+            if ( NumericLexicalForms.parseDecimal( value, 0, value.length(), decimal ) ) {
+               return mix( decimal.getUnscaledValue() * 31 + decimal.getScale() );
+            }
+            return fingerprint( NumericLexicalForms.parseBigDecimal( value, 0, value.length() ).stripTrailingZeros().toPlainString() );
+         }
+         case DOUBLE: {
+            final CharSequence value = reader.getString();
+            final double number = NumericLexicalForms.parseDouble( value, 0, value.length() );
+            return mix( Double.doubleToLongBits( number == 0 ? 0.0 : number ) );
+         }
+         case FLOAT: {
+            final CharSequence value = reader.getString();
+            final float number = NumericLexicalForms.parseFloat( value, 0, value.length() );
+            return mix( Double.doubleToLongBits( number == 0 ? 0.0 : number ) );
+         }
+         default:
+            return bytes( type, reader.getValueBytes(), reader.getValueStart(), reader.getValueEnd() );
+      }
+   }
+
+   /**
+    * Fingerprints the UTF-8 bytes of a string value like its canonical key: hexBinary values case-insensitively,
+    * base64Binary values without whitespace, xsd:string values exactly and all others without surrounding whitespace
+    */
+   private static long bytes( final ScalarType type, final byte[] bytes, final int start, final int end ) {
+      int from = start;
+      int to = end;
+      final boolean exact = (DataTypeLattice.XSD_NAMESPACE + "string").equals( type.getDataType() );
+      if ( !exact ) {
+         while ( from < to && bytes[from] >= 0 && bytes[from] <= ' ' ) {
+            from++;
+         }
+         while ( to > from && bytes[to - 1] >= 0 && bytes[to - 1] <= ' ' ) {
+            to--;
+         }
+      }
+      long hash = 0xcbf29ce484222325L;
+      for ( int i = from; i < to; i++ ) {
+         int b = bytes[i];
+         if ( type.getBinaryFormat() == ScalarType.BinaryFormat.HEX && b >= 'a' && b <= 'f' ) {
+            b -= 'a' - 'A';
+         } else if ( type.getBinaryFormat() == ScalarType.BinaryFormat.BASE64 && isWhitespace( b ) ) {
+            continue;
+         }
+         hash = (hash ^ b & 0xff) * 0x100000001b3L;
+      }
+      return mix( hash );
+   }
+
+   private static boolean isWhitespace( final int b ) {
+      return b == ' ' || b == '\t' || b == '\n' || b == 0x0b || b == '\f' || b == '\r';
+   }
+
+   /**
+    * @return the fingerprint of a canonical key
+    */
+   static long fingerprint( final String key ) {
+      long hash = 0xcbf29ce484222325L;
+      for ( int i = 0; i < key.length(); i++ ) {
+         hash = (hash ^ key.charAt( i )) * 0x100000001b3L;
+      }
+      return mix( hash );
+   }
+
+   /**
+    * The finalizer of MurmurHash3, which spreads the bits of similar values
+    */
+   private static long mix( final long value ) {
+      long result = value;
+      result = (result ^ result >>> 33) * 0xff51afd7ed558ccdL;
+      result = (result ^ result >>> 33) * 0xc4ceb9fe1a85ec53L;
+      return result ^ result >>> 33;
+   }
+}
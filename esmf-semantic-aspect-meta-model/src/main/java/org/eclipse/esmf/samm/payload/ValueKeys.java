@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.RDFList;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+
+import org.eclipse.esmf.samm.datatypes.DataTypeLattice;
+import org.eclipse.esmf.samm.datatypes.NumericLexicalForms;
+
+/**
+ * Computes canonical keys of values, so that equal values can be found with hash sets, e.g. the values of an
+ * Enumeration of Entity instances or duplicate elements of a Set: the key of an Entity value consists of the keys of
+ * its Property values in field order, where scalar values are represented by a canonical form of their value (e.g.
+ * 1.50 and 1.5 have the same key), localized strings and the elements of Sets are sorted, and all parts are prefixed
+ * with their length, so that different values have different keys. The same key is computed for an instance in the
+ * model and for its JSON representation in a payload.
+ */
+final class ValueKeys {
+   private ValueKeys() {
+   }
+
+   /**
+    * Computes the key of a JSON value, which must be a valid value of the type
+    *
+    * @param reader the reader to use
+    * @param type the type of the value
+    * @param payload the buffer with the payload
+    * @param start the offset of the value in the buffer
+    * @param end the offset after the value
+    * @return the key
+    */
+   static String fromJson( final JsonReader reader, final PayloadType type, final byte[] payload, final int start, final int end ) {
+      reader.reset( payload, start, end - start );
+      return jsonValue( reader, payload, type, reader.next() );
+   }
+
+   /**
+    * Computes the key of the next value of a reader, which must be a valid value of the type
+    *
+    * @param reader the reader, whose last token is the first token of the value
+    * @param payload the buffer that the reader reads
+    * @param type the type of the value
+    * @param token the first token of the value
+    * @return the key
+    */
+   static String jsonValue( final JsonReader reader, final byte[] payload, final PayloadType type, final JsonReader.Token token ) {
+      switch ( type.getKind() ) {
+         case SCALAR: {
+            final ScalarType scalarType = (ScalarType) type;
+            if ( scalarType.getJsonType() == ScalarType.JsonType.LANG_STRING ) {
+               final List<String> entries = new ArrayList<>();
+               while ( reader.next() != JsonReader.Token.END_OBJECT ) {
+                  final String languageTag = reader.getString().toString();
+                  reader.next();
+                  entries.add( localizedString( languageTag, reader.getString().toString() ) );
+               }
+               return listKey( entries, true );
+            }
+            if ( token == JsonReader.Token.TRUE || token == JsonReader.Token.FALSE ) {
+               return token == JsonReader.Token.TRUE ? "true" : "false";
+            }
+            return scalar( scalarType, reader.getString() );
+         }
+         case OBJECT:
+            return jsonObject( reader, payload, (ObjectType) type );
+         case COLLECTION: {
+            final CollectionType collectionType = (CollectionType) type;
+            final List<String> elements = new ArrayList<>();
+            for ( JsonReader.Token element = reader.next(); element != JsonReader.Token.END_ARRAY; element = reader.next() ) {
+               elements.add( jsonValue( reader, payload, collectionType.getElementType(), element ) );
+            }
+            return listKey( elements, isSet( collectionType ) );
+         }
+         case EITHER: {
+            final EitherType eitherType = (EitherType) type;
+            reader.next();
+            final boolean left = reader.valueEquals( EitherType.LEFT );
+            final String key = (left ? "L" : "R") + jsonValue( reader, payload, left ? eitherType.getLeft() : eitherType.getRight(),
+                  reader.next() );
+            reader.next();
+            return key;
+         }
+         default: {
+            // Values of unknown type are only equal if they are written the same way
+            final int start = reader.getTokenOffset();
+            reader.skipValue( token );
+            return new String( payload, start, reader.getPosition() - start, StandardCharsets.UTF_8 );
+         }
+      }
+   }
+
+   private static String jsonObject( final JsonReader reader, final byte[] payload, final ObjectType type ) {
+      final String[] keys = new String[type.getFields().length];
+      for ( JsonReader.Token token = reader.next(); token != JsonReader.Token.END_OBJECT; token = reader.next() ) {
+         final PayloadField field = type.findField( reader );
+         final JsonReader.Token value = reader.next();
+         if ( field == null || value == JsonReader.Token.NULL ) {
+            reader.skipValue( value );
+         } else {
+            keys[field.getIndex()] = jsonValue( reader, payload, field.getType(), value );
+         }
+      }
+      return objectKey( keys );
+   }
+
+   /**
+    * Computes the key of an Entity instance
+    *
+    * @param type the type of the Entity
+    * @param instance the instance
+    * @return the key, or null if the instance has no key, e.g. because a non-optional Property is missing or has a
+    *       Characteristic whose values have no canonical form, such as samm-c:Either
+    */
+   static String fromInstance( final ObjectType type, final Resource instance ) {
+      final PayloadField[] fields = type.getFields();
+      final String[] keys = new String[fields.length];
+      for ( final PayloadField field : fields ) {
+         final List<Statement> statements = instance.listProperties( instance.getModel().createProperty( field.getProperty() ) ).toList();
+         if ( statements.isEmpty() ) {
+            if ( field.isOptional() ) {
+               continue;
+            }
+            return null;
+         }
+         final String key;
+         if ( field.getType() instanceof ScalarType
+               && ((ScalarType) field.getType()).getJsonType() == ScalarType.JsonType.LANG_STRING ) {
+            final List<String> entries = new ArrayList<>();
+            for ( final Statement statement : statements ) {
+               if ( !statement.getObject().isLiteral() ) {
+                  return null;
+               }
+               entries.add( localizedString( statement.getLiteral() ) );
+            }
+            key = listKey( entries, true );
+         } else {
+            key = instanceValue( field.getType(), statements.get( 0 ).getObject() );
+         }
+         if ( key == null ) {
+            return null;
+         }
+         keys[field.getIndex()] = key;
+      }
+      return objectKey( keys );
+   }
+
+   private static String instanceValue( final PayloadType type, final RDFNode node ) {
+      switch ( type.getKind() ) {
+         case SCALAR: {
+            if ( !node.isLiteral() ) {
+               return null;
+            }
+            final ScalarType scalarType = (ScalarType) type;
+            if ( scalarType.getJsonType() == ScalarType.JsonType.LANG_STRING ) {
+               return listKey( List.of( localizedString( node.asLiteral() ) ), false );
+            }
+            try {
+               return scalar( scalarType, node.asLiteral().getLexicalForm() );
+            } catch ( final NumberFormatException exception ) {
+               return null;
+            }
+         }
+         case OBJECT:
+            return node.isResource() ? fromInstance( (ObjectType) type, node.asResource() ) : null;
+         case COLLECTION: {
+            if ( !node.isResource() || !node.asResource().canAs( RDFList.class ) ) {
+               return null;
+            }
+            final CollectionType collectionType = (CollectionType) type;
+            final List<String> elements = new ArrayList<>();
+            for ( final RDFNode element : node.asResource().as( RDFList.class ).asJavaList() ) {
+               final String key = instanceValue( collectionType.getElementType(), element );
+               if ( key == null ) {
+                  return null;
+               }
+               elements.add( key );
+            }
+            return listKey( elements, isSet( collectionType ) );
+         }
+         default:
+            return null;
+      }
+   }
+
+   /**
+    * @return the canonical form of a valid lexical form of the data type
+    */
+   private static String scalar( final ScalarType type, final CharSequence lexicalForm ) {
+      final int length = lexicalForm.length();
+      switch ( type.getBinaryFormat() ) {
+         case BOOLEAN:
+            return NumericLexicalForms.parseBoolean( lexicalForm, 0, length ) ? "true" : "false";
+         case ZIGZAG:
+         case UNSIGNED:
+         case DECIMAL:
+            return NumericLexicalForms.parseBigDecimal( lexicalForm, 0, length ).stripTrailingZeros().toPlainString();
+         case DOUBLE: {
+            final double value = NumericLexicalForms.parseDouble( lexicalForm, 0, length );
+            return Double.toString( value == 0 ? 0.0 : value );
+         }
+         case FLOAT: {
+            final float value = NumericLexicalForms.parseFloat( lexicalForm, 0, length );
+            return Float.toString( value == 0 ? 0.0f : value );
+         }
+         case HEX:
+            return lexicalForm.toString().trim().toUpperCase( Locale.ROOT );
+         case BASE64:
+            return lexicalForm.toString().replaceAll( "\\s", "" );
+         default:
+            return (DataTypeLattice.XSD_NAMESPACE + "string").equals( type.getDataType() )
+                  ? lexicalForm.toString()
+                  : lexicalForm.toString().trim();
+      }
+   }
+
+   private static String localizedString( final Literal literal ) {
+      return localizedString( literal.getLanguage(), literal.getLexicalForm() );
+   }
+
+   private static String localizedString( final String languageTag, final String text ) {
+      // Language tags are case-insensitive
+      return prefixed( languageTag.toLowerCase( Locale.ROOT ) ) + prefixed( text );
+   }
+
+   private static boolean isSet( final CollectionType type ) {
+      return type.getCollectionKind() == CollectionType.CollectionKind.SET
+            || type.getCollectionKind() == CollectionType.CollectionKind.SORTED_SET;
+   }
+
+   private static String objectKey( final String[] keys ) {
+      final StringBuilder result = new StringBuilder( "{" );
+      for ( int i = 0; i < keys.length; i++ ) {
+         if ( keys[i] != null ) {
+            result.append( i ).append( '=' ).append( prefixed( keys[i] ) );
+         }
+      }
+      return result.append( '}' ).toString();
+   }
+
+   private static String listKey( final List<String> keys, final boolean sorted ) {
+      if ( sorted ) {
+         Collections.sort( keys );
+      }
+      final StringBuilder result = new StringBuilder( "[" );
+      for ( final String key : keys ) {
+         result.append( prefixed( key ) );
+      }
+      return result.append( ']' ).toString();
+   }
+
+   private static String prefixed( final String key ) {
+      return key.length() + ":" + key;
+   }
+}
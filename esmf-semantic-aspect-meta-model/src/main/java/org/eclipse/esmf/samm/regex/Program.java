@@ -0,0 +1,400 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * A regular expression compiled to the instructions of a Pike VM. All threads of the VM advance over the input in lock
+ * step, so matching takes O(n * m) time for an input of length n and a program of size m, regardless of the pattern.
+ * Threads are kept in priority order, which yields the same match and the same capture groups as a backtracking
+ * matcher such as {@link java.util.regex.Pattern}.
+ */
+class Program {
+   /**
+    * Programs that would be larger than this limit are not compiled
+    */
+   static final int MAX_SIZE = 10_000;
+
+   private static final int CHAR = 0;
+   private static final int SPLIT = 1;
+   private static final int JUMP = 2;
+   private static final int SAVE = 3;
+   private static final int BEGIN = 4;
+   private static final int END = 5;
+   private static final int MATCH = 6;
+
+   private final int[] opcodes;
+   /**
+    * The argument of the instruction: the slot of SAVE, the target of JUMP and the preferred target of SPLIT
+    */
+   private final int[] arguments;
+   /**
+    * The alternative target of SPLIT
+    */
+   private final int[] alternatives;
+   private final IntPredicate[] predicates;
+   private final int slots;
+
+   private Program( final Compiler compiler, final int groupCount ) {
+      final int size = compiler.opcodes.size();
+      opcodes = compiler.opcodes.stream().mapToInt( Integer::intValue ).toArray();
+      arguments = compiler.arguments.stream().mapToInt( Integer::intValue ).toArray();
+      alternatives = compiler.alternatives.stream().mapToInt( Integer::intValue ).toArray();
+      predicates = compiler.predicates.toArray( new IntPredicate[size] );
+      slots = 2 * (groupCount + 1);
+   }
+
+   /**
+    * @param root the parsed pattern
+    * @param groupCount the number of capturing groups
+    * @return the compiled program
+    * @throws UnsupportedFeatureException if the program would exceed {@link #MAX_SIZE}, or if the pattern repeats
+    *       capturing groups that can match the empty string, nested capturing groups, content that prefers to match the
+    *       empty string or counted content that can match the empty string, whose results differ between backtracking
+    *       matchers
+    */
+   static Program compile( final RegexNode.Group root, final int groupCount ) {
+      final Compiler compiler = new Compiler();
+      compiler.emit( root );
+      compiler.add( MATCH, 0, 0, null );
+      return new Program( compiler, groupCount );
+   }
+
+   /**
+    * Runs the program
+    *
+    * @param input the input
+    * @param entireInput true if the match must span the entire input, false if the leftmost match is searched
+    * @return the capture slots (start and end of each group, or -1) of the match, or null if there is no match
+    */
+   int[] run( final CharSequence input, final boolean entireInput ) {
+      final int length = input.length();
+      ThreadList current = new ThreadList( opcodes.length );
+      ThreadList next = new ThreadList( opcodes.length );
+      int[] matched = null;
+      int position = 0;
+      while ( true ) {
+         if ( matched == null && (position == 0 || !entireInput) ) {
+            final int[] captures = new int[slots];
+            Arrays.fill( captures, -1 );
+            addThread( current, 0, captures, input, position );
+         }
+         if ( current.size == 0 && (matched != null || entireInput) ) {
+            break;
+         }
+         final int codePoint = position < length ? Character.codePointAt( input, position ) : -1;
+         final int nextPosition = position + (codePoint < 0 ? 0 : Character.charCount( codePoint ));
+         for ( int i = 0; i < current.size; i++ ) {
+            final int pc = current.pcs[i];
+            if ( opcodes[pc] == MATCH ) {
+               if ( entireInput && position != length ) {
+                  continue;
+               }
+               // Threads with lower priority are cut off
+               matched = current.captures[i];
+               break;
+            }
+            if ( codePoint >= 0 && predicates[pc].test( codePoint ) ) {
+               addThread( next, pc + 1, current.captures[i], input, nextPosition );
+            }
+         }
+         if ( codePoint < 0 ) {
+            break;
+         }
+         final ThreadList swap = current;
+         current = next;
+         next = swap;
+         next.clear();
+         position = nextPosition;
+      }
+      return matched;
+   }
+
+   /**
+    * Adds a thread and follows its non-consuming instructions, in priority order
+    */
+   private void addThread( final ThreadList list, final int pc, final int[] captures, final CharSequence input, final int position ) {
+      if ( list.contains( pc ) ) {
+         return;
+      }
+      list.mark( pc );
+      switch ( opcodes[pc] ) {
+         case JUMP:
+            addThread( list, arguments[pc], captures, input, position );
+            return;
+         case SPLIT:
+            addThread( list, arguments[pc], captures, input, position );
+            addThread( list, alternatives[pc], captures, input, position );
+            return;
+         case SAVE:
+            final int[] saved = captures.clone();
+            saved[arguments[pc]] = position;
+            addThread( list, pc + 1, saved, input, position );
+            return;
+         case BEGIN:
+            if ( position == 0 ) {
+               addThread( list, pc + 1, captures, input, position );
+            }
+            return;
+         case END:
+            if ( isEnd( input, position ) ) {
+               addThread( list, pc + 1, captures, input, position );
+            }
+            return;
+         default:
+            list.add( pc, captures );
+      }
+   }
+
+   /**
+    * Like '$' of {@link java.util.regex.Pattern}, the end also matches before a line terminator at the end of the input
+    */
+   private static boolean isEnd( final CharSequence input, final int position ) {
+      final int length = input.length();
+      if ( position == length ) {
+         return true;
+      }
+      if ( position == length - 2 ) {
+         return input.charAt( position ) == '\r' && input.charAt( position + 1 ) == '\n';
+      }
+      if ( position == length - 1 ) {
+         final char terminator = input.charAt( position );
+         if ( terminator == '\n' ) {
+            return position == 0 || input.charAt( position - 1 ) != '\r';
+         }
+         return terminator == '\r' || terminator == 0x85 || terminator == 0x2028 || terminator == 0x2029;
+      }
+      return false;
+   }
+
+   /**
+    * The threads of one step of the VM, in priority order, with a sparse set of the instructions that were visited
+    */
+   private static class ThreadList {
+      private final int[] pcs;
+      private final int[][] captures;
+      private final int[] dense;
+      private final int[] sparse;
+      private int size;
+      private int visited;
+
+      private ThreadList( final int programSize ) {
+         pcs = new int[programSize];
+         captures = new int[programSize][];
+         dense = new int[programSize];
+         sparse = new int[programSize];
+      }
+
+      private boolean contains( final int pc ) {
+         final int index = sparse[pc];
+         return index < visited && dense[index] == pc;
+      }
+
+      private void mark( final int pc ) {
+         sparse[pc] = visited;
+         dense[visited++] = pc;
+      }
+
+      private void add( final int pc, final int[] threadCaptures ) {
+         pcs[size] = pc;
+         captures[size++] = threadCaptures;
+      }
+
+      private void clear() {
+         Arrays.fill( captures, 0, size, null );
+         size = 0;
+         visited = 0;
+      }
+   }
+
+   private static class Compiler {
+      private final List<Integer> opcodes = new ArrayList<>();
+      private final List<Integer> arguments = new ArrayList<>();
+      private final List<Integer> alternatives = new ArrayList<>();
+      private final List<IntPredicate> predicates = new ArrayList<>();
+
+      private int add( final int opcode, final int argument, final int alternative, final IntPredicate predicate ) {
+         if ( opcodes.size() >= MAX_SIZE ) {
+            throw new UnsupportedFeatureException( "patterns that compile to more than " + MAX_SIZE + " instructions" );
+         }
+         opcodes.add( opcode );
+         arguments.add( argument );
+         alternatives.add( alternative );
+         predicates.add( predicate );
+         return opcodes.size() - 1;
+      }
+
+      private void emit( final RegexNode node ) {
+         if ( node instanceof RegexNode.CodePoint ) {
+            add( CHAR, 0, 0, ((RegexNode.CodePoint) node).predicate );
+         } else if ( node instanceof RegexNode.Sequence ) {
+            ((RegexNode.Sequence) node).elements.forEach( this::emit );
+         } else if ( node instanceof RegexNode.Alternation ) {
+            emitAlternation( ((RegexNode.Alternation) node).alternatives );
+         } else if ( node instanceof RegexNode.Group ) {
+            final RegexNode.Group group = (RegexNode.Group) node;
+            if ( group.index >= 0 ) {
+               add( SAVE, 2 * group.index, 0, null );
+               emit( group.content );
+               add( SAVE, 2 * group.index + 1, 0, null );
+            } else {
+               emit( group.content );
+            }
+         } else if ( node instanceof RegexNode.Repetition ) {
+            emitRepetition( (RegexNode.Repetition) node );
+         } else {
+            add( ((RegexNode.Anchor) node).begin ? BEGIN : END, 0, 0, null );
+         }
+      }
+
+      private void emitAlternation( final List<RegexNode> nodes ) {
+         final List<Integer> jumps = new ArrayList<>();
+         for ( int i = 0; i < nodes.size() - 1; i++ ) {
+            final int split = add( SPLIT, opcodes.size() + 1, 0, null );
+            emit( nodes.get( i ) );
+            jumps.add( add( JUMP, 0, 0, null ) );
+            alternatives.set( split, opcodes.size() );
+         }
+         emit( nodes.get( nodes.size() - 1 ) );
+         jumps.forEach( jump -> arguments.set( jump, opcodes.size() ) );
+      }
+
+      private void emitRepetition( final RegexNode.Repetition repetition ) {
+         if ( nullable( repetition.content ) && RegexParser.groupCount( repetition.content ) > 0 ) {
+            throw new UnsupportedFeatureException( "repeated capturing groups that can match the empty string" );
+         }
+         final boolean capturing = repetition.content instanceof RegexNode.Group && ((RegexNode.Group) repetition.content).index > 0;
+         if ( RegexParser.groupCount( repetition.content ) > (capturing ? 1 : 0) ) {
+            // Pattern keeps the captures of nested groups from iterations that were backtracked
+            throw new UnsupportedFeatureException( "capturing groups nested in repeated content" );
+         }
+         // Pattern ends a loop after an iteration that matched the empty string, even before the minimum count is
+         // reached, while the VM discards such threads in unbounded loops and continues with the next copy otherwise
+         if ( (repetition.max < 0 || repetition.max > 1) && prefersEmpty( repetition.content ) ) {
+            throw new UnsupportedFeatureException( "repeated content that prefers to match the empty string" );
+         }
+         if ( (repetition.max > 1 || repetition.min > 1) && nullable( repetition.content ) ) {
+            throw new UnsupportedFeatureException( "counted repetitions of content that can match the empty string" );
+         }
+         for ( int i = 0; i < repetition.min; i++ ) {
+            emit( repetition.content );
+         }
+         if ( repetition.max < 0 ) {
+            final int split = emitSplit( repetition.greedy );
+            emit( repetition.content );
+            add( JUMP, split, 0, null );
+            patchExit( split, repetition.greedy );
+            return;
+         }
+         final List<Integer> splits = new ArrayList<>();
+         for ( int i = repetition.min; i < repetition.max; i++ ) {
+            splits.add( emitSplit( repetition.greedy ) );
+            emit( repetition.content );
+         }
+         splits.forEach( split -> patchExit( split, repetition.greedy ) );
+      }
+
+      /**
+       * Emits a split whose next instruction enters the repeated content, with the exit to be patched
+       */
+      private int emitSplit( final boolean greedy ) {
+         final int enter = opcodes.size() + 1;
+         return greedy ? add( SPLIT, enter, 0, null ) : add( SPLIT, 0, enter, null );
+      }
+
+      private void patchExit( final int split, final boolean greedy ) {
+         if ( greedy ) {
+            alternatives.set( split, opcodes.size() );
+         } else {
+            arguments.set( split, opcodes.size() );
+         }
+      }
+
+      /**
+       * @return true if the node can match the empty string with a higher priority than a non-empty string
+       */
+      private static boolean prefersEmpty( final RegexNode node ) {
+         if ( node instanceof RegexNode.Sequence ) {
+            final List<RegexNode> elements = ((RegexNode.Sequence) node).elements;
+            return nullable( node ) && elements.stream().anyMatch( Compiler::prefersEmpty );
+         }
+         if ( node instanceof RegexNode.Alternation ) {
+            final List<RegexNode> alternatives = ((RegexNode.Alternation) node).alternatives;
+            for ( int i = 0; i < alternatives.size(); i++ ) {
+               if ( prefersEmpty( alternatives.get( i ) ) || nullable( alternatives.get( i ) )
+                     && alternatives.subList( i + 1, alternatives.size() ).stream().anyMatch( Compiler::consuming ) ) {
+                  return true;
+               }
+            }
+            return false;
+         }
+         if ( node instanceof RegexNode.Group ) {
+            return prefersEmpty( ((RegexNode.Group) node).content );
+         }
+         if ( node instanceof RegexNode.Repetition ) {
+            final RegexNode.Repetition repetition = (RegexNode.Repetition) node;
+            return prefersEmpty( repetition.content ) || !repetition.greedy && repetition.max != repetition.min
+                  && (repetition.min == 0 || nullable( repetition.content )) && consuming( repetition.content );
+         }
+         return false;
+      }
+
+      /**
+       * @return true if the node can match a non-empty string
+       */
+      private static boolean consuming( final RegexNode node ) {
+         if ( node instanceof RegexNode.CodePoint ) {
+            return true;
+         }
+         if ( node instanceof RegexNode.Sequence ) {
+            return ((RegexNode.Sequence) node).elements.stream().anyMatch( Compiler::consuming );
+         }
+         if ( node instanceof RegexNode.Alternation ) {
+            return ((RegexNode.Alternation) node).alternatives.stream().anyMatch( Compiler::consuming );
+         }
+         if ( node instanceof RegexNode.Group ) {
+            return consuming( ((RegexNode.Group) node).content );
+         }
+         if ( node instanceof RegexNode.Repetition ) {
+            final RegexNode.Repetition repetition = (RegexNode.Repetition) node;
+            return repetition.max != 0 && consuming( repetition.content );
+         }
+         return false;
+      }
+
+      private static boolean nullable( final RegexNode node ) {
+         if ( node instanceof RegexNode.CodePoint ) {
+            return false;
+         }
+         if ( node instanceof RegexNode.Sequence ) {
+            return ((RegexNode.Sequence) node).elements.stream().allMatch( Compiler::nullable );
+         }
+         if ( node instanceof RegexNode.Alternation ) {
+            return ((RegexNode.Alternation) node).alternatives.stream().anyMatch( Compiler::nullable );
+         }
+         if ( node instanceof RegexNode.Group ) {
+            return nullable( ((RegexNode.Group) node).content );
+         }
+         if ( node instanceof RegexNode.Repetition ) {
+            final RegexNode.Repetition repetition = (RegexNode.Repetition) node;
+            return repetition.min == 0 || nullable( repetition.content );
+         }
+         return true;
+      }
+   }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.regex;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * The syntax tree of a parsed regular expression
+ */
+abstract class RegexNode {
+   /**
+    * A single code point that satisfies a predicate (a literal, a character class or the dot)
+    */
+   static class CodePoint extends RegexNode {
+      final IntPredicate predicate;
+
+      CodePoint( final IntPredicate predicate ) {
+         this.predicate = predicate;
+      }
+   }
+
+   static class Sequence extends RegexNode {
+      final List<RegexNode> elements;
+
+      Sequence( final List<RegexNode> elements ) {
+         this.elements = elements;
+      }
+   }
+
+   static class Alternation extends RegexNode {
+      final List<RegexNode> alternatives;
+
+      Alternation( final List<RegexNode> alternatives ) {
+         this.alternatives = alternatives;
+      }
+   }
+
+   static class Group extends RegexNode {
+      final RegexNode content;
+      /**
+       * The number of the capturing group, or -1 for a non-capturing group
+       */
+      final int index;
+
+      Group( final RegexNode content, final int index ) {
+         this.content = content;
+         this.index = index;
+      }
+   }
+
+   static class Repetition extends RegexNode {
+      final RegexNode content;
+      final int min;
+      /**
+       * The maximum number of repetitions, or -1 if unbounded
+       */
+      final int max;
+      final boolean greedy;
+
+      Repetition( final RegexNode content, final int min, final int max, final boolean greedy ) {
+         this.content = content;
+         this.min = min;
+         this.max = max;
+         this.greedy = greedy;
+      }
+   }
+
+   static class Anchor extends RegexNode {
+      final boolean begin;
+
+      Anchor( final boolean begin ) {
+         this.begin = begin;
+      }
+   }
+}
@@ -0,0 +1,508 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Parses the regular expression dialect that is supported by the linear-time matcher, see {@link RegularExpression}.
+ * Patterns that are not valid are rejected with a {@link PatternSyntaxException}, like {@link Pattern#compile(String)}
+ * does; patterns that use constructs outside of the dialect are rejected with an {@link UnsupportedFeatureException}.
+ */
+class RegexParser {
+   /**
+    * Repetition bounds above this limit would make the compiled program too large
+    */
+   static final int MAX_REPETITION = 1000;
+
+   private static final IntPredicate DIGIT = codePoint -> codePoint >= '0' && codePoint <= '9';
+   private static final IntPredicate WORD = codePoint -> codePoint >= 'a' && codePoint <= 'z' || codePoint >= 'A' && codePoint <= 'Z'
+         || codePoint >= '0' && codePoint <= '9' || codePoint == '_';
+   private static final IntPredicate SPACE = codePoint -> codePoint == ' ' || codePoint == '\t' || codePoint == '\n'
+         || codePoint == 0x0B || codePoint == '\f' || codePoint == '\r';
+   private static final IntPredicate DOT = codePoint -> codePoint != '\n' && codePoint != '\r' && codePoint != 0x85
+         && codePoint != 0x2028 && codePoint != 0x2029;
+
+   private final String pattern;
+   private int position;
+   private int groupCount;
+
+   private RegexParser( final String pattern ) {
+      this.pattern = pattern;
+   }
+
+   /**
+    * @param pattern the regular expression
+    * @return the syntax tree, whose root is the implicit group 0
+    * @throws PatternSyntaxException if the pattern is not valid
+    * @throws UnsupportedFeatureException if the pattern uses a construct that is not supported
+    */
+   static RegexNode.Group parse( final String pattern ) {
+      final RegexParser parser = new RegexParser( pattern );
+      final RegexNode root = parser.parseAlternation();
+      if ( parser.position < pattern.length() ) {
+         throw parser.syntaxError( "Unmatched closing ')'" );
+      }
+      return new RegexNode.Group( root, 0 );
+   }
+
+   /**
+    * @return the number of capturing groups of a parsed pattern, without group 0
+    */
+   static int groupCount( final RegexNode node ) {
+      if ( node instanceof RegexNode.Group ) {
+         final RegexNode.Group group = (RegexNode.Group) node;
+         return (group.index > 0 ? 1 : 0) + groupCount( group.content );
+      }
+      if ( node instanceof RegexNode.Sequence ) {
+         return ((RegexNode.Sequence) node).elements.stream().mapToInt( RegexParser::groupCount ).sum();
+      }
+      if ( node instanceof RegexNode.Alternation ) {
+         return ((RegexNode.Alternation) node).alternatives.stream().mapToInt( RegexParser::groupCount ).sum();
+      }
+      if ( node instanceof RegexNode.Repetition ) {
+         return groupCount( ((RegexNode.Repetition) node).content );
+      }
+      return 0;
+   }
+
+   private RegexNode parseAlternation() {
+      final List<RegexNode> alternatives = new ArrayList<>();
+      alternatives.add( parseSequence() );
+      while ( position < pattern.length() && pattern.charAt( position ) == '|' ) {
+         position++;
+         alternatives.add( parseSequence() );
+      }
+      return alternatives.size() == 1 ? alternatives.get( 0 ) : new RegexNode.Alternation( alternatives );
+   }
+
+   private RegexNode parseSequence() {
+      final List<RegexNode> elements = new ArrayList<>();
+      while ( position < pattern.length() && pattern.charAt( position ) != '|' && pattern.charAt( position ) != ')' ) {
+         elements.add( parseQuantifier( parseAtom() ) );
+      }
+      return elements.size() == 1 ? elements.get( 0 ) : new RegexNode.Sequence( elements );
+   }
+
+   private RegexNode parseAtom() {
+      final int codePoint = pattern.codePointAt( position );
+      switch ( codePoint ) {
+         case '(':
+            return parseGroup();
+         case '[':
+            return new RegexNode.CodePoint( parseCharacterClass() );
+         case '.':
+            position++;
+            return new RegexNode.CodePoint( DOT );
+         case '^':
+         case '$':
+            position++;
+            return new RegexNode.Anchor( codePoint == '^' );
+         case '\\':
+            return new RegexNode.CodePoint( parseEscape( false ) );
+         case '*':
+         case '+':
+         case '?':
+            throw syntaxError( "Dangling meta character '" + (char) codePoint + "'" );
+         case '{':
+            throw unsupported( "'{' that does not follow an atom" );
+         default:
+            position += Character.charCount( codePoint );
+            return new RegexNode.CodePoint( literal( codePoint ) );
+      }
+   }
+
+   private RegexNode parseGroup() {
+      position++;
+      int index = -1;
+      if ( pattern.startsWith( "?:", position ) ) {
+         position += 2;
+      } else if ( position < pattern.length() && pattern.charAt( position ) == '?' ) {
+         throw unsupported( "lookaround assertions, named and atomic groups and inline flags" );
+      } else {
+         index = ++groupCount;
+      }
+      final RegexNode content = parseAlternation();
+      if ( position >= pattern.length() ) {
+         throw syntaxError( "Unclosed group" );
+      }
+      position++;
+      return new RegexNode.Group( content, index );
+   }
+
+   private RegexNode parseQuantifier( final RegexNode atom ) {
+      if ( position >= pattern.length() ) {
+         return atom;
+      }
+      final int min;
+      final int max;
+      switch ( pattern.charAt( position ) ) {
+         case '*':
+            min = 0;
+            max = -1;
+            position++;
+            break;
+         case '+':
+            min = 1;
+            max = -1;
+            position++;
+            break;
+         case '?':
+            min = 0;
+            max = 1;
+            position++;
+            break;
+         case '{':
+            final int end = pattern.indexOf( '}', position );
+            final String bounds = end < 0 ? "" : pattern.substring( position + 1, end );
+            if ( !bounds.matches( "\\d{1,9}(,\\d{0,9})?" ) ) {
+               throw unsupported( "'{' that does not start a repetition" );
+            }
+            final int comma = bounds.indexOf( ',' );
+            min = Integer.parseInt( comma < 0 ? bounds : bounds.substring( 0, comma ) );
+            max = comma < 0 ? min : comma == bounds.length() - 1 ? -1 : Integer.parseInt( bounds.substring( comma + 1 ) );
+            position = end + 1;
+            if ( max >= 0 && max < min ) {
+               throw syntaxError( "Illegal repetition range" );
+            }
+            if ( min > MAX_REPETITION || max > MAX_REPETITION ) {
+               throw unsupported( "repetition bounds greater than " + MAX_REPETITION );
+            }
+            break;
+         default:
+            return atom;
+      }
+      if ( atom instanceof RegexNode.Anchor ) {
+         throw unsupported( "quantified anchors" );
+      }
+      boolean greedy = true;
+      if ( position < pattern.length() ) {
+         final char next = pattern.charAt( position );
+         if ( next == '?' ) {
+            greedy = false;
+            position++;
+         } else if ( next == '+' ) {
+            throw unsupported( "possessive quantifiers" );
+         }
+      }
+      if ( position < pattern.length() ) {
+         final char next = pattern.charAt( position );
+         if ( next == '*' || next == '+' || next == '?' ) {
+            throw syntaxError( "Dangling meta character '" + next + "'" );
+         }
+         if ( next == '{' ) {
+            throw unsupported( "repeated quantifiers" );
+         }
+      }
+      return new RegexNode.Repetition( atom, min, max, greedy );
+   }
+
+   private IntPredicate parseCharacterClass() {
+      position++;
+      boolean negated = false;
+      if ( position < pattern.length() && pattern.charAt( position ) == '^' ) {
+         negated = true;
+         position++;
+      }
+      if ( position < pattern.length() && pattern.charAt( position ) == ']' ) {
+         throw unsupported( "']' at the start of a character class" );
+      }
+      final CharacterSet set = new CharacterSet();
+      while ( true ) {
+         if ( position >= pattern.length() ) {
+            throw syntaxError( "Unclosed character class" );
+         }
+         final int codePoint = pattern.codePointAt( position );
+         if ( codePoint == ']' ) {
+            position++;
+            break;
+         }
+         if ( codePoint == '[' || pattern.startsWith( "&&", position ) ) {
+            throw unsupported( "nested character classes, unions, intersections and subtractions" );
+         }
+         final int start = position;
+         final int first = parseClassCodePoint( set );
+         if ( first < 0 ) {
+            continue;
+         }
+         if ( pattern.startsWith( "-", position ) && position + 1 < pattern.length() && pattern.charAt( position + 1 ) != ']' ) {
+            position++;
+            if ( pattern.charAt( position ) == '[' ) {
+               throw unsupported( "character class subtraction" );
+            }
+            final int last = parseClassCodePoint( null );
+            if ( last < 0 ) {
+               throw unsupported( "ranges that end with a character class escape" );
+            }
+            if ( last < first ) {
+               position = start;
+               throw syntaxError( "Illegal character range" );
+            }
+            set.addRange( first, last );
+         } else {
+            set.addRange( first, first );
+         }
+      }
+      return negated ? set.negate() : set;
+   }
+
+   /**
+    * Parses a single element of a character class
+    *
+    * @param set the set to add class escapes such as \d to, or null if they are not allowed
+    * @return the code point, or -1 if the element was a class escape that was added to the set
+    */
+   private int parseClassCodePoint( final CharacterSet set ) {
+      final int codePoint = pattern.codePointAt( position );
+      if ( codePoint != '\\' ) {
+         position += Character.charCount( codePoint );
+         return codePoint;
+      }
+      final int start = position;
+      final IntPredicate escape = parseEscape( true );
+      final int literal = escapedCodePoint( start );
+      if ( literal >= 0 ) {
+         return literal;
+      }
+      if ( set == null ) {
+         return -1;
+      }
+      set.addPredicate( escape );
+      return -1;
+   }
+
+   /**
+    * @return the code point that the escape sequence at the given position stands for, or -1 if it is a class escape
+    */
+   private int escapedCodePoint( final int start ) {
+      final char escaped = pattern.charAt( start + 1 );
+      if ( "dDwWsSpP".indexOf( escaped ) >= 0 ) {
+         return -1;
+      }
+      final String sequence = pattern.substring( start, position );
+      return new CodePointLiteral( sequence ).codePoint;
+   }
+
+   private IntPredicate parseEscape( final boolean inCharacterClass ) {
+      if ( position + 1 >= pattern.length() ) {
+         throw syntaxError( "Unexpected internal error" );
+      }
+      final int start = position;
+      final char escaped = pattern.charAt( position + 1 );
+      position += 2;
+      switch ( escaped ) {
+         case 'd':
+            return DIGIT;
+         case 'D':
+            return DIGIT.negate();
+         case 'w':
+            return WORD;
+         case 'W':
+            return WORD.negate();
+         case 's':
+            return SPACE;
+         case 'S':
+            return SPACE.negate();
+         case 't':
+            return literal( '\t' );
+         case 'n':
+            return literal( '\n' );
+         case 'r':
+            return literal( '\r' );
+         case 'f':
+            return literal( '\f' );
+         case 'a':
+            return literal( 0x07 );
+         case 'e':
+            return literal( 0x1B );
+         case 'x':
+            return literal( parseHex( start ) );
+         case 'u':
+            return literal( parseUnicode( start ) );
+         case 'p':
+         case 'P':
+            return parseProperty( start );
+         default:
+            if ( escaped >= '0' && escaped <= '9' ) {
+               throw unsupported( inCharacterClass ? "octal escapes" : "back references and octal escapes" );
+            }
+            if ( Character.isLetter( escaped ) ) {
+               if ( "bBAGzZQEkRXhHvVNc".indexOf( escaped ) >= 0 ) {
+                  throw unsupported( "the escape sequence \\" + escaped );
+               }
+               position = start + 1;
+               throw syntaxError( "Illegal/unsupported escape sequence" );
+            }
+            if ( Character.isHighSurrogate( escaped ) ) {
+               position = start + 1 + Character.charCount( pattern.codePointAt( start + 1 ) );
+               return literal( pattern.codePointAt( start + 1 ) );
+            }
+            return literal( escaped );
+      }
+   }
+
+   private int parseHex( final int start ) {
+      final String digits;
+      final boolean braced = pattern.startsWith( "{", position );
+      if ( braced ) {
+         final int end = pattern.indexOf( '}', position );
+         if ( end < 0 ) {
+            throw syntaxError( "Unclosed hexadecimal escape sequence" );
+         }
+         digits = pattern.substring( position + 1, end );
+         position = end + 1;
+      } else {
+         digits = pattern.substring( position, Math.min( position + 2, pattern.length() ) );
+         position += 2;
+      }
+      return parseCodePoint( digits, braced ? -1 : 2, start, "Illegal hexadecimal escape sequence" );
+   }
+
+   private int parseUnicode( final int start ) {
+      final String digits = pattern.substring( position, Math.min( position + 4, pattern.length() ) );
+      position += 4;
+      final int codePoint = parseCodePoint( digits, 4, start, "Illegal Unicode escape sequence" );
+      if ( Character.isHighSurrogate( (char) codePoint ) ) {
+         throw unsupported( "surrogate pairs as Unicode escape sequences" );
+      }
+      return codePoint;
+   }
+
+   /**
+    * @param length the required number of digits, or -1 for a braced escape sequence
+    */
+   private int parseCodePoint( final String digits, final int length, final int start, final String message ) {
+      if ( !digits.matches( "[0-9a-fA-F]{1,8}" ) || length >= 0 && digits.length() != length ) {
+         position = start;
+         throw syntaxError( message );
+      }
+      final long codePoint = Long.parseLong( digits, 16 );
+      if ( codePoint > Character.MAX_CODE_POINT ) {
+         position = start;
+         throw syntaxError( message );
+      }
+      return (int) codePoint;
+   }
+
+   /**
+    * \p{Name} and \P{Name} use the Unicode categories, scripts, blocks and binary properties of
+    * {@link java.util.regex.Pattern}, which are evaluated for one code point at a time
+    */
+   private IntPredicate parseProperty( final int start ) {
+      final int end;
+      if ( pattern.startsWith( "{", position ) ) {
+         end = pattern.indexOf( '}', position );
+         if ( end < 0 ) {
+            throw syntaxError( "Unclosed character family" );
+         }
+      } else if ( position < pattern.length() ) {
+         end = position;
+      } else {
+         throw syntaxError( "Illegal character family" );
+      }
+      position = end + 1;
+      final Pattern property;
+      try {
+         property = Pattern.compile( pattern.substring( start, position ) );
+      } catch ( final PatternSyntaxException exception ) {
+         position = start;
+         throw syntaxError( exception.getDescription() );
+      }
+      return codePoint -> property.matcher( new String( Character.toChars( codePoint ) ) ).matches();
+   }
+
+   private static IntPredicate literal( final int literal ) {
+      return codePoint -> codePoint == literal;
+   }
+
+   private PatternSyntaxException syntaxError( final String description ) {
+      return new PatternSyntaxException( description, pattern, position );
+   }
+
+   private UnsupportedFeatureException unsupported( final String feature ) {
+      return new UnsupportedFeatureException( feature );
+   }
+
+   /**
+    * The code points of a character class: ranges and class escapes such as \d
+    */
+   private static class CharacterSet implements IntPredicate {
+      private final List<int[]> ranges = new ArrayList<>();
+      private final List<IntPredicate> predicates = new ArrayList<>();
+
+      private void addRange( final int first, final int last ) {
+         ranges.add( new int[] { first, last } );
+      }
+
+      private void addPredicate( final IntPredicate predicate ) {
+         predicates.add( predicate );
+      }
+
+      @Override
+      public boolean test( final int codePoint ) {
+         for ( final int[] range : ranges ) {
+            if ( codePoint >= range[0] && codePoint <= range[1] ) {
+               return true;
+            }
+         }
+         for ( final IntPredicate predicate : predicates ) {
+            if ( predicate.test( codePoint ) ) {
+               return true;
+            }
+         }
+         return false;
+      }
+   }
+
+   /**
+    * The code point of an escape sequence in a character class, which can be part of a range
+    */
+   private static class CodePointLiteral {
+      private final int codePoint;
+
+      private CodePointLiteral( final String sequence ) {
+         final char escaped = sequence.charAt( 1 );
+         switch ( escaped ) {
+            case 't':
+               codePoint = '\t';
+               break;
+            case 'n':
+               codePoint = '\n';
+               break;
+            case 'r':
+               codePoint = '\r';
+               break;
+            case 'f':
+               codePoint = '\f';
+               break;
+            case 'a':
+               codePoint = 0x07;
+               break;
+            case 'e':
+               codePoint = 0x1B;
+               break;
+            case 'x':
+            case 'u':
+               codePoint = Integer.parseInt( sequence.substring( 2 ).replace( "{", "" ).replace( "}", "" ), 16 );
+               break;
+            default:
+               codePoint = sequence.codePointAt( 1 );
+         }
+      }
+   }
+}
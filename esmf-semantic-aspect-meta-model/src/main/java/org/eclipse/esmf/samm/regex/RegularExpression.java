@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.regex;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A compiled regular expression as used by samm-c:RegularExpressionConstraint and samm-c:deconstructionRule, which
+ * is matched in linear time.
+ * <p>
+ * Patterns use the syntax of {@link Pattern}. Literals, the dot, character classes (including \d, \w, \s, their
+ * negations and \p{..}), groups, non-capturing groups, alternations, greedy and reluctant quantifiers and the anchors
+ * ^ and $ are matched by a Pike VM (see {@link Program}), whose running time does not depend on backtracking, and
+ * which yields the same match and capture groups as {@link Pattern}. Patterns that use other constructs, such as back
+ * references, lookaround assertions or possessive quantifiers, explicitly fall back to {@link Pattern}; see
+ * {@link #isLinear()}. So do repetitions whose results depend on how {@link Pattern} backtracks: repeated content that
+ * contains nested capturing groups (e.g. {@code ((a)|b)+}), whose captures {@link Pattern} keeps from abandoned
+ * iterations, and repeated content that prefers to match the empty string (e.g. {@code (?:|a)*}) or that can match it
+ * in a counted repetition (e.g. {@code (?:a|^){2}}), since {@link Pattern} ends a loop after an empty iteration.
+ * <p>
+ * Compiled expressions are cached, instances are immutable and can be used concurrently.
+ */
+public class RegularExpression {
+   private static final int MAX_CACHED_EXPRESSIONS = 512;
+   private static final Map<String, RegularExpression> CACHE = Collections.synchronizedMap(
+         new LinkedHashMap<>( 16, 0.75f, true ) {
+            @Override
+            protected boolean removeEldestEntry( final Map.Entry<String, RegularExpression> eldest ) {
+               return size() > MAX_CACHED_EXPRESSIONS;
+            }
+         } );
+
+   private final String pattern;
+   private final int groupCount;
+   private final Program program;
+   private final Pattern fallback;
+
+   private RegularExpression( final String pattern, final int groupCount, final Program program, final Pattern fallback ) {
+      this.pattern = pattern;
+      this.groupCount = groupCount;
+      this.program = program;
+      this.fallback = fallback;
+   }
+
+   /**
+    * Compiles a regular expression, or returns it from the cache
+    *
+    * @param pattern the regular expression
+    * @return the compiled regular expression
+    * @throws PatternSyntaxException if the regular expression is not valid
+    */
+   public static RegularExpression compile( final String pattern ) {
+      final RegularExpression cached = CACHE.get( pattern );
+      if ( cached != null ) {
+         return cached;
+      }
+      final RegularExpression compiled = create( pattern );
+      CACHE.put( pattern, compiled );
+      return compiled;
+   }
+
+   private static RegularExpression create( final String pattern ) {
+      try {
+         final RegexNode.Group root = RegexParser.parse( pattern );
+         final int groupCount = RegexParser.groupCount( root );
+         return new RegularExpression( pattern, groupCount, Program.compile( root, groupCount ), null );
+      } catch ( final UnsupportedFeatureException | PatternSyntaxException exception ) {
+         // Syntax errors are reported exactly like Pattern reports them
+         final Pattern fallback = Pattern.compile( pattern );
+         return new RegularExpression( pattern, fallback.matcher( "" ).groupCount(), null, fallback );
+      }
+   }
+
+   /**
+    * @return the regular expression
+    */
+   public String pattern() {
+      return pattern;
+   }
+
+   /**
+    * @return the number of capturing groups
+    */
+   public int groupCount() {
+      return groupCount;
+   }
+
+   /**
+    * @return true if the expression is matched in linear time, false if it uses constructs that fall back to
+    *       {@link Pattern}
+    */
+   public boolean isLinear() {
+      return program != null;
+   }
+
+   /**
+    * @param input the input
+    * @return true if the entire input matches the expression
+    */
+   public boolean matches( final CharSequence input ) {
+      if ( program == null ) {
+         return fallback.matcher( input ).matches();
+      }
+      return program.run( input, true ) != null;
+   }
+
+   /**
+    * Searches the leftmost match in the input
+    *
+    * @param input the input
+    * @return the match, or empty if the expression does not match any part of the input
+    */
+   public Optional<Match> find( final CharSequence input ) {
+      if ( program == null ) {
+         final Matcher matcher = fallback.matcher( input );
+         if ( !matcher.find() ) {
+            return Optional.empty();
+         }
+         final int[] slots = new int[2 * (groupCount + 1)];
+         for ( int group = 0; group <= groupCount; group++ ) {
+            slots[2 * group] = matcher.start( group );
+            slots[2 * group + 1] = matcher.end( group );
+         }
+         return Optional.of( new Match( input, slots ) );
+      }
+      return Optional.ofNullable( program.run( input, false ) ).map( slots -> new Match( input, slots ) );
+   }
+
+   @Override
+   public String toString() {
+      return pattern;
+   }
+
+   /**
+    * A match of a regular expression in an input
+    */
+   public static class Match {
+      private final CharSequence input;
+      private final int[] slots;
+
+      private Match( final CharSequence input, final int[] slots ) {
+         this.input = input;
+         this.slots = slots;
+      }
+
+      /**
+       * @return the start index of the match
+       */
+      public int start() {
+         return slots[0];
+      }
+
+      /**
+       * @return the end index (exclusive) of the match
+       */
+      public int end() {
+         return slots[1];
+      }
+
+      /**
+       * @return the number of capturing groups
+       */
+      public int groupCount() {
+         return slots.length / 2 - 1;
+      }
+
+      /**
+       * @param group the number of the group; 0 is the entire match
+       * @return the input that was captured by the group, or null if the group did not participate in the match
+       */
+      public String group( final int group ) {
+         if ( group < 0 || group > groupCount() ) {
+            throw new IndexOutOfBoundsException( "No group " + group );
+         }
+         final int start = slots[2 * group];
+         return start < 0 ? null : input.subSequence( start, slots[2 * group + 1] ).toString();
+      }
+   }
+}
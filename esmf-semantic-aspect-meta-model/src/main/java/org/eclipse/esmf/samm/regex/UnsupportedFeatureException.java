@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.regex;
+
+/**
+ * Signals that a regular expression uses a construct that the linear-time matcher does not support
+ */
+class UnsupportedFeatureException extends RuntimeException {
+   private static final long serialVersionUID = 1L;
+
+   UnsupportedFeatureException( final String feature ) {
+      super( "Unsupported regular expression feature: " + feature );
+   }
+}
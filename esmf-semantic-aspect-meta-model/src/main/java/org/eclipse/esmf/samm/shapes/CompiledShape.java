@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * A node shape or property shape, whose core constraints are compiled into {@link ConstraintCheck}s
+ */
+class CompiledShape {
+   private final Resource shape;
+   private final Resource path;
+   private final PropertyPath compiledPath;
+   private final Resource severity;
+   private final List<Node> targetClasses = new ArrayList<>();
+   private final List<Node> targetSubjectsOf = new ArrayList<>();
+   private final List<Node> targetInstancesOfInstancesOf = new ArrayList<>();
+   private final List<ConstraintCheck> checks = new ArrayList<>();
+   private final List<CompiledShape> propertyShapes = new ArrayList<>();
+
+   /**
+    * @param shape the shape in the shapes graph
+    * @param path the sh:path of a property shape, or null for a node shape
+    * @param compiledPath the compiled path of a property shape, or null for a node shape
+    * @param severity the severity of the results of the shape
+    */
+   CompiledShape( final Resource shape, final Resource path, final PropertyPath compiledPath, final Resource severity ) {
+      this.shape = shape;
+      this.path = path;
+      this.compiledPath = compiledPath;
+      this.severity = severity;
+   }
+
+   Resource getShape() {
+      return shape;
+   }
+
+   Resource getPath() {
+      return path;
+   }
+
+   Resource getSeverity() {
+      return severity;
+   }
+
+   void addTargetClass( final Node targetClass ) {
+      targetClasses.add( targetClass );
+   }
+
+   void addTargetSubjectsOf( final Node predicate ) {
+      targetSubjectsOf.add( predicate );
+   }
+
+   /**
+    * Adds the target $this rdf:type/rdf:type metaClass, which the meta model shapes declare as SPARQL-based target,
+    * e.g. for the instances of Entities
+    */
+   void addTargetInstancesOfInstancesOf( final Node metaClass ) {
+      targetInstancesOfInstancesOf.add( metaClass );
+   }
+
+   void addCheck( final ConstraintCheck check ) {
+      checks.add( check );
+   }
+
+   void addPropertyShape( final CompiledShape propertyShape ) {
+      propertyShapes.add( propertyShape );
+   }
+
+   boolean isEmpty() {
+      return checks.isEmpty() && propertyShapes.isEmpty();
+   }
+
+   /**
+    * Validates all target nodes of the shape
+    */
+   void validate( final ValidationContext context ) {
+      final Set<Node> focusNodes = new LinkedHashSet<>();
+      for ( final Node targetClass : targetClasses ) {
+         for ( final Node type : context.getSubClasses( targetClass ) ) {
+            focusNodes.addAll( context.subjects( RDF.type.asNode(), type ) );
+         }
+      }
+      for ( final Node predicate : targetSubjectsOf ) {
+         focusNodes.addAll( context.subjects( predicate, Node.ANY ) );
+      }
+      for ( final Node metaClass : targetInstancesOfInstancesOf ) {
+         for ( final Node type : context.subjects( RDF.type.asNode(), metaClass ) ) {
+            focusNodes.addAll( context.subjects( RDF.type.asNode(), type ) );
+         }
+      }
+      for ( final Node focusNode : focusNodes ) {
+         validate( focusNode, context );
+      }
+   }
+
+   /**
+    * Validates one focus node
+    */
+   void validate( final Node focusNode, final ValidationContext context ) {
+      final Set<Node> valueNodes = compiledPath == null ? Set.of( focusNode ) : compiledPath.valueNodes( focusNode, context.getGraph() );
+      for ( final ConstraintCheck check : checks ) {
+         check.check( this, focusNode, valueNodes, context );
+      }
+      for ( final CompiledShape propertyShape : propertyShapes ) {
+         for ( final Node valueNode : valueNodes ) {
+            propertyShape.validate( valueNode, context );
+         }
+      }
+   }
+}
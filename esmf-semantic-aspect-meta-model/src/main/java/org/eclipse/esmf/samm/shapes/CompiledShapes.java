@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import java.util.List;
+
+import org.apache.jena.rdf.model.Model;
+
+/**
+ * The result of {@link ShapesCompiler#compile(Model)}: the compiled core constraints, which are validated directly over
+ * the data graph, and the residual shapes graph with everything that was not compiled. Validating a model with
+ * {@link #validate(Model)} and validating it with a SHACL engine against {@link #getResidualShapes()} together yields
+ * the same results as validating it with a SHACL engine against the original shapes graph.
+ * <p>
+ * Instances are immutable and can be used concurrently.
+ */
+public class CompiledShapes {
+   private final List<CompiledShape> shapes;
+   private final Model residualShapes;
+   private final int compiledConstraints;
+
+   CompiledShapes( final List<CompiledShape> shapes, final Model residualShapes, final int compiledConstraints ) {
+      this.shapes = List.copyOf( shapes );
+      this.residualShapes = residualShapes;
+      this.compiledConstraints = compiledConstraints;
+   }
+
+   /**
+    * Validates a model against the compiled constraints
+    *
+    * @param model the data graph, i.e. the aspect model including the meta model definitions
+    * @return the violations of the compiled constraints
+    */
+   public List<ValidationResult> validate( final Model model ) {
+      final ValidationContext context = new ValidationContext( model );
+      for ( final CompiledShape shape : shapes ) {
+         shape.validate( context );
+      }
+      return context.getResults();
+   }
+
+   /**
+    * @return the shapes graph without the compiled constraints. It must not be modified.
+    */
+   public Model getResidualShapes() {
+      return residualShapes;
+   }
+
+   /**
+    * @return the number of constraints that were compiled
+    */
+   public int getCompiledConstraints() {
+      return compiledConstraints;
+   }
+}
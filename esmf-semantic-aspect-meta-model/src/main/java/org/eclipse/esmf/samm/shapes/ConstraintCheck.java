@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import java.util.Set;
+
+import org.apache.jena.graph.Node;
+
+/**
+ * A compiled constraint, i.e. a constraint component with its parameter values bound
+ */
+@FunctionalInterface
+interface ConstraintCheck {
+   /**
+    * Checks the value nodes of one focus node and reports violations to the context
+    *
+    * @param shape the shape that the constraint belongs to
+    * @param focusNode the focus node
+    * @param valueNodes the value nodes of the focus node
+    * @param context the validation context
+    */
+   void check( CompiledShape shape, Node focusNode, Set<Node> valueNodes, ValidationContext context );
+}
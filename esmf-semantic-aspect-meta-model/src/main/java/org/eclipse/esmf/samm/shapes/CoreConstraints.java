@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * The compiled SHACL core constraint components. The checks and their messages follow the native constraint executors of
+ * the TopBraid SHACL engine, so that compiled and interpreted shapes report the same results.
+ */
+final class CoreConstraints {
+   private CoreConstraints() {
+   }
+
+   static ConstraintCheck minCount( final int minCount ) {
+      return ( shape, focusNode, valueNodes, context ) -> {
+         if ( valueNodes.size() < minCount ) {
+            context.report( shape, SH.MinCountConstraintComponent, focusNode, null,
+                  "Property needs to have at least " + minCount + " values, but found " + valueNodes.size() );
+         }
+      };
+   }
+
+   static ConstraintCheck maxCount( final int maxCount ) {
+      return ( shape, focusNode, valueNodes, context ) -> {
+         if ( valueNodes.size() > maxCount ) {
+            context.report( shape, SH.MaxCountConstraintComponent, focusNode, null,
+                  "Property may only have " + maxCount + " value" + (maxCount == 1 ? "" : "s") + ", but found " + valueNodes.size() );
+         }
+      };
+   }
+
+   static ConstraintCheck datatype( final String datatypeUri, final String label ) {
+      final RDFDatatype datatype = NodeFactory.getType( datatypeUri );
+      final String message = "Value must be a valid literal of type " + label;
+      return ( shape, focusNode, valueNodes, context ) -> {
+         for ( final Node value : valueNodes ) {
+            if ( !value.isLiteral() || !datatypeUri.equals( value.getLiteralDatatypeURI() )
+                  || !datatype.isValid( value.getLiteralLexicalForm() ) ) {
+               context.report( shape, SH.DatatypeConstraintComponent, focusNode, value, message );
+            }
+         }
+      };
+   }
+
+   static ConstraintCheck nodeKind( final Node nodeKind, final String label ) {
+      final boolean blankNode = nodeKind.equals( SH.BlankNode ) || nodeKind.equals( SH.BlankNodeOrIRI )
+            || nodeKind.equals( SH.BlankNodeOrLiteral );
+      final boolean iri = nodeKind.equals( SH.IRI ) || nodeKind.equals( SH.BlankNodeOrIRI ) || nodeKind.equals( SH.IRIOrLiteral );
+      final boolean literal = nodeKind.equals( SH.Literal ) || nodeKind.equals( SH.BlankNodeOrLiteral )
+            || nodeKind.equals( SH.IRIOrLiteral );
+      final String message = "Value does not have node kind " + label;
+      return ( shape, focusNode, valueNodes, context ) -> {
+         for ( final Node value : valueNodes ) {
+            if ( !(value.isBlank() && blankNode || value.isURI() && iri || value.isLiteral() && literal) ) {
+               context.report( shape, SH.NodeKindConstraintComponent, focusNode, value, message );
+            }
+         }
+      };
+   }
+
+   static ConstraintCheck classOf( final Node type, final String label ) {
+      final String message = "Value must be an instance of " + label;
+      return ( shape, focusNode, valueNodes, context ) -> {
+         for ( final Node value : valueNodes ) {
+            if ( value.isLiteral() || !context.hasType( value, type ) ) {
+               context.report( shape, SH.ClassConstraintComponent, focusNode, value, message );
+            }
+         }
+      };
+   }
+
+   static ConstraintCheck in( final Set<Node> allowedValues ) {
+      return ( shape, focusNode, valueNodes, context ) -> {
+         for ( final Node value : valueNodes ) {
+            if ( !allowedValues.contains( value ) ) {
+               context.report( shape, SH.InConstraintComponent, focusNode, value, "Not a value from the sh:in enumeration" );
+            }
+         }
+      };
+   }
+
+   static ConstraintCheck minLength( final int minLength ) {
+      final String message = "Value has less than " + minLength + " characters";
+      return ( shape, focusNode, valueNodes, context ) -> {
+         for ( final Node value : valueNodes ) {
+            if ( value.isBlank() || text( value ).length() < minLength ) {
+               context.report( shape, SH.MinLengthConstraintComponent, focusNode, value, message );
+            }
+         }
+      };
+   }
+
+   static ConstraintCheck maxLength( final int maxLength ) {
+      final String message = "Value has more than " + maxLength + " characters";
+      return ( shape, focusNode, valueNodes, context ) -> {
+         for ( final Node value : valueNodes ) {
+            if ( value.isBlank() || text( value ).length() > maxLength ) {
+               context.report( shape, SH.MaxLengthConstraintComponent, focusNode, value, message );
+            }
+         }
+      };
+   }
+
+   static ConstraintCheck uniqueLang() {
+      return ( shape, focusNode, valueNodes, context ) -> {
+         final Set<String> languages = new HashSet<>();
+         final Set<String> reported = new HashSet<>();
+         for ( final Node value : valueNodes ) {
+            if ( value.isLiteral() && !value.getLiteralLanguage().isEmpty() ) {
+               final String language = value.getLiteralLanguage();
+               if ( !languages.add( language ) && reported.add( language ) ) {
+                  context.report( shape, SH.UniqueLangConstraintComponent, focusNode, null,
+                        "Language \"" + language + "\" used more than once" );
+               }
+            }
+         }
+      };
+   }
+
+   /**
+    * sh:node dash:ListShape: The value node must be a well-formed RDF list, i.e. either rdf:nil or a node that is not
+    * reachable from itself via rdf:rest, and every node on its rdf:rest chain must have exactly one rdf:first and one
+    * rdf:rest, except rdf:nil, which must have neither.
+    */
+   static ConstraintCheck listShape( final String label ) {
+      final String message = "Value does not have shape " + label;
+      return ( shape, focusNode, valueNodes, context ) -> {
+         for ( final Node value : valueNodes ) {
+            if ( !isWellFormedList( value, context ) ) {
+               context.report( shape, SH.NodeConstraintComponent, focusNode, value, message );
+            }
+         }
+      };
+   }
+
+   private static boolean isWellFormedList( final Node list, final ValidationContext context ) {
+      final Node rest = RDF.rest.asNode();
+      final Set<Node> visited = new HashSet<>();
+      final Deque<Node> queue = new ArrayDeque<>();
+      visited.add( list );
+      queue.add( list );
+      boolean recursive = false;
+      while ( !queue.isEmpty() ) {
+         final Node node = queue.poll();
+         if ( !isWellFormedListNode( node, context ) ) {
+            return false;
+         }
+         final ExtendedIterator<Triple> triples = context.getGraph().find( node, rest, Node.ANY );
+         try {
+            while ( triples.hasNext() ) {
+               final Node next = triples.next().getObject();
+               recursive |= next.equals( list );
+               if ( visited.add( next ) ) {
+                  queue.add( next );
+               }
+            }
+         } finally {
+            triples.close();
+         }
+      }
+      return list.equals( RDF.nil.asNode() ) || !recursive;
+   }
+
+   private static boolean isWellFormedListNode( final Node node, final ValidationContext context ) {
+      final int expected = node.equals( RDF.nil.asNode() ) ? 0 : 1;
+      return context.count( node, RDF.first.asNode() ) == expected && context.count( node, RDF.rest.asNode() ) == expected;
+   }
+
+   private static String text( final Node value ) {
+      return value.isURI() ? value.getURI() : value.getLiteralLexicalForm();
+   }
+}
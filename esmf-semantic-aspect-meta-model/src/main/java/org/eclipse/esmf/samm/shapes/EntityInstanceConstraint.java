@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * The Java implementation of a SPARQL constraint of samm:ValidEntityInstances or
+ * samm:EntityInstancesHaveOnlyKnownProperties. The constraint is identified by the error code that its query binds;
+ * the Entities are compiled once per validation run by the shared {@link EntityInstanceValidator}, so each instance is
+ * checked against the compiled types of the instance without evaluating property paths.
+ */
+class EntityInstanceConstraint implements ConstraintCheck {
+   static final String VALID_ENTITY_INSTANCES = "ValidEntityInstances";
+   static final String ONLY_KNOWN_PROPERTIES = "EntityInstancesHaveOnlyKnownProperties";
+
+   /**
+    * The checks, by the error code of the SPARQL constraint
+    */
+   enum Kind {
+      /**
+       * ERR_MISSING_PROPERTY: the instance has no value for a Property that is not optional
+       */
+      MISSING_PROPERTY,
+      /**
+       * ERR_WRONG_DATATYPE: the data type of a literal value does not match the data type of the Characteristic
+       */
+      WRONG_DATATYPE,
+      /**
+       * ERR_LIST_REQUIRED: the value of a Property with a Collection Characteristic is not a non-empty list
+       */
+      LIST_REQUIRED,
+      /**
+       * ERR_WRONG_DATATYPE of a list: the type of an element does not match the data type of the Collection
+       */
+      WRONG_LIST_ELEMENT_DATATYPE,
+      /**
+       * ERR_INVALID_PROPERTY: the instance uses a predicate that is no Property of the Entity
+       */
+      UNKNOWN_PROPERTY;
+
+      /**
+       * @param query the sh:select of the SPARQL constraint
+       * @return the check that the query implements, or null if it is not known
+       */
+      static Kind of( final String query ) {
+         if ( query.contains( "'ERR_MISSING_PROPERTY'" ) ) {
+            return MISSING_PROPERTY;
+         }
+         if ( query.contains( "'ERR_WRONG_DATATYPE'" ) ) {
+            return query.contains( "samm-c:Collection" ) ? WRONG_LIST_ELEMENT_DATATYPE : WRONG_DATATYPE;
+         }
+         if ( query.contains( "'ERR_LIST_REQUIRED'" ) ) {
+            return LIST_REQUIRED;
+         }
+         if ( query.contains( "'ERR_INVALID_PROPERTY'" ) ) {
+            return UNKNOWN_PROPERTY;
+         }
+         return null;
+      }
+   }
+
+   private final Kind kind;
+   private final String metaModelNamespace;
+   private final String characteristicNamespace;
+   private final boolean includeExtendedEntities;
+   private final String message;
+
+   /**
+    * @param kind the check
+    * @param metaModelNamespace the samm namespace of the meta model version
+    * @param includeExtendedEntities whether the query follows samm:extends*
+    * @param message the sh:message of the SPARQL constraint, with the placeholders {$this}, {?path} and {?value}
+    */
+   EntityInstanceConstraint( final Kind kind, final String metaModelNamespace, final boolean includeExtendedEntities,
+         final String message ) {
+      this.kind = kind;
+      this.metaModelNamespace = metaModelNamespace;
+      characteristicNamespace = metaModelNamespace.replace( ":meta-model:", ":characteristic:" );
+      this.includeExtendedEntities = includeExtendedEntities;
+      this.message = message;
+   }
+
+   @Override
+   public void check( final CompiledShape shape, final Node focusNode, final Set<Node> valueNodes, final ValidationContext context ) {
+      final EntityInstanceValidator validator = context.getIndex( List.of( EntityInstanceValidator.class, metaModelNamespace ),
+            c -> new EntityInstanceValidator( c, metaModelNamespace, characteristicNamespace ) );
+      final List<Triple> statements = validator.statements( focusNode );
+      for ( final Triple typeStatement : statements ) {
+         if ( !typeStatement.getPredicate().equals( RDF.type.asNode() ) ) {
+            continue;
+         }
+         final EntityInstanceValidator.EntityType type = validator.getEntityType( typeStatement.getObject(), includeExtendedEntities );
+         if ( kind == Kind.UNKNOWN_PROPERTY ) {
+            checkKnownProperties( shape, focusNode, statements, type, context );
+            continue;
+         }
+         for ( final EntityInstanceValidator.PropertyReference reference : type.getReferences() ) {
+            switch ( kind ) {
+               case MISSING_PROPERTY:
+                  checkMissingProperty( shape, focusNode, statements, reference, context );
+                  break;
+               case WRONG_DATATYPE:
+                  checkDataType( shape, focusNode, statements, reference, validator, context );
+                  break;
+               case LIST_REQUIRED:
+                  checkList( shape, focusNode, statements, reference, validator, context );
+                  break;
+               default:
+                  checkListElementDataType( shape, focusNode, statements, reference, validator, context );
+            }
+         }
+      }
+   }
+
+   private void checkMissingProperty( final CompiledShape shape, final Node focusNode, final List<Triple> statements,
+         final EntityInstanceValidator.PropertyReference reference, final ValidationContext context ) {
+      if ( !reference.required ) {
+         return;
+      }
+      for ( final Triple statement : statements ) {
+         final Node predicate = statement.getPredicate();
+         if ( reference.element.isBlank() ? reference.actualProperties.contains( predicate ) : reference.element.equals( predicate ) ) {
+            return;
+         }
+      }
+      // Like the optional match in the query, there is one result per samm:property of the reference, or one without it
+      final List<Node> values = new ArrayList<>();
+      if ( reference.actualProperties.isEmpty() ) {
+         values.add( reference.element.isBlank() ? null : reference.element );
+      }
+      for ( final Node actualProperty : reference.actualProperties ) {
+         values.add( reference.element.isBlank() ? actualProperty : reference.element );
+      }
+      for ( final Node value : values ) {
+         // Like for all SPARQL constraints of node shapes, the value of the result is the focus node if ?value is unbound
+         context.report( shape, SH.SPARQLConstraintComponent, focusNode, null, value == null ? focusNode : value,
+               context.message( message, focusNode, null, value ) );
+      }
+   }
+
+   private void checkDataType( final CompiledShape shape, final Node focusNode, final List<Triple> statements,
+         final EntityInstanceValidator.PropertyReference reference, final EntityInstanceValidator validator,
+         final ValidationContext context ) {
+      if ( reference.dataTypes.isEmpty() ) {
+         return;
+      }
+      for ( final Triple statement : values( statements, reference ) ) {
+         final Node value = statement.getObject();
+         if ( !value.isLiteral() ) {
+            continue;
+         }
+         final Node providedType = NodeFactory.createURI( value.getLiteralDatatypeURI() );
+         for ( final Node dataType : reference.dataTypes ) {
+            if ( !providedType.equals( dataType ) && !validator.canBeCastTo( providedType, dataType ) ) {
+               final Node lexicalForm = NodeFactory.createLiteral( value.getLiteralLexicalForm() );
+               context.report( shape, SH.SPARQLConstraintComponent, focusNode, reference.element, lexicalForm,
+                     context.message( message, focusNode, reference.element, lexicalForm ) );
+            }
+         }
+      }
+   }
+
+   private void checkList( final CompiledShape shape, final Node focusNode, final List<Triple> statements,
+         final EntityInstanceValidator.PropertyReference reference, final EntityInstanceValidator validator,
+         final ValidationContext context ) {
+      if ( reference.collectionDataTypes == 0 ) {
+         return;
+      }
+      for ( final Triple statement : values( statements, reference ) ) {
+         if ( !validator.listElements( statement.getObject() ).isEmpty() ) {
+            continue;
+         }
+         for ( int i = 0; i < reference.collectionDataTypes; i++ ) {
+            context.report( shape, SH.SPARQLConstraintComponent, focusNode, reference.element, focusNode,
+                  context.message( message, focusNode, reference.element, null ) );
+         }
+      }
+   }
+
+   private void checkListElementDataType( final CompiledShape shape, final Node focusNode, final List<Triple> statements,
+         final EntityInstanceValidator.PropertyReference reference, final EntityInstanceValidator validator,
+         final ValidationContext context ) {
+      if ( reference.collections == 0 || reference.dataTypes.isEmpty() ) {
+         return;
+      }
+      for ( final Triple statement : values( statements, reference ) ) {
+         for ( final Node element : validator.listElements( statement.getObject() ) ) {
+            final List<Node> providedTypes = validator.objects( element, RDF.type.asNode() );
+            if ( providedTypes.isEmpty() && element.isLiteral() ) {
+               providedTypes.add( NodeFactory.createURI( element.getLiteralDatatypeURI() ) );
+            }
+            for ( final Node providedType : providedTypes ) {
+               for ( final Node dataType : reference.dataTypes ) {
+                  if ( providedType.equals( dataType ) || validator.canBeCastTo( providedType, dataType ) ) {
+                     continue;
+                  }
+                  // The query matches each Collection Characteristic of the Property
+                  for ( int i = 0; i < reference.collections; i++ ) {
+                     context.report( shape, SH.SPARQLConstraintComponent, focusNode, reference.element, element,
+                           context.message( message, focusNode, reference.element, element ) );
+                  }
+               }
+            }
+         }
+      }
+   }
+
+   private void checkKnownProperties( final CompiledShape shape, final Node focusNode, final List<Triple> statements,
+         final EntityInstanceValidator.EntityType type, final ValidationContext context ) {
+      final Set<Node> knownProperties = type.getKnownProperties();
+      for ( final Triple statement : statements ) {
+         final Node predicate = statement.getPredicate();
+         if ( !predicate.equals( RDF.type.asNode() ) && !knownProperties.contains( predicate ) ) {
+            context.report( shape, SH.SPARQLConstraintComponent, focusNode, null, predicate,
+                  context.message( message, focusNode, null, predicate ) );
+         }
+      }
+   }
+
+   /**
+    * @return the statements of the instance for the Property of the reference
+    */
+   private static List<Triple> values( final List<Triple> statements, final EntityInstanceValidator.PropertyReference reference ) {
+      final List<Triple> values = new ArrayList<>();
+      for ( final Triple statement : statements ) {
+         if ( statement.getPredicate().equals( reference.element ) ) {
+            values.add( statement );
+         }
+      }
+      return values;
+   }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * Compiles the Entities of a data graph into validators for their instances, once per validation run and Entity: the
+ * Property references of the Entity and the Entities it extends, which of them are required, the data types of their
+ * Characteristics and which of them are Collections, and the set of known Properties. Together with the reflexive and
+ * transitive closure of samm:canBeCastTo, which is calculated once per data type, each instance is then checked in a
+ * single pass over its statements, see {@link EntityInstanceConstraint}.
+ * <p>
+ * The compiled Entities reproduce the solutions of the property paths of the SPARQL constraints of
+ * samm:ValidEntityInstances and samm:EntityInstancesHaveOnlyKnownProperties, including their multiplicities, so that
+ * the same results are reported.
+ */
+class EntityInstanceValidator {
+   private final ValidationContext context;
+   private final Graph graph;
+   private final Node extends_;
+   private final Node properties;
+   private final Node property;
+   private final Node propertyClass;
+   private final Node notInPayload;
+   private final Node characteristic;
+   private final Node dataType;
+   private final Node canBeCastTo;
+   private final Node baseCharacteristic;
+   private final Node collection;
+   private final Node true_ = NodeFactory.createLiteral( "true", XSDDatatype.XSDboolean );
+   private final Map<Node, EntityType> entityTypes = new HashMap<>();
+   private final Map<Node, EntityType> entityTypesWithoutExtendedEntities = new HashMap<>();
+   private final Map<Node, Set<Node>> castTargets = new HashMap<>();
+
+   /**
+    * @param context the validation run
+    * @param metaModelNamespace the samm namespace of the meta model version
+    * @param characteristicNamespace the samm-c namespace of the meta model version
+    */
+   EntityInstanceValidator( final ValidationContext context, final String metaModelNamespace, final String characteristicNamespace ) {
+      this.context = context;
+      graph = context.getGraph();
+      extends_ = NodeFactory.createURI( metaModelNamespace + "extends" );
+      properties = NodeFactory.createURI( metaModelNamespace + "properties" );
+      property = NodeFactory.createURI( metaModelNamespace + "property" );
+      propertyClass = NodeFactory.createURI( metaModelNamespace + "Property" );
+      notInPayload = NodeFactory.createURI( metaModelNamespace + "notInPayload" );
+      characteristic = NodeFactory.createURI( metaModelNamespace + "characteristic" );
+      dataType = NodeFactory.createURI( metaModelNamespace + "dataType" );
+      canBeCastTo = NodeFactory.createURI( metaModelNamespace + "canBeCastTo" );
+      baseCharacteristic = NodeFactory.createURI( characteristicNamespace + "baseCharacteristic" );
+      collection = NodeFactory.createURI( characteristicNamespace + "Collection" );
+   }
+
+   /**
+    * @param type a type of an instance
+    * @param includeExtendedEntities whether the Properties of the Entities that the type extends (samm:extends*) belong
+    *       to the type as well; the constraints of the meta model version 1.0.0 only use samm:properties of the type
+    * @return the compiled type
+    */
+   EntityType getEntityType( final Node type, final boolean includeExtendedEntities ) {
+      if ( includeExtendedEntities ) {
+         return entityTypes.computeIfAbsent( type, t -> compile( closure( t, extends_ ) ) );
+      }
+      return entityTypesWithoutExtendedEntities.computeIfAbsent( type, t -> compile( Set.of( t ) ) );
+   }
+
+   /**
+    * @return true if a value of the provided data type can be used for the target data type, i.e. if they are linked
+    *       via samm:canBeCastTo*
+    */
+   boolean canBeCastTo( final Node providedType, final Node targetType ) {
+      return castTargets.computeIfAbsent( providedType, type -> closure( type, canBeCastTo ) ).contains( targetType );
+   }
+
+   /**
+    * @return the elements of the RDF list, i.e. the values of rdf:rest*&#47;rdf:first
+    */
+   List<Node> listElements( final Node list ) {
+      final List<Node> elements = new ArrayList<>();
+      for ( final Node cell : closure( list, RDF.rest.asNode() ) ) {
+         elements.addAll( objects( cell, RDF.first.asNode() ) );
+      }
+      return elements;
+   }
+
+   List<Node> objects( final Node subject, final Node predicate ) {
+      return graph.find( subject, predicate, Node.ANY ).mapWith( Triple::getObject ).toList();
+   }
+
+   List<Triple> statements( final Node subject ) {
+      return graph.find( subject, Node.ANY, Node.ANY ).toList();
+   }
+
+   private EntityType compile( final Set<Node> entities ) {
+      final List<PropertyReference> references = new ArrayList<>();
+      final Set<Node> knownProperties = new HashSet<>();
+      for ( final Node element : elements( entities ) ) {
+         final PropertyReference reference = compileReference( element );
+         references.add( reference );
+         knownProperties.add( element );
+         knownProperties.addAll( reference.actualProperties );
+      }
+      return new EntityType( references, knownProperties );
+   }
+
+   /**
+    * @return the values of samm:properties/rdf:rest*&#47;rdf:first of the given Entities
+    */
+   private List<Node> elements( final Set<Node> entities ) {
+      final List<Node> elements = new ArrayList<>();
+      for ( final Node entity : entities ) {
+         for ( final Node list : objects( entity, properties ) ) {
+            elements.addAll( listElements( list ) );
+         }
+      }
+      return elements;
+   }
+
+   private PropertyReference compileReference( final Node element ) {
+      final boolean required = graph.contains( element, RDF.type.asNode(), propertyClass )
+            || element.isBlank() && graph.contains( element, notInPayload, true_ );
+      final List<Node> actualProperties = objects( element, property );
+      final List<Node> dataTypes = new ArrayList<>();
+      int collections = 0;
+      int collectionDataTypes = 0;
+      for ( final Node elementCharacteristic : objects( element, characteristic ) ) {
+         for ( final Node base : closure( elementCharacteristic, baseCharacteristic ) ) {
+            final List<Node> baseDataTypes = objects( base, dataType );
+            dataTypes.addAll( baseDataTypes );
+            if ( context.hasType( base, collection ) ) {
+               collections++;
+               collectionDataTypes += baseDataTypes.size();
+            }
+         }
+      }
+      return new PropertyReference( element, required, actualProperties, dataTypes, collections, collectionDataTypes );
+   }
+
+   /**
+    * @return the nodes that are reachable from the start node via predicate*, including the start node
+    */
+   private Set<Node> closure( final Node start, final Node predicate ) {
+      final Set<Node> result = new LinkedHashSet<>();
+      final Deque<Node> queue = new ArrayDeque<>();
+      result.add( start );
+      queue.add( start );
+      while ( !queue.isEmpty() ) {
+         for ( final Node next : objects( queue.poll(), predicate ) ) {
+            if ( result.add( next ) ) {
+               queue.add( next );
+            }
+         }
+      }
+      return result;
+   }
+
+   /**
+    * A compiled type of instances
+    */
+   static class EntityType {
+      private final List<PropertyReference> references;
+      private final Set<Node> knownProperties;
+
+      private EntityType( final List<PropertyReference> references, final Set<Node> knownProperties ) {
+         this.references = references;
+         this.knownProperties = knownProperties;
+      }
+
+      /**
+       * @return the values of samm:properties/rdf:rest*&#47;rdf:first of the type
+       */
+      List<PropertyReference> getReferences() {
+         return references;
+      }
+
+      /**
+       * @return the Properties that instances may use: the references and the values of their samm:property
+       */
+      Set<Node> getKnownProperties() {
+         return knownProperties;
+      }
+   }
+
+   /**
+    * An element of samm:properties: a Property or a blank node that references a Property via samm:property
+    */
+   static class PropertyReference {
+      final Node element;
+      final boolean required;
+      final List<Node> actualProperties;
+      /**
+       * The values of samm:characteristic/samm-c:baseCharacteristic*&#47;samm:dataType
+       */
+      final List<Node> dataTypes;
+      /**
+       * The number of Collections in samm:characteristic/samm-c:baseCharacteristic*
+       */
+      final int collections;
+      /**
+       * The number of data types of the Collections in samm:characteristic/samm-c:baseCharacteristic*
+       */
+      final int collectionDataTypes;
+
+      private PropertyReference( final Node element, final boolean required, final List<Node> actualProperties,
+            final List<Node> dataTypes, final int collections, final int collectionDataTypes ) {
+         this.element = element;
+         this.required = required;
+         this.actualProperties = actualProperties;
+         this.dataTypes = dataTypes;
+         this.collections = collections;
+         this.collectionDataTypes = collectionDataTypes;
+      }
+   }
+}
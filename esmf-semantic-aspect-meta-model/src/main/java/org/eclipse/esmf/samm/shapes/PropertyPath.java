@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+/**
+ * A compiled SHACL property path, which collects the value nodes of a focus node directly from the data graph
+ */
+abstract class PropertyPath {
+   /**
+    * Adds the nodes that are reachable from the focus node via this path to the result
+    *
+    * @param focusNode the focus node
+    * @param graph the data graph
+    * @param result the set to add the value nodes to
+    */
+   abstract void collect( Node focusNode, Graph graph, Set<Node> result );
+
+   Set<Node> valueNodes( final Node focusNode, final Graph graph ) {
+      final Set<Node> result = new LinkedHashSet<>();
+      collect( focusNode, graph, result );
+      return result;
+   }
+
+   static class Predicate extends PropertyPath {
+      private final Node predicate;
+
+      Predicate( final Node predicate ) {
+         this.predicate = predicate;
+      }
+
+      @Override
+      void collect( final Node focusNode, final Graph graph, final Set<Node> result ) {
+         final ExtendedIterator<Triple> triples = graph.find( focusNode, predicate, Node.ANY );
+         try {
+            while ( triples.hasNext() ) {
+               result.add( triples.next().getObject() );
+            }
+         } finally {
+            triples.close();
+         }
+      }
+   }
+
+   static class InversePredicate extends PropertyPath {
+      private final Node predicate;
+
+      InversePredicate( final Node predicate ) {
+         this.predicate = predicate;
+      }
+
+      @Override
+      void collect( final Node focusNode, final Graph graph, final Set<Node> result ) {
+         final ExtendedIterator<Triple> triples = graph.find( Node.ANY, predicate, focusNode );
+         try {
+            while ( triples.hasNext() ) {
+               result.add( triples.next().getSubject() );
+            }
+         } finally {
+            triples.close();
+         }
+      }
+   }
+
+   static class Sequence extends PropertyPath {
+      private final List<PropertyPath> steps;
+
+      Sequence( final List<PropertyPath> steps ) {
+         this.steps = steps;
+      }
+
+      @Override
+      void collect( final Node focusNode, final Graph graph, final Set<Node> result ) {
+         Set<Node> current = Set.of( focusNode );
+         for ( int i = 0; i < steps.size() - 1; i++ ) {
+            final Set<Node> next = new LinkedHashSet<>();
+            for ( final Node node : current ) {
+               steps.get( i ).collect( node, graph, next );
+            }
+            current = next;
+         }
+         for ( final Node node : current ) {
+            steps.get( steps.size() - 1 ).collect( node, graph, result );
+         }
+      }
+   }
+
+   static class Alternative extends PropertyPath {
+      private final List<PropertyPath> alternatives;
+
+      Alternative( final List<PropertyPath> alternatives ) {
+         this.alternatives = alternatives;
+      }
+
+      @Override
+      void collect( final Node focusNode, final Graph graph, final Set<Node> result ) {
+         for ( final PropertyPath alternative : alternatives ) {
+            alternative.collect( focusNode, graph, result );
+         }
+      }
+   }
+
+   /**
+    * sh:zeroOrMorePath, sh:oneOrMorePath and sh:zeroOrOnePath
+    */
+   static class Repetition extends PropertyPath {
+      private final PropertyPath path;
+      private final boolean includeFocusNode;
+      private final boolean transitive;
+
+      Repetition( final PropertyPath path, final boolean includeFocusNode, final boolean transitive ) {
+         this.path = path;
+         this.includeFocusNode = includeFocusNode;
+         this.transitive = transitive;
+      }
+
+      @Override
+      void collect( final Node focusNode, final Graph graph, final Set<Node> result ) {
+         if ( includeFocusNode ) {
+            result.add( focusNode );
+         }
+         if ( !transitive ) {
+            path.collect( focusNode, graph, result );
+            return;
+         }
+         // Breadth-first search, so that long rdf:rest chains do not exhaust the stack
+         final Set<Node> visited = new LinkedHashSet<>();
+         final Deque<Node> queue = new ArrayDeque<>();
+         queue.add( focusNode );
+         while ( !queue.isEmpty() ) {
+            final Set<Node> next = new LinkedHashSet<>();
+            path.collect( queue.poll(), graph, next );
+            for ( final Node node : next ) {
+               if ( visited.add( node ) ) {
+                  queue.add( node );
+               }
+            }
+         }
+         result.addAll( visited );
+      }
+   }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+
+/**
+ * The SHACL (and DASH) vocabulary that is used by the shapes compiler
+ */
+final class SH {
+   static final String NS = "http://www.w3.org/ns/shacl#";
+   static final String DASH_NS = "http://datashapes.org/dash#";
+
+   static final Node targetClass = node( "targetClass" );
+   static final Node targetSubjectsOf = node( "targetSubjectsOf" );
+   static final Node targetObjectsOf = node( "targetObjectsOf" );
+   static final Node targetNode = node( "targetNode" );
+   static final Node target = node( "target" );
+   static final Node property = node( "property" );
+   static final Node path = node( "path" );
+   static final Node inversePath = node( "inversePath" );
+   static final Node alternativePath = node( "alternativePath" );
+   static final Node zeroOrMorePath = node( "zeroOrMorePath" );
+   static final Node oneOrMorePath = node( "oneOrMorePath" );
+   static final Node zeroOrOnePath = node( "zeroOrOnePath" );
+   static final Node severity = node( "severity" );
+   static final Node message = node( "message" );
+   static final Node deactivated = node( "deactivated" );
+   static final Node parameter = node( "parameter" );
+   static final Node name = node( "name" );
+   static final Node description = node( "description" );
+   static final Node order = node( "order" );
+   static final Node group = node( "group" );
+   static final Node defaultValue = node( "defaultValue" );
+
+   static final Node minCount = node( "minCount" );
+   static final Node maxCount = node( "maxCount" );
+   static final Node datatype = node( "datatype" );
+   static final Node nodeKind = node( "nodeKind" );
+   static final Node class_ = node( "class" );
+   static final Node in = node( "in" );
+   static final Node minLength = node( "minLength" );
+   static final Node maxLength = node( "maxLength" );
+   static final Node uniqueLang = node( "uniqueLang" );
+   static final Node node = node( "node" );
+   static final Node js = node( "js" );
+   static final Node jsFunctionName = node( "jsFunctionName" );
+   static final Node sparql = node( "sparql" );
+   static final Node select = node( "select" );
+
+   static final Node MinCountConstraintComponent = node( "MinCountConstraintComponent" );
+   static final Node MaxCountConstraintComponent = node( "MaxCountConstraintComponent" );
+   static final Node DatatypeConstraintComponent = node( "DatatypeConstraintComponent" );
+   static final Node NodeKindConstraintComponent = node( "NodeKindConstraintComponent" );
+   static final Node ClassConstraintComponent = node( "ClassConstraintComponent" );
+   static final Node InConstraintComponent = node( "InConstraintComponent" );
+   static final Node MinLengthConstraintComponent = node( "MinLengthConstraintComponent" );
+   static final Node MaxLengthConstraintComponent = node( "MaxLengthConstraintComponent" );
+   static final Node UniqueLangConstraintComponent = node( "UniqueLangConstraintComponent" );
+   static final Node NodeConstraintComponent = node( "NodeConstraintComponent" );
+   static final Node JSConstraintComponent = node( "JSConstraintComponent" );
+   static final Node SPARQLConstraintComponent = node( "SPARQLConstraintComponent" );
+
+   static final Node Violation = node( "Violation" );
+   static final Node SPARQLTarget = node( "SPARQLTarget" );
+   static final Node IRI = node( "IRI" );
+   static final Node Literal = node( "Literal" );
+   static final Node BlankNode = node( "BlankNode" );
+   static final Node BlankNodeOrIRI = node( "BlankNodeOrIRI" );
+   static final Node BlankNodeOrLiteral = node( "BlankNodeOrLiteral" );
+   static final Node IRIOrLiteral = node( "IRIOrLiteral" );
+
+   static final Node ListShape = NodeFactory.createURI( DASH_NS + "ListShape" );
+
+   private SH() {
+   }
+
+   private static Node node( final String localName ) {
+      return NodeFactory.createURI( NS + localName );
+   }
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFList;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * Compiles the SHACL core constraints of a shapes graph into Java predicates that are evaluated directly over the data
+ * graph, see {@link CompiledShapes}.
+ * <p>
+ * A node shape is compiled if its targets are sh:targetClass and/or sh:targetSubjectsOf, it is not referenced by other
+ * shapes and it has no sh:message or sh:deactivated. Of such a shape and its anonymous property shapes, the constraints
+ * of the components sh:minCount, sh:maxCount, sh:datatype, sh:nodeKind, sh:class, sh:in, sh:minLength, sh:maxLength,
+ * sh:uniqueLang and sh:node dash:ListShape are compiled, as are the property paths. JavaScript constraints whose
+ * function has a Java implementation (see {@link StructuredValueConstruction}) are replaced by it, as are the meta
+ * model shapes with SPARQL-based targets and constraints that have one (see {@link UniqueEntityInstances} and
+ * {@link EntityInstanceConstraint}). Everything else, in particular other SPARQL-based targets and constraints and
+ * other JavaScript constraints, remains in the residual shapes graph, which must be validated by a SHACL engine in
+ * addition to the compiled shapes. Property shapes and targets that have no constraints left are removed from the
+ * residual shapes graph, so that the engine does not even calculate their focus nodes.
+ * <p>
+ * Compiling the shapes graph is not free, so the result should be created once per meta model version and reused.
+ */
+public class ShapesCompiler {
+   private static final Set<Node> ANNOTATIONS = Set.of( SH.path, SH.name, SH.description, SH.order, SH.group,
+         SH.defaultValue, SH.severity, SH.targetClass, SH.targetSubjectsOf );
+
+   private final Model shapes;
+   private final Model residualShapes;
+   private final Set<Node> parameters = new HashSet<>();
+   private int compiledConstraints;
+
+   private ShapesCompiler( final Model shapes ) {
+      this.shapes = shapes;
+      residualShapes = ModelFactory.createDefaultModel();
+      residualShapes.setNsPrefixes( shapes.getNsPrefixMap() );
+      residualShapes.add( shapes );
+      shapes.listObjectsOfProperty( property( SH.parameter ) ).forEachRemaining( parameter ->
+            Optional.ofNullable( parameter.asResource().getPropertyResourceValue( property( SH.path ) ) )
+                  .ifPresent( path -> parameters.add( path.asNode() ) ) );
+   }
+
+   /**
+    * Compiles a shapes graph
+    *
+    * @param shapes the shapes graph, including the prefix declarations that are referenced by it
+    * @return the compiled shapes
+    */
+   public static CompiledShapes compile( final Model shapes ) {
+      return new ShapesCompiler( shapes ).compile();
+   }
+
+   private CompiledShapes compile() {
+      final Set<Resource> nodeShapes = new LinkedHashSet<>();
+      nodeShapes.addAll( shapes.listSubjectsWithProperty( property( SH.targetClass ) ).toList() );
+      nodeShapes.addAll( shapes.listSubjectsWithProperty( property( SH.targetSubjectsOf ) ).toList() );
+
+      final List<CompiledShape> compiledShapes = new ArrayList<>();
+      for ( final Resource nodeShape : nodeShapes ) {
+         if ( nodeShape.hasProperty( property( SH.target ) ) || nodeShape.hasProperty( property( SH.targetNode ) )
+               || nodeShape.hasProperty( property( SH.targetObjectsOf ) ) || shapes.contains( null, null, nodeShape ) ) {
+            continue;
+         }
+         final CompiledShape compiledShape = compileShape( nodeShape, null );
+         if ( compiledShape == null || compiledShape.isEmpty() ) {
+            continue;
+         }
+         shapes.listObjectsOfProperty( nodeShape, property( SH.targetClass ) )
+               .forEachRemaining( targetClass -> compiledShape.addTargetClass( targetClass.asNode() ) );
+         shapes.listObjectsOfProperty( nodeShape, property( SH.targetSubjectsOf ) )
+               .forEachRemaining( predicate -> compiledShape.addTargetSubjectsOf( predicate.asNode() ) );
+         compiledShapes.add( compiledShape );
+         if ( hasNoConstraintsLeft( nodeShape ) ) {
+            residualShapes.removeAll( nodeShape, property( SH.targetClass ), null );
+            residualShapes.removeAll( nodeShape, property( SH.targetSubjectsOf ), null );
+         }
+      }
+      for ( final Resource nodeShape : shapes.listSubjectsWithProperty( property( SH.sparql ) ).toList() ) {
+         final CompiledShape compiledShape = compileSparqlShape( nodeShape );
+         if ( compiledShape != null ) {
+            compiledShapes.add( compiledShape );
+         }
+      }
+      return new CompiledShapes( compiledShapes, residualShapes, compiledConstraints );
+   }
+
+   /**
+    * Compiles a node shape (if path is null) or property shape
+    *
+    * @return the compiled shape, or null if the shape can not be compiled
+    */
+   private CompiledShape compileShape( final Resource shape, final Resource path ) {
+      if ( shape.hasProperty( property( SH.message ) ) || shape.hasProperty( property( SH.deactivated ) ) ) {
+         return null;
+      }
+      PropertyPath compiledPath = null;
+      if ( path != null ) {
+         compiledPath = compilePath( path );
+         if ( compiledPath == null ) {
+            return null;
+         }
+      }
+      final Resource severity = Optional.ofNullable( shape.getPropertyResourceValue( property( SH.severity ) ) )
+            .orElse( shapes.wrapAsResource( SH.Violation ) );
+      final CompiledShape compiledShape = new CompiledShape( shape, path, compiledPath, severity );
+
+      for ( final Statement statement : shape.listProperties().toList() ) {
+         final ConstraintCheck check = compileConstraint( shape, statement );
+         if ( check != null ) {
+            compiledShape.addCheck( check );
+            residualShapes.remove( statement );
+            if ( statement.getPredicate().asNode().equals( SH.js ) ) {
+               residualShapes.removeAll( statement.getResource(), null, null );
+            }
+            compiledConstraints++;
+         }
+      }
+
+      for ( final Statement statement : shape.listProperties( property( SH.property ) ).toList() ) {
+         final RDFNode propertyShape = statement.getObject();
+         if ( !propertyShape.isAnon() || shapes.listStatements( null, null, propertyShape ).toList().size() != 1 ) {
+            continue;
+         }
+         final Resource propertyPath = propertyShape.asResource().getPropertyResourceValue( property( SH.path ) );
+         if ( propertyPath == null ) {
+            continue;
+         }
+         final CompiledShape compiledPropertyShape = compileShape( propertyShape.asResource(), propertyPath );
+         if ( compiledPropertyShape == null ) {
+            continue;
+         }
+         if ( !compiledPropertyShape.isEmpty() ) {
+            compiledShape.addPropertyShape( compiledPropertyShape );
+         }
+         if ( hasNoConstraintsLeft( propertyShape.asResource() ) ) {
+            residualShapes.remove( statement );
+            residualShapes.removeAll( propertyShape.asResource(), null, null );
+         }
+      }
+      return compiledShape;
+   }
+
+   /**
+    * @return the check for a statement of a shape, or null if it is not a core constraint that can be compiled
+    */
+   private ConstraintCheck compileConstraint( final Resource shape, final Statement statement ) {
+      final Node parameter = statement.getPredicate().asNode();
+      final RDFNode value = statement.getObject();
+      if ( parameter.equals( SH.minCount ) && isInteger( value ) ) {
+         return CoreConstraints.minCount( value.asLiteral().getInt() );
+      }
+      if ( parameter.equals( SH.maxCount ) && isInteger( value ) ) {
+         return CoreConstraints.maxCount( value.asLiteral().getInt() );
+      }
+      if ( parameter.equals( SH.minLength ) && isInteger( value ) ) {
+         return CoreConstraints.minLength( value.asLiteral().getInt() );
+      }
+      if ( parameter.equals( SH.maxLength ) && isInteger( value ) ) {
+         return CoreConstraints.maxLength( value.asLiteral().getInt() );
+      }
+      if ( parameter.equals( SH.datatype ) && value.isURIResource() ) {
+         return CoreConstraints.datatype( value.asResource().getURI(), value.asResource().getLocalName() );
+      }
+      if ( parameter.equals( SH.nodeKind ) && value.isURIResource() ) {
+         return CoreConstraints.nodeKind( value.asNode(), value.asResource().getLocalName() );
+      }
+      if ( parameter.equals( SH.class_ ) && value.isURIResource() ) {
+         return CoreConstraints.classOf( value.asNode(), shapes.shortForm( value.asResource().getURI() ) );
+      }
+      if ( parameter.equals( SH.in ) && value.canAs( RDFList.class ) ) {
+         final Set<Node> allowedValues = new HashSet<>();
+         value.as( RDFList.class ).iterator().forEachRemaining( allowedValue -> allowedValues.add( allowedValue.asNode() ) );
+         return CoreConstraints.in( allowedValues );
+      }
+      if ( parameter.equals( SH.uniqueLang ) && value.isLiteral() && value.asLiteral().getBoolean() ) {
+         return CoreConstraints.uniqueLang();
+      }
+      if ( parameter.equals( SH.node ) && value.asNode().equals( SH.ListShape ) ) {
+         return CoreConstraints.listShape( shapes.shortForm( value.asResource().getURI() ) );
+      }
+      if ( parameter.equals( SH.js ) && value.isResource() ) {
+         return compileJavaScriptConstraint( shape, value.asResource() );
+      }
+      return null;
+   }
+
+   /**
+    * Replaces JavaScript constraints that have a Java implementation
+    *
+    * @return the check, or null if there is no Java implementation of the constraint
+    */
+   private ConstraintCheck compileJavaScriptConstraint( final Resource shape, final Resource constraint ) {
+      final Statement functionName = constraint.getProperty( property( SH.jsFunctionName ) );
+      if ( functionName == null || constraint.hasProperty( property( SH.message ) )
+            || constraint.hasProperty( property( SH.deactivated ) ) ) {
+         return null;
+      }
+      if ( functionName.getString().equals( StructuredValueConstruction.FUNCTION_NAME ) ) {
+         // The JavaScript function uses the namespaces of the meta model version of the StructuredValue class
+         final Resource targetClass = shape.getPropertyResourceValue( property( SH.targetClass ) );
+         if ( targetClass == null || !targetClass.isURIResource() || !targetClass.getNameSpace().contains( ":characteristic:" ) ) {
+            return null;
+         }
+         return new StructuredValueConstruction( targetClass.getNameSpace(),
+               targetClass.getNameSpace().replace( ":characteristic:", ":meta-model:" ) );
+      }
+      return null;
+   }
+
+   /**
+    * Replaces a meta model shape with SPARQL-based target and constraints that have a Java implementation. The shape must
+    * have the structure of the meta model shapes: a single SPARQL-based target that selects the instances of Entities,
+    * and SPARQL constraints with a message. The constraints are identified by the name of the shape and, for shapes
+    * with several constraints, by the error code their query binds; the shape is only compiled if all of its
+    * constraints have a Java implementation.
+    *
+    * @return the compiled shape, or null if there is no Java implementation of the shape
+    */
+   private CompiledShape compileSparqlShape( final Resource shape ) {
+      if ( !shape.isURIResource() || !shape.getNameSpace().contains( ":meta-model:" ) || shapes.contains( null, null, shape )
+            || shape.hasProperty( property( SH.message ) ) || shape.hasProperty( property( SH.deactivated ) )
+            || shape.hasProperty( property( SH.targetClass ) ) || shape.hasProperty( property( SH.targetSubjectsOf ) )
+            || shape.hasProperty( property( SH.targetObjectsOf ) ) || shape.hasProperty( property( SH.targetNode ) )
+            || shape.hasProperty( property( SH.property ) ) ) {
+         return null;
+      }
+      final List<Statement> targets = shape.listProperties( property( SH.target ) ).toList();
+      final List<Statement> constraints = shape.listProperties( property( SH.sparql ) ).toList();
+      if ( targets.size() != 1 || !targets.get( 0 ).getObject().isAnon()
+            || !targets.get( 0 ).getResource().hasProperty( RDF.type, shapes.wrapAsResource( SH.SPARQLTarget ) )
+            || constraints.isEmpty() ) {
+         return null;
+      }
+      final List<ConstraintCheck> checks = new ArrayList<>();
+      for ( final Statement constraint : constraints ) {
+         final ConstraintCheck check = compileSparqlConstraint( shape, constraint.getObject() );
+         if ( check == null ) {
+            return null;
+         }
+         checks.add( check );
+      }
+
+      final Resource severity = Optional.ofNullable( shape.getPropertyResourceValue( property( SH.severity ) ) )
+            .orElse( shapes.wrapAsResource( SH.Violation ) );
+      final CompiledShape compiledShape = new CompiledShape( shape, null, null, severity );
+      compiledShape.addTargetInstancesOfInstancesOf( shapes.createResource( shape.getNameSpace() + "Entity" ).asNode() );
+      checks.forEach( compiledShape::addCheck );
+      residualShapes.removeAll( targets.get( 0 ).getResource(), null, null );
+      for ( final Statement constraint : constraints ) {
+         residualShapes.removeAll( constraint.getResource(), null, null );
+      }
+      residualShapes.removeAll( shape, null, null );
+      compiledConstraints += checks.size();
+      return compiledShape;
+   }
+
+   /**
+    * @return the Java implementation of a SPARQL constraint of a meta model shape, or null if there is none
+    */
+   private ConstraintCheck compileSparqlConstraint( final Resource shape, final RDFNode constraintNode ) {
+      if ( !constraintNode.isAnon() ) {
+         return null;
+      }
+      final Resource constraint = constraintNode.asResource();
+      final List<Statement> messages = constraint.listProperties( property( SH.message ) ).toList();
+      final List<Statement> queries = constraint.listProperties( property( SH.select ) ).toList();
+      if ( messages.size() != 1 || !messages.get( 0 ).getObject().isLiteral() || queries.size() != 1
+            || !queries.get( 0 ).getObject().isLiteral() || constraint.hasProperty( property( SH.deactivated ) ) ) {
+         return null;
+      }
+      final String metaModelNamespace = shape.getNameSpace();
+      final String message = messages.get( 0 ).getString();
+      final String query = queries.get( 0 ).getString();
+      final EntityInstanceConstraint.Kind kind = EntityInstanceConstraint.Kind.of( query );
+      switch ( shape.getLocalName() ) {
+         case UniqueEntityInstances.SHAPE_NAME:
+            return new UniqueEntityInstances( metaModelNamespace, message );
+         case EntityInstanceConstraint.VALID_ENTITY_INSTANCES:
+            if ( kind == null || kind == EntityInstanceConstraint.Kind.UNKNOWN_PROPERTY ) {
+               return null;
+            }
+            return new EntityInstanceConstraint( kind, metaModelNamespace, query.contains( "samm:extends*" ), message );
+         case EntityInstanceConstraint.ONLY_KNOWN_PROPERTIES:
+            if ( kind != EntityInstanceConstraint.Kind.UNKNOWN_PROPERTY ) {
+               return null;
+            }
+            return new EntityInstanceConstraint( kind, metaModelNamespace, query.contains( "samm:extends*" ), message );
+         default:
+            return null;
+      }
+   }
+
+   /**
+    * @return the compiled path, or null if the path uses a construct that is not supported
+    */
+   private PropertyPath compilePath( final Resource path ) {
+      if ( path.isURIResource() ) {
+         return new PropertyPath.Predicate( path.asNode() );
+      }
+      if ( path.hasProperty( RDF.first ) ) {
+         final List<PropertyPath> steps = compilePaths( path );
+         if ( steps == null ) {
+            return null;
+         }
+         return steps.size() == 1 ? steps.get( 0 ) : new PropertyPath.Sequence( steps );
+      }
+      final Resource inversePath = path.getPropertyResourceValue( property( SH.inversePath ) );
+      if ( inversePath != null ) {
+         return inversePath.isURIResource() ? new PropertyPath.InversePredicate( inversePath.asNode() ) : null;
+      }
+      final Resource alternativePath = path.getPropertyResourceValue( property( SH.alternativePath ) );
+      if ( alternativePath != null ) {
+         final List<PropertyPath> alternatives = compilePaths( alternativePath );
+         return alternatives == null ? null : new PropertyPath.Alternative( alternatives );
+      }
+      final Resource zeroOrMorePath = path.getPropertyResourceValue( property( SH.zeroOrMorePath ) );
+      if ( zeroOrMorePath != null ) {
+         return repetition( zeroOrMorePath, true, true );
+      }
+      final Resource oneOrMorePath = path.getPropertyResourceValue( property( SH.oneOrMorePath ) );
+      if ( oneOrMorePath != null ) {
+         return repetition( oneOrMorePath, false, true );
+      }
+      final Resource zeroOrOnePath = path.getPropertyResourceValue( property( SH.zeroOrOnePath ) );
+      if ( zeroOrOnePath != null ) {
+         return repetition( zeroOrOnePath, true, false );
+      }
+      return null;
+   }
+
+   private PropertyPath repetition( final Resource path, final boolean includeFocusNode, final boolean transitive ) {
+      final PropertyPath compiledPath = compilePath( path );
+      return compiledPath == null ? null : new PropertyPath.Repetition( compiledPath, includeFocusNode, transitive );
+   }
+
+   private List<PropertyPath> compilePaths( final Resource list ) {
+      if ( !list.canAs( RDFList.class ) ) {
+         return null;
+      }
+      final List<PropertyPath> result = new ArrayList<>();
+      for ( final RDFNode element : list.as( RDFList.class ).asJavaList() ) {
+         final PropertyPath compiledPath = element.isResource() ? compilePath( element.asResource() ) : null;
+         if ( compiledPath == null ) {
+            return null;
+         }
+         result.add( compiledPath );
+      }
+      return result.isEmpty() ? null : result;
+   }
+
+   /**
+    * Checks whether a shape in the residual shapes graph has neither constraints nor property shapes left, i.e. only
+    * annotations such as sh:name and its path and targets
+    */
+   private boolean hasNoConstraintsLeft( final Resource shape ) {
+      return residualShapes.listStatements( shape, null, (RDFNode) null ).toList().stream()
+            .map( statement -> statement.getPredicate().asNode() )
+            .noneMatch( predicate -> predicate.getURI().startsWith( SH.NS ) && !ANNOTATIONS.contains( predicate )
+                  || parameters.contains( predicate ) );
+   }
+
+   private static boolean isInteger( final RDFNode node ) {
+      if ( !node.isLiteral() ) {
+         return false;
+      }
+      final Literal literal = node.asLiteral();
+      return literal.getValue() instanceof Number && literal.getLexicalForm().matches( "[+-]?\\d+" );
+   }
+
+   private Property property( final Node property ) {
+      return shapes.createProperty( property.getURI() );
+   }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.RDF;
+
+import org.eclipse.esmf.samm.regex.RegularExpression;
+
+/**
+ * The Java implementation of the JavaScript constraint function testStructuredValueConstruction of the
+ * samm-c:StructuredValueShape: The string that results from concatenating the elements of a StructuredValue (string
+ * literals as they are, Properties by their samm:exampleValue) must be matched by its samm-c:deconstructionRule, and
+ * the capture groups of the first match must be the example values of the Properties, in order. If a Property in the
+ * elements has no example value, the check is skipped.
+ * <p>
+ * The elements list is walked directly on the data graph. Deconstruction rules are compiled to a
+ * {@link RegularExpression}, which is cached and matched in linear time, and whose syntax is compatible with the
+ * JavaScript regular expressions for the constructs that are used in deconstruction rules. Rules that are not valid
+ * are skipped; they are reported by the sh:js constraint on samm-c:deconstructionRule.
+ */
+class StructuredValueConstruction implements ConstraintCheck {
+   static final String FUNCTION_NAME = "testStructuredValueConstruction";
+
+   private final Node deconstructionRule;
+   private final Node elements;
+   private final Node exampleValue;
+
+   /**
+    * @param characteristicNamespace the samm-c namespace of the meta model version
+    * @param metaModelNamespace the samm namespace of the meta model version
+    */
+   StructuredValueConstruction( final String characteristicNamespace, final String metaModelNamespace ) {
+      deconstructionRule = NodeFactory.createURI( characteristicNamespace + "deconstructionRule" );
+      elements = NodeFactory.createURI( characteristicNamespace + "elements" );
+      exampleValue = NodeFactory.createURI( metaModelNamespace + "exampleValue" );
+   }
+
+   @Override
+   public void check( final CompiledShape shape, final Node focusNode, final Set<Node> valueNodes, final ValidationContext context ) {
+      final Node rule = last( focusNode, deconstructionRule, context );
+      final Node list = first( focusNode, elements, context );
+      if ( rule == null || !rule.isLiteral() || list == null ) {
+         return;
+      }
+
+      final StringBuilder stringToMatch = new StringBuilder();
+      final List<String> propertyValues = new ArrayList<>();
+      final Set<Node> visited = new HashSet<>();
+      for ( Node cell = list; cell != null && !cell.equals( RDF.nil.asNode() ); cell = first( cell, RDF.rest.asNode(), context ) ) {
+         final Node element = first( cell, RDF.first.asNode(), context );
+         if ( !visited.add( cell ) || element == null || element.isBlank() ) {
+            // Malformed lists are reported by dash:ListShape
+            return;
+         }
+         final String value;
+         if ( element.isLiteral() ) {
+            value = element.getLiteralLexicalForm();
+         } else {
+            final Node example = first( element, exampleValue, context );
+            if ( example == null ) {
+               return;
+            }
+            value = example.isLiteral() ? example.getLiteralLexicalForm() : example.toString();
+            propertyValues.add( value );
+         }
+         stringToMatch.append( value );
+      }
+
+      final Optional<RegularExpression> expression = compile( rule.getLiteralLexicalForm() );
+      if ( expression.isEmpty() ) {
+         return;
+      }
+      final Optional<RegularExpression.Match> match = expression.get().find( stringToMatch );
+      if ( match.isEmpty() ) {
+         report( shape, focusNode, context, "Deconstruction rule did not match Properties in elements" );
+         return;
+      }
+      final RegularExpression.Match matcher = match.get();
+      if ( matcher.groupCount() != propertyValues.size() ) {
+         report( shape, focusNode, context, "Number of matching capture groups (" + matcher.groupCount()
+               + ") in deconstructionRule does not match number of Properties in elements (" + propertyValues.size() + ")" );
+         return;
+      }
+      for ( int group = 1; group <= propertyValues.size(); group++ ) {
+         if ( !propertyValues.get( group - 1 ).equals( matcher.group( group ) ) ) {
+            // A group that did not participate in the match is undefined in JavaScript
+            final String groupValue = Optional.ofNullable( matcher.group( group ) ).orElse( "undefined" );
+            report( shape, focusNode, context, "Given Property exampleValue (" + propertyValues.get( group - 1 )
+                  + ") does not match group " + group + " from deconstructionRule (" + groupValue + ")" );
+            return;
+         }
+      }
+   }
+
+   private static void report( final CompiledShape shape, final Node focusNode, final ValidationContext context, final String message ) {
+      context.report( shape, SH.JSConstraintComponent, focusNode, null, message );
+   }
+
+   private static Optional<RegularExpression> compile( final String rule ) {
+      try {
+         return Optional.of( RegularExpression.compile( rule ) );
+      } catch ( final PatternSyntaxException exception ) {
+         return Optional.empty();
+      }
+   }
+
+   private static Node first( final Node subject, final Node predicate, final ValidationContext context ) {
+      final ExtendedIterator<Triple> triples = context.getGraph().find( subject, predicate, Node.ANY );
+      try {
+         return triples.hasNext() ? triples.next().getObject() : null;
+      } finally {
+         triples.close();
+      }
+   }
+
+   private static Node last( final Node subject, final Node predicate, final ValidationContext context ) {
+      Node result = null;
+      final ExtendedIterator<Triple> triples = context.getGraph().find( subject, predicate, Node.ANY );
+      try {
+         while ( triples.hasNext() ) {
+            result = triples.next().getObject();
+         }
+      } finally {
+         triples.close();
+      }
+      return result;
+   }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * The Java implementation of the SPARQL constraint of samm:UniqueEntityInstances: Two instances of the same Entity
+ * must not have the same values for the same Properties. The focus node is reported for every other instance with a
+ * greater IRI that it conflicts with.
+ * <p>
+ * As in the SPARQL query, each instance is serialized from its statements (except rdf:type) as the string forms of
+ * predicate and value; instances that have no such statements or a blank node value are not compared. Instead of
+ * comparing the serializations of all pairs of instances, each instance is serialized once into a canonical (sorted)
+ * key, and the instances are grouped by Entity and key in a hash map that is built once per validation run. Since
+ * SPARQL does not define the order in which group_concat joins the parts, the SPARQL query can miss duplicates that
+ * this check finds; it is only a best effort for other SHACL engines.
+ */
+class UniqueEntityInstances implements ConstraintCheck {
+   static final String SHAPE_NAME = "UniqueEntityInstances";
+
+   private final Node entity;
+   private final String message;
+
+   /**
+    * @param metaModelNamespace the samm namespace of the meta model version
+    * @param message the sh:message of the SPARQL constraint, with the placeholders {$this} and {?value}
+    */
+   UniqueEntityInstances( final String metaModelNamespace, final String message ) {
+      entity = NodeFactory.createURI( metaModelNamespace + "Entity" );
+      this.message = message;
+   }
+
+   @Override
+   public void check( final CompiledShape shape, final Node focusNode, final Set<Node> valueNodes, final ValidationContext context ) {
+      if ( !focusNode.isURI() ) {
+         return;
+      }
+      final Map<Node, Map<String, List<Node>>> index = context.getIndex( this, this::buildIndex );
+      final String key = key( focusNode, context );
+      if ( key == null ) {
+         return;
+      }
+      final Set<Node> conflicts = new LinkedHashSet<>();
+      for ( final Node type : entityTypes( focusNode, context ) ) {
+         for ( final Node otherInstance : index.getOrDefault( type, Map.of() ).getOrDefault( key, List.of() ) ) {
+            if ( focusNode.getURI().compareTo( otherInstance.getURI() ) < 0 ) {
+               conflicts.add( otherInstance );
+            }
+         }
+      }
+      for ( final Node conflict : conflicts ) {
+         context.report( shape, SH.SPARQLConstraintComponent, focusNode, conflict,
+               context.message( message, focusNode, null, conflict ) );
+      }
+   }
+
+   /**
+    * Groups the instances of all Entities by Entity and key
+    */
+   private Map<Node, Map<String, List<Node>>> buildIndex( final ValidationContext context ) {
+      final Map<Node, Map<String, List<Node>>> index = new HashMap<>();
+      for ( final Node type : context.subjects( RDF.type.asNode(), entity ) ) {
+         final Map<String, List<Node>> instancesByKey = index.computeIfAbsent( type, t -> new HashMap<>() );
+         for ( final Node instance : context.subjects( RDF.type.asNode(), type ) ) {
+            final String key = instance.isURI() ? key( instance, context ) : null;
+            if ( key != null ) {
+               instancesByKey.computeIfAbsent( key, k -> new ArrayList<>() ).add( instance );
+            }
+         }
+      }
+      return index;
+   }
+
+   private List<Node> entityTypes( final Node instance, final ValidationContext context ) {
+      final List<Node> types = new ArrayList<>();
+      final ExtendedIterator<Triple> triples = context.getGraph().find( instance, RDF.type.asNode(), Node.ANY );
+      try {
+         while ( triples.hasNext() ) {
+            final Node type = triples.next().getObject();
+            if ( context.getGraph().contains( type, RDF.type.asNode(), entity ) ) {
+               types.add( type );
+            }
+         }
+      } finally {
+         triples.close();
+      }
+      return types;
+   }
+
+   /**
+    * @return the canonical serialization of the instance's statements, or null if it can not be serialized
+    */
+   private static String key( final Node instance, final ValidationContext context ) {
+      final List<String> parts = new ArrayList<>();
+      final ExtendedIterator<Triple> triples = context.getGraph().find( instance, Node.ANY, Node.ANY );
+      try {
+         while ( triples.hasNext() ) {
+            final Triple triple = triples.next();
+            if ( triple.getPredicate().equals( RDF.type.asNode() ) ) {
+               continue;
+            }
+            final Node value = triple.getObject();
+            if ( value.isBlank() ) {
+               return null;
+            }
+            parts.add( triple.getPredicate().getURI() + ":" + (value.isLiteral() ? value.getLiteralLexicalForm() : value.getURI()) );
+         }
+      } finally {
+         triples.close();
+      }
+      if ( parts.isEmpty() ) {
+         return null;
+      }
+      Collections.sort( parts );
+      return String.join( " ", parts );
+   }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+/**
+ * The state of one validation run: the data graph, the collected results and the subclass closures of the classes
+ * that are used in sh:targetClass and sh:class, which are calculated only once per run
+ */
+class ValidationContext {
+   private final Model data;
+   private final Graph graph;
+   private final List<ValidationResult> results = new ArrayList<>();
+   private final Map<Node, Set<Node>> subClasses = new HashMap<>();
+   private final Map<Object, Object> indexes = new HashMap<>();
+
+   ValidationContext( final Model data ) {
+      this.data = data;
+      graph = data.getGraph();
+   }
+
+   Graph getGraph() {
+      return graph;
+   }
+
+   List<ValidationResult> getResults() {
+      return results;
+   }
+
+   /**
+    * @param type the class
+    * @return the class and all its direct and indirect subclasses in the data graph
+    */
+   Set<Node> getSubClasses( final Node type ) {
+      return subClasses.computeIfAbsent( type, this::calculateSubClasses );
+   }
+
+   /**
+    * Returns an index over the data graph that is built once per validation run, e.g. by a check that needs to look at
+    * all focus nodes at once
+    *
+    * @param key the key of the index, usually the check that builds it
+    * @param builder builds the index
+    * @return the index
+    */
+   @SuppressWarnings( "unchecked" )
+   <T> T getIndex( final Object key, final Function<ValidationContext, T> builder ) {
+      final Object index = indexes.get( key );
+      if ( index != null ) {
+         return (T) index;
+      }
+      final T newIndex = builder.apply( this );
+      indexes.put( key, newIndex );
+      return newIndex;
+   }
+
+   /**
+    * Renders a node for a message like the SHACL engine does: IRIs in their prefixed form if the data graph declares a
+    * matching prefix, literals by their lexical form
+    */
+   String label( final Node node ) {
+      if ( node.isLiteral() ) {
+         return node.getLiteralLexicalForm();
+      }
+      if ( node.isURI() ) {
+         final String qname = data.qnameFor( node.getURI() );
+         return qname != null ? qname : "<" + node.getURI() + ">";
+      }
+      return node.toString();
+   }
+
+   /**
+    * Substitutes the placeholders {$this}, {?path} and {?value} of the message of a SPARQL constraint, see
+    * {@link #label(Node)}
+    */
+   String message( final String template, final Node focusNode, final Node path, final Node value ) {
+      String message = template.replace( "{$this}", label( focusNode ) );
+      if ( path != null ) {
+         message = message.replace( "{?path}", label( path ) );
+      }
+      if ( value != null ) {
+         message = message.replace( "{?value}", label( value ) );
+      }
+      return message;
+   }
+
+   /**
+    * Checks whether the node has the class via rdf:type/rdfs:subClassOf*
+    */
+   boolean hasType( final Node node, final Node type ) {
+      final Set<Node> classes = getSubClasses( type );
+      final ExtendedIterator<Triple> types = graph.find( node, RDF.type.asNode(), Node.ANY );
+      try {
+         while ( types.hasNext() ) {
+            if ( classes.contains( types.next().getObject() ) ) {
+               return true;
+            }
+         }
+      } finally {
+         types.close();
+      }
+      return false;
+   }
+
+   /**
+    * @return the subjects of triples with the given predicate and object, i.e. the nodes for which the object is
+    *       reachable via the inverse of the predicate
+    */
+   List<Node> subjects( final Node predicate, final Node object ) {
+      return graph.find( Node.ANY, predicate, object ).mapWith( Triple::getSubject ).toList();
+   }
+
+   /**
+    * @return the number of triples with the given subject and predicate
+    */
+   int count( final Node subject, final Node predicate ) {
+      int count = 0;
+      final ExtendedIterator<Triple> triples = graph.find( subject, predicate, Node.ANY );
+      try {
+         while ( triples.hasNext() ) {
+            triples.next();
+            count++;
+         }
+      } finally {
+         triples.close();
+      }
+      return count;
+   }
+
+   void report( final CompiledShape shape, final Node component, final Node focusNode, final Node value, final String message ) {
+      report( shape, component, focusNode, shape.getPath() == null ? null : shape.getPath().asNode(), value, message );
+   }
+
+   /**
+    * Reports a result with an explicit result path, like SPARQL constraints that bind ?path
+    */
+   void report( final CompiledShape shape, final Node component, final Node focusNode, final Node path, final Node value,
+         final String message ) {
+      results.add( new ValidationResult( data.asRDFNode( focusNode ),
+            path == null ? null : shape.getShape().getModel().wrapAsResource( path ), value == null ? null : data.asRDFNode( value ),
+            shape.getSeverity(), shape.getShape(), shape.getShape().getModel().wrapAsResource( component ), message ) );
+   }
+
+   private Set<Node> calculateSubClasses( final Node type ) {
+      final Set<Node> result = new HashSet<>();
+      final Deque<Node> queue = new ArrayDeque<>();
+      result.add( type );
+      queue.add( type );
+      while ( !queue.isEmpty() ) {
+         for ( final Node subClass : subjects( RDFS.subClassOf.asNode(), queue.poll() ) ) {
+            if ( result.add( subClass ) ) {
+               queue.add( subClass );
+            }
+         }
+      }
+      return result;
+   }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import java.util.Optional;
+
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * A violation of a compiled constraint. The fields correspond to those of a sh:ValidationResult that a SHACL engine
+ * reports for the same constraint, including the default message of the constraint component.
+ */
+public class ValidationResult {
+   private final RDFNode focusNode;
+   private final Resource resultPath;
+   private final RDFNode value;
+   private final Resource resultSeverity;
+   private final Resource sourceShape;
+   private final Resource sourceConstraintComponent;
+   private final String resultMessage;
+
+   ValidationResult( final RDFNode focusNode, final Resource resultPath, final RDFNode value, final Resource resultSeverity,
+         final Resource sourceShape, final Resource sourceConstraintComponent, final String resultMessage ) {
+      this.focusNode = focusNode;
+      this.resultPath = resultPath;
+      this.value = value;
+      this.resultSeverity = resultSeverity;
+      this.sourceShape = sourceShape;
+      this.sourceConstraintComponent = sourceConstraintComponent;
+      this.resultMessage = resultMessage;
+   }
+
+   public RDFNode getFocusNode() {
+      return focusNode;
+   }
+
+   /**
+    * @return the path of the property shape (a resource of the shapes graph), or empty for node shapes
+    */
+   public Optional<Resource> getResultPath() {
+      return Optional.ofNullable( resultPath );
+   }
+
+   /**
+    * @return the value node that violates the constraint, or empty for constraints on the set of value nodes (such as
+    *       sh:minCount)
+    */
+   public Optional<RDFNode> getValue() {
+      return Optional.ofNullable( value );
+   }
+
+   public Resource getResultSeverity() {
+      return resultSeverity;
+   }
+
+   public Resource getSourceShape() {
+      return sourceShape;
+   }
+
+   public Resource getSourceConstraintComponent() {
+      return sourceConstraintComponent;
+   }
+
+   public String getResultMessage() {
+      return resultMessage;
+   }
+
+   @Override
+   public String toString() {
+      return "ValidationResult{"
+            + "focusNode=" + focusNode
+            + ", resultPath=" + resultPath
+            + ", value=" + value
+            + ", resultSeverity=" + resultSeverity
+            + ", sourceConstraintComponent=" + sourceConstraintComponent
+            + ", resultMessage='" + resultMessage + '\''
+            + '}';
+   }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.unit;
+
+/**
+ * A quantity kind from the SAMM units catalog
+ */
+public final class QuantityKind {
+   private final String urn;
+   private final String name;
+   private final String preferredName;
+
+   QuantityKind( final String urn, final String name, final String preferredName ) {
+      this.urn = urn;
+      this.name = name;
+      this.preferredName = preferredName;
+   }
+
+   /**
+    * Returns the full URN of the quantity kind, e.g. urn:samm:org.eclipse.esmf.samm:unit:2.0.0#length
+    *
+    * @return the URN
+    */
+   public String getUrn() {
+      return urn;
+   }
+
+   /**
+    * Returns the local name of the quantity kind, e.g. length
+    *
+    * @return the name
+    */
+   public String getName() {
+      return name;
+   }
+
+   /**
+    * Returns the english preferred name of the quantity kind, e.g. "length"
+    *
+    * @return the preferred name
+    */
+   public String getPreferredName() {
+      return preferredName;
+   }
+
+   @Override
+   public String toString() {
+      return name;
+   }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.unit;
+
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+/**
+ * A unit from the SAMM units catalog
+ */
+public final class Unit {
+   private final String urn;
+   private final String name;
+   private final String preferredName;
+   private final String commonCode;
+   private final String symbol;
+   private final String conversionFactor;
+   private final double numericConversionFactor;
+   private final double factorToBaseUnit;
+   private final Set<QuantityKind> quantityKinds;
+   private Unit referenceUnit;
+   private Unit baseUnit;
+
+   Unit( final String urn, final String name, final String preferredName, final String commonCode, final String symbol,
+         final String conversionFactor, final double numericConversionFactor, final double factorToBaseUnit,
+         final Set<QuantityKind> quantityKinds ) {
+      this.urn = urn;
+      this.name = name;
+      this.preferredName = preferredName;
+      this.commonCode = commonCode;
+      this.symbol = symbol;
+      this.conversionFactor = conversionFactor;
+      this.numericConversionFactor = numericConversionFactor;
+      this.factorToBaseUnit = factorToBaseUnit;
+      this.quantityKinds = quantityKinds;
+   }
+
+   /**
+    * Returns the full URN of the unit, e.g. urn:samm:org.eclipse.esmf.samm:unit:2.0.0#kilometre
+    *
+    * @return the URN
+    */
+   public String getUrn() {
+      return urn;
+   }
+
+   /**
+    * Returns the local name of the unit, e.g. kilometre
+    *
+    * @return the name
+    */
+   public String getName() {
+      return name;
+   }
+
+   /**
+    * Returns the english preferred name of the unit, e.g. "kilometre"
+    *
+    * @return the preferred name
+    */
+   public String getPreferredName() {
+      return preferredName;
+   }
+
+   /**
+    * Returns the UNECE Rec20 common code of the unit, e.g. KMT
+    *
+    * @return the common code, if the unit has one
+    */
+   public Optional<String> getCommonCode() {
+      return Optional.ofNullable( commonCode );
+   }
+
+   /**
+    * Returns the symbol of the unit, e.g. km
+    *
+    * @return the symbol, if the unit has one
+    */
+   public Optional<String> getSymbol() {
+      return Optional.ofNullable( symbol );
+   }
+
+   /**
+    * Returns the conversion factor as given in the catalog, e.g. "10³ m"
+    *
+    * @return the textual conversion factor, if the unit has one
+    */
+   public Optional<String> getConversionFactor() {
+      return Optional.ofNullable( conversionFactor );
+   }
+
+   /**
+    * Returns the numeric factor to convert a value in this unit into its {@link #getReferenceUnit() reference unit},
+    * e.g. 1000.0 for kilometre
+    *
+    * @return the numeric conversion factor, if the unit has one
+    */
+   public OptionalDouble getNumericConversionFactor() {
+      return Double.isNaN( numericConversionFactor ) ? OptionalDouble.empty() : OptionalDouble.of( numericConversionFactor );
+   }
+
+   /**
+    * Returns the unit that the {@link #getNumericConversionFactor() numeric conversion factor} refers to, e.g. metre
+    * for kilometre
+    *
+    * @return the reference unit, if the unit has one
+    */
+   public Optional<Unit> getReferenceUnit() {
+      return Optional.ofNullable( referenceUnit );
+   }
+
+   /**
+    * Returns the base unit of this unit, i.e. the unit that is reached by following the reference units transitively,
+    * e.g. metre for kilometre. A unit without reference unit is its own base unit.
+    *
+    * @return the base unit, if the chain of reference units could be resolved at build time
+    */
+   public Optional<Unit> getBaseUnit() {
+      return Optional.ofNullable( baseUnit );
+   }
+
+   /**
+    * Returns the factor to convert a value in this unit into its {@link #getBaseUnit() base unit}, i.e. the product of
+    * the numeric conversion factors along the chain of reference units
+    *
+    * @return the factor to the base unit, if the chain of reference units could be resolved at build time
+    */
+   public OptionalDouble getFactorToBaseUnit() {
+      return Double.isNaN( factorToBaseUnit ) ? OptionalDouble.empty() : OptionalDouble.of( factorToBaseUnit );
+   }
+
+   /**
+    * Returns the factor to convert a value in this unit into the target unit, e.g. 1000.0 from kilometre to metre or
+    * 0.001 from metre to kilometre. This is possible if both units have the same base unit.
+    *
+    * @param target the target unit
+    * @return the conversion factor, if the units are convertible
+    */
+   public OptionalDouble getConversionFactorTo( final Unit target ) {
+      if ( baseUnit == null || baseUnit != target.baseUnit ) {
+         return OptionalDouble.empty();
+      }
+      return OptionalDouble.of( factorToBaseUnit / target.factorToBaseUnit );
+   }
+
+   /**
+    * Returns the quantity kinds this unit can be used for
+    *
+    * @return the quantity kinds
+    */
+   public Set<QuantityKind> getQuantityKinds() {
+      return quantityKinds;
+   }
+
+   void setReferenceUnit( final Unit referenceUnit ) {
+      this.referenceUnit = referenceUnit;
+   }
+
+   void setBaseUnit( final Unit baseUnit ) {
+      this.baseUnit = baseUnit;
+   }
+
+   @Override
+   public String toString() {
+      return name;
+   }
+}
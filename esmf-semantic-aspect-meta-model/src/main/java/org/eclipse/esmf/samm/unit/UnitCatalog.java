@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.unit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.eclipse.esmf.samm.KnownVersion;
+
+/**
+ * The units and quantity kinds of the SAMM units catalog of one meta model version. The catalogs are Java classes
+ * that are generated at build time from the respective units.ttl (see the generateUnitsJava goal of the
+ * esmf-samm-build-plugin), so looking up a unit does not require parsing any RDF.
+ */
+public abstract class UnitCatalog {
+   private final KnownVersion version;
+   private final String namespace;
+   private final Map<String, QuantityKind> quantityKinds = new LinkedHashMap<>();
+   private final Map<String, Unit> units = new LinkedHashMap<>();
+   private final Map<String, String> referenceUnitNames = new HashMap<>();
+   private final Map<String, String> baseUnitNames = new HashMap<>();
+   private final Map<String, Unit> unitsByCommonCode = new HashMap<>();
+   private final Map<String, List<Unit>> unitsBySymbol = new HashMap<>();
+
+   protected UnitCatalog( final KnownVersion version ) {
+      this.version = version;
+      namespace = String.format( "urn:samm:org.eclipse.esmf.samm:unit:%s#", version.toVersionString() );
+   }
+
+   /**
+    * Returns the generated catalog for the given meta model version
+    *
+    * @param version the meta model version
+    * @return the units catalog
+    */
+   public static UnitCatalog forVersion( final KnownVersion version ) {
+      switch ( version ) {
+         case SAMM_1_0_0:
+            return org.eclipse.esmf.samm.unit.samm_1_0_0.Units.INSTANCE;
+         case SAMM_2_0_0:
+            return org.eclipse.esmf.samm.unit.samm_2_0_0.Units.INSTANCE;
+         default:
+            throw new IllegalArgumentException( "No units catalog available for meta model version " + version );
+      }
+   }
+
+   /**
+    * Registers a quantity kind. Only to be called by the generated catalog constructors.
+    *
+    * @param name the local name of the quantity kind
+    * @param preferredName the english preferred name
+    */
+   protected final void quantityKind( final String name, final String preferredName ) {
+      quantityKinds.put( name, new QuantityKind( namespace + name, name, preferredName ) );
+   }
+
+   /**
+    * Registers a unit. Only to be called by the generated catalog constructors, after all quantity kinds have been
+    * registered.
+    *
+    * @param name the local name of the unit
+    * @param preferredName the english preferred name
+    * @param commonCode the common code, or null
+    * @param symbol the symbol, or null
+    * @param conversionFactor the textual conversion factor, or null
+    * @param referenceUnit the local name of the reference unit, or null
+    * @param numericConversionFactor the numeric conversion factor, or {@link Double#NaN}
+    * @param baseUnit the local name of the base unit, or null if it could not be resolved
+    * @param factorToBaseUnit the factor to convert to the base unit, or {@link Double#NaN}
+    * @param quantityKindNames the local names of the unit's quantity kinds
+    */
+   protected final void unit( final String name, final String preferredName, final String commonCode, final String symbol,
+         final String conversionFactor, final String referenceUnit, final double numericConversionFactor,
+         final String baseUnit, final double factorToBaseUnit, final String... quantityKindNames ) {
+      final Set<QuantityKind> unitQuantityKinds = new LinkedHashSet<>();
+      for ( final String quantityKindName : quantityKindNames ) {
+         final QuantityKind quantityKind = quantityKinds.get( quantityKindName );
+         if ( quantityKind != null ) {
+            unitQuantityKinds.add( quantityKind );
+         }
+      }
+      final Unit unit = new Unit( namespace + name, name, preferredName, commonCode, symbol, conversionFactor,
+            numericConversionFactor, factorToBaseUnit, Collections.unmodifiableSet( unitQuantityKinds ) );
+      units.put( name, unit );
+      if ( referenceUnit != null ) {
+         referenceUnitNames.put( name, referenceUnit );
+      }
+      if ( baseUnit != null ) {
+         baseUnitNames.put( name, baseUnit );
+      }
+      if ( commonCode != null ) {
+         unitsByCommonCode.put( commonCode, unit );
+      }
+      if ( symbol != null ) {
+         unitsBySymbol.computeIfAbsent( symbol, key -> new ArrayList<>( 1 ) ).add( unit );
+      }
+   }
+
+   /**
+    * Links the units to their reference and base units. Only to be called by the generated catalog constructors, after
+    * all units have been registered.
+    */
+   protected final void resolveReferenceUnits() {
+      referenceUnitNames.forEach( ( unitName, referenceUnitName ) ->
+            units.get( unitName ).setReferenceUnit( units.get( referenceUnitName ) ) );
+      referenceUnitNames.clear();
+      baseUnitNames.forEach( ( unitName, baseUnitName ) ->
+            units.get( unitName ).setBaseUnit( units.get( baseUnitName ) ) );
+      baseUnitNames.clear();
+   }
+
+   /**
+    * Returns the meta model version this catalog belongs to
+    *
+    * @return the meta model version
+    */
+   public KnownVersion getVersion() {
+      return version;
+   }
+
+   /**
+    * Returns all units, ordered by name
+    *
+    * @return the units
+    */
+   public Collection<Unit> getUnits() {
+      return Collections.unmodifiableCollection( units.values() );
+   }
+
+   /**
+    * Returns all quantity kinds, ordered by name
+    *
+    * @return the quantity kinds
+    */
+   public Collection<QuantityKind> getQuantityKinds() {
+      return Collections.unmodifiableCollection( quantityKinds.values() );
+   }
+
+   /**
+    * Looks up a unit by its local name (e.g. kilometre) or its full URN
+    *
+    * @param name the name or URN
+    * @return the unit, if it exists
+    */
+   public Optional<Unit> fromName( final String name ) {
+      return Optional.ofNullable( units.get( name.startsWith( namespace ) ? name.substring( namespace.length() ) : name ) );
+   }
+
+   /**
+    * Looks up a unit by its UNECE Rec20 common code (e.g. KMT)
+    *
+    * @param commonCode the common code
+    * @return the unit, if it exists
+    */
+   public Optional<Unit> fromCommonCode( final String commonCode ) {
+      return Optional.ofNullable( unitsByCommonCode.get( commonCode ) );
+   }
+
+   /**
+    * Looks up a unit by its symbol (e.g. km). Note that symbols are not unique in the catalog; if several units share
+    * the symbol, the first one by name is returned, see {@link #getUnitsWithSymbol(String)}.
+    *
+    * @param symbol the symbol
+    * @return the unit, if it exists
+    */
+   public Optional<Unit> fromSymbol( final String symbol ) {
+      return getUnitsWithSymbol( symbol ).stream().findFirst();
+   }
+
+   /**
+    * Returns all units with the given symbol, ordered by name
+    *
+    * @param symbol the symbol
+    * @return the units with this symbol
+    */
+   public List<Unit> getUnitsWithSymbol( final String symbol ) {
+      return Collections.unmodifiableList( unitsBySymbol.getOrDefault( symbol, List.of() ) );
+   }
+
+   /**
+    * Looks up a quantity kind by its local name (e.g. length) or its full URN
+    *
+    * @param name the name or URN
+    * @return the quantity kind, if it exists
+    */
+   public Optional<QuantityKind> quantityKindFromName( final String name ) {
+      return Optional.ofNullable(
+            quantityKinds.get( name.startsWith( namespace ) ? name.substring( namespace.length() ) : name ) );
+   }
+}
@@ -70,30 +70,51 @@ function isValidBCP47LanguageTag($this, $value) {
     var region = languageTagSections[12]
     var variant = languageTagSections[14]
 
-    var languageRegistry = JSON.parse( languageRegistryAsJson );
-
-    if ( grandfathered && languageRegistry.grandfathered.indexOf( grandfathered ) === -1 ) {
+    if ( grandfathered && !isRegisteredSubtag( languageRegistry.grandfathered, grandfathered ) ) {
         return {message: "Invalid grandfathered locale code.", value: $value};
     }
-    if ( language && languageRegistry.languages.indexOf( language ) === -1 ) {
+    if ( language && !isRegisteredSubtag( languageRegistry.languages, language ) ) {
         return {message: "Invalid language in locale code.", value: $value};
     }
-    if ( extlang && languageRegistry.extlangs.indexOf( extlang ) === -1 ) {
+    if ( extlang && !isRegisteredSubtag( languageRegistry.extlangs, extlang ) ) {
         return {message: "Invalid extlang in locale code.", value: $value};
     }
-    if ( script && languageRegistry.scripts.indexOf( script ) === -1 ) {
+    if ( script && !isRegisteredSubtag( languageRegistry.scripts, script ) ) {
         return {message: "Invalid script in locale code.", value: $value};
     }
-    if ( region && languageRegistry.regions.indexOf( region ) === -1 ) {
+    if ( region && !isRegisteredSubtag( languageRegistry.regions, region ) ) {
         return {message: "Invalid region in locale code.", value: $value};
     }
-    if ( variant && languageRegistry.variants.indexOf( variant ) === -1 ) {
+    if ( variant && !isRegisteredSubtag( languageRegistry.variants, variant ) ) {
         return {message: "Invalid variant in locale code.", value: $value};
     }
 
     return true;
 }
 
+/**
+ * Checks if a subtag is contained in one of the sorted subtag arrays of the language registry, using binary search.
+ *
+ * @param subtags The sorted array of subtags
+ * @param subtag The subtag to look up
+ */
+function isRegisteredSubtag(subtags, subtag) {
+    var low = 0;
+    var high = subtags.length - 1;
+    while (low <= high) {
+        var middle = (low + high) >>> 1;
+        var candidate = subtags[middle];
+        if (candidate < subtag) {
+            low = middle + 1;
+        } else if (candidate > subtag) {
+            high = middle - 1;
+        } else {
+            return true;
+        }
+    }
+    return false;
+}
+
 function testStructuredValueConstruction($this) {
     var samm = "urn:samm:org.eclipse.esmf.samm:meta-model:1.0.0#";
     var sammc = "urn:samm:org.eclipse.esmf.samm:characteristic:1.0.0#";
@@ -22,12 +22,18 @@ import java.util.Map;
 import java.util.stream.Stream;
 
 import org.apache.jena.rdf.model.Model;
+import org.junit.jupiter.api.Tag;
 
 import org.eclipse.esmf.samm.validation.ModelLoader;
 import org.eclipse.esmf.samm.validation.SemanticError;
 import org.eclipse.esmf.samm.validation.ValidationReport;
 import org.eclipse.esmf.samm.validation.Validator;
 
+/**
+ * Base class of the tests that validate against the shapes with the TopBraid SHACL engine. They are tagged, so that the build
+ * runs them on the Jena that the engine is built for.
+ */
+@Tag( "shacl" )
 public abstract class AbstractShapeTest {
    final static String TEST_NAMESPACE = "org.eclipse.esmf.test";
    final static String TEST_NAMESPACE_VERSION = "1.0.0";
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Assumptions;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+/**
+ * Checks that an operation does not allocate on the heap once the JIT has compiled it. Whether the allocations of an operation
+ * are eliminated depends on the escape analysis of HotSpot's optimizing compiler, so the check is skipped on other JVMs,
+ * in interpreted mode, without the optimizing compiler or escape analysis, and with agents such as coverage tools attached,
+ * which instrument the code and allocate themselves.
+ */
+public final class Allocations {
+   /**
+    * The bytes that a measurement may allocate in total, for incidental allocations of the measurement itself. An operation
+    * that allocates a single object per call exceeds it within 2,000 calls.
+    */
+   private static final long MAX_ALLOCATED_BYTES = 20_000;
+   private static final int ROUNDS = 3;
+
+   private Allocations() {
+   }
+
+   /**
+    * Calls the operation the given number of times in each of three rounds and asserts that it returns true every time and
+    * that the last round, when the operation is compiled, does not allocate. Skips the calling test if the JVM cannot
+    * measure this.
+    *
+    * @param iterations the number of calls per round, at least 2,000
+    * @param operation the operation to check, which returns whether its results are correct
+    */
+   public static void assertDoesNotAllocate( final int iterations, final BooleanSupplier operation ) {
+      final com.sun.management.ThreadMXBean threads = measurableThreads();
+      final long thread = Thread.currentThread().getId();
+      boolean correct = true;
+      long allocated = 0;
+      for ( int round = 0; round < ROUNDS; round++ ) {
+         final long before = threads.getThreadAllocatedBytes( thread );
+         for ( int i = 0; i < iterations; i++ ) {
+            correct &= operation.getAsBoolean();
+         }
+         allocated = threads.getThreadAllocatedBytes( thread ) - before;
+      }
+      assertThat( correct ).isTrue();
+      assertThat( allocated ).isLessThan( MAX_ALLOCATED_BYTES );
+   }
+
+   private static com.sun.management.ThreadMXBean measurableThreads() {
+      final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      Assumptions.assumeTrue( threads instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+            && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled(),
+            "The JVM does not measure the allocations of threads" );
+      final HotSpotDiagnosticMXBean hotSpot = ManagementFactory.getPlatformMXBean( HotSpotDiagnosticMXBean.class );
+      Assumptions.assumeTrue( hotSpot != null, "The JVM is not HotSpot" );
+      Assumptions.assumeTrue( "true".equals( vmOption( hotSpot, "UseCompiler" ) )
+            && "true".equals( vmOption( hotSpot, "DoEscapeAnalysis" ) )
+            && "4".equals( vmOption( hotSpot, "TieredStopAtLevel" ) ),
+            "The JVM does not compile with escape analysis" );
+      Assumptions.assumeTrue( ManagementFactory.getRuntimeMXBean().getInputArguments().stream().noneMatch( argument ->
+                  argument.startsWith( "-javaagent" ) || argument.startsWith( "-agentpath" ) || argument.startsWith( "-agentlib" ) ),
+            "The JVM runs with an agent" );
+      return (com.sun.management.ThreadMXBean) threads;
+   }
+
+   private static String vmOption( final HotSpotDiagnosticMXBean hotSpot, final String option ) {
+      try {
+         return hotSpot.getVMOption( option ).getValue();
+      } catch ( final IllegalArgumentException exception ) {
+         // The option does not exist in this build of the JVM, e.g. DoEscapeAnalysis without the optimizing compiler
+         return "";
+      }
+   }
+}
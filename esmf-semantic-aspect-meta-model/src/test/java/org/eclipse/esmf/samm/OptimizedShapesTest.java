@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.jena.rdf.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.eclipse.esmf.samm.validation.ModelLoader;
+import org.eclipse.esmf.samm.validation.SemanticError;
+import org.eclipse.esmf.samm.validation.Validator;
+
+/**
+ * Verifies that the optimized shapes that are generated by the build yield exactly the same validation results as the
+ * source shapes, for all test models of the latest meta model version
+ */
+public class OptimizedShapesTest extends AbstractShapeTest {
+   private static final KnownVersion VERSION = KnownVersion.getLatest();
+   private static final Validator optimizedValidator = new Validator( true );
+
+   @Test
+   public void testOptimizedShapesExist() {
+      assertThat( OptimizedShapesTest.class.getClassLoader()
+            .getResource( "samm/meta-model/" + VERSION.toVersionString() + "/aspect-meta-model-shapes-optimized.ttl" ) ).isNotNull();
+      assertThat( OptimizedShapesTest.class.getClassLoader()
+            .getResource( "samm/characteristic/" + VERSION.toVersionString() + "/characteristic-shapes-optimized.ttl" ) ).isNotNull();
+   }
+
+   @ParameterizedTest( name = "[{index}] {0}" )
+   @MethodSource( "testModels" )
+   public void testOptimizedShapesAreEquivalent( final Path testModel ) throws IOException {
+      final Model model;
+      try ( final FileInputStream input = new FileInputStream( testModel.toFile() ) ) {
+         model = ModelLoader.createModel( input );
+      }
+      model.add( getMetaModel( VERSION ) );
+
+      assertThat( errors( optimizedValidator.apply( model, VERSION ).getValidationErrors() ) )
+            .isEqualTo( errors( validator.apply( model, VERSION ).getValidationErrors() ) );
+   }
+
+   static Stream<Path> testModels() throws IOException, URISyntaxException {
+      final Path root = Paths.get( OptimizedShapesTest.class.getClassLoader()
+            .getResource( VERSION.toString().toLowerCase() ).toURI() );
+      final List<Path> testModels;
+      try ( final Stream<Path> paths = Files.walk( root ) ) {
+         testModels = paths.filter( path -> path.toString().endsWith( ".ttl" ) ).sorted().collect( Collectors.toList() );
+      }
+      return testModels.stream();
+   }
+
+   /**
+    * The validation errors in a comparable form: Blank nodes of the shapes (e.g. sequence paths) are different in the
+    * two shapes graphs, so they are not compared by their label
+    */
+   private static List<String> errors( final Collection<SemanticError> errors ) {
+      return errors.stream()
+            .map( error -> String.join( "|", error.getResultMessage(), error.getFocusNode(),
+                  error.getResultPath().contains( ":" ) ? error.getResultPath() : "[]", error.getResultSeverity(), error.getValue() ) )
+            .sorted()
+            .collect( Collectors.toList() );
+   }
+}
@@ -32,6 +32,18 @@ public class UniqueEntityInstancesShapeTest extends AbstractShapeTest {
             metaModelVersion, resultForName );
    }
 
+   @ParameterizedTest
+   @MethodSource( value = "allVersions" )
+   public void testOnlyIdenticalInstancesAreReported( final KnownVersion metaModelVersion ) {
+      final String focusNode = TEST_NAMESPACE_PREFIX + "Instance";
+      final String expectedMessage = validator.getMessageText( "samm:UniqueEntityInstances", "ERR_DUPLICATE_ENTRY", metaModelVersion );
+      final SemanticError resultForName = new SemanticError( expectedMessage,
+            focusNode, "", WARNING_URN, focusNode + "2" );
+      expectSemanticValidationErrors( "unique-entity-instance-shape",
+            "TestEntityInstanceIdenticalAndDistinctInstances",
+            metaModelVersion, resultForName );
+   }
+
    @ParameterizedTest
    @MethodSource( value = "allVersions" )
    public void testInstancesWithSomeIdenticalValuesExpectSuccess( final KnownVersion metaModelVersion ) {
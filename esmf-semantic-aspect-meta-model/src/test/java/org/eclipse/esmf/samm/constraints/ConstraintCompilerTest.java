@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.constraints;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.jena.rdf.model.Model;
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.esmf.samm.Allocations;
+import org.eclipse.esmf.samm.KnownVersion;
+import org.eclipse.esmf.samm.validation.ModelLoader;
+
+public class ConstraintCompilerTest {
+   private static final String PREFIXES = "@prefix : <urn:samm:org.eclipse.esmf.samm.test:1.0.0#> .\n"
+         + "@prefix samm: <urn:samm:org.eclipse.esmf.samm:meta-model:2.0.0#> .\n"
+         + "@prefix samm-c: <urn:samm:org.eclipse.esmf.samm:characteristic:2.0.0#> .\n"
+         + "@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n"
+         + "@prefix rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> .\n";
+   private static final String NAMESPACE = "urn:samm:org.eclipse.esmf.samm.test:1.0.0#";
+
+   private CompiledCharacteristic compile( final String turtle, final String characteristic ) {
+      final Model model = ModelLoader.createModel( new ByteArrayInputStream( (PREFIXES + turtle).getBytes( StandardCharsets.UTF_8 ) ) );
+      return new ConstraintCompiler( model, KnownVersion.SAMM_2_0_0 ).compile( model.createResource( NAMESPACE + characteristic ) );
+   }
+
+   private static void assertAccepts( final ValueCheck check, final String... values ) {
+      for ( final String value : values ) {
+         assertThat( check.test( value ) ).as( value ).isTrue();
+      }
+   }
+
+   private static void assertRejects( final ValueCheck check, final String... values ) {
+      for ( final String value : values ) {
+         assertThat( check.test( value ) ).as( value ).isFalse();
+      }
+   }
+
+   @Test
+   public void testIntegerRangeWithExclusiveBounds() {
+      final CompiledCharacteristic compiled = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :Base ; samm-c:constraint :Range .\n"
+            + ":Base a samm:Characteristic ; samm:dataType xsd:int .\n"
+            + ":Range a samm-c:RangeConstraint ; samm-c:minValue \"-10\"^^xsd:int ; samm-c:lowerBoundDefinition samm-c:GREATER_THAN ;\n"
+            + "   samm-c:maxValue \"100\"^^xsd:int .", "Trait" );
+      assertThat( compiled.getDataType() ).isEqualTo( "http://www.w3.org/2001/XMLSchema#int" );
+      assertThat( compiled.isCollection() ).isFalse();
+      assertAccepts( compiled.getValueCheck(), "-9", "0", "-0", "100", "+0100", " 42 " );
+      assertRejects( compiled.getValueCheck(), "-10", "101", "1000000000000", "1.5", "abc", "" );
+   }
+
+   @Test
+   public void testDecimalRangeAndFixedPointInTraitChain() {
+      final CompiledCharacteristic compiled = compile( ":Outer a samm-c:Trait ; samm-c:baseCharacteristic :Inner ; samm-c:constraint :FixedPoint .\n"
+            + ":Inner a samm-c:Trait ; samm-c:baseCharacteristic :Measurement ; samm-c:constraint :Range .\n"
+            + ":Measurement a samm-c:Measurement ; samm:dataType xsd:decimal .\n"
+            + ":Range a samm-c:RangeConstraint ; samm-c:minValue \"-1.5\"^^xsd:decimal ;\n"
+            + "   samm-c:maxValue \"99.99\"^^xsd:decimal ; samm-c:upperBoundDefinition samm-c:LESS_THAN .\n"
+            + ":FixedPoint a samm-c:FixedPointConstraint ; samm-c:scale \"2\"^^xsd:positiveInteger ;\n"
+            + "   samm-c:integer \"2\"^^xsd:positiveInteger .", "Outer" );
+      assertAccepts( compiled.getValueCheck(), "-1.5", "-1.50", "0", "99.98", "099.980000", ".5", "5." );
+      assertRejects( compiled.getValueCheck(), "-1.51", "99.99", "100", "1.234", "1e1" );
+   }
+
+   @Test
+   public void testUnboundedIntegerRange() {
+      final CompiledCharacteristic compiled = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :Base ; samm-c:constraint :Range .\n"
+            + ":Base a samm:Characteristic ; samm:dataType xsd:integer .\n"
+            + ":Range a samm-c:RangeConstraint ; samm-c:minValue \"-99999999999999999999\"^^xsd:integer .", "Trait" );
+      assertAccepts( compiled.getValueCheck(), "-99999999999999999999", "-9999999999999999999", "123456789012345678901234567890" );
+      assertRejects( compiled.getValueCheck(), "-100000000000000000000" );
+   }
+
+   @Test
+   public void testDoubleRange() {
+      final CompiledCharacteristic compiled = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :Base ; samm-c:constraint :Range .\n"
+            + ":Base a samm:Characteristic ; samm:dataType xsd:double .\n"
+            + ":Range a samm-c:RangeConstraint ; samm-c:minValue \"0.0\"^^xsd:double ; samm-c:maxValue \"1.5E2\"^^xsd:double .", "Trait" );
+      assertAccepts( compiled.getValueCheck(), "0", "-0", "1.5e2", "42.42" );
+      assertRejects( compiled.getValueCheck(), "-1e-300", "150.0001", "INF", "NaN" );
+   }
+
+   @Test
+   public void testTemporalRanges() {
+      final CompiledCharacteristic dateTime = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :Base ; samm-c:constraint :Range .\n"
+            + ":Base a samm:Characteristic ; samm:dataType xsd:dateTime .\n"
+            + ":Range a samm-c:RangeConstraint ; samm-c:minValue \"2023-01-01T00:00:00Z\"^^xsd:dateTime .", "Trait" );
+      assertAccepts( dateTime.getValueCheck(), "2023-01-01T00:00:00Z", "2023-01-01T01:00:00+01:00", "2022-12-31T24:00:00Z", "2024-02-29T00:00:00" );
+      assertRejects( dateTime.getValueCheck(), "2022-12-31T23:59:59.999Z", "2023-01-01T00:00:00+00:01", "2023-02-30T00:00:00Z" );
+
+      final CompiledCharacteristic gMonthDay = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :Base ; samm-c:constraint :Range .\n"
+            + ":Base a samm:Characteristic ; samm:dataType xsd:gMonthDay .\n"
+            + ":Range a samm-c:RangeConstraint ; samm-c:maxValue \"--02-29\"^^xsd:gMonthDay .", "Trait" );
+      assertAccepts( gMonthDay.getValueCheck(), "--01-31", "--02-29" );
+      assertRejects( gMonthDay.getValueCheck(), "--03-01" );
+
+      final CompiledCharacteristic duration = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :Base ; samm-c:constraint :Range .\n"
+            + ":Base a samm:Characteristic ; samm:dataType xsd:duration .\n"
+            + ":Range a samm-c:RangeConstraint ; samm-c:maxValue \"P1M\"^^xsd:duration ; samm-c:upperBoundDefinition samm-c:LESS_THAN .",
+            "Trait" );
+      assertAccepts( duration.getValueCheck(), "P27D", "PT100H", "-P1Y" );
+      // P30D is neither shorter nor longer than P1M
+      assertRejects( duration.getValueCheck(), "P1M", "P30D", "P32D", "P1Y" );
+   }
+
+   @Test
+   public void testLengthOfValuesAndCollections() {
+      final CompiledCharacteristic text = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :Text ; samm-c:constraint :Length .\n"
+            + ":Text a samm:Characteristic ; samm:dataType xsd:string .\n"
+            + ":Length a samm-c:LengthConstraint ; samm-c:minValue \"2\"^^xsd:nonNegativeInteger ;\n"
+            + "   samm-c:maxValue \"3\"^^xsd:nonNegativeInteger .", "Trait" );
+      assertAccepts( text.getValueCheck(), "ab", "abc", "😀😀😀", "a😀" );
+      assertRejects( text.getValueCheck(), "a", "abcd", "😀", "😀😀😀😀" );
+
+      final CompiledCharacteristic list = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :List ; samm-c:constraint :Length .\n"
+            + ":List a samm-c:List ; samm-c:elementCharacteristic :Element .\n"
+            + ":Element a samm-c:Trait ; samm-c:baseCharacteristic :Number ; samm-c:constraint :Range .\n"
+            + ":Number a samm:Characteristic ; samm:dataType xsd:short .\n"
+            + ":Range a samm-c:RangeConstraint ; samm-c:minValue \"0\"^^xsd:short .\n"
+            + ":Length a samm-c:LengthConstraint ; samm-c:maxValue \"10\"^^xsd:nonNegativeInteger .", "Trait" );
+      assertThat( list.isCollection() ).isTrue();
+      assertThat( list.getDataType() ).isEqualTo( "http://www.w3.org/2001/XMLSchema#short" );
+      assertThat( list.getMinElements() ).isZero();
+      assertThat( list.getMaxElements() ).isEqualTo( 10 );
+      assertAccepts( list.getValueCheck(), "0", "32767" );
+      assertRejects( list.getValueCheck(), "-1", "32768", "abcd" );
+   }
+
+   @Test
+   public void testEncodingAndRegularExpression() {
+      final CompiledCharacteristic compiled = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :Text ;\n"
+            + "   samm-c:constraint :Encoding, :Pattern .\n"
+            + ":Text a samm:Characteristic ; samm:dataType xsd:string .\n"
+            + ":Encoding a samm-c:EncodingConstraint ; samm:value samm:US-ASCII .\n"
+            + ":Pattern a samm-c:RegularExpressionConstraint ; samm:value \"[a-zä]+\" .", "Trait" );
+      assertAccepts( compiled.getValueCheck(), "abc" );
+      assertRejects( compiled.getValueCheck(), "äbc", "ABC" );
+      assertThat( compiled.getValueCheck().test( "#abc#", 1, 4 ) ).isTrue();
+   }
+
+   @Test
+   public void testLanguageAndLocale() {
+      final CompiledCharacteristic language = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :Text ; samm-c:constraint :Language .\n"
+            + ":Text a samm:Characteristic ; samm:dataType rdf:langString .\n"
+            + ":Language a samm-c:LanguageConstraint ; samm-c:languageCode \"de\" .", "Trait" );
+      assertAccepts( language.getLanguageCheck(), "de", "DE", "de-DE", "de-Latn-CH-1996" );
+      assertRejects( language.getLanguageCheck(), "en", "den", "", "de-", "de--DE", "de-toolongsubtag" );
+      assertAccepts( language.getValueCheck(), "Hallo Welt" );
+
+      final CompiledCharacteristic locale = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :Text ; samm-c:constraint :Locale .\n"
+            + ":Text a samm:Characteristic ; samm:dataType rdf:langString .\n"
+            + ":Locale a samm-c:LocaleConstraint ; samm-c:localeCode \"de-DE\" .", "Trait" );
+      assertAccepts( locale.getLanguageCheck(), "de-DE", "de-de" );
+      assertRejects( locale.getLanguageCheck(), "de", "de-AT" );
+
+      final CompiledCharacteristic text = compile( ":Text a samm:Characteristic ; samm:dataType rdf:langString .", "Text" );
+      assertAccepts( text.getLanguageCheck(), "en", "EN-us", "x-private" );
+      assertRejects( text.getLanguageCheck(), "zz-DE", "1a" );
+   }
+
+   @Test
+   public void testEnumerations() {
+      final CompiledCharacteristic integers = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :Codes ; samm-c:constraint :Range .\n"
+            + ":Codes a samm-c:Enumeration ; samm:dataType xsd:int ; samm-c:values ( 0 1 -7 404 ) .\n"
+            + ":Range a samm-c:RangeConstraint ; samm-c:maxValue \"100\"^^xsd:int .", "Trait" );
+      assertAccepts( integers.getValueCheck(), "0", "-0", "+1", " -7 " );
+      assertRejects( integers.getValueCheck(), "2", "404", "1.0", "abc" );
+
+      final CompiledCharacteristic decimals = compile( ":Levels a samm-c:Enumeration ; samm:dataType xsd:decimal ;\n"
+            + "   samm-c:values ( \"1.5\"^^xsd:decimal \"-0.125\"^^xsd:decimal \"42\"^^xsd:decimal \"123456789012345678901.5\"^^xsd:decimal ) .",
+            "Levels" );
+      assertAccepts( decimals.getValueCheck(), "1.50", "-.125", "42.000", "0123456789012345678901.50" );
+      assertRejects( decimals.getValueCheck(), "1.25", "0.125", "4.2", "1.5000000000000000000001", "123456789012345678901" );
+
+      final CompiledCharacteristic doubles = compile( ":Factors a samm-c:Enumeration ; samm:dataType xsd:double ;\n"
+            + "   samm-c:values ( \"0\"^^xsd:double \"2.5E-1\"^^xsd:double \"INF\"^^xsd:double ) .", "Factors" );
+      assertAccepts( doubles.getValueCheck(), "-0.0", "0.25", "INF" );
+      assertRejects( doubles.getValueCheck(), "0.5", "-INF", "NaN" );
+
+      final CompiledCharacteristic states = compile( ":States a samm-c:State ; samm:dataType xsd:string ;\n"
+            + "   samm-c:values ( \"idle\" \"running\" \"r\u00fcn\" ) ; samm-c:defaultValue \"idle\" .", "States" );
+      assertAccepts( states.getValueCheck(), "idle", "rün" );
+      assertRejects( states.getValueCheck(), "Idle", " idle", "run", "" );
+      assertThat( states.getValueCheck().test( "#running#", 1, 8 ) ).isTrue();
+
+      final CompiledCharacteristic dates = compile( ":Dates a samm-c:Enumeration ; samm:dataType xsd:date ;\n"
+            + "   samm-c:values ( \"2023-06-01\"^^xsd:date ) .", "Dates" );
+      assertAccepts( dates.getValueCheck(), "2023-06-01", " 2023-06-01\n" );
+      assertRejects( dates.getValueCheck(), "2023-06-02" );
+
+      final StringBuilder codes = new StringBuilder();
+      final StringBuilder numbers = new StringBuilder();
+      for ( int i = 0; i < 5000; i++ ) {
+         codes.append( " \"code-" ).append( i ).append( '"' );
+         numbers.append( ' ' ).append( i * 3 );
+      }
+      final String large = ":Codes a samm-c:Enumeration ; samm:dataType xsd:string ; samm-c:values (" + codes + " ) .\n"
+            + ":Numbers a samm-c:Enumeration ; samm:dataType xsd:long ; samm-c:values (" + numbers + " ) .\n"
+            + ":List a samm-c:List ; samm-c:elementCharacteristic :Numbers .";
+      assertAccepts( compile( large, "Codes" ).getValueCheck(), "code-0", "code-4999", "code-2500" );
+      assertRejects( compile( large, "Codes" ).getValueCheck(), "code-5000", "code-", "code-01" );
+      final CompiledCharacteristic list = compile( large, "List" );
+      assertThat( list.isCollection() ).isTrue();
+      assertAccepts( list.getValueCheck(), "0", "3", "14997" );
+      assertRejects( list.getValueCheck(), "1", "14998", "-3" );
+   }
+
+   @Test
+   public void testValueOrders() {
+      final ValueOrder decimals = compile( ":Base a samm:Characteristic ; samm:dataType xsd:decimal .", "Base" ).getValueOrder();
+      assertThat( decimals.compare( "1.50", 0, 4, " 1.5", 0, 4 ) ).isZero();
+      assertThat( decimals.compare( "-2", 0, 2, "-1.999", 0, 6 ) ).isNegative();
+      assertThat( decimals.compare( "123456789012345678901", 0, 21, "9", 0, 1 ) ).isPositive();
+      final ValueOrder durations = compile( ":Base a samm:Characteristic ; samm:dataType xsd:duration .", "Base" ).getValueOrder();
+      assertThat( durations.compare( "PT36H", 0, 5, "P1D", 0, 3 ) ).isPositive();
+      assertThat( durations.compare( "P1M", 0, 3, "P30D", 0, 4 ) ).isEqualTo( ValueOrder.INCOMPARABLE );
+      final ValueOrder times = compile( ":Base a samm:Characteristic ; samm:dataType xsd:time .", "Base" ).getValueOrder();
+      assertThat( times.compare( "12:00:00+02:00", 0, 14, "10:00:00Z", 0, 9 ) ).isZero();
+      final ValueOrder strings = compile( ":Base a samm:Characteristic ; samm:dataType xsd:string .", "Base" ).getValueOrder();
+      assertThat( strings.compare( "ab", 0, 2, "b", 0, 1 ) ).isNegative();
+      assertThat( strings.compare( "\ud83d\ude00", 0, 2, "\uffff", 0, 1 ) ).isPositive();
+   }
+
+   @Test
+   public void testChecksDoNotAllocate() {
+      final ValueCheck decimal = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :Base ; samm-c:constraint :Range, :FixedPoint .\n"
+            + ":Base a samm:Characteristic ; samm:dataType xsd:decimal .\n"
+            + ":Range a samm-c:RangeConstraint ; samm-c:minValue \"0\"^^xsd:decimal ; samm-c:maxValue \"1000\"^^xsd:decimal .\n"
+            + ":FixedPoint a samm-c:FixedPointConstraint ; samm-c:scale \"3\"^^xsd:positiveInteger ;\n"
+            + "   samm-c:integer \"4\"^^xsd:positiveInteger .", "Trait" ).getValueCheck();
+      final ValueCheck timestamp = compile( ":Trait a samm-c:Trait ; samm-c:baseCharacteristic :Base ; samm-c:constraint :Range, :Length .\n"
+            + ":Base a samm:Characteristic ; samm:dataType xsd:dateTimeStamp .\n"
+            + ":Range a samm-c:RangeConstraint ; samm-c:minValue \"2000-01-01T00:00:00Z\"^^xsd:dateTimeStamp .\n"
+            + ":Length a samm-c:LengthConstraint ; samm-c:maxValue \"30\"^^xsd:nonNegativeInteger .", "Trait" ).getValueCheck();
+      Allocations.assertDoesNotAllocate( 20_000, () -> decimal.test( "999.125", 0, 7 )
+            & timestamp.test( "2023-06-01T12:00:00.5+02:00", 0, 27 ) );
+   }
+}
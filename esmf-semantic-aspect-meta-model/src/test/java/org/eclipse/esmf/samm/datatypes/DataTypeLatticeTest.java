@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.datatypes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.XSD;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.eclipse.esmf.samm.KnownVersion;
+import org.eclipse.esmf.samm.validation.ModelLoader;
+
+public class DataTypeLatticeTest {
+   protected static Stream<KnownVersion> allVersions() {
+      return KnownVersion.getVersions().stream();
+   }
+
+   @ParameterizedTest
+   @MethodSource( value = "allVersions" )
+   public void testLatticeMatchesTypeConversionsTtl( final KnownVersion metaModelVersion ) {
+      final String version = metaModelVersion.toVersionString();
+      final Model typeConversions = ModelLoader.createModel( "samm/meta-model/" + version + "/type-conversions.ttl" );
+      final String namespace = "urn:samm:org.eclipse.esmf.samm:meta-model:" + version + "#";
+      final Property canBeCastTo = typeConversions.createProperty( namespace + "canBeCastTo" );
+      final Property hasCharacterValueSpace = typeConversions.createProperty( namespace + "hasCharacterValueSpace" );
+
+      final DataTypeLattice lattice = DataTypeLattice.forVersion( metaModelVersion );
+      assertThat( lattice.getVersion() ).isEqualTo( metaModelVersion );
+      // The 35 SAMM data types, and in 1.0.0 also the misspelled xsd:negativeInger of its type-conversions.ttl
+      assertThat( lattice.getDataTypes() ).hasSizeGreaterThanOrEqualTo( 35 );
+      for ( final String dataType : lattice.getDataTypes() ) {
+         final Resource resource = typeConversions.createResource( dataType );
+         final Set<String> castTargets = closure( resource, canBeCastTo );
+         for ( final String targetDataType : lattice.getDataTypes() ) {
+            assertThat( lattice.canCast( dataType, targetDataType ) ).as( dataType + " -> " + targetDataType )
+                  .isEqualTo( castTargets.contains( targetDataType ) );
+         }
+         assertThat( lattice.hasCharacterValueSpace( dataType ) ).as( dataType )
+               .isEqualTo( resource.hasLiteral( hasCharacterValueSpace, true ) );
+      }
+   }
+
+   @Test
+   public void testLookups() {
+      final DataTypeLattice lattice = DataTypeLattice.forVersion( KnownVersion.getLatest() );
+      final int byteType = lattice.ordinal( XSD.xbyte.getURI() );
+      final int decimalType = lattice.ordinal( XSD.decimal.getURI() );
+      assertThat( lattice.dataType( byteType ) ).isEqualTo( XSD.xbyte.getURI() );
+      assertThat( lattice.canCast( byteType, decimalType ) ).isTrue();
+      assertThat( lattice.canCast( decimalType, byteType ) ).isFalse();
+      assertThat( lattice.canCast( lattice.ordinal( XSD.unsignedByte.getURI() ), lattice.ordinal( XSD.xint.getURI() ) ) ).isFalse();
+      assertThat( lattice.hasCharacterValueSpace( lattice.ordinal( XSD.xstring.getURI() ) ) ).isTrue();
+      assertThat( lattice.hasCharacterValueSpace( decimalType ) ).isFalse();
+
+      // The ordinals of the SAMM data types do not depend on the meta model version
+      assertThat( DataTypeLattice.forVersion( KnownVersion.SAMM_1_0_0 ).ordinal( XSD.xbyte.getURI() ) ).isEqualTo( byteType );
+
+      assertThat( lattice.ordinal( "urn:example#unknown" ) ).isEqualTo( -1 );
+      assertThat( lattice.canCast( "urn:example#unknown", "urn:example#unknown" ) ).isTrue();
+      assertThat( lattice.canCast( "urn:example#unknown", XSD.xstring.getURI() ) ).isFalse();
+      assertThat( lattice.hasCharacterValueSpace( "urn:example#unknown" ) ).isFalse();
+   }
+
+   private static Set<String> closure( final Resource dataType, final Property canBeCastTo ) {
+      final Set<String> result = new HashSet<>();
+      final Deque<Resource> queue = new ArrayDeque<>();
+      result.add( dataType.getURI() );
+      queue.add( dataType );
+      while ( !queue.isEmpty() ) {
+         for ( final RDFNode target : queue.poll().listProperties( canBeCastTo ).mapWith( Statement::getObject ).toList() ) {
+            if ( result.add( target.asResource().getURI() ) ) {
+               queue.add( target.asResource() );
+            }
+         }
+      }
+      return result;
+   }
+}
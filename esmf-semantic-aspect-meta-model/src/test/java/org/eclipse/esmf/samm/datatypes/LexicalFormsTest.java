@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.datatypes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.jena.vocabulary.XSD;
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.esmf.samm.Allocations;
+import org.eclipse.esmf.samm.KnownVersion;
+
+public class LexicalFormsTest {
+   private static final String CURIE = "urn:samm:org.eclipse.esmf.samm:meta-model:" + KnownVersion.getLatest().toVersionString() + "#curie";
+
+   private static void assertValid( final String dataType, final String... lexicalForms ) {
+      final LexicalValidator validator = LexicalValidator.forDataType( dataType );
+      for ( final String lexicalForm : lexicalForms ) {
+         assertThat( validator.isValid( lexicalForm ) ).as( dataType + " " + lexicalForm ).isTrue();
+         // The validators only look at the given range
+         assertThat( validator.isValid( "#" + lexicalForm + "#", 1, lexicalForm.length() + 1 ) ).as( dataType + " " + lexicalForm )
+               .isTrue();
+      }
+   }
+
+   private static void assertInvalid( final String dataType, final String... lexicalForms ) {
+      final LexicalValidator validator = LexicalValidator.forDataType( dataType );
+      for ( final String lexicalForm : lexicalForms ) {
+         assertThat( validator.isValid( lexicalForm ) ).as( dataType + " " + lexicalForm ).isFalse();
+      }
+   }
+
+   @Test
+   public void testAllSammDataTypesHaveValidators() {
+      for ( final String dataType : DataTypeLattice.forVersion( KnownVersion.getLatest() ).getDataTypes() ) {
+         assertThat( LexicalValidator.forDataType( dataType ) ).as( dataType ).isNotNull();
+      }
+      assertThat( LexicalValidator.forDataType( "urn:example#unknown" ) ).isNull();
+   }
+
+   @Test
+   public void testBoolean() {
+      assertValid( XSD.xboolean.getURI(), "true", "false", "1", "0", " true " );
+      assertInvalid( XSD.xboolean.getURI(), "", "True", "yes", "2", "t rue" );
+      assertThat( NumericLexicalForms.parseBoolean( "1", 0, 1 ) ).isTrue();
+      assertThat( NumericLexicalForms.parseBoolean( "false", 0, 5 ) ).isFalse();
+   }
+
+   @Test
+   public void testIntegers() {
+      assertValid( XSD.integer.getURI(), "0", "-0", "+12", "0042", "123456789012345678901234567890", "\t-1\n" );
+      assertInvalid( XSD.integer.getURI(), "", "+", "-", "1.0", "1e3", "1 2", "--1", "0x1" );
+      assertValid( XSD.xbyte.getURI(), "127", "-128", "+0" );
+      assertInvalid( XSD.xbyte.getURI(), "128", "-129" );
+      assertValid( XSD.xint.getURI(), "2147483647", "-2147483648" );
+      assertInvalid( XSD.xint.getURI(), "2147483648", "-2147483649" );
+      assertValid( XSD.xlong.getURI(), "9223372036854775807", "-9223372036854775808", "-009223372036854775808" );
+      assertInvalid( XSD.xlong.getURI(), "9223372036854775808", "-9223372036854775809", "99999999999999999999" );
+      assertValid( XSD.unsignedByte.getURI(), "255", "-0" );
+      assertInvalid( XSD.unsignedByte.getURI(), "256", "-1" );
+      assertValid( XSD.unsignedLong.getURI(), "18446744073709551615", "0", "-0" );
+      assertInvalid( XSD.unsignedLong.getURI(), "18446744073709551616", "-1" );
+      assertValid( XSD.positiveInteger.getURI(), "1", "99999999999999999999999" );
+      assertInvalid( XSD.positiveInteger.getURI(), "0", "-0", "-1" );
+      assertValid( XSD.nonNegativeInteger.getURI(), "0", "-0", "1" );
+      assertInvalid( XSD.nonNegativeInteger.getURI(), "-1" );
+      assertValid( XSD.negativeInteger.getURI(), "-1", "-99999999999999999999999" );
+      assertInvalid( XSD.negativeInteger.getURI(), "0", "1" );
+      assertValid( XSD.nonPositiveInteger.getURI(), "0", "+0", "-1" );
+      assertInvalid( XSD.nonPositiveInteger.getURI(), "1" );
+
+      assertThat( NumericLexicalForms.parseLong( " -42 ", 0, 5 ) ).isEqualTo( -42L );
+      assertThat( NumericLexicalForms.parseLong( "-9223372036854775808", 0, 20 ) ).isEqualTo( Long.MIN_VALUE );
+      assertThat( NumericLexicalForms.parseLong( "18446744073709551615", 0, 20 ) ).isEqualTo( -1L );
+      assertThatThrownBy( () -> NumericLexicalForms.parseLong( "-9223372036854775809", 0, 20 ) )
+            .isInstanceOf( NumberFormatException.class );
+      assertThat( NumericLexicalForms.parseBigInteger( "+123456789012345678901234567890", 0, 31 ) )
+            .hasToString( "123456789012345678901234567890" );
+   }
+
+   @Test
+   public void testDecimal() {
+      assertValid( XSD.decimal.getURI(), "1", "-1.5", "+.5", "5.", "0.000", "123456789012345678901234567890.1" );
+      assertInvalid( XSD.decimal.getURI(), "", ".", "-", "1e3", "1.2.3", "INF", "1,5" );
+
+      final NumericLexicalForms.DecimalValue value = new NumericLexicalForms.DecimalValue();
+      assertThat( NumericLexicalForms.parseDecimal( "-12.3400", 0, 8, value ) ).isTrue();
+      assertThat( value.getUnscaledValue() ).isEqualTo( -1234L );
+      assertThat( value.getScale() ).isEqualTo( 2 );
+      assertThat( value.toBigDecimal() ).isEqualByComparingTo( new BigDecimal( "-12.34" ) );
+      assertThat( value.compareTo( -1234, 2 ) ).isZero();
+      assertThat( value.compareTo( -12, 0 ) ).isNegative();
+      assertThat( value.compareTo( -13, 0 ) ).isPositive();
+      assertThat( value.compareTo( Long.MIN_VALUE / 2, 0 ) ).isPositive();
+      assertThat( NumericLexicalForms.parseDecimal( "100", 0, 3, value ) ).isTrue();
+      assertThat( value.getUnscaledValue() ).isEqualTo( 100L );
+      assertThat( value.getScale() ).isZero();
+      assertThat( NumericLexicalForms.parseDecimal( "123456789012345678901234567890", 0, 30, value ) ).isFalse();
+      assertThat( value.fits() ).isFalse();
+      assertThat( NumericLexicalForms.parseBigDecimal( "5.", 0, 2 ) ).isEqualByComparingTo( BigDecimal.valueOf( 5 ) );
+   }
+
+   @Test
+   public void testFloatingPoint() {
+      assertValid( XSD.xdouble.getURI(), "1", "-1.5E-3", "+.5e+10", "INF", "-INF", "+INF", "NaN", "1e400", " 1.0 " );
+      assertInvalid( XSD.xdouble.getURI(), "", "e3", "1e", "1e+", "inf", "nan", "1.5f", "0x1p3", "- 1" );
+      assertValid( XSD.xfloat.getURI(), "3.4028235E38", "1E39" );
+
+      final Random random = new Random( 42 );
+      final List<String> samples = List.of( "0", "-0", "0.1", "1.7976931348623157E308", "4.9E-324", "123456789012345678",
+            "0.30000000000000004", "1e22", "1e23", "9007199254740993", "2.2250738585072014E-308", "000123.4500e-2" );
+      for ( final String sample : samples ) {
+         assertThat( NumericLexicalForms.parseDouble( sample, 0, sample.length() ) ).as( sample )
+               .isEqualTo( Double.parseDouble( sample ) );
+         assertThat( NumericLexicalForms.parseFloat( sample, 0, sample.length() ) ).as( sample )
+               .isEqualTo( Float.parseFloat( sample ) );
+      }
+      for ( int i = 0; i < 10_000; i++ ) {
+         final String sample = random.nextInt( 1_000_000 ) + "." + random.nextInt( 1000 ) + "e" + (random.nextInt( 40 ) - 20);
+         assertThat( NumericLexicalForms.parseDouble( sample, 0, sample.length() ) ).as( sample )
+               .isEqualTo( Double.parseDouble( sample ) );
+         assertThat( NumericLexicalForms.parseFloat( sample, 0, sample.length() ) ).as( sample )
+               .isEqualTo( Float.parseFloat( sample ) );
+      }
+      assertThat( NumericLexicalForms.parseDouble( "-INF", 0, 4 ) ).isEqualTo( Double.NEGATIVE_INFINITY );
+      assertThat( NumericLexicalForms.parseFloat( "NaN", 0, 3 ) ).isNaN();
+   }
+
+   @Test
+   public void testDateTimes() {
+      assertValid( XSD.dateTime.getURI(), "2023-01-31T12:00:00", "2023-01-31T12:00:00.123Z", "-0001-01-01T00:00:00+14:00",
+            "0000-02-29T24:00:00", "12345-12-31T23:59:59.999999999999-05:30", "2000-02-29T00:00:00" );
+      assertInvalid( XSD.dateTime.getURI(), "2023-01-31", "2023-02-29T00:00:00", "1900-02-29T00:00:00", "2023-04-31T00:00:00",
+            "2023-01-31T24:00:01", "2023-01-31T12:60:00", "2023-01-31T12:00:60", "2023-01-31T12:00:00+14:01",
+            "2023-01-31T12:00:00+1:00", "2023-01-31T12:00:00.", "023-01-31T12:00:00", "02023-01-31T12:00:00",
+            "2023-1-31T12:00:00", "2023-01-31 12:00:00" );
+      assertValid( XSD.dateTimeStamp.getURI(), "2023-01-31T12:00:00Z" );
+      assertInvalid( XSD.dateTimeStamp.getURI(), "2023-01-31T12:00:00" );
+      assertValid( XSD.date.getURI(), "2023-01-31", "2023-01-31Z", "2024-02-29-01:00" );
+      assertInvalid( XSD.date.getURI(), "2023-01-31T00:00:00", "2023-00-01", "2023-13-01", "2023-01-00" );
+      assertValid( XSD.time.getURI(), "00:00:00", "23:59:59.5Z", "24:00:00.000" );
+      assertInvalid( XSD.time.getURI(), "24:00:00.001", "1:00:00", "12:00", "T12:00:00" );
+      assertValid( XSD.gYear.getURI(), "2023", "-0044", "2023Z" );
+      assertInvalid( XSD.gYear.getURI(), "23", "2023-01" );
+      assertValid( XSD.gYearMonth.getURI(), "2023-12", "2023-12+01:00" );
+      assertInvalid( XSD.gYearMonth.getURI(), "2023-13", "2023" );
+      assertValid( XSD.gMonth.getURI(), "--12", "--01Z" );
+      assertInvalid( XSD.gMonth.getURI(), "--13", "-12", "12" );
+      assertValid( XSD.gMonthDay.getURI(), "--02-29", "--12-31" );
+      assertInvalid( XSD.gMonthDay.getURI(), "--02-30", "--04-31" );
+      assertValid( XSD.gDay.getURI(), "---31", "---01-14:00" );
+      assertInvalid( XSD.gDay.getURI(), "---32", "--31" );
+
+      final TemporalLexicalForms.DateTimeValue value = new TemporalLexicalForms.DateTimeValue();
+      final String lexicalForm = "-12345-06-07T08:09:10.0123-01:30";
+      assertThat( TemporalLexicalForms.parseDateTime( lexicalForm, 0, lexicalForm.length(),
+            TemporalLexicalForms.DateTimeType.DATE_TIME, value ) ).isTrue();
+      assertThat( value.getYear() ).isEqualTo( -12345L );
+      assertThat( value.getMonth() ).isEqualTo( 6 );
+      assertThat( value.getDay() ).isEqualTo( 7 );
+      assertThat( value.getHour() ).isEqualTo( 8 );
+      assertThat( value.getMinute() ).isEqualTo( 9 );
+      assertThat( value.getSecond() ).isEqualTo( 10 );
+      assertThat( value.getNanos() ).isEqualTo( 12_300_000 );
+      assertThat( value.getTimezoneOffset() ).isEqualTo( -90 );
+      assertThat( TemporalLexicalForms.parseDateTime( "--05", 0, 4, TemporalLexicalForms.DateTimeType.G_MONTH, value ) ).isTrue();
+      assertThat( value.getMonth() ).isEqualTo( 5 );
+      assertThat( value.hasTimezone() ).isFalse();
+   }
+
+   @Test
+   public void testDurations() {
+      assertValid( XSD.duration.getURI(), "P1Y", "-P1Y2M3DT4H5M6.7S", "PT0S", "P0D", "PT1.5S", "P1DT1M" );
+      assertInvalid( XSD.duration.getURI(), "P", "PT", "P1YT", "1Y", "P1M1Y", "PT1D", "P1H", "P1.5Y", "PT1.S", "P-1D", "P1Y1Y" );
+      assertValid( XSD.yearMonthDuration.getURI(), "P1Y2M", "-P3M" );
+      assertInvalid( XSD.yearMonthDuration.getURI(), "P1D", "P1YT1H" );
+      assertValid( XSD.dayTimeDuration.getURI(), "P1D", "PT1H", "-P1DT0.5S" );
+      assertInvalid( XSD.dayTimeDuration.getURI(), "P1Y", "P1M" );
+
+      final TemporalLexicalForms.DurationValue value = new TemporalLexicalForms.DurationValue();
+      final String lexicalForm = "-P1Y2M3DT4H5M6.7S";
+      assertThat( TemporalLexicalForms.parseDuration( lexicalForm, 0, lexicalForm.length(),
+            TemporalLexicalForms.DurationType.DURATION, value ) ).isTrue();
+      assertThat( value.isNegative() ).isTrue();
+      assertThat( value.getMonths() ).isEqualTo( 14L );
+      assertThat( value.getSeconds() ).isEqualTo( 3 * 86400 + 4 * 3600 + 5 * 60 + 6L );
+      assertThat( value.getNanos() ).isEqualTo( 700_000_000 );
+      assertThat( TemporalLexicalForms.parseDuration( "-PT0S", 0, 5, TemporalLexicalForms.DurationType.DURATION, value ) ).isTrue();
+      assertThat( value.isNegative() ).isFalse();
+   }
+
+   @Test
+   public void testBinary() {
+      assertValid( XSD.hexBinary.getURI(), "", "0fA9", " 00 " );
+      assertInvalid( XSD.hexBinary.getURI(), "0", "0g", "0 0" );
+      assertValid( XSD.base64Binary.getURI(), "", "AAAA", "QQ==", "QUI=", "QU Jj", "QUJj\n", "QU  Jj", "QUJD\nQUJD", "QUJD\r\nQUJD",
+            "Q U\tJ D Q Q = =" );
+      assertInvalid( XSD.base64Binary.getURI(), "A", "AAA", "QR==", "QUJ=", "=AAA", "QQ==QQ==", "QQ=A", "QUJj!", "QUJj\u00a0" );
+      final String wrapped = "QUJD\r\nQUJD \n  QQ==";
+      final byte[] decoded = new byte[BinaryLexicalForms.base64BinaryLength( wrapped, 0, wrapped.length() )];
+      assertThat( BinaryLexicalForms.decodeBase64Binary( wrapped, 0, wrapped.length(), decoded, 0 ) ).isEqualTo( 7 );
+      assertThat( decoded ).isEqualTo( "ABCABCA".getBytes( StandardCharsets.US_ASCII ) );
+
+      final Random random = new Random( 42 );
+      final byte[] buffer = new byte[64];
+      for ( int length = 0; length < 50; length++ ) {
+         final byte[] bytes = new byte[length];
+         random.nextBytes( bytes );
+         final String base64 = Base64.getEncoder().encodeToString( bytes );
+         assertThat( BinaryLexicalForms.isValidBase64Binary( base64, 0, base64.length() ) ).as( base64 ).isTrue();
+         assertThat( BinaryLexicalForms.base64BinaryLength( base64, 0, base64.length() ) ).isEqualTo( length );
+         assertThat( BinaryLexicalForms.decodeBase64Binary( base64, 0, base64.length(), buffer, 1 ) ).isEqualTo( length );
+         assertThat( Arrays.copyOfRange( buffer, 1, length + 1 ) ).isEqualTo( bytes );
+
+         final StringBuilder hex = new StringBuilder();
+         for ( final byte b : bytes ) {
+            hex.append( String.format( "%02X", b ) );
+         }
+         assertThat( BinaryLexicalForms.hexBinaryLength( hex, 0, hex.length() ) ).isEqualTo( length );
+         assertThat( BinaryLexicalForms.decodeHexBinary( hex, 0, hex.length(), buffer, 0 ) ).isEqualTo( length );
+         assertThat( Arrays.copyOf( buffer, length ) ).isEqualTo( bytes );
+      }
+   }
+
+   @Test
+   public void testText() {
+      assertValid( XSD.xstring.getURI(), "", " a b ", "\t\n\r", "\uD83D\uDE00", "\u00e4" );
+      assertInvalid( XSD.xstring.getURI(), "\u0000", "\u0007", "\uD83D", "\uDE00", "a\uD83Da", "\uFFFE" );
+      assertValid( DataTypeLattice.RDF_NAMESPACE + "langString", "Hallo Welt" );
+      assertValid( XSD.anyURI.getURI(), "", "urn:samm:org.example:1.0.0#x", "http://example.com/a%20b?c=d#e", "../a", "http://b\u00fccher.de" );
+      assertInvalid( XSD.anyURI.getURI(), "http://example.com/a b", "a%2", "a%zz", "<a>", "a\\b", "a\"b" );
+      assertValid( CURIE, "unit:volt", ":a", "a", "/a", "a://b", "[x]", " unit:volt " );
+      assertInvalid( CURIE, "", "//a", "unit: volt", "a b" );
+
+      assertThat( TextLexicalForms.isValidUtf8String( "a\u00e4\u20ac\uD83D\uDE00".getBytes( StandardCharsets.UTF_8 ), 0, 10 ) ).isTrue();
+      assertThat( TextLexicalForms.isValidUtf8String( new byte[] { (byte) 0xc0, (byte) 0x80 }, 0, 2 ) ).isFalse();
+      assertThat( TextLexicalForms.isValidUtf8String( new byte[] { (byte) 0xed, (byte) 0xa0, (byte) 0x80 }, 0, 3 ) ).isFalse();
+      assertThat( TextLexicalForms.isValidUtf8String( new byte[] { (byte) 0xe2, (byte) 0x82 }, 0, 2 ) ).isFalse();
+      assertThat( TextLexicalForms.isValidUtf8String( new byte[] { 1 }, 0, 1 ) ).isFalse();
+   }
+
+   @Test
+   public void testByteRanges() {
+      final byte[] payload = "{\"a\":2023-01-31T12:00:00Z,\"b\":-42}".getBytes( StandardCharsets.UTF_8 );
+      final ByteCharSequence view = new ByteCharSequence( payload, 5, 20 );
+      assertThat( view ).hasToString( "2023-01-31T12:00:00Z" );
+      assertThat( LexicalValidator.forDataType( XSD.dateTimeStamp.getURI() ).isValid( view ) ).isTrue();
+      view.reset( payload, 30, 3 );
+      assertThat( NumericLexicalForms.parseLong( view, 0, view.length() ) ).isEqualTo( -42L );
+   }
+
+   @Test
+   public void testValidationAndParsingDoNotAllocate() {
+      final LexicalValidator dateTime = LexicalValidator.forDataType( XSD.dateTime.getURI() );
+      final LexicalValidator base64 = LexicalValidator.forDataType( XSD.base64Binary.getURI() );
+      final LexicalValidator integer = LexicalValidator.forDataType( XSD.xint.getURI() );
+      final TemporalLexicalForms.DateTimeValue dateTimeValue = new TemporalLexicalForms.DateTimeValue();
+      final NumericLexicalForms.DecimalValue decimalValue = new NumericLexicalForms.DecimalValue();
+      final ByteCharSequence view = new ByteCharSequence( "12345.678e-3".getBytes( StandardCharsets.US_ASCII ), 0, 12 );
+      final String timestamp = "2023-01-31T12:00:00.5+01:00";
+      Allocations.assertDoesNotAllocate( 20_000, () -> dateTime.isValid( timestamp, 0, timestamp.length() )
+            & base64.isValid( "QUJj", 0, 4 )
+            & integer.isValid( "-2147483648", 0, 11 )
+            & TemporalLexicalForms.parseDateTime( timestamp, 0, timestamp.length(), TemporalLexicalForms.DateTimeType.DATE_TIME,
+            dateTimeValue )
+            & NumericLexicalForms.parseDecimal( "-12.3400", 0, 8, decimalValue )
+            & NumericLexicalForms.parseDouble( view, 0, view.length() ) > 0 );
+   }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.hashing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.RDFLanguages;
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.esmf.samm.validation.ModelLoader;
+
+public class AspectModelHasherTest {
+   private static final String MODEL = "@prefix : <urn:samm:org.eclipse.esmf.samm.test:1.0.0#> .\n"
+         + "@prefix samm: <urn:samm:org.eclipse.esmf.samm:meta-model:2.0.0#> .\n"
+         + "@prefix samm-c: <urn:samm:org.eclipse.esmf.samm:characteristic:2.0.0#> .\n"
+         + "@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n"
+         + ":TestAspect a samm:Aspect ;\n"
+         + "   samm:properties ( [ samm:property :testProperty ; samm:optional %s ] :otherProperty ) ;\n"
+         + "   samm:operations ( ) .\n"
+         + ":testProperty a samm:Property ;\n"
+         + "   samm:characteristic [\n"
+         + "      a samm-c:Trait ;\n"
+         + "      samm-c:baseCharacteristic samm-c:Text ;\n"
+         + "      samm-c:constraint [ a samm-c:LengthConstraint ; samm-c:maxValue \"%s\"^^xsd:nonNegativeInteger ]\n"
+         + "   ] .\n"
+         + ":otherProperty a samm:Property ;\n"
+         + "   samm:characteristic samm-c:Text .\n";
+
+   private final AspectModelHasher hasher = new AspectModelHasher();
+
+   @Test
+   public void testHashIsIndependentOfStatementOrderAndBlankNodeLabels() {
+      final Model model = turtle( String.format( MODEL, "true", "10" ) );
+      final List<String> nTriples = Arrays.asList( nTriples( model ).split( "\n" ) );
+      Collections.shuffle( nTriples, new Random( 42 ) );
+      final String relabeled = nTriples.stream()
+            .map( line -> line.replaceAll( "_:(\\w+)", "_:x$1" ) )
+            .collect( Collectors.joining( "\n" ) );
+      final Model shuffledModel = ModelFactory.createDefaultModel();
+      shuffledModel.read( new ByteArrayInputStream( relabeled.getBytes( StandardCharsets.UTF_8 ) ), "",
+            RDFLanguages.NTRIPLES.getName() );
+
+      assertThat( hasher.hash( shuffledModel ) ).isEqualTo( hasher.hash( model ) );
+      assertThat( hasher.canonicalize( shuffledModel ) ).isEqualTo( hasher.canonicalize( model ) );
+      assertThat( hasher.hash( model ) ).isEqualTo( hasher.hash( turtle( String.format( MODEL, "true", "10" ) ) ) );
+   }
+
+   @Test
+   public void testHashChangesWithBlankNodeContent() {
+      final String hash = hasher.hash( turtle( String.format( MODEL, "true", "10" ) ) );
+      assertThat( hasher.hash( turtle( String.format( MODEL, "false", "10" ) ) ) ).isNotEqualTo( hash );
+      assertThat( hasher.hash( turtle( String.format( MODEL, "true", "11" ) ) ) ).isNotEqualTo( hash );
+   }
+
+   @Test
+   public void testElementHash() {
+      final Model model = turtle( String.format( MODEL, "true", "10" ) );
+      final Model changedConstraint = turtle( String.format( MODEL, "true", "11" ) );
+      final String namespace = "urn:samm:org.eclipse.esmf.samm.test:1.0.0#";
+      final Resource aspect = model.getResource( namespace + "TestAspect" );
+      final Resource property = model.getResource( namespace + "testProperty" );
+
+      assertThat( hasher.hash( changedConstraint.getResource( aspect.getURI() ) ) ).isEqualTo( hasher.hash( aspect ) );
+      assertThat( hasher.hash( changedConstraint.getResource( property.getURI() ) ) ).isNotEqualTo( hasher.hash( property ) );
+   }
+
+   @Test
+   public void testHashOfLongList() {
+      final StringBuilder values = new StringBuilder();
+      for ( int i = 0; i < 50_000; i++ ) {
+         values.append( "\"" ).append( i ).append( "\" " );
+      }
+      final Model model = turtle( "@prefix samm-c: <urn:samm:org.eclipse.esmf.samm:characteristic:2.0.0#> .\n"
+            + "<urn:samm:org.eclipse.esmf.samm.test:1.0.0#Enumeration> samm-c:values ( " + values + ") ." );
+      assertThat( hasher.hash( model ) ).hasSize( 64 );
+   }
+
+   private static Model turtle( final String turtle ) {
+      return ModelLoader.createModel( new ByteArrayInputStream( turtle.getBytes( StandardCharsets.UTF_8 ) ) );
+   }
+
+   private static String nTriples( final Model model ) {
+      final StringWriter writer = new StringWriter();
+      model.write( writer, RDFLanguages.NTRIPLES.getName() );
+      return writer.toString();
+   }
+}
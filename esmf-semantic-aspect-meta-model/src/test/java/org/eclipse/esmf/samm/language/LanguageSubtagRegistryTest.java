@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.language;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.esmf.samm.language.LanguageSubtagRegistry.SubtagType;
+
+public class LanguageSubtagRegistryTest {
+   private final LanguageSubtagRegistry registry = LanguageSubtagRegistry.getInstance();
+
+   @Test
+   public void testRegisteredSubtags() {
+      assertThat( registry.contains( SubtagType.LANGUAGE, "de" ) ).isTrue();
+      assertThat( registry.contains( SubtagType.LANGUAGE, "gsw" ) ).isTrue();
+      assertThat( registry.contains( SubtagType.EXTLANG, "cmn" ) ).isTrue();
+      assertThat( registry.contains( SubtagType.SCRIPT, "Latn" ) ).isTrue();
+      assertThat( registry.contains( SubtagType.REGION, "DE" ) ).isTrue();
+      assertThat( registry.contains( SubtagType.REGION, "419" ) ).isTrue();
+      assertThat( registry.contains( SubtagType.VARIANT, "1901" ) ).isTrue();
+      assertThat( registry.contains( SubtagType.GRANDFATHERED, "i-klingon" ) ).isTrue();
+   }
+
+   @Test
+   public void testUnregisteredSubtags() {
+      assertThat( registry.contains( SubtagType.LANGUAGE, "xyz" ) ).isFalse();
+      assertThat( registry.contains( SubtagType.LANGUAGE, "d" ) ).isFalse();
+      assertThat( registry.contains( SubtagType.LANGUAGE, "" ) ).isFalse();
+      assertThat( registry.contains( SubtagType.LANGUAGE, "deutsch1" ) ).isFalse();
+      assertThat( registry.contains( SubtagType.LANGUAGE, "DE" ) ).isFalse();
+      assertThat( registry.contains( SubtagType.REGION, "de" ) ).isFalse();
+      assertThat( registry.contains( SubtagType.SCRIPT, "Latnx" ) ).isFalse();
+   }
+
+   @Test
+   public void testPrivateUseRangesAreExpanded() {
+      assertThat( registry.contains( SubtagType.LANGUAGE, "qaa" ) ).isTrue();
+      assertThat( registry.contains( SubtagType.LANGUAGE, "qbz" ) ).isTrue();
+      assertThat( registry.contains( SubtagType.LANGUAGE, "qtz" ) ).isTrue();
+      assertThat( registry.contains( SubtagType.LANGUAGE, "qaa..qtz" ) ).isFalse();
+      assertThat( registry.contains( SubtagType.SCRIPT, "Qabx" ) ).isTrue();
+      assertThat( registry.contains( SubtagType.SCRIPT, "Qaby" ) ).isFalse();
+      assertThat( registry.contains( SubtagType.REGION, "XZ" ) ).isTrue();
+   }
+
+   @Test
+   public void testSubtagWithinTag() {
+      final String tag = "de-Latn-DE";
+      assertThat( registry.contains( SubtagType.LANGUAGE, tag, 0, 2 ) ).isTrue();
+      assertThat( registry.contains( SubtagType.SCRIPT, tag, 3, 7 ) ).isTrue();
+      assertThat( registry.contains( SubtagType.REGION, tag, 8, 10 ) ).isTrue();
+      assertThat( registry.size( SubtagType.LANGUAGE ) ).isGreaterThan( 8000 );
+   }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class BinaryPayloadCodecTest {
+   private static final String VALUES = ":Values a samm:Aspect ;\n"
+         + "   samm:properties ( :count :total :ratio :amount :big :checksum :image [ samm:property :note ; samm:optional true ]\n"
+         + "      :extra ) ;\n"
+         + "   samm:operations ( ) .\n"
+         + ":count a samm:Property ; samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:long ] .\n"
+         + ":total a samm:Property ; samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:unsignedLong ] .\n"
+         + ":ratio a samm:Property ; samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:float ] .\n"
+         + ":amount a samm:Property ; samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:decimal ] .\n"
+         + ":big a samm:Property ; samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:integer ] .\n"
+         + ":checksum a samm:Property ; samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:hexBinary ] .\n"
+         + ":image a samm:Property ; samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:base64Binary ] .\n"
+         + ":note a samm:Property ; samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:string ] .\n"
+         + ":extra a samm:Property ; samm:characteristic [ a samm:Characteristic ] .\n";
+
+   private final BinaryPayloadCodec machineCodec = new BinaryPayloadCodec(
+         PayloadValidatorTest.schema( PayloadValidatorTest.MACHINE, "Machine" ) );
+   private final BinaryPayloadCodec valuesCodec = new BinaryPayloadCodec( PayloadValidatorTest.schema( VALUES, "Values" ) );
+
+   private static String roundTrip( final BinaryPayloadCodec codec, final String payload ) {
+      final byte[] binary = codec.toBinary( payload.getBytes( StandardCharsets.UTF_8 ) );
+      return new String( codec.toJson( binary ), StandardCharsets.UTF_8 );
+   }
+
+   @Test
+   public void testRoundTripOfMachine() {
+      final byte[] json = PayloadValidatorTest.VALID_PAYLOAD.getBytes( StandardCharsets.UTF_8 );
+      final byte[] binary = machineCodec.toBinary( json );
+      assertThat( binary.length ).isLessThan( json.length / 2 );
+      final String expected = "{\"id\":42,\"label\":\"Drückmaschine 😀\",\"temperatures\":[21.5,-300.0,0.0],"
+            + "\"position\":{\"x\":1.25,\"y\":-0.5,\"timestamp\":\"2023-06-01T12:00:00+02:00\"},"
+            + "\"description\":{\"en\":\"Press\",\"en-GB\":\"Präss\"},\"status\":{\"right\":[1,2,3]},"
+            + "\"parts\":[{\"name\":\"Frame\",\"parts\":[{\"name\":\"Bolt\"}]},{\"name\":\"Belt\"}]}";
+      final String decoded = new String( machineCodec.toJson( binary ), StandardCharsets.UTF_8 );
+      assertThat( decoded ).isEqualTo( expected );
+      assertThat( new PayloadValidator( PayloadValidatorTest.schema( PayloadValidatorTest.MACHINE, "Machine" ) )
+            .validate( decoded.getBytes( StandardCharsets.UTF_8 ) ) ).isEmpty();
+      // Canonical payloads survive the round trip byte for byte
+      assertThat( roundTrip( machineCodec, decoded ) ).isEqualTo( decoded );
+   }
+
+   @Test
+   public void testRoundTripOfValues() {
+      final String payload = "{ \"count\": -9223372036854775808, \"total\": 18446744073709551615, \"ratio\": 0.1,\n"
+            + "  \"amount\": -123.4500, \"big\": 123456789012345678901234567890, \"checksum\": \"0fa1\",\n"
+            + "  \"image\": \"SGVsbG8=\", \"note\": \"line\\nbreak \\\"quoted\\\"\", \"extra\": { \"any\": [ true, null ] } }";
+      assertThat( roundTrip( valuesCodec, payload ) ).isEqualTo( "{\"count\":-9223372036854775808,\"total\":18446744073709551615,"
+            + "\"ratio\":0.1,\"amount\":-123.45,\"big\":123456789012345678901234567890,\"checksum\":\"0FA1\",\"image\":\"SGVsbG8=\","
+            + "\"note\":\"line\\u000Abreak \\\"quoted\\\"\",\"extra\":{ \"any\": [ true, null ] }}" );
+      assertThat( roundTrip( valuesCodec, "{\"count\":1,\"total\":2,\"ratio\":-1E3,\"amount\":0.001,\"big\":-5,\"checksum\":\"\","
+            + "\"image\":\"\",\"note\":null,\"extra\":0}" ) ).isEqualTo( "{\"count\":1,\"total\":2,\"ratio\":-1000.0,\"amount\":0.001,"
+            + "\"big\":-5,\"checksum\":\"\",\"image\":\"\",\"extra\":0}" );
+   }
+
+   @Test
+   public void testInvalidPayloads() {
+      final String missing = PayloadValidatorTest.VALID_PAYLOAD.replace( "\"id\": 42,", "" );
+      assertThatThrownBy( () -> machineCodec.toBinary( missing.getBytes( StandardCharsets.UTF_8 ) ) )
+            .isInstanceOf( MalformedPayloadException.class ).hasMessageContaining( "Missing property 'id'" );
+      final String unknown = PayloadValidatorTest.VALID_PAYLOAD.replace( "\"label\"", "\"name\"" );
+      assertThatThrownBy( () -> machineCodec.toBinary( unknown.getBytes( StandardCharsets.UTF_8 ) ) )
+            .isInstanceOf( MalformedPayloadException.class ).hasMessageContaining( "Unknown property 'name'" );
+      final String wrongType = PayloadValidatorTest.VALID_PAYLOAD.replace( "\"id\": 42", "\"id\": \"42\"" );
+      assertThatThrownBy( () -> machineCodec.toBinary( wrongType.getBytes( StandardCharsets.UTF_8 ) ) )
+            .isInstanceOf( MalformedPayloadException.class ).hasMessageContaining( "Expected a number" );
+      assertThatThrownBy( () -> machineCodec.toBinary( (PayloadValidatorTest.VALID_PAYLOAD + " {}").getBytes( StandardCharsets.UTF_8 ) ) )
+            .isInstanceOf( MalformedPayloadException.class ).hasMessageContaining( "Unexpected data after the value" );
+
+      final byte[] binary = machineCodec.toBinary( PayloadValidatorTest.VALID_PAYLOAD.getBytes( StandardCharsets.UTF_8 ) );
+      assertThatThrownBy( () -> machineCodec.toJson( Arrays.copyOf( binary, binary.length - 1 ) ) )
+            .isInstanceOf( MalformedPayloadException.class ).hasMessageContaining( "Truncated binary payload" );
+      assertThatThrownBy( () -> machineCodec.toJson( Arrays.copyOf( binary, binary.length + 1 ) ) )
+            .isInstanceOf( MalformedPayloadException.class ).hasMessageContaining( "Unexpected data after the payload" );
+   }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class PayloadProjectorTest {
+   private final PayloadSchema schema = PayloadValidatorTest.schema( PayloadValidatorTest.MACHINE, "Machine" );
+
+   private String project( final String payload, final String... paths ) {
+      final PayloadProjector projector = new PayloadProjector( schema, List.of( paths ) );
+      return new String( projector.project( payload.getBytes( StandardCharsets.UTF_8 ) ), StandardCharsets.UTF_8 );
+   }
+
+   @Test
+   public void testProjection() {
+      final String payload = PayloadValidatorTest.VALID_PAYLOAD;
+      assertThat( project( payload, "id", "position/x", "status/right", "parts/name" ) )
+            .isEqualTo( "{\"id\":42,\"position\":{\"x\":1.25},\"status\":{\"right\":[ 1, 2, 3 ]},"
+                  + "\"parts\":[{\"name\":\"Frame\"},{\"name\":\"Belt\"}]}" );
+      assertThat( project( payload, "parts/parts/name" ) ).isEqualTo( "{\"parts\":[{\"parts\":[{\"name\":\"Bolt\"}]},{}]}" );
+      assertThat( project( payload, "parts/parts", "parts/parts/name" ) )
+            .isEqualTo( "{\"parts\":[{\"parts\":[ { \"name\": \"Bolt\", \"parts\": null } ]},{}]}" );
+      assertThat( project( payload, "label", "description" ) )
+            .isEqualTo( "{\"label\":\"Dr\\u00fcckmaschine \\ud83d\\ude00\",\"description\":{ \"en\": \"Press\", \"en-GB\": \"Präss\" }}" );
+      assertThat( project( payload, "status/left" ) ).isEqualTo( "{\"status\":{}}" );
+      assertThat( project( payload ) ).isEqualTo( "{}" );
+   }
+
+   @Test
+   public void testNullsAndOtherMembers() {
+      final String payload = "{ \"active\": null, \"other\": { \"id\": 2 }, \"id\": 1, \"parts\": [ null ] }";
+      assertThat( project( payload, "active", "id", "parts/name" ) ).isEqualTo( "{\"active\":null,\"id\":1,\"parts\":[null]}" );
+   }
+
+   @Test
+   public void testInvalidPaths() {
+      assertThatThrownBy( () -> project( "{}", "name" ) ).isInstanceOf( IllegalArgumentException.class )
+            .hasMessageContaining( "Unknown property 'name' in path 'name'" );
+      assertThatThrownBy( () -> project( "{}", "id/value" ) ).isInstanceOf( IllegalArgumentException.class )
+            .hasMessageContaining( "has no Properties" );
+      assertThatThrownBy( () -> project( "{}", "status/middle" ) ).isInstanceOf( IllegalArgumentException.class );
+      assertThatThrownBy( () -> project( "{}", "" ) ).isInstanceOf( IllegalArgumentException.class );
+   }
+
+   @Test
+   public void testMalformedPayloads() {
+      assertThatThrownBy( () -> project( "{ \"position\": [] }", "position/x" ) ).isInstanceOf( MalformedPayloadException.class )
+            .hasMessageContaining( "Expected an object at offset 14" );
+      assertThatThrownBy( () -> project( "{ \"id\": [ 1, ] }", "id" ) ).isInstanceOf( MalformedPayloadException.class );
+      assertThatThrownBy( () -> project( "{} {}", "id" ) ).isInstanceOf( MalformedPayloadException.class )
+            .hasMessageContaining( "Unexpected data after the value" );
+   }
+}
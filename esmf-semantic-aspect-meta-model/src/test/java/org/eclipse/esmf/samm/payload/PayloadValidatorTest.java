@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.apache.jena.rdf.model.Model;
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.esmf.samm.Allocations;
+import org.eclipse.esmf.samm.KnownVersion;
+import org.eclipse.esmf.samm.validation.ModelLoader;
+
+public class PayloadValidatorTest {
+   static final String PREFIXES = "@prefix : <urn:samm:org.eclipse.esmf.samm.test:1.0.0#> .\n"
+         + "@prefix samm: <urn:samm:org.eclipse.esmf.samm:meta-model:2.0.0#> .\n"
+         + "@prefix samm-c: <urn:samm:org.eclipse.esmf.samm:characteristic:2.0.0#> .\n"
+         + "@prefix samm-e: <urn:samm:org.eclipse.esmf.samm:entity:2.0.0#> .\n"
+         + "@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n"
+         + "@prefix rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> .\n";
+   static final String NAMESPACE = "urn:samm:org.eclipse.esmf.samm.test:1.0.0#";
+
+   static final String MACHINE = ":Machine a samm:Aspect ;\n"
+         + "   samm:properties ( :id [ samm:property :name ; samm:payloadName \"label\" ] [ samm:property :active ; samm:optional true ]\n"
+         + "      :temperatures :position :description :status :parts ) ;\n"
+         + "   samm:operations ( ) .\n"
+         + ":id a samm:Property ; samm:characteristic :Id .\n"
+         + ":Id a samm-c:Trait ; samm-c:baseCharacteristic :Number ; samm-c:constraint [ a samm-c:RangeConstraint ;\n"
+         + "   samm-c:minValue \"1\"^^xsd:int ] .\n"
+         + ":Number a samm:Characteristic ; samm:dataType xsd:int .\n"
+         + ":name a samm:Property ; samm:characteristic :Text .\n"
+         + ":Text a samm:Characteristic ; samm:dataType xsd:string .\n"
+         + ":active a samm:Property ; samm:characteristic :Flag .\n"
+         + ":Flag a samm:Characteristic ; samm:dataType xsd:boolean .\n"
+         + ":temperatures a samm:Property ; samm:characteristic :Temperatures .\n"
+         + ":Temperatures a samm-c:Trait ; samm-c:baseCharacteristic :TemperatureList ;\n"
+         + "   samm-c:constraint [ a samm-c:LengthConstraint ; samm-c:maxValue \"3\"^^xsd:nonNegativeInteger ] .\n"
+         + ":TemperatureList a samm-c:List ; samm:dataType xsd:double .\n"
+         + ":position a samm:Property ; samm:characteristic :PositionCharacteristic .\n"
+         + ":PositionCharacteristic a samm-c:SingleEntity ; samm:dataType :Position .\n"
+         + ":Coordinates a samm:AbstractEntity ; samm:properties ( :x :y ) .\n"
+         + ":Position a samm:Entity ; samm:extends :Coordinates ;\n"
+         + "   samm:properties ( [ samm:property :unit ; samm:notInPayload true ] :timestamp ) .\n"
+         + ":x a samm:Property ; samm:characteristic :Coordinate .\n"
+         + ":y a samm:Property ; samm:characteristic :Coordinate .\n"
+         + ":Coordinate a samm:Characteristic ; samm:dataType xsd:decimal .\n"
+         + ":unit a samm:Property ; samm:characteristic :Text .\n"
+         + ":timestamp a samm:Property ; samm:characteristic :Timestamp .\n"
+         + ":Timestamp a samm:Characteristic ; samm:dataType xsd:dateTime .\n"
+         + ":description a samm:Property ; samm:characteristic :Description .\n"
+         + ":Description a samm-c:Trait ; samm-c:baseCharacteristic :MultiLanguageText ;\n"
+         + "   samm-c:constraint [ a samm-c:LanguageConstraint ; samm-c:languageCode \"en\" ] .\n"
+         + ":MultiLanguageText a samm:Characteristic ; samm:dataType rdf:langString .\n"
+         + ":status a samm:Property ; samm:characteristic :Status .\n"
+         + ":Status a samm-c:Either ; samm-c:left :Text ; samm-c:right :ErrorCodes .\n"
+         + ":ErrorCodes a samm-c:Set ; samm-c:elementCharacteristic :Id .\n"
+         + ":parts a samm:Property ; samm:characteristic :Parts .\n"
+         + ":Parts a samm-c:Collection ; samm:dataType :Part .\n"
+         + ":Part a samm:Entity ; samm:properties ( :name [ samm:property :parts ; samm:optional true ] ) .\n";
+
+   static final String VALID_PAYLOAD = "{\n"
+         + "  \"id\": 42,\n"
+         + "  \"label\": \"Dr\\u00fcckmaschine \\ud83d\\ude00\",\n"
+         + "  \"temperatures\": [ 21.5, -3E2, 0 ],\n"
+         + "  \"position\": { \"x\": 1.25, \"y\": -0.5, \"timestamp\": \"2023-06-01T12:00:00+02:00\" },\n"
+         + "  \"description\": { \"en\": \"Press\", \"en-GB\": \"Präss\" },\n"
+         + "  \"status\": { \"right\": [ 1, 2, 3 ] },\n"
+         + "  \"parts\": [ { \"name\": \"Frame\", \"parts\": [ { \"name\": \"Bolt\", \"parts\": null } ] }, { \"name\": \"Belt\" } ]\n"
+         + "}";
+
+   static Model model( final String turtle ) {
+      return ModelLoader.createModel( new ByteArrayInputStream( (PREFIXES + turtle).getBytes( StandardCharsets.UTF_8 ) ) );
+   }
+
+   static PayloadSchema schema( final String turtle, final String aspect ) {
+      final Model model = model( turtle );
+      return new PayloadSchemaCompiler( model, KnownVersion.SAMM_2_0_0 ).compile( model.createResource( NAMESPACE + aspect ) );
+   }
+
+   private final PayloadValidator validator = new PayloadValidator( schema( MACHINE, "Machine" ) );
+
+   private Optional<PayloadViolation> validate( final String payload ) {
+      return validator.validate( payload.getBytes( StandardCharsets.UTF_8 ) );
+   }
+
+   private void assertViolation( final String payload, final String path, final String message ) {
+      final Optional<PayloadViolation> violation = validate( payload );
+      assertThat( violation ).isPresent();
+      assertThat( violation.get().getPath() ).isEqualTo( path );
+      assertThat( violation.get().getMessage() ).contains( message );
+   }
+
+   private static String replace( final String original, final String replacement ) {
+      final String result = VALID_PAYLOAD.replace( original, replacement );
+      assertThat( result ).isNotEqualTo( VALID_PAYLOAD );
+      return result;
+   }
+
+   @Test
+   public void testValidPayloads() {
+      assertThat( validate( VALID_PAYLOAD ) ).isEmpty();
+      assertThat( validate( replace( "\"id\": 42,", "\"id\": 42, \"active\": true," ) ) ).isEmpty();
+      assertThat( validate( replace( "\"id\": 42,", "\"id\": 42, \"active\": null," ) ) ).isEmpty();
+      assertThat( validate( replace( "{ \"right\": [ 1, 2, 3 ] }", "{ \"left\": \"running\" }" ) ) ).isEmpty();
+      assertThat( validate( replace( "[ 21.5, -3E2, 0 ]", "[]" ) ) ).isEmpty();
+   }
+
+   @Test
+   public void testStructureViolations() {
+      assertViolation( replace( "\"id\": 42,", "" ), "", "Missing property 'id'" );
+      assertViolation( replace( "\"label\"", "\"name\"" ), "", "Unknown property 'name'" );
+      assertViolation( replace( "\"id\": 42,", "\"id\": 42, \"id\": 43," ), "/id", "Duplicate property 'id'" );
+      assertViolation( replace( "\"id\": 42,", "\"id\": null," ), "/id", "must not be null" );
+      assertViolation( replace( "\"x\": 1.25, ", "" ), "/position", "Missing property 'x'" );
+      assertViolation( replace( "\"y\": -0.5,", "\"y\": -0.5, \"unit\": \"m\"," ), "/position", "Unknown property 'unit'" );
+      assertViolation( replace( "\"name\": \"Bolt\"", "\"label\": \"Bolt\"" ), "/parts/0/parts/0", "Unknown property 'label'" );
+      assertViolation( replace( "[ 21.5, -3E2, 0 ]", "[ 1, 2, 3, 4 ]" ), "/temperatures/3", "at most 3 elements" );
+      assertViolation( replace( "[ 21.5, -3E2, 0 ]", "21.5" ), "/temperatures", "Expected an array, but found number" );
+      assertViolation( replace( "{ \"right\": [ 1, 2, 3 ] }", "{ \"right\": [ 1 ], \"left\": \"running\" }" ), "/status/right",
+            "only one of the members" );
+      assertViolation( replace( "{ \"right\": [ 1, 2, 3 ] }", "{ }" ), "/status", "\"left\" or \"right\"" );
+      assertViolation( replace( "{ \"right\": [ 1, 2, 3 ] }", "\"running\"" ), "/status", "Expected an object" );
+   }
+
+   @Test
+   public void testValueViolations() {
+      assertViolation( replace( "\"id\": 42", "\"id\": 0" ), "/id", "Value '0'" );
+      assertViolation( replace( "\"id\": 42", "\"id\": \"42\"" ), "/id", "Expected a number, but found string" );
+      assertViolation( replace( "\"id\": 42", "\"id\": 4.2" ), "/id", "Value '4.2'" );
+      assertViolation( replace( "\"id\": 42,", "\"id\": 42, \"active\": \"yes\"," ), "/active", "Expected a boolean" );
+      assertViolation( replace( "-0.5", "\"-0.5\"" ), "/position/y", "Expected a number" );
+      assertViolation( replace( "2023-06-01T12", "2023-06-31T12" ), "/position/timestamp", "Value '2023-06-31T12:00:00+02:00'" );
+      assertViolation( replace( "\"en-GB\"", "\"de\"" ), "/description", "language tag 'de'" );
+      assertViolation( replace( "\"Press\"", "42" ), "/description", "Expected a string" );
+      assertViolation( replace( "[ 1, 2, 3 ]", "[ 1, 2, -3 ]" ), "/status/right/2", "Value '-3'" );
+      assertViolation( replace( "\"Frame\"", "\"\\u0000\"" ), "/parts/0/name", "Value '\u0000'" );
+   }
+
+   @Test
+   public void testEntityEnumerations() {
+      final PayloadValidator enumerations = new PayloadValidator( schema( ":Machine a samm:Aspect ;\n"
+            + "   samm:properties ( :mode [ samm:property :history ; samm:optional true ] ) ;\n"
+            + "   samm:operations ( ) .\n"
+            + ":mode a samm:Property ; samm:characteristic :Modes .\n"
+            + ":history a samm:Property ; samm:characteristic [ a samm-c:List ; samm-c:elementCharacteristic :Modes ] .\n"
+            + ":Modes a samm-c:Enumeration ; samm:dataType :Mode ; samm-c:values ( :Idle :Heating ) .\n"
+            + ":Mode a samm:Entity ; samm:properties ( :code :speed [ samm:property :label ; samm:optional true ] :tags ) .\n"
+            + ":code a samm:Property ; samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:int ] .\n"
+            + ":speed a samm:Property ; samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:decimal ] .\n"
+            + ":label a samm:Property ; samm:characteristic [ a samm:Characteristic ; samm:dataType rdf:langString ] .\n"
+            + ":tags a samm:Property ; samm:characteristic [ a samm-c:Set ; samm:dataType xsd:string ] .\n"
+            + ":Idle a :Mode ; :code 0 ; :speed 0.0 ; :tags ( ) .\n"
+            + ":Heating a :Mode ; :code 1 ; :speed 1.5 ; :label \"Heating\"@en, \"Heizen\"@de ; :tags ( \"hot\" \"slow\" ) .\n",
+            "Machine" ) );
+      final String idle = "{ \"code\": 0, \"speed\": 0, \"tags\": [] }";
+      final String heating = "{ \"tags\": [ \"slow\", \"hot\" ], \"label\": { \"DE\": \"Heizen\", \"en\": \"Heating\" },"
+            + " \"speed\": 1.50, \"code\": 1 }";
+      assertThat( enumerations.validate( ("{ \"mode\": " + idle + " }").getBytes( StandardCharsets.UTF_8 ) ) ).isEmpty();
+      assertThat( enumerations.validate( ("{ \"mode\": " + heating + ", \"history\": [ " + idle + ", " + heating + " ] }")
+            .getBytes( StandardCharsets.UTF_8 ) ) ).isEmpty();
+
+      final Optional<PayloadViolation> speed = enumerations.validate( ("{ \"mode\": " + idle.replace( "0,", "1," ) + " }")
+            .getBytes( StandardCharsets.UTF_8 ) );
+      assertThat( speed ).isPresent();
+      assertThat( speed.get().getPath() ).isEqualTo( "/mode" );
+      assertThat( speed.get().getMessage() ).isEqualTo( "Value is not one of the values of the Enumeration" );
+      final Optional<PayloadViolation> label = enumerations.validate( ("{ \"mode\": " + idle + ", \"history\": [ "
+            + heating.replace( "Heizen", "Heizung" ) + " ] }").getBytes( StandardCharsets.UTF_8 ) );
+      assertThat( label ).isPresent();
+      assertThat( label.get().getPath() ).isEqualTo( "/history/0" );
+   }
+
+   @Test
+   public void testSetElements() {
+      final PayloadValidator sets = new PayloadValidator( schema( ":Machine a samm:Aspect ;\n"
+            + "   samm:properties ( [ samm:property :codes ; samm:optional true ] [ samm:property :levels ; samm:optional true ]\n"
+            + "      [ samm:property :times ; samm:optional true ] [ samm:property :names ; samm:optional true ]\n"
+            + "      [ samm:property :parts ; samm:optional true ] ) ;\n"
+            + "   samm:operations ( ) .\n"
+            + ":codes a samm:Property ; samm:characteristic [ a samm-c:Set ; samm:dataType xsd:decimal ] .\n"
+            + ":levels a samm:Property ; samm:characteristic [ a samm-c:SortedSet ; samm:dataType xsd:decimal ] .\n"
+            + ":times a samm:Property ; samm:characteristic [ a samm-c:SortedSet ; samm:dataType xsd:dateTime ] .\n"
+            + ":names a samm:Property ; samm:characteristic [ a samm-c:SortedSet ; samm:dataType xsd:string ] .\n"
+            + ":parts a samm:Property ; samm:characteristic [ a samm-c:Set ; samm:dataType :Part ] .\n"
+            + ":Part a samm:Entity ; samm:properties ( :name :tags ) .\n"
+            + ":name a samm:Property ; samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:string ] .\n"
+            + ":tags a samm:Property ; samm:characteristic [ a samm-c:Set ; samm:dataType xsd:string ] .\n", "Machine" ) );
+      final StringBuilder codes = new StringBuilder( "{ \"codes\": [ 0" );
+      for ( int i = 1; i < 100_000; i++ ) {
+         codes.append( ", " ).append( i * 7 % 100_000 ).append( '.' ).append( i % 3 );
+      }
+      assertThat( sets.validate( codes.append( " ] }" ).toString().getBytes( StandardCharsets.UTF_8 ) ) ).isEmpty();
+      assertThat( sets.validate( ("{ \"levels\": [ -1.5, -1, 0, 0.25, 2, 10, 12345678901234567890.5 ],"
+            + " \"times\": [ \"2023-06-01T12:00:00+02:00\", \"2023-06-01T11:00:00Z\", \"2023-06-01T11:00:00.5Z\" ],"
+            + " \"names\": [ \"B\", \"a\", \"b\", \"\ufffd\", \"\ud83d\ude00\" ],"
+            + " \"parts\": [ { \"name\": \"a\", \"tags\": [ \"x\", \"y\" ] }, { \"name\": \"a\", \"tags\": [ \"x\" ] } ] }" )
+            .getBytes( StandardCharsets.UTF_8 ) ) ).isEmpty();
+
+      final String[][] violations = {
+            { "{ \"codes\": [ 1, 2.5, 3, 2.50 ] }", "/codes/3", "Duplicate element of a Set" },
+            { "{ \"levels\": [ 1, 2, 2.0 ] }", "/levels/2", "Duplicate element of a Set" },
+            { "{ \"levels\": [ 1, 10, 9.99 ] }", "/levels/2", "Element is not greater than the previous element" },
+            { "{ \"times\": [ \"2023-06-01T12:00:00+02:00\", \"2023-06-01T09:30:00Z\" ] }", "/times/1", "is not greater" },
+            { "{ \"names\": [ \"\ud83d\ude00\", \"\ufffd\" ] }", "/names/1", "is not greater" },
+            { "{ \"parts\": [ { \"name\": \"a\", \"tags\": [ \"x\", \"y\" ] }, { \"tags\": [ \"y\", \"x\" ], \"name\": \"a\" } ] }",
+                  "/parts/1", "Duplicate element of a Set" },
+            { "{ \"parts\": [ { \"name\": \"a\", \"tags\": [ \"x\", \"x\" ] } ] }", "/parts/0/tags/1", "Duplicate element" } };
+      for ( final String[] violation : violations ) {
+         final Optional<PayloadViolation> result = sets.validate( violation[0].getBytes( StandardCharsets.UTF_8 ) );
+         assertThat( result ).as( violation[0] ).isPresent();
+         assertThat( result.get().getPath() ).as( violation[0] ).isEqualTo( violation[1] );
+         assertThat( result.get().getMessage() ).as( violation[0] ).contains( violation[2] );
+      }
+   }
+
+   @Test
+   public void testMalformedPayloads() {
+      assertViolation( replace( "\"id\": 42,", "\"id\": 42" ), "/id", "Expected ',' or '}'" );
+      assertViolation( replace( "\"id\": 42", "\"id\": 42." ), "/id", "Invalid number" );
+      assertViolation( replace( "[ 21.5,", "[ 21.5,," ), "/temperatures/0", "Unexpected character" );
+      assertViolation( VALID_PAYLOAD + " {}", "", "Unexpected data after the value" );
+      assertViolation( VALID_PAYLOAD.substring( 0, VALID_PAYLOAD.indexOf( "-3E2" ) ), "/temperatures/0", "Unexpected end of payload" );
+      assertViolation( replace( "\"Frame\"", "\"Fr\\xame\"" ), "/parts/0/name", "Invalid escape sequence" );
+      assertViolation( "", "", "Unexpected end of payload" );
+      assertViolation( "[]", "", "Expected an object, but found start array" );
+
+      final byte[] invalidUtf8 = replace( "\"Frame\"", "\"Fr_me\"" ).getBytes( StandardCharsets.UTF_8 );
+      for ( int i = 0; i < invalidUtf8.length; i++ ) {
+         if ( invalidUtf8[i] == '_' ) {
+            invalidUtf8[i] = (byte) 0xc0;
+         }
+      }
+      final Optional<PayloadViolation> violation = validator.validate( invalidUtf8 );
+      assertThat( violation ).isPresent();
+      assertThat( violation.get().getMessage() ).contains( "Invalid UTF-8" );
+   }
+
+   @Test
+   public void testReaderTokens() {
+      final JsonReader reader = new JsonReader( 2 );
+      final byte[] json = "[ {\"a\\/b\": -0.5e+3}, true, null, \"\\u00e4\" ]".getBytes( StandardCharsets.UTF_8 );
+      reader.reset( json, 0, json.length );
+      assertThat( reader.next() ).isEqualTo( JsonReader.Token.START_ARRAY );
+      assertThat( reader.next() ).isEqualTo( JsonReader.Token.START_OBJECT );
+      assertThat( reader.next() ).isEqualTo( JsonReader.Token.NAME );
+      assertThat( reader.getString().toString() ).isEqualTo( "a/b" );
+      assertThat( reader.next() ).isEqualTo( JsonReader.Token.NUMBER );
+      assertThat( reader.getString().toString() ).isEqualTo( "-0.5e+3" );
+      assertThat( reader.next() ).isEqualTo( JsonReader.Token.END_OBJECT );
+      assertThat( reader.next() ).isEqualTo( JsonReader.Token.TRUE );
+      assertThat( reader.next() ).isEqualTo( JsonReader.Token.NULL );
+      assertThat( reader.next() ).isEqualTo( JsonReader.Token.STRING );
+      assertThat( reader.isAscii() ).isFalse();
+      assertThat( reader.getString().toString() ).isEqualTo( "ä" );
+      assertThat( reader.next() ).isEqualTo( JsonReader.Token.END_ARRAY );
+      assertThat( reader.next() ).isEqualTo( JsonReader.Token.END );
+
+      final byte[] deep = "[[[1]]]".getBytes( StandardCharsets.UTF_8 );
+      reader.reset( deep, 0, deep.length );
+      reader.next();
+      reader.next();
+      assertThatThrownBy( reader::next ).isInstanceOf( MalformedPayloadException.class ).hasMessageContaining( "Nesting deeper than 2" );
+   }
+
+   @Test
+   public void testValidationDoesNotAllocate() {
+      final byte[] payload = VALID_PAYLOAD.getBytes( StandardCharsets.UTF_8 );
+      Allocations.assertDoesNotAllocate( 10_000, () -> validator.validate( payload ).isEmpty() );
+   }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.esmf.samm.Allocations;
+
+public class PayloadViewTest {
+   private final PayloadSchema schema = PayloadValidatorTest.schema( PayloadValidatorTest.MACHINE, "Machine" );
+
+   private PayloadView view( final String payload ) {
+      return PayloadView.of( schema, payload.getBytes( StandardCharsets.UTF_8 ) );
+   }
+
+   @Test
+   public void testSelectiveReads() {
+      final PayloadView machine = view( PayloadValidatorTest.VALID_PAYLOAD );
+      assertThat( machine.getLong( "id" ) ).isEqualTo( 42 );
+      assertThat( machine.getString( "label" ) ).isEqualTo( "Drückmaschine 😀" );
+      assertThat( machine.has( "active" ) ).isFalse();
+      assertThat( machine.get( "temperatures" ).size() ).isEqualTo( 3 );
+      assertThat( machine.get( "temperatures" ).get( 1 ).doubleValue() ).isEqualTo( -300.0 );
+      final PayloadView position = machine.get( "position" );
+      assertThat( position.getDecimal( "x" ) ).isEqualTo( new BigDecimal( "1.25" ) );
+      assertThat( position.getString( "timestamp" ) ).isEqualTo( "2023-06-01T12:00:00+02:00" );
+      assertThat( position ).hasToString( "{ \"x\": 1.25, \"y\": -0.5, \"timestamp\": \"2023-06-01T12:00:00+02:00\" }" );
+      assertThat( machine.get( "description" ).getString( "en-GB" ) ).isEqualTo( "Präss" );
+      assertThat( machine.get( "description" ).has( "de" ) ).isFalse();
+      final PayloadView status = machine.get( "status" );
+      assertThat( status.has( "left" ) ).isFalse();
+      assertThat( status.get( "right" ).get( 2 ).longValue() ).isEqualTo( 3 );
+      final PayloadView bolt = machine.get( "parts" ).get( 0 ).get( "parts" ).get( 0 );
+      assertThat( bolt.getString( "name" ) ).isEqualTo( "Bolt" );
+      assertThat( bolt.has( "parts" ) ).isFalse();
+      assertThat( machine.get( "parts" ).get( 1 ).getString( "name" ) ).isEqualTo( "Belt" );
+   }
+
+   @Test
+   public void testOtherMembersAreIgnored() {
+      final PayloadView machine = view( "{ \"unknown\": { \"id\": 1 }, \"parts\": [ null, { \"name\": \"Nut\", \"size\": [ 1 ] } ],"
+            + " \"status\": { \"left\": \"idle\" }, \"active\": true, \"id\": 7 }" );
+      assertThat( machine.getLong( "id" ) ).isEqualTo( 7 );
+      assertThat( machine.getBoolean( "active" ) ).isTrue();
+      assertThat( machine.get( "status" ).getString( "left" ) ).isEqualTo( "idle" );
+      assertThat( machine.get( "parts" ).size() ).isEqualTo( 2 );
+      assertThat( machine.get( "parts" ).get( 0 ).isNull() ).isTrue();
+      assertThat( machine.get( "parts" ).get( 1 ).getString( "name" ) ).isEqualTo( "Nut" );
+      assertThat( machine.has( "label" ) ).isFalse();
+   }
+
+   @Test
+   public void testInvalidAccess() {
+      final PayloadView machine = view( PayloadValidatorTest.VALID_PAYLOAD );
+      assertThatThrownBy( () -> machine.get( "name" ) ).isInstanceOf( IllegalArgumentException.class )
+            .hasMessageContaining( "Unknown property 'name'" );
+      assertThatThrownBy( () -> machine.getBoolean( "active" ) ).isInstanceOf( NoSuchElementException.class );
+      assertThatThrownBy( () -> machine.getLong( "label" ) ).isInstanceOf( MalformedPayloadException.class )
+            .hasMessageContaining( "Expected a number" );
+      assertThatThrownBy( () -> machine.get( "temperatures" ).get( 3 ) ).isInstanceOf( IndexOutOfBoundsException.class );
+      assertThatThrownBy( () -> machine.get( "id" ).size() ).isInstanceOf( IllegalStateException.class );
+      assertThatThrownBy( () -> machine.get( "temperatures" ).getLong( "x" ) ).isInstanceOf( IllegalStateException.class );
+      assertThatThrownBy( () -> machine.get( "temperatures" ).get( 0 ).longValue() ).isInstanceOf( MalformedPayloadException.class )
+            .hasMessageContaining( "Invalid value '21.5'" );
+
+      assertThatThrownBy( () -> view( "{ \"id\": 1, \"position\": 5 }" ).getLong( "id" ) ).isInstanceOf( MalformedPayloadException.class )
+            .hasMessageContaining( "Expected an object at offset 23" );
+      assertThatThrownBy( () -> view( "{ \"id\": [ 1, ] }" ).has( "id" ) ).isInstanceOf( MalformedPayloadException.class );
+      assertThatThrownBy( () -> view( "{ \"id\": 1 } 2" ).has( "id" ) ).isInstanceOf( MalformedPayloadException.class )
+            .hasMessageContaining( "Unexpected data after the value" );
+   }
+
+   @Test
+   public void testReadsDoNotAllocate() {
+      final PayloadView machine = view( PayloadValidatorTest.VALID_PAYLOAD );
+      final PayloadView position = machine.get( "position" );
+      Allocations.assertDoesNotAllocate( 10_000, () ->
+            machine.getLong( "id" ) + position.getDouble( "x" ) + (machine.has( "active" ) ? 1 : 0) == 43.25 );
+   }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.payload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class TimeSeriesCodecTest {
+   static final String SENSOR = ":Sensor a samm:Aspect ;\n"
+         + "   samm:properties ( :temperatures :counters :levels :states :name ) ;\n"
+         + "   samm:operations ( ) .\n"
+         + ":temperatures a samm:Property ; samm:characteristic [ a samm-c:TimeSeries ; samm:dataType :Temperature ] .\n"
+         + ":Temperature a samm:Entity ; samm:extends samm-e:TimeSeriesEntity ;\n"
+         + "   samm:properties ( [ samm:extends samm-e:value ;\n"
+         + "      samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:double ] ] ) .\n"
+         + ":counters a samm:Property ; samm:characteristic [ a samm-c:TimeSeries ; samm:dataType :Counter ] .\n"
+         + ":Counter a samm:Entity ; samm:extends samm-e:TimeSeriesEntity ;\n"
+         + "   samm:properties ( [ samm:extends samm-e:value ;\n"
+         + "      samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:long ] ] ) .\n"
+         + ":levels a samm:Property ; samm:characteristic [ a samm-c:TimeSeries ; samm:dataType :Level ] .\n"
+         + ":Level a samm:Entity ; samm:extends samm-e:TimeSeriesEntity ;\n"
+         + "   samm:properties ( [ samm:extends samm-e:value ;\n"
+         + "      samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:decimal ] ] ) .\n"
+         + ":states a samm:Property ; samm:characteristic [ a samm-c:TimeSeries ; samm:dataType :State ] .\n"
+         + ":State a samm:Entity ; samm:extends samm-e:TimeSeriesEntity ;\n"
+         + "   samm:properties ( [ samm:extends samm-e:value ;\n"
+         + "      samm:characteristic [ a samm:Characteristic ; samm:dataType xsd:string ] ] ) .\n"
+         + ":name a samm:Property ; samm:characteristic [ a samm-c:List ; samm:dataType xsd:string ] .\n"
+         + "samm-e:TimeSeriesEntity a samm:AbstractEntity ; samm:properties ( samm-e:timestamp samm-e:value ) .\n"
+         + "samm-e:timestamp a samm:Property ; samm:characteristic samm-c:Timestamp .\n"
+         + "samm-e:value a samm:AbstractProperty .\n"
+         + "samm-c:Timestamp a samm:Characteristic ; samm:dataType xsd:dateTime .\n";
+
+   private final PayloadSchema schema = PayloadValidatorTest.schema( SENSOR, "Sensor" );
+
+   private static String entry( final String timestamp, final String value ) {
+      return "{\"timestamp\":\"" + timestamp + "\",\"value\":" + value + "}";
+   }
+
+   private static String temperatures( final int from, final int to ) {
+      final StringBuilder json = new StringBuilder( "[" );
+      for ( int i = from; i < to; i++ ) {
+         json.append( i > from ? "," : "" )
+               .append( entry( Instant.ofEpochSecond( 1_685_620_800L + i * 10L ).toString(), Double.toString( 20.0 + i % 8 * 0.25 ) ) );
+      }
+      return json.append( "]" ).toString();
+   }
+
+   private static String roundTrip( final TimeSeriesCodec codec, final String json ) {
+      return new String( codec.decode( codec.encode( json.getBytes( StandardCharsets.UTF_8 ) ) ), StandardCharsets.UTF_8 );
+   }
+
+   @Test
+   public void testRegularSeriesIsCompressed() {
+      final TimeSeriesCodec codec = new TimeSeriesCodec( schema, "temperatures", 256 );
+      final String json = temperatures( 0, 10_000 );
+      final byte[] encoded = codec.encode( json.getBytes( StandardCharsets.UTF_8 ) );
+      assertThat( encoded.length ).isLessThan( json.length() / 10 );
+      assertThat( new String( codec.decode( encoded ), StandardCharsets.UTF_8 ) ).isEqualTo( json );
+      assertThat( roundTrip( codec, "[]" ) ).isEqualTo( "[]" );
+   }
+
+   @Test
+   public void testTimeRange() {
+      final TimeSeriesCodec codec = new TimeSeriesCodec( schema, "temperatures", 100 );
+      final byte[] encoded = codec.encode( temperatures( 0, 1000 ).getBytes( StandardCharsets.UTF_8 ) );
+      final Instant from = Instant.ofEpochSecond( 1_685_620_800L + 4235 );
+      final Instant to = Instant.ofEpochSecond( 1_685_620_800L + 5120 );
+      assertThat( new String( codec.decode( encoded, from, to ), StandardCharsets.UTF_8 ) ).isEqualTo( temperatures( 424, 512 ) );
+      assertThat( new String( codec.decode( encoded, to, to ), StandardCharsets.UTF_8 ) ).isEqualTo( "[]" );
+      assertThat( new String( codec.decode( encoded, Instant.EPOCH, Instant.ofEpochSecond( 1_685_620_801L ) ), StandardCharsets.UTF_8 ) )
+            .isEqualTo( temperatures( 0, 1 ) );
+   }
+
+   @Test
+   public void testTimestamps() {
+      final TimeSeriesCodec codec = new TimeSeriesCodec( schema, "counters", 2 );
+      final String json = "[ { \"value\": 5, \"timestamp\": \"2023-06-01T12:00:00.120+02:00\" },\n"
+            + "  { \"timestamp\": \"2023-06-01T10:00:01.5Z\", \"value\": -9223372036854775808 },\n"
+            + "  { \"timestamp\": \"1969-12-31T23:59:59.000000001-14:00\", \"value\": 9223372036854775807 },\n"
+            + "  { \"timestamp\": \"-0044-03-15T12:00:00\", \"value\": 0 },\n"
+            + "  { \"timestamp\": \"2000-02-29T24:00:00+00:00\", \"value\": 7 } ]";
+      assertThat( roundTrip( codec, json ) ).isEqualTo( "["
+            + entry( "2023-06-01T12:00:00.12+02:00", "5" ) + ","
+            + entry( "2023-06-01T10:00:01.5Z", "-9223372036854775808" ) + ","
+            + entry( "1969-12-31T23:59:59.000000001-14:00", "9223372036854775807" ) + ","
+            + entry( "-0044-03-15T12:00:00", "0" ) + ","
+            + entry( "2000-03-01T00:00:00Z", "7" ) + "]" );
+   }
+
+   @Test
+   public void testValueColumns() {
+      assertThat( roundTrip( new TimeSeriesCodec( schema, "levels" ), "["
+            + entry( "2023-06-01T12:00:00Z", "1.5" ) + ","
+            + entry( "2023-06-01T12:00:01Z", "-0.125" ) + ","
+            + entry( "2023-06-01T12:00:02Z", "42" ) + "]" ) ).isEqualTo( "["
+            + entry( "2023-06-01T12:00:00Z", "1.5" ) + ","
+            + entry( "2023-06-01T12:00:01Z", "-0.125" ) + ","
+            + entry( "2023-06-01T12:00:02Z", "42" ) + "]" );
+      // Values that do not fit into a common fixed-point representation are kept as they are
+      final String large = "[" + entry( "2023-06-01T12:00:00Z", "123456789012345678901234567890.5" ) + ","
+            + entry( "2023-06-01T12:00:01Z", "0.000000000000000000001" ) + "]";
+      assertThat( roundTrip( new TimeSeriesCodec( schema, "levels" ), large ) ).isEqualTo( large );
+      final String states = "[" + entry( "2023-06-01T12:00:00Z", "\"idle\"" ) + ","
+            + entry( "2023-06-01T12:05:00Z", "\"r\\u00fcn\"" ) + "]";
+      assertThat( roundTrip( new TimeSeriesCodec( schema, "states" ), states ) ).isEqualTo( states );
+   }
+
+   @Test
+   public void testInvalidInput() {
+      assertThatThrownBy( () -> new TimeSeriesCodec( schema, "name" ) ).isInstanceOf( IllegalArgumentException.class )
+            .hasMessageContaining( "is not a Collection of samm-e:TimeSeriesEntity" );
+      assertThatThrownBy( () -> new TimeSeriesCodec( schema, "unknown" ) ).isInstanceOf( IllegalArgumentException.class );
+      final TimeSeriesCodec codec = new TimeSeriesCodec( schema, "temperatures" );
+      assertThatThrownBy( () -> codec.encode( "[ { \"timestamp\": \"2023-06-01T12:00:00Z\" } ]".getBytes( StandardCharsets.UTF_8 ) ) )
+            .isInstanceOf( MalformedPayloadException.class ).hasMessageContaining( "Missing property 'value'" );
+      assertThatThrownBy( () -> codec.encode( ("[" + entry( "2023-06-31T12:00:00Z", "1.0" ) + "]").getBytes( StandardCharsets.UTF_8 ) ) )
+            .isInstanceOf( MalformedPayloadException.class ).hasMessageContaining( "Invalid value '2023-06-31T12:00:00Z'" );
+      final String text = "[" + entry( "2023-06-01T12:00:00Z", "\"1.0\"" ) + "]";
+      assertThatThrownBy( () -> codec.encode( text.getBytes( StandardCharsets.UTF_8 ) ) )
+            .isInstanceOf( MalformedPayloadException.class ).hasMessageContaining( "Expected a number" );
+      final byte[] encoded = codec.encode( temperatures( 0, 10 ).getBytes( StandardCharsets.UTF_8 ) );
+      assertThatThrownBy( () -> codec.decode( Arrays.copyOf( encoded, encoded.length - 1 ) ) )
+            .isInstanceOf( MalformedPayloadException.class ).hasMessageContaining( "Truncated binary payload" );
+   }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.regex;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class RegularExpressionTest {
+   private static final List<String> INPUTS = List.of( "", "a", "b", "ab", "aab", "abab", "abc", "bca", "a1b2", "2023-04-01",
+         "12:30:45", "key=value;other=x", "a\n", "a\r\n", "\n", "aaaa", "abcd", "xyz", "😀a", "ä", "A_b 9", "cb 1c" );
+
+   @ParameterizedTest
+   @ValueSource( strings = {
+         "", "a", "ab", "a|b", "a*", "a+", "a?", "a*?", "a+?", "a??", "a{2}", "a{1,2}", "a{2,}", "a{0,2}?", ".", ".*", ".+b",
+         "^a", "a$", "^$", "^a*$", "[ab]", "[^ab]", "[a-c]+", "[-a]", "[a-]", "[\\d-z]", "\\d+", "\\D", "\\w+", "\\W", "\\s",
+         "\\S+", "(a)", "(a)(b)", "(a|ab)(c|bcd)(d*)", "(a*)(b*)", "(?:ab)+", "(a|b)*", "(a+)+", "(a)|b",
+         "(\\d{4})-(\\d{2})-(\\d{2})", "(\\d+):(\\d+):(\\d+)", "(\\w+)=(\\w+)", "([^=;]+)=([^;]*);?", "\\p{L}+", "\\P{L}",
+         "\\p{Lu}", "\\x41", "\\u0061", "\\x{1F600}", "\\.", "\\-", "a\\|b", "]", "}", "(?:)", "()", "a|", "|", "x*y*z*",
+         "(a|b)*?b", "(ab|a)(bc|c)?", "^(a+)$", "(.)(.)?$", "\\t|\\n" } )
+   public void testLinearMatchingIsEquivalentToPattern( final String pattern ) {
+      final RegularExpression expression = RegularExpression.compile( pattern );
+      assertThat( expression.isLinear() ).isTrue();
+      for ( final String input : INPUTS ) {
+         assertEquivalent( expression, Pattern.compile( pattern ), input );
+      }
+   }
+
+   @Test
+   public void testRandomPatternsAreEquivalentToPattern() {
+      final String[] tokens = { "a", "b", ".", "[ab]", "[^a]", "\\d", "(", ")", "(?:", "|", "*", "+", "?", "*?", "{1,2}", "{2}",
+            "^", "$" };
+      final Function<Random, String> patterns = random -> {
+         final StringBuilder pattern = new StringBuilder();
+         for ( int length = random.nextInt( 8 ) + 1; length > 0; length-- ) {
+            pattern.append( tokens[random.nextInt( tokens.length )] );
+         }
+         return pattern.toString();
+      };
+      assertThat( assertRandomPatternsAreEquivalent( patterns, new String[] { "a", "b", "1", "\n" }, 42, 5000 ) ).isGreaterThan( 1000 );
+   }
+
+   /**
+    * Nested, quantified and empty groups and alternatives, which is where the matches and captures of backtracking
+    * differ most easily from those of the VM
+    */
+   @Test
+   public void testRandomNestedPatternsAreEquivalentToPattern() {
+      final Function<Random, String> patterns = random -> randomAlternation( random, 2 );
+      assertThat( assertRandomPatternsAreEquivalent( patterns, new String[] { "a", "b", "1", " ", "\n" }, 1, 2000 ) ).isGreaterThan( 150 );
+   }
+
+   private static String randomAlternation( final Random random, final int depth ) {
+      final StringBuilder alternation = new StringBuilder( randomSequence( random, depth ) );
+      while ( random.nextInt( 3 ) == 0 ) {
+         alternation.append( '|' ).append( randomSequence( random, depth ) );
+      }
+      return alternation.toString();
+   }
+
+   private static String randomSequence( final Random random, final int depth ) {
+      final String[] atoms = { "a", "b", ".", "\\w", " ", "^", "$", "" };
+      final String[] quantifiers = { "", "", "*", "+", "?", "??", "*?", "{0,2}", "{0,2}?", "{1,2}", "{2}" };
+      final StringBuilder sequence = new StringBuilder();
+      for ( int length = random.nextInt( 3 ) + 1; length > 0; length-- ) {
+         final int kind = depth > 0 ? random.nextInt( 4 ) : 0;
+         final String atom = kind == 0 ? atoms[random.nextInt( atoms.length )]
+               : (kind == 1 ? "(?:" : "(") + randomAlternation( random, depth - 1 ) + ")";
+         sequence.append( atom );
+         if ( !atom.isEmpty() && !atom.equals( "^" ) && !atom.equals( "$" ) ) {
+            sequence.append( quantifiers[random.nextInt( quantifiers.length )] );
+         }
+      }
+      return sequence.toString();
+   }
+
+   /**
+    * @return the number of random patterns that were matched in linear time
+    */
+   private static int assertRandomPatternsAreEquivalent( final Function<Random, String> patterns, final String[] alphabet,
+         final long seed, final int count ) {
+      final Random random = new Random( seed );
+      int linear = 0;
+      for ( int i = 0; i < count; i++ ) {
+         final String pattern = patterns.apply( random );
+         final Pattern reference;
+         try {
+            reference = Pattern.compile( pattern );
+         } catch ( final PatternSyntaxException exception ) {
+            assertThatThrownBy( () -> RegularExpression.compile( pattern ) ).isInstanceOf( PatternSyntaxException.class );
+            continue;
+         }
+         final RegularExpression expression = RegularExpression.compile( pattern );
+         linear += expression.isLinear() ? 1 : 0;
+         for ( int j = 0; j < 10; j++ ) {
+            final StringBuilder input = new StringBuilder();
+            for ( int length = random.nextInt( 6 ); length > 0; length-- ) {
+               input.append( alphabet[random.nextInt( alphabet.length )] );
+            }
+            assertEquivalent( expression, reference, input.toString() );
+         }
+      }
+      return linear;
+   }
+
+   @ParameterizedTest
+   @ValueSource( strings = { "(a)\\1", "a(?=b)", "(?<name>a)", "(?i)a", "a*+", "a++", "\\bab", "a\\z", "[a-[b]]", "[]a]",
+         "a{2}{3}", "(a*)*", "(a?){2}", "a{1001}", "\\Qa\\E", "[a&&b]", "((a)|b)+", "(?:a(b))*", "(^\\w.()){0,2}?$", "(?:|a)*",
+         "(?:.{0,2}?)+b", "(?:a??b?)*", "(?:.+|^){2}", "(?:a*){1,2}" } )
+   public void testUnsupportedFeaturesFallBackToPattern( final String pattern ) {
+      final RegularExpression expression = RegularExpression.compile( pattern );
+      assertThat( expression.isLinear() ).isFalse();
+      for ( final String input : INPUTS ) {
+         assertEquivalent( expression, Pattern.compile( pattern ), input );
+      }
+   }
+
+   @ParameterizedTest
+   @ValueSource( strings = { "a**", "a{", "{a}", "a{3,2}", "[z-a]", "\\q", "[]", "[^]", "x{,3}", "\\p{Foo}", "(a", "a)", "*a",
+         "\\x4", "\\u12" } )
+   public void testInvalidPatternsAreRejected( final String pattern ) {
+      assertThatThrownBy( () -> Pattern.compile( pattern ) ).isInstanceOf( PatternSyntaxException.class );
+      assertThatThrownBy( () -> RegularExpression.compile( pattern ) ).isInstanceOf( PatternSyntaxException.class );
+   }
+
+   @Test
+   @Timeout( 10 )
+   public void testCatastrophicBacktrackingPatternsRunInLinearTime() {
+      final String input = "a".repeat( 100_000 ) + "!";
+      for ( final String pattern : List.of( "(a+)+b", "(a|aa)*b", "(?:a*)*b", "^(\\w+\\s?)*$" ) ) {
+         final RegularExpression expression = RegularExpression.compile( pattern );
+         assertThat( expression.isLinear() ).isTrue();
+         assertThat( expression.matches( input ) ).isFalse();
+         assertThat( expression.find( input ) ).isEmpty();
+      }
+   }
+
+   @Test
+   public void testCompiledExpressionsAreCached() {
+      assertThat( RegularExpression.compile( "(\\d+)-(\\d+)" ) ).isSameAs( RegularExpression.compile( "(\\d+)-(\\d+)" ) );
+   }
+
+   @Test
+   public void testMatchGroups() {
+      final RegularExpression.Match match = RegularExpression.compile( "(\\d{4})-(\\d{2})-(\\d{2})(T.*)?" ).find( "on 2023-04-01" )
+            .orElseThrow();
+      assertThat( match.start() ).isEqualTo( 3 );
+      assertThat( match.end() ).isEqualTo( 13 );
+      assertThat( match.groupCount() ).isEqualTo( 4 );
+      assertThat( match.group( 1 ) ).isEqualTo( "2023" );
+      assertThat( match.group( 3 ) ).isEqualTo( "01" );
+      assertThat( match.group( 4 ) ).isNull();
+   }
+
+   private static void assertEquivalent( final RegularExpression expression, final Pattern reference, final String input ) {
+      final String description = "/" + expression.pattern() + "/ on \"" + input + "\"";
+      final Matcher matcher = reference.matcher( input );
+      assertThat( expression.matches( input ) ).as( description ).isEqualTo( matcher.matches() );
+      final Optional<RegularExpression.Match> match = expression.find( input );
+      matcher.reset();
+      assertThat( match.isPresent() ).as( description ).isEqualTo( matcher.find() );
+      if ( match.isEmpty() ) {
+         return;
+      }
+      assertThat( match.get().start() ).as( description ).isEqualTo( matcher.start() );
+      assertThat( match.get().end() ).as( description ).isEqualTo( matcher.end() );
+      assertThat( match.get().groupCount() ).as( description ).isEqualTo( matcher.groupCount() );
+      for ( int group = 1; group <= matcher.groupCount(); group++ ) {
+         assertThat( match.get().group( group ) ).as( description + " group " + group ).isEqualTo( matcher.group( group ) );
+      }
+   }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.shapes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.XSD;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.topbraid.shacl.validation.ValidationUtil;
+import org.topbraid.shacl.vocabulary.SH;
+
+import org.eclipse.esmf.samm.AbstractShapeTest;
+import org.eclipse.esmf.samm.KnownVersion;
+import org.eclipse.esmf.samm.validation.ModelLoader;
+import org.eclipse.esmf.samm.validation.Validator;
+
+/**
+ * Verifies that the compiled shapes together with the residual shapes yield exactly the same validation results as the
+ * original shapes, for all test models
+ */
+public class ShapesCompilerTest extends AbstractShapeTest {
+   private static final Validator shapesLoader = new Validator();
+   private static final Map<KnownVersion, Model> shapes = new HashMap<>();
+   private static final Map<KnownVersion, CompiledShapes> compiledShapes = new HashMap<>();
+
+   @ParameterizedTest( name = "[{index}] {0} {1}" )
+   @MethodSource( "testModels" )
+   public void testCompiledShapesAreEquivalent( final KnownVersion version, final Path testModel ) throws IOException {
+      final Model model;
+      try ( final FileInputStream input = new FileInputStream( testModel.toFile() ) ) {
+         model = ModelLoader.createModel( input );
+      }
+      model.add( getMetaModel( version ) );
+      final CompiledShapes compiled = compiledShapes( version );
+
+      final List<String> expectedResults = engineResults( model, shapes.get( version ) );
+      final List<String> actualResults = new ArrayList<>( engineResults( model, compiled.getResidualShapes() ) );
+      compiled.validate( model ).stream()
+            .map( result -> String.join( "|", result.getResultMessage(), label( result.getFocusNode() ),
+                  result.getResultPath().map( ShapesCompilerTest::label ).orElse( "" ), result.getResultSeverity().toString(),
+                  result.getValue().map( ShapesCompilerTest::label ).orElse( "" ), result.getSourceConstraintComponent().toString() ) )
+            .forEach( actualResults::add );
+
+      assertThat( actualResults ).containsExactlyInAnyOrderElementsOf( expectedResults );
+   }
+
+   @ParameterizedTest
+   @MethodSource( "versions" )
+   public void testCoreConstraintsAreCompiled( final KnownVersion version ) {
+      final CompiledShapes compiled = compiledShapes( version );
+      final Model residualShapes = compiled.getResidualShapes();
+      assertThat( compiled.getCompiledConstraints() ).isGreaterThan( 50 );
+      for ( final Property parameter : List.of( SH.minCount, SH.maxCount, SH.datatype, SH.class_ ) ) {
+         assertThat( residualShapes.listStatements( null, parameter, (RDFNode) null ).toList() )
+               .hasSizeLessThan( shapes.get( version ).listStatements( null, parameter, (RDFNode) null ).toList().size() );
+      }
+      // The SPARQL-based constraints and targets remain, except for those of the shapes that have a Java implementation
+      final Model originalShapes = shapes.get( version );
+      final List<Resource> javaShapes = javaShapes( version, originalShapes );
+      final int javaConstraints = javaShapes.stream()
+            .mapToInt( shape -> originalShapes.listStatements( shape, SH.sparql, (RDFNode) null ).toList().size() ).sum();
+      assertThat( residualShapes.listStatements( null, SH.sparql, (RDFNode) null ).toList() )
+            .hasSize( originalShapes.listStatements( null, SH.sparql, (RDFNode) null ).toList().size() - javaConstraints );
+      assertThat( residualShapes.listStatements( null, SH.target, (RDFNode) null ).toList() )
+            .hasSize( originalShapes.listStatements( null, SH.target, (RDFNode) null ).toList().size() - javaShapes.size() );
+   }
+
+   @ParameterizedTest
+   @MethodSource( "versions" )
+   public void testEntityInstanceShapesAreCompiled( final KnownVersion version ) {
+      final Model residualShapes = compiledShapes( version ).getResidualShapes();
+      for ( final Resource shape : javaShapes( version, residualShapes ) ) {
+         assertThat( residualShapes.listStatements( shape, null, (RDFNode) null ).toList() ).isEmpty();
+         assertThat( residualShapes.listStatements( null, null, shape ).toList() ).isEmpty();
+      }
+   }
+
+   @ParameterizedTest
+   @MethodSource( "versions" )
+   public void testStructuredValueConstructionIsCompiled( final KnownVersion version ) {
+      final Model residualShapes = compiledShapes( version ).getResidualShapes();
+      final List<String> functionNames = residualShapes.listObjectsOfProperty( SH.jsFunctionName ).toList().stream()
+            .map( functionName -> functionName.asLiteral().getString() )
+            .collect( Collectors.toList() );
+      assertThat( functionNames ).doesNotContain( "testStructuredValueConstruction" ).contains( "isValidRegularExpression" );
+      assertThat( residualShapes.listSubjectsWithProperty( SH.js ).toList() ).noneMatch( shape ->
+            shape.getPropertyResourceValue( SH.targetClass ) != null
+                  && shape.getPropertyResourceValue( SH.targetClass ).getLocalName().equals( "StructuredValue" ) );
+   }
+
+   @ParameterizedTest
+   @MethodSource( "versions" )
+   @Timeout( 60 )
+   public void testUniqueEntityInstancesOfLargeEnumeration( final KnownVersion version ) {
+      final String samm = String.format( "urn:samm:org.eclipse.esmf.samm:meta-model:%s#", version.toVersionString() );
+      final String test = "urn:samm:org.eclipse.esmf.samm.test:1.0.0#";
+      final Model model = ModelFactory.createDefaultModel();
+      final Resource entity = model.createResource( test + "Entity", model.createResource( samm + "Entity" ) );
+      final Property code = model.createProperty( test + "code" );
+      final Property name = model.createProperty( test + "name" );
+      for ( int i = 0; i < 50_000; i++ ) {
+         model.createResource( test + "Instance" + i, entity ).addLiteral( code, i ).addProperty( name, "Instance " + i % 1000 );
+      }
+      model.createResource( test + "Duplicate", entity ).addLiteral( code, 42 ).addProperty( name, "Instance 42" );
+
+      final List<ValidationResult> results = compiledShapes( version ).validate( model ).stream()
+            .filter( result -> result.getSourceShape().getLocalName().equals( UniqueEntityInstances.SHAPE_NAME ) )
+            .collect( Collectors.toList() );
+      assertThat( results ).hasSize( 1 );
+      assertThat( results.get( 0 ).getFocusNode().asResource().getLocalName() ).isEqualTo( "Duplicate" );
+      assertThat( results.get( 0 ).getValue().map( value -> value.asResource().getLocalName() ) ).contains( "Instance42" );
+   }
+
+   @ParameterizedTest
+   @MethodSource( "versions" )
+   @Timeout( 60 )
+   public void testValidEntityInstancesOfLargeEnumeration( final KnownVersion version ) {
+      final String samm = String.format( "urn:samm:org.eclipse.esmf.samm:meta-model:%s#", version.toVersionString() );
+      final String test = "urn:samm:org.eclipse.esmf.samm.test:1.0.0#";
+      final Model model = ModelFactory.createDefaultModel();
+      final Resource characteristic = model.createResource( test + "Characteristic", model.createResource( samm + "Characteristic" ) )
+            .addProperty( model.createProperty( samm + "dataType" ), model.createResource( XSD.integer.getURI() ) );
+      final Property code = model.createProperty( test + "code" );
+      model.createResource( code.getURI(), model.createResource( samm + "Property" ) )
+            .addProperty( model.createProperty( samm + "characteristic" ), characteristic );
+      final Resource entity = model.createResource( test + "Entity", model.createResource( samm + "Entity" ) )
+            .addProperty( model.createProperty( samm + "properties" ), model.createList( code ) );
+      for ( int i = 0; i < 100_000; i++ ) {
+         model.createResource( test + "Instance" + i, entity ).addLiteral( code, model.createTypedLiteral( BigInteger.valueOf( i ) ) );
+      }
+      model.createResource( test + "Missing", entity );
+      model.createResource( test + "WrongDataType", entity ).addProperty( code, "42" );
+      model.createResource( test + "Unknown", entity ).addLiteral( code, model.createTypedLiteral( BigInteger.ONE ) )
+            .addProperty( model.createProperty( test + "name" ), "name" );
+
+      final List<String> results = compiledShapes( version ).validate( model ).stream()
+            .filter( result -> List.of( EntityInstanceConstraint.VALID_ENTITY_INSTANCES, EntityInstanceConstraint.ONLY_KNOWN_PROPERTIES )
+                  .contains( result.getSourceShape().getLocalName() ) )
+            .map( result -> result.getFocusNode().asResource().getLocalName() )
+            .collect( Collectors.toList() );
+      assertThat( results ).containsExactlyInAnyOrder( "Missing", "WrongDataType", "Unknown" );
+   }
+
+   /**
+    * @return the meta model shapes with SPARQL-based targets and constraints that have a Java implementation
+    */
+   private static List<Resource> javaShapes( final KnownVersion version, final Model shapesModel ) {
+      return Stream.of( UniqueEntityInstances.SHAPE_NAME, EntityInstanceConstraint.VALID_ENTITY_INSTANCES,
+                  EntityInstanceConstraint.ONLY_KNOWN_PROPERTIES )
+            .map( name -> shapesModel.createResource( String.format( "urn:samm:org.eclipse.esmf.samm:meta-model:%s#%s",
+                  version.toVersionString(), name ) ) )
+            .collect( Collectors.toList() );
+   }
+
+   private static synchronized CompiledShapes compiledShapes( final KnownVersion version ) {
+      return compiledShapes.computeIfAbsent( version, v -> ShapesCompiler.compile(
+            shapes.computeIfAbsent( v, shapesLoader::loadShapes ) ) );
+   }
+
+   private static List<String> engineResults( final Model model, final Model shapesModel ) {
+      final Resource report = ValidationUtil.validateModel( model, shapesModel, true );
+      return report.listProperties( SH.result ).toList().stream()
+            .map( Statement::getResource )
+            .map( result -> String.join( "|", field( result, SH.resultMessage, true ), field( result, SH.focusNode, false ),
+                  field( result, SH.resultPath, false ), field( result, SH.resultSeverity, false ), field( result, SH.value, false ),
+                  field( result, SH.sourceConstraintComponent, false ) ) )
+            .collect( Collectors.toList() );
+   }
+
+   private static String field( final Resource result, final Property property, final boolean lexicalForm ) {
+      return Optional.ofNullable( result.getProperty( property ) )
+            .map( Statement::getObject )
+            .map( value -> lexicalForm ? value.asLiteral().getLexicalForm() : label( value ) )
+            .orElse( "" );
+   }
+
+   /**
+    * The SHACL engine copies the data graph and the shapes graph, so blank nodes (e.g. sequence paths or list cells) are
+    * not compared by their label
+    */
+   private static String label( final RDFNode node ) {
+      return node.isAnon() ? "[]" : node.toString();
+   }
+
+   static Stream<KnownVersion> versions() {
+      return allVersions();
+   }
+
+   static Stream<Arguments> testModels() throws IOException, URISyntaxException {
+      final List<Arguments> testModels = new ArrayList<>();
+      for ( final KnownVersion version : allVersions().collect( Collectors.toList() ) ) {
+         final Path root = Paths.get( ShapesCompilerTest.class.getClassLoader()
+               .getResource( version.toString().toLowerCase() ).toURI() );
+         try ( final Stream<Path> paths = Files.walk( root ) ) {
+            paths.filter( path -> path.toString().endsWith( ".ttl" ) ).sorted()
+                  .forEach( path -> testModels.add( Arguments.of( version, path ) ) );
+         }
+      }
+      return testModels.stream();
+   }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2023 Robert Bosch Manufacturing Solutions GmbH
+ *
+ * See the AUTHORS file(s) distributed with this work for additional
+ * information regarding authorship.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ *
+ * SPDX-License-Identifier: MPL-2.0
+ */
+
+package org.eclipse.esmf.samm.unit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.stream.Stream;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.eclipse.esmf.samm.KnownVersion;
+import org.eclipse.esmf.samm.validation.ModelLoader;
+
+public class UnitCatalogTest {
+   protected static Stream<KnownVersion> allVersions() {
+      return KnownVersion.getVersions().stream();
+   }
+
+   @ParameterizedTest
+   @MethodSource( value = "allVersions" )
+   public void testCatalogContainsAllUnitsFromUnitsTtl( final KnownVersion metaModelVersion ) {
+      final String version = metaModelVersion.toVersionString();
+      final Model units = ModelLoader.createModel( "samm/unit/" + version + "/units.ttl" );
+      final String vocabularyNamespace = metaModelVersion == KnownVersion.SAMM_1_0_0
+            ? "urn:samm:org.eclipse.esmf.samm:unit:1.0.0#"
+            : "urn:samm:org.eclipse.esmf.samm:meta-model:" + version + "#";
+      final long numberOfUnits = units.listSubjectsWithProperty( RDF.type,
+            ResourceFactory.createResource( vocabularyNamespace + "Unit" ) ).toList().size();
+      final long numberOfQuantityKinds = units.listSubjectsWithProperty( RDF.type,
+            ResourceFactory.createResource( vocabularyNamespace + "QuantityKind" ) ).toList().size();
+
+      final UnitCatalog catalog = UnitCatalog.forVersion( metaModelVersion );
+      assertThat( catalog.getVersion() ).isEqualTo( metaModelVersion );
+      assertThat( catalog.getUnits() ).hasSize( (int) numberOfUnits );
+      assertThat( catalog.getQuantityKinds() ).hasSize( (int) numberOfQuantityKinds );
+   }
+
+   @ParameterizedTest
+   @MethodSource( value = "allVersions" )
+   public void testLookupUnit( final KnownVersion metaModelVersion ) {
+      final UnitCatalog catalog = UnitCatalog.forVersion( metaModelVersion );
+      final Unit kilometre = catalog.fromName( "kilometre" ).orElseThrow();
+      assertThat( kilometre.getUrn() ).isEqualTo( "urn:samm:org.eclipse.esmf.samm:unit:" + metaModelVersion.toVersionString() + "#kilometre" );
+      assertThat( kilometre.getPreferredName() ).isEqualTo( "kilometre" );
+      assertThat( kilometre.getCommonCode() ).contains( "KMT" );
+      assertThat( kilometre.getSymbol() ).contains( "km" );
+      assertThat( kilometre.getNumericConversionFactor() ).hasValue( 1000.0 );
+      assertThat( kilometre.getReferenceUnit().map( Unit::getName ) ).contains( "metre" );
+      assertThat( kilometre.getQuantityKinds() ).extracting( QuantityKind::getName ).contains( "length", "distance" );
+
+      assertThat( catalog.fromName( kilometre.getUrn() ) ).containsSame( kilometre );
+      assertThat( catalog.fromCommonCode( "KMT" ) ).containsSame( kilometre );
+      assertThat( catalog.getUnitsWithSymbol( "km" ) ).contains( kilometre );
+      assertThat( catalog.fromName( "doesNotExist" ) ).isEmpty();
+   }
+
+   @Test
+   public void testUnitWithoutReferenceUnit() {
+      final UnitCatalog catalog = UnitCatalog.forVersion( KnownVersion.getLatest() );
+      final Unit metre = catalog.fromName( "metre" ).orElseThrow();
+      assertThat( metre.getReferenceUnit() ).isEmpty();
+      assertThat( metre.getNumericConversionFactor() ).isEmpty();
+      assertThat( catalog.fromName( "exabyte" ).flatMap( Unit::getCommonCode ) ).isEmpty();
+      assertThat( catalog.quantityKindFromName( "length" ).map( QuantityKind::getPreferredName ) ).contains( "length" );
+   }
+
+   @ParameterizedTest
+   @MethodSource( value = "allVersions" )
+   public void testConversionToBaseUnit( final KnownVersion metaModelVersion ) {
+      final UnitCatalog catalog = UnitCatalog.forVersion( metaModelVersion );
+      final Unit metre = catalog.fromName( "metre" ).orElseThrow();
+      final Unit kilometre = catalog.fromName( "kilometre" ).orElseThrow();
+      final Unit millimetre = catalog.fromName( "millimetre" ).orElseThrow();
+      final Unit second = catalog.fromName( "secondUnitOfTime" ).orElseThrow();
+
+      assertThat( metre.getBaseUnit() ).containsSame( metre );
+      assertThat( metre.getFactorToBaseUnit() ).hasValue( 1.0 );
+      assertThat( kilometre.getBaseUnit() ).containsSame( metre );
+      assertThat( kilometre.getFactorToBaseUnit() ).hasValue( 1000.0 );
+      assertThat( kilometre.getConversionFactorTo( millimetre ).getAsDouble() ).isCloseTo( 1.0E6, within( 1.0E-6 ) );
+      assertThat( metre.getConversionFactorTo( kilometre ).getAsDouble() ).isCloseTo( 1.0E-3, within( 1.0E-12 ) );
+      assertThat( kilometre.getConversionFactorTo( second ) ).isEmpty();
+   }
+}
@@ -49,6 +49,19 @@ import io.vavr.Tuple2;
 
 public class Validator implements BiFunction<Model, KnownVersion, ValidationReport> {
    private final Map<KnownVersion, Model> shapesModel = new HashMap<>();
+   private final boolean optimizedShapes;
+
+   public Validator() {
+      this( false );
+   }
+
+   /**
+    * @param optimizedShapes if true, the optimized shapes generated by the build (aspect-meta-model-shapes-optimized.ttl
+    *       and characteristic-shapes-optimized.ttl) are used instead of the source shapes
+    */
+   public Validator( final boolean optimizedShapes ) {
+      this.optimizedShapes = optimizedShapes;
+   }
 
    protected Model getShapesModel( final KnownVersion version ) {
       if ( shapesModel.get( version ) != null ) {
@@ -93,11 +106,12 @@ public class Validator implements BiFunction<Model, KnownVersion, ValidationRepo
    }
 
    public Model loadShapes( final KnownVersion version ) {
+      final String suffix = optimizedShapes ? "-optimized" : "";
       final Model shapesModel = ModelLoader.createModel( List.of(
             "samm/meta-model/" + version.toVersionString() + "/prefix-declarations.ttl",
-            "samm/meta-model/" + version.toVersionString() + "/aspect-meta-model-shapes.ttl",
+            "samm/meta-model/" + version.toVersionString() + "/aspect-meta-model-shapes" + suffix + ".ttl",
             "samm/meta-model/" + version.toVersionString() + "/type-conversions.ttl",
-            "samm/characteristic/" + version.toVersionString() + "/characteristic-shapes.ttl"
+            "samm/characteristic/" + version.toVersionString() + "/characteristic-shapes" + suffix + ".ttl"
       ) );
       final Set<Tuple2<Statement, Statement>> changeSet = determineSammUrlsToReplace( shapesModel );
       changeSet.forEach( urlReplacement -> {